@@ -5,7 +5,12 @@ import com.fasterxml.jackson.databind.ObjectReader;
 import edu.hm.cs.bess.streamsim.sim.StreamSimulator;
 import edu.hm.cs.bess.streamsim.sim.config.CellDescriptor;
 import edu.hm.cs.bess.streamsim.sim.config.SimConfig;
+import edu.hm.cs.bess.streamsim.sim.logic.move.PotentialFieldCache;
+import edu.hm.cs.bess.streamsim.sim.logic.move.PotentialFieldStore;
 import edu.hm.cs.bess.streamsim.sim.model.state.State;
+import edu.hm.cs.bess.streamsim.sim.scheduler.Scheduler;
+import edu.hm.cs.bess.streamsim.sim.scheduler.Schedulers;
+import edu.hm.cs.bess.streamsim.sim.scheduler.exception.EventExecutionException;
 import picocli.CommandLine;
 
 import java.io.File;
@@ -13,7 +18,9 @@ import java.io.IOException;
 import java.util.Random;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -127,6 +134,24 @@ public class App implements Callable<Integer> {
     @CommandLine.Option(names = {"--log-simulation-time-change-delay"}, description = "The delay specifies how much time is waited until logging the current simulation time again")
     private double logSimulationTimeChangeDelay = 1;
 
+    /**
+     * Name of the scheduler to process the simulation events with.
+     */
+    @CommandLine.Option(names = {"--scheduler"}, description = "Name of the scheduler to process the simulation events with (e. g. 'Binary heap' or 'Calendar queue')")
+    private String schedulerName;
+
+    /**
+     * Memory budget of the potentials shared between sources and runs in megabytes.
+     */
+    @CommandLine.Option(names = {"--potential-cache-size"}, description = "Memory budget in megabytes of the potentials shared between sources and runs (0 disables sharing)")
+    private long potentialCacheSize = PotentialFieldCache.DEFAULT_MEMORY_BUDGET / (1024 * 1024);
+
+    /**
+     * Directory to persist potentials in across launches (or null).
+     */
+    @CommandLine.Option(names = {"--potential-store"}, description = "Directory to persist the calculated potentials in and load them from in later launches")
+    private File potentialStoreFolder;
+
     public static void main(String[] args) {
         int exitCode = new CommandLine(new App()).execute(args);
         System.exit(exitCode);
@@ -136,9 +161,14 @@ public class App implements Callable<Integer> {
     public Integer call() throws Exception {
         SimConfig config = loadConfig();
 
+        PotentialFieldCache.shared().setMemoryBudget(potentialCacheSize * 1024 * 1024);
+        if (potentialStoreFolder != null) {
+            PotentialFieldCache.shared().setStore(new PotentialFieldStore(potentialStoreFolder.toPath()));
+        }
+
         Random rng = new Random();
 
-        for (int run = 1; run <= runs; run++) {
+        for (int run = 1; run <= runs && !Thread.currentThread().isInterrupted(); run++) {
             LOGGER.log(Level.INFO, String.format("Starting simulation run %d of %d", run, runs));
 
             long seed = autoSeed
@@ -181,14 +211,12 @@ public class App implements Callable<Integer> {
      * @param run    the simulation run
      */
     private void run(SimConfig config, long seed, int run) {
-        StreamSimulator simulator = new StreamSimulator(buildState(config), seed, enableLogging, logFolder, String.format("%s%d", logFilePrefix, run));
+        StreamSimulator simulator = new StreamSimulator(buildState(config), seed, enableLogging, logFolder, String.format("%s%d", logFilePrefix, run), createScheduler());
         simulator.setTimeUnitInMillis(delay);
         simulator.setStatisticsUpdateDebounceDelay(statisticsLoggingDebounceDelay);
         simulator.setStatisticsCellsPerMeter(cellsPerMeter);
         simulator.setStatisticsMeanSpeedWindowSize(meanSpeedWindowSize);
 
-        CyclicBarrier endBarrier = new CyclicBarrier(2);
-
         simulator.addLifeCycleEventListener(new StreamSimulator.SimulationLifeCycleEventListener() {
 
             /**
@@ -204,6 +232,115 @@ public class App implements Callable<Integer> {
             @Override
             public void onEnd() {
                 LOGGER.log(Level.INFO, "[Simulation Lifecycle Change]: FINISHED");
+            }
+
+            @Override
+            public void onPause() {
+                LOGGER.log(Level.INFO, "[Simulation Lifecycle Change]: PAUSED");
+            }
+
+            @Override
+            public void onContinue() {
+                LOGGER.log(Level.INFO, "[Simulation Lifecycle Change]: CONTINUED");
+            }
+
+            @Override
+            public void onReset() {
+                LOGGER.log(Level.INFO, "[Simulation Lifecycle Change]: RESET");
+            }
+
+            @Override
+            public void onTimeChange(double time) {
+                if (lastSimulationTimeChangeLogged == -1 || time - lastSimulationTimeChangeLogged >= logSimulationTimeChangeDelay) {
+                    lastSimulationTimeChangeLogged = time;
+                    LOGGER.log(Level.INFO, String.format("[Simulation Lifecycle Change]: SIMULATION TIME = %f", time));
+                }
+            }
+
+        });
+
+        simulator.addStatisticsChangeListener((peopleCount, density, meanSpeed, flow) ->
+                LOGGER.log(Level.INFO, String.format("[CURRENT STATS] People count = %d, density = %f, meanSpeed = %f, flow = %f", peopleCount, density, meanSpeed, flow)));
+
+        if (delay == 0) {
+            runHeadless(simulator);
+        } else {
+            runScheduled(simulator);
+            saveLogs(simulator);
+        }
+
+        LOGGER.log(Level.INFO, "Terminated simulation run");
+    }
+
+    /**
+     * Save the logs of the passed simulator.
+     *
+     * @param simulator to save logs of
+     */
+    private void saveLogs(StreamSimulator simulator) {
+        LOGGER.log(Level.INFO, "Saving logs...");
+        simulator.saveLogs();
+    }
+
+    /**
+     * Run the passed simulator as fast as possible on the current thread.
+     * On shutdown (for example Ctrl-C) the run is interrupted and the simulator terminated and its logs saved
+     * on the current thread, while the shutdown hook waits for that to finish.
+     *
+     * @param simulator to run
+     */
+    private void runHeadless(StreamSimulator simulator) {
+        Thread runThread = Thread.currentThread();
+        CountDownLatch finished = new CountDownLatch(1);
+        Thread shutdownHookThread = new Thread(() -> {
+            runThread.interrupt();
+            try {
+                finished.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Runtime.getRuntime().addShutdownHook(shutdownHookThread);
+
+        try {
+            StreamSimulator.StopReason reason = simulator.runUntil(
+                    maxSimulationTime > 0 ? maxSimulationTime : Double.POSITIVE_INFINITY,
+                    (time, peopleCount, density, meanSpeed, flow) -> reachedStopCondition(peopleCount, density)
+            );
+
+            if (reason == StreamSimulator.StopReason.MAX_TIME) {
+                LOGGER.log(Level.INFO, String.format("Simulation reached the specified maximum simulation time of %f -> Exiting...", maxSimulationTime));
+            } else if (reason == StreamSimulator.StopReason.INTERRUPTED) {
+                LOGGER.log(Level.INFO, "Simulation run has been interrupted -> Exiting...");
+            }
+
+            simulator.terminate(); // Logs the final statistics
+        } catch (EventExecutionException e) {
+            LOGGER.log(Level.SEVERE, "Simulation run failed", e);
+        } finally {
+            saveLogs(simulator);
+            finished.countDown();
+
+            removeShutdownHook(shutdownHookThread);
+        }
+    }
+
+    /**
+     * Run the passed simulator in real time (using the set delay) on the simulators executor.
+     *
+     * @param simulator to run
+     */
+    private void runScheduled(StreamSimulator simulator) {
+        CyclicBarrier endBarrier = new CyclicBarrier(2);
+        AtomicBoolean terminated = new AtomicBoolean(false);
+
+        simulator.addLifeCycleEventListener(new StreamSimulator.SimulationLifeCycleEventListener() {
+            @Override
+            public void onStart() {
+            }
+
+            @Override
+            public void onEnd() {
                 try {
                     endBarrier.await();
                 } catch (InterruptedException | BrokenBarrierException e) {
@@ -213,17 +350,14 @@ public class App implements Callable<Integer> {
 
             @Override
             public void onPause() {
-                LOGGER.log(Level.INFO, "[Simulation Lifecycle Change]: PAUSED");
             }
 
             @Override
             public void onContinue() {
-                LOGGER.log(Level.INFO, "[Simulation Lifecycle Change]: CONTINUED");
             }
 
             @Override
             public void onReset() {
-                LOGGER.log(Level.INFO, "[Simulation Lifecycle Change]: RESET");
                 try {
                     endBarrier.await();
                 } catch (InterruptedException | BrokenBarrierException e) {
@@ -233,29 +367,15 @@ public class App implements Callable<Integer> {
 
             @Override
             public void onTimeChange(double time) {
-                if (lastSimulationTimeChangeLogged == -1 || time - lastSimulationTimeChangeLogged >= logSimulationTimeChangeDelay) {
-                    lastSimulationTimeChangeLogged = time;
-                    LOGGER.log(Level.INFO, String.format("[Simulation Lifecycle Change]: SIMULATION TIME = %f", time));
-                }
-
-                if (maxSimulationTime > 0 && time >= maxSimulationTime) {
+                if (maxSimulationTime > 0 && time >= maxSimulationTime && terminated.compareAndSet(false, true)) {
                     LOGGER.log(Level.INFO, String.format("Simulation reached the specified maximum simulation time of %f -> Exiting...", maxSimulationTime));
                     simulator.terminate();
                 }
             }
-
         });
 
         simulator.addStatisticsChangeListener((peopleCount, density, meanSpeed, flow) -> {
-            LOGGER.log(Level.INFO, String.format("[CURRENT STATS] People count = %d, density = %f, meanSpeed = %f, flow = %f", peopleCount, density, meanSpeed, flow));
-
-            if (maxPeople > 0 && peopleCount >= maxPeople) {
-                LOGGER.log(Level.INFO, String.format("Simulation reached the specified maximum people count of %d -> Exiting...", maxPeople));
-                simulator.terminate();
-            }
-
-            if (maxDensity > 0 && density >= maxDensity) {
-                LOGGER.log(Level.INFO, String.format("Simulation reached the specified maximum density of %f -> Exiting...", maxDensity));
+            if (!terminated.get() && reachedStopCondition(peopleCount, density) && terminated.compareAndSet(false, true)) {
                 simulator.terminate();
             }
         });
@@ -271,12 +391,59 @@ public class App implements Callable<Integer> {
             // Not too bad ;)
         }
 
-        Runtime.getRuntime().removeShutdownHook(shutdownHookThread);
+        removeShutdownHook(shutdownHookThread);
+    }
 
-        LOGGER.log(Level.INFO, "Saving logs...");
-        simulator.saveLogs();
+    /**
+     * Remove the passed shutdown hook unless the JVM is already shutting down.
+     *
+     * @param shutdownHookThread to remove
+     */
+    private static void removeShutdownHook(Thread shutdownHookThread) {
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHookThread);
+        } catch (IllegalStateException e) {
+            // Shutdown in progress -> the hook is running or has already run
+        }
+    }
 
-        LOGGER.log(Level.INFO, "Terminated simulation run");
+    /**
+     * Check whether the passed statistics reached one of the configured maximums to early exit the simulation.
+     *
+     * @param peopleCount current count of people
+     * @param density     current density
+     * @return whether to exit the simulation
+     */
+    private boolean reachedStopCondition(int peopleCount, double density) {
+        if (maxPeople > 0 && peopleCount >= maxPeople) {
+            LOGGER.log(Level.INFO, String.format("Simulation reached the specified maximum people count of %d -> Exiting...", maxPeople));
+            return true;
+        }
+
+        if (maxDensity > 0 && density >= maxDensity) {
+            LOGGER.log(Level.INFO, String.format("Simulation reached the specified maximum density of %f -> Exiting...", maxDensity));
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Create the scheduler to use for a simulation run.
+     *
+     * @return scheduler
+     */
+    private Scheduler createScheduler() {
+        if (schedulerName == null) {
+            return Schedulers.DEFAULT.get();
+        }
+
+        var supplier = Schedulers.LOOKUP.get(schedulerName);
+        if (supplier == null) {
+            throw new IllegalArgumentException(String.format("Unknown scheduler '%s', available schedulers are %s", schedulerName, Schedulers.LOOKUP.keySet()));
+        }
+
+        return supplier.get();
     }
 
     /**
@@ -0,0 +1,134 @@
+package edu.hm.cs.bess.streamsim.sim.logic.move;
+
+import edu.hm.cs.bess.streamsim.sim.config.MollifierConfiguration;
+import edu.hm.cs.bess.streamsim.sim.config.TargetConfiguration;
+import edu.hm.cs.bess.streamsim.sim.logic.consume.RemoveConsumeStrategy;
+import edu.hm.cs.bess.streamsim.sim.model.misc.Location;
+import edu.hm.cs.bess.streamsim.sim.model.object.person.Person;
+import edu.hm.cs.bess.streamsim.sim.model.object.target.Target;
+import edu.hm.cs.bess.streamsim.sim.model.state.State;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of a single movement decision in a crowded simulation world,
+ * comparing the list based {@link DefaultMovementStrategy#chooseNextLocations(Person, State, Random)}
+ * with the allocation-free {@link DefaultMovementStrategy#chooseNextLocation(Person, State, Random)}.
+ * <p>
+ * Run with {@code gradlew :sim:jmh} (the GC profiler reports the allocated bytes per operation as gc.alloc.rate.norm).
+ *
+ * @author Benjamin Eder
+ */
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MoveDecisionBenchmark {
+
+    /**
+     * Size (rows and columns) of the simulation world.
+     */
+    private static final int SIZE = 100;
+
+    /**
+     * Radius in which to respect other people (0 disables the mollifier).
+     */
+    @Param({"0", "3"})
+    public int radius;
+
+    /**
+     * Fraction of the cells occupied by people.
+     */
+    @Param({"0.3"})
+    public double density;
+
+    /**
+     * Strategy to benchmark.
+     */
+    private DefaultMovementStrategy strategy;
+
+    /**
+     * Simulation world state.
+     */
+    private State state;
+
+    /**
+     * People to decide the next move for (in turn).
+     */
+    private Person[] people;
+
+    /**
+     * Index of the next person to decide for.
+     */
+    private int nextPerson;
+
+    /**
+     * Random number generator used by the decisions.
+     */
+    private Random rng;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random placementRng = new Random(0);
+
+        state = new State(SIZE, SIZE);
+        Location targetLocation = new Location(SIZE - 1, SIZE - 1);
+        state.setCellOccupant(new Target(targetLocation, new TargetConfiguration(new RemoveConsumeStrategy())), targetLocation);
+
+        List<Person> placed = new ArrayList<>();
+        for (int i = 0; i < SIZE * SIZE * density; i++) {
+            Location location = new Location(placementRng.nextInt(SIZE - 1), placementRng.nextInt(SIZE - 1));
+            if (state.isCellFree(location)) {
+                Person person = new Person(new Location(0, 0), targetLocation, location, 1.0, 0.0, 3);
+                state.setCellOccupant(person, location);
+                placed.add(person);
+            }
+        }
+        people = placed.toArray(new Person[0]);
+
+        strategy = new EuclideanMoveStrategy(
+                new MollifierConfiguration(MollifierConfiguration.DEFAULT_RANGE, MollifierConfiguration.DEFAULT_STRENGTH),
+                radius
+        );
+        strategy.init(state, new Random(0));
+
+        rng = new Random(1);
+    }
+
+    /**
+     * Get the next person to decide for.
+     *
+     * @return person
+     */
+    private Person nextPerson() {
+        Person person = people[nextPerson++];
+        if (nextPerson == people.length) {
+            nextPerson = 0;
+        }
+
+        return person;
+    }
+
+    @Benchmark
+    public int chooseNextLocations() {
+        Person person = nextPerson();
+
+        List<Location> possibleMoveLocations = strategy.chooseNextLocations(person, state, rng);
+        if (possibleMoveLocations.isEmpty()) {
+            return MoveStrategy.NO_MOVE;
+        }
+
+        return state.indexOf(possibleMoveLocations.size() == 1
+                ? possibleMoveLocations.get(0)
+                : possibleMoveLocations.get(rng.nextInt(possibleMoveLocations.size())));
+    }
+
+    @Benchmark
+    public int chooseNextLocation() {
+        return strategy.chooseNextLocation(nextPerson(), state, rng);
+    }
+
+}
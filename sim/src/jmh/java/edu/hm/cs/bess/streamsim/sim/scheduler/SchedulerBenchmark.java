@@ -0,0 +1,87 @@
+package edu.hm.cs.bess.streamsim.sim.scheduler;
+
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.EventKind;
+import edu.hm.cs.bess.streamsim.sim.scheduler.exception.EventExecutionException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark comparing the available schedulers using the classic "hold" model:
+ * A constant amount of typed events is pending and every processed event schedules a new one
+ * (like a person moving again and again).
+ * <p>
+ * Run with {@code gradlew :sim:jmh}.
+ *
+ * @author Benjamin Eder
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SchedulerBenchmark {
+
+    /**
+     * Amount of precomputed time increments (power of two).
+     */
+    private static final int INCREMENT_COUNT = 1 << 16;
+
+    /**
+     * Name of the scheduler to benchmark (see {@link Schedulers#LOOKUP}).
+     */
+    @Param({EventDrivenScheduler.NAME, CalendarQueueScheduler.NAME})
+    public String schedulerName;
+
+    /**
+     * Amount of pending events (e. g. people in the simulation world).
+     */
+    @Param({"1000", "50000"})
+    public int pendingEvents;
+
+    /**
+     * Scheduler to benchmark.
+     */
+    private Scheduler scheduler;
+
+    /**
+     * Precomputed exponentially distributed time increments.
+     */
+    private double[] increments;
+
+    /**
+     * Index of the next increment to use.
+     */
+    private int nextIncrement;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random rng = new Random(0);
+
+        increments = new double[INCREMENT_COUNT];
+        for (int i = 0; i < INCREMENT_COUNT; i++) {
+            increments[i] = -Math.log(1 - rng.nextDouble());
+        }
+
+        scheduler = Schedulers.LOOKUP.get(schedulerName).get();
+        scheduler.setEventDispatcher((kind, payload) -> scheduler.scheduleIn(kind, payload, nextIncrement()));
+
+        for (int i = 0; i < pendingEvents; i++) {
+            scheduler.scheduleIn(EventKind.MOVE, i, nextIncrement());
+        }
+    }
+
+    /**
+     * Get the next time increment.
+     *
+     * @return time increment
+     */
+    private double nextIncrement() {
+        return increments[nextIncrement++ & (INCREMENT_COUNT - 1)];
+    }
+
+    @Benchmark
+    public boolean processNext() throws EventExecutionException {
+        return scheduler.processNext();
+    }
+
+}
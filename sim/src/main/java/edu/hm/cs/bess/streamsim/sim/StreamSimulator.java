@@ -1,6 +1,8 @@
 package edu.hm.cs.bess.streamsim.sim;
 
 import edu.hm.cs.bess.streamsim.sim.logic.move.DefaultMovementStrategy;
+import edu.hm.cs.bess.streamsim.sim.logic.move.MoveStrategy;
+import edu.hm.cs.bess.streamsim.sim.logic.util.SeedMixer;
 import edu.hm.cs.bess.streamsim.sim.model.misc.Location;
 import edu.hm.cs.bess.streamsim.sim.model.object.SimObject;
 import edu.hm.cs.bess.streamsim.sim.model.object.SimObjectType;
@@ -9,8 +11,15 @@ import edu.hm.cs.bess.streamsim.sim.model.object.person.Person;
 import edu.hm.cs.bess.streamsim.sim.model.object.source.Source;
 import edu.hm.cs.bess.streamsim.sim.model.object.target.Target;
 import edu.hm.cs.bess.streamsim.sim.model.state.State;
-import edu.hm.cs.bess.streamsim.sim.scheduler.EventDrivenScheduler;
+import edu.hm.cs.bess.streamsim.sim.model.state.StateJournal;
+import edu.hm.cs.bess.streamsim.sim.model.state.StateSnapshot;
 import edu.hm.cs.bess.streamsim.sim.scheduler.Scheduler;
+import edu.hm.cs.bess.streamsim.sim.scheduler.Schedulers;
+import edu.hm.cs.bess.streamsim.sim.scheduler.SchedulingContext;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.EventKind;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.OptimisticEventDispatcher;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.RollbackLog;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.SplittableEventDispatcher;
 import edu.hm.cs.bess.streamsim.sim.scheduler.exception.EventExecutionException;
 import org.jetbrains.annotations.Nullable;
 
@@ -20,11 +29,12 @@ import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Formatter;
 import java.util.logging.*;
-import java.util.stream.Collectors;
 
 /**
  * The actual simulation implementation root.
@@ -39,19 +49,19 @@ public class StreamSimulator {
     private static final Logger STATISTICS_LOGGER = Logger.getLogger("StatisticsLogger");
 
     /**
-     * Starting state of the simulation.
+     * The current state of the simulation.
      */
-    private State startState;
+    private State currentState;
 
     /**
-     * The current state of the simulation.
+     * Snapshot of the starting state of the simulation to reset the current state to.
      */
-    private State currentState;
+    private StateSnapshot startSnapshot;
 
     /**
      * Scheduler responsible for scheduling events of the event-driven simulation.
      */
-    private final Scheduler scheduler = new EventDrivenScheduler();
+    private final Scheduler scheduler;
 
     /**
      * Whether the simulation has already been started (regardless of whether it is paused or not).
@@ -68,6 +78,11 @@ public class StreamSimulator {
      */
     private final ReadWriteLock runningLock = new ReentrantReadWriteLock();
 
+    /**
+     * Lock held by the thread draining the scheduler during a headless run.
+     */
+    private final Lock headlessRunLock = new ReentrantLock();
+
     /**
      * List of life cycle event listeners.
      */
@@ -100,6 +115,16 @@ public class StreamSimulator {
     @Nullable
     private List<Source> sources;
 
+    /**
+     * Random number generator shared by the strategies and generators of the current run.
+     */
+    private Random rng;
+
+    /**
+     * Dispatcher processing the typed events of the scheduler.
+     */
+    private final SimulationEventDispatcher eventDispatcher = new SimulationEventDispatcher();
+
     /**
      * Buffer for the movement logging.
      */
@@ -155,11 +180,38 @@ public class StreamSimulator {
     private int meanSpeedWindowSize = 5;
 
     /**
-     * Count of walkable cells.
+     * Measurement area (first row, first column, last row, last column) to calculate the density in
+     * or null to use the whole simulation world.
+     */
+    @Nullable
+    private int[] densityArea;
+
+    /**
+     * Count of walkable cells in the density measurement area.
      * Used in the density calculation.
      */
     private int walkableCellCount;
 
+    /**
+     * People count of the latest statistics update.
+     */
+    private int latestPeopleCount;
+
+    /**
+     * Density of the latest statistics update.
+     */
+    private double latestDensity;
+
+    /**
+     * Mean speed of the latest statistics update.
+     */
+    private double latestMeanSpeed;
+
+    /**
+     * Flow of the latest statistics update.
+     */
+    private double latestFlow;
+
     /**
      * Create simulator using the passed start state and seed.
      *
@@ -180,11 +232,29 @@ public class StreamSimulator {
      * @param logFilePrefix prefix of the log file
      */
     public StreamSimulator(State state, long seed, boolean shouldLog, File logFolder, String logFilePrefix) {
+        this(state, seed, shouldLog, logFolder, logFilePrefix, Schedulers.DEFAULT.get());
+    }
+
+    /**
+     * Create simulator using the passed options and scheduler.
+     *
+     * @param state         to use as start
+     * @param seed          to use
+     * @param shouldLog     whether logging should be enabled
+     * @param logFolder     folder to save logs in
+     * @param logFilePrefix prefix of the log file
+     * @param scheduler     to schedule the events of the simulation with
+     */
+    public StreamSimulator(State state, long seed, boolean shouldLog, File logFolder, String logFilePrefix, Scheduler scheduler) {
         this.seed = seed;
         this.shouldLog = shouldLog;
+        this.scheduler = scheduler;
+        this.scheduler.setEventDispatcher(eventDispatcher);
+        this.scheduler.setSeed(seed);
 
         try {
-            startState = (State) state.clone();
+            currentState = (State) state.clone();
+            startSnapshot = currentState.snapshot();
         } catch (CloneNotSupportedException e) {
             e.printStackTrace(); // Will not happen
         }
@@ -234,6 +304,20 @@ public class StreamSimulator {
         this.cellsPerMeter = cellsPerMeter;
     }
 
+    /**
+     * Set the measurement area (bounds are inclusive and clamped to the simulation world) to calculate the density in
+     * for the statistics calculation.
+     *
+     * @param fromRow    first row
+     * @param fromColumn first column
+     * @param toRow      last row
+     * @param toColumn   last column
+     */
+    public void setStatisticsDensityArea(int fromRow, int fromColumn, int toRow, int toColumn) {
+        densityArea = new int[]{fromRow, fromColumn, toRow, toColumn};
+        walkableCellCount = countWalkableCells();
+    }
+
     /**
      * Set the statistics logs window size to calculate the people mean speed with.
      *
@@ -313,15 +397,135 @@ public class StreamSimulator {
         scheduleNextEventProcessing();
     }
 
+    /**
+     * Run the simulation headless on the calling thread until there are no more events
+     * or the next event would happen after the passed maximum time.
+     *
+     * @param maxTime maximum simulation time to run until
+     * @return the reason why the run stopped
+     * @throws EventExecutionException in case an event could not be processed
+     * @see #runUntil(double, StopCondition)
+     */
+    public StopReason runUntil(double maxTime) throws EventExecutionException {
+        return runUntil(maxTime, null);
+    }
+
+    /**
+     * Run the simulation headless on the calling thread until there are no more events
+     * or the passed stop condition is met.
+     *
+     * @param stopCondition to check at every statistics update
+     * @return the reason why the run stopped
+     * @throws EventExecutionException in case an event could not be processed
+     * @see #runUntil(double, StopCondition)
+     */
+    public StopReason runUntil(StopCondition stopCondition) throws EventExecutionException {
+        return runUntil(Double.POSITIVE_INFINITY, stopCondition);
+    }
+
+    /**
+     * Run the simulation headless on the calling thread.
+     * Instead of scheduling each event on an executor the scheduler is drained in a tight loop
+     * until there are no more events (the simulation ends), the next event would happen after the passed maximum time
+     * or the passed stop condition is met (the simulation is paused and may be continued afterwards).
+     * <p>
+     * Statistics and the stop condition are only evaluated in the statistics update debounce interval
+     * and life cycle listeners are only notified of time changes in that interval as well.
+     * Listeners must not pause, reset or terminate the simulator during a headless run, use a stop condition instead.
+     * Other threads may pause, reset or terminate the simulator (or interrupt the running thread),
+     * the run stops at the next statistics update then.
+     *
+     * @param maxTime       maximum simulation time to run until
+     * @param stopCondition to check at every statistics update (or null)
+     * @return the reason why the run stopped
+     * @throws EventExecutionException in case an event could not be processed
+     */
+    public StopReason runUntil(double maxTime, @Nullable StopCondition stopCondition) throws EventExecutionException {
+        if (isRunning()) {
+            throw new IllegalStateException("Cannot run the simulation headless while it is already running");
+        }
+
+        headlessRunLock.lock();
+        try {
+            setRunning(true);
+
+            if (!isStarted()) {
+                started = true; // Set simulation as started
+                notifyLifeCycleEventListeners(LifeCycleEvent.START);
+
+                initializeSimulationStart();
+            } else {
+                notifyLifeCycleEventListeners(LifeCycleEvent.CONTINUE);
+            }
+
+            StopReason reason;
+            try {
+                reason = drainScheduler(maxTime, stopCondition);
+            } catch (RuntimeException | EventExecutionException e) {
+                setRunning(false);
+                throw e;
+            }
+
+            boolean wasRunning = setRunning(false);
+            if (reason == StopReason.END) {
+                notifyLifeCycleEventListeners(LifeCycleEvent.END);
+            } else if (wasRunning) {
+                notifyLifeCycleEventListeners(LifeCycleEvent.PAUSE);
+            } // Otherwise paused by another thread that already notified the listeners
+
+            return reason;
+        } finally {
+            headlessRunLock.unlock();
+        }
+    }
+
+    /**
+     * Process events on the calling thread until the run should stop.
+     *
+     * @param maxTime       maximum simulation time to run until
+     * @param stopCondition to check at every statistics update (or null)
+     * @return the reason why the run stopped
+     * @throws EventExecutionException in case an event could not be processed
+     */
+    private StopReason drainScheduler(double maxTime, @Nullable StopCondition stopCondition) throws EventExecutionException {
+        while (true) {
+            double nextTime = scheduler.peekNextTimestamp(Double.NaN);
+            if (Double.isNaN(nextTime)) {
+                return StopReason.END;
+            } else if (nextTime > maxTime) {
+                return StopReason.MAX_TIME;
+            }
+
+            scheduler.processNext();
+
+            double time = scheduler.currentTime();
+            if (isStatisticsUpdateDue(time)) {
+                notifyLifeCycleEventListeners(LifeCycleEvent.TIME_CHANGE); // Updates the statistics
+
+                if (Thread.currentThread().isInterrupted()) {
+                    return StopReason.INTERRUPTED;
+                }
+
+                if (!isRunning()) {
+                    return StopReason.PAUSED;
+                }
+
+                if (stopCondition != null && stopCondition.shouldStop(time, latestPeopleCount, latestDensity, latestMeanSpeed, latestFlow)) {
+                    return StopReason.STOP_CONDITION;
+                }
+            }
+        }
+    }
+
     /**
      * Initialize at simulation start.
      */
     private void initializeSimulationStart() {
-        Random rng = new Random(seed);
+        rng = new Random(seed);
+        eventDispatcher.onLayoutChanged();
 
         sources = new ArrayList<>();
 
-        AtomicInteger walkableCellsCounter = new AtomicInteger();
         for (int row = 0; row < currentState.getRows(); row++) {
             for (int column = 0; column < currentState.getColumns(); column++) {
                 Optional<SimObject> optionalSimObject = currentState.getCellOccupant(new Location(row, column));
@@ -332,6 +536,7 @@ public class StreamSimulator {
                     switch (simObject.getType()) {
                         case SOURCE -> {
                             Source source = (Source) simObject;
+                            source.resetSpawnCounter(); // Source may have been used in a previous run
 
                             // Initialize spawn strategy
                             source.getConfiguration().getSpawnStrategy().init(currentState, rng);
@@ -347,7 +552,8 @@ public class StreamSimulator {
 
                             // Start spawning people
                             scheduler.scheduleIn(
-                                    () -> source.getConfiguration().getSpawnStrategy().spawn(source, currentState, scheduler),
+                                    EventKind.SPAWN,
+                                    currentState.indexOf(source.getLocation()),
                                     source.getConfiguration().getSpawnStrategy().getNextSpawnTime()
                             );
 
@@ -363,17 +569,11 @@ public class StreamSimulator {
                             // Nothing to do.
                         }
                     }
-
-                    if (simObject.isWalkable()) {
-                        walkableCellsCounter.getAndIncrement();
-                    }
-                } else {
-                    walkableCellsCounter.getAndIncrement();
                 }
             }
         }
 
-        walkableCellCount = walkableCellsCounter.get();
+        walkableCellCount = countWalkableCells();
     }
 
     /**
@@ -386,6 +586,93 @@ public class StreamSimulator {
         return sources;
     }
 
+    /**
+     * Notify the simulation that the occupants of the passed cells of the current state have been changed
+     * (for example obstacles or targets placed or removed while the simulation is paused).
+     * The move strategies of all sources update their potentials, only re-solving the region affected
+     * by the changed cells where possible.
+     * Spawn and consume strategies are initialized again with the current set of targets
+     * and people whose target has been removed are assigned a random remaining target
+     * (if there is none left, they wait until a target is placed again).
+     * Sources cannot be added or removed, reset the simulation instead.
+     *
+     * @param changedCells indices of the changed cells (see {@link State#indexOf})
+     * @throws IllegalArgumentException in case sources have been added or removed
+     */
+    public void updateLayout(int... changedCells) {
+        if (isRunning()) {
+            throw new IllegalStateException("Cannot update the layout while the simulation is running");
+        }
+
+        awaitEventProcessingTermination(); // An event may still be processed right after pausing
+
+        if (sources == null) {
+            return; // Strategies are initialized with the current layout on start
+        }
+
+        Set<SimObject> currentSources = currentState.getObjectsForType(SimObjectType.SOURCE);
+        if (currentSources.size() != sources.size() || !currentSources.containsAll(sources)) {
+            throw new IllegalArgumentException("Cannot add or remove sources during a simulation, reset it instead");
+        }
+
+        List<Location> targets = new ArrayList<>();
+        currentState.forEachCellOfType(SimObjectType.TARGET, index -> targets.add(currentState.locationOf(index)));
+        targets.sort(Comparator.comparingInt(currentState::indexOf)); // Independent of the order of the type index
+
+        if (!targets.isEmpty()) {
+            Set<Location> targetSet = new HashSet<>(targets);
+            currentState.forEachObjectOfType(SimObjectType.PERSON, object -> {
+                Person person = (Person) object;
+                if (!targetSet.contains(person.getTarget())) {
+                    person.setTarget(targets.get(rng.nextInt(targets.size())));
+                }
+            });
+        }
+
+        for (Source source : sources) {
+            source.getConfiguration().getSpawnStrategy().init(currentState, rng);
+            source.getConfiguration().getMoveStrategy().onLayoutChanged(currentState, changedCells);
+        }
+
+        for (SimObject object : currentState.getObjectsForType(SimObjectType.TARGET)) {
+            ((Target) object).getConfiguration().getConsumeStrategy().init(currentState, rng);
+        }
+
+        walkableCellCount = countWalkableCells();
+        eventDispatcher.onLayoutChanged();
+    }
+
+    /**
+     * Count the cells of the density measurement area of the current state people may walk on
+     * (including the cells currently occupied by people).
+     *
+     * @return amount of walkable cells
+     */
+    private int countWalkableCells() {
+        int fromRow = 0;
+        int fromColumn = 0;
+        int toRow = currentState.getRows() - 1;
+        int toColumn = currentState.getColumns() - 1;
+        if (densityArea != null) {
+            fromRow = Math.max(fromRow, densityArea[0]);
+            fromColumn = Math.max(fromColumn, densityArea[1]);
+            toRow = Math.min(toRow, densityArea[2]);
+            toColumn = Math.min(toColumn, densityArea[3]);
+        }
+
+        int count = 0;
+        for (int row = fromRow; row <= toRow; row++) {
+            for (int column = fromColumn; column <= toColumn; column++) {
+                SimObject occupant = currentState.getCellOccupant(row * currentState.getColumns() + column);
+                if (occupant == null || occupant.isWalkable() || occupant.getType() == SimObjectType.PERSON) {
+                    count++;
+                }
+            }
+        }
+
+        return count;
+    }
+
     /**
      * Schedule the processing of the next event.
      */
@@ -394,9 +681,8 @@ public class StreamSimulator {
             return;
         }
 
-        Optional<Double> nextTimestampOptional = scheduler.peekNextTimestamp();
-        if (nextTimestampOptional.isPresent()) {
-            double nextTime = nextTimestampOptional.get();
+        double nextTime = scheduler.peekNextTimestamp(Double.NaN);
+        if (!Double.isNaN(nextTime)) {
             double currentTime = scheduler.currentTime();
 
             double diff = nextTime - currentTime;
@@ -434,12 +720,31 @@ public class StreamSimulator {
             return;
         }
 
-        executorService.shutdownNow();
+        if (executorService != null) {
+            executorService.shutdownNow();
+        }
         setRunning(false);
 
         notifyLifeCycleEventListeners(LifeCycleEvent.PAUSE);
     }
 
+    /**
+     * Wait until an event currently being processed by the executor (if any) has been processed
+     * and a headless run on another thread (if any) has stopped.
+     */
+    private void awaitEventProcessingTermination() {
+        if (executorService != null) {
+            try {
+                executorService.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        headlessRunLock.lock();
+        headlessRunLock.unlock();
+    }
+
     /**
      * Reset the simulation to the start state.
      */
@@ -448,14 +753,12 @@ public class StreamSimulator {
             pause();
         }
 
+        awaitEventProcessingTermination();
+
         scheduler.clear();
 
-        // Reinitialize current state from start state
-        try {
-            currentState = (State) startState.clone();
-        } catch (CloneNotSupportedException e) {
-            // Will not happen since cloning IS supported
-        }
+        // Restore the start state (only the cells changed since the start are touched)
+        currentState.restore(startSnapshot);
 
         started = false;
 
@@ -485,7 +788,7 @@ public class StreamSimulator {
 
                 @Override
                 public void onTimeChange(double time) {
-                    if (lastStatisticsUpdateTimestamp == -1 || time - lastStatisticsUpdateTimestamp >= statisticsUpdateDebounceDelay) {
+                    if (isStatisticsUpdateDue(time)) {
                         double timeElapsed = time - lastStatisticsUpdateTimestamp;
                         lastStatisticsUpdateTimestamp = time;
                         updateStatistics(timeElapsed);
@@ -497,6 +800,16 @@ public class StreamSimulator {
         }
     }
 
+    /**
+     * Check whether the statistics should be updated at the passed time.
+     *
+     * @param time current simulation time
+     * @return whether the statistics update is due
+     */
+    private boolean isStatisticsUpdateDue(double time) {
+        return lastStatisticsUpdateTimestamp == -1 || time - lastStatisticsUpdateTimestamp >= statisticsUpdateDebounceDelay;
+    }
+
     /**
      * Log some statistics to file.
      *
@@ -510,24 +823,20 @@ public class StreamSimulator {
         final AtomicReference<Double> density = new AtomicReference<>();
         final AtomicReference<Double> flow = new AtomicReference<>();
 
-        currentState.readObjectTypeMapping(mapping -> {
-            Set<Location> lightBarrierLocations = mapping.get(SimObjectType.LIGHT_BARRIER);
-            lightBarrierCount.set(lightBarrierLocations != null ? lightBarrierLocations.size() : 0);
-
-            Set<Location> peopleLocations = mapping.get(SimObjectType.PERSON);
-            peopleCount.set(peopleLocations != null ? peopleLocations.size() : 0);
+        lightBarrierCount.set(currentState.getObjectTypeCount(SimObjectType.LIGHT_BARRIER));
+        peopleCount.set(currentState.getObjectTypeCount(SimObjectType.PERSON));
 
-            Set<Person> people = peopleLocations != null ? peopleLocations.stream()
-                    .map(l -> (Person) currentState.getUpperCellOccupant(l).orElseThrow())
-                    .collect(Collectors.toUnmodifiableSet()) : null;
+        meanSpeed.set(calculateMeanSpeed(meanSpeedWindowSize, cellsPerMeter));
+        density.set(calculateDensity(cellsPerMeter));
 
-            meanSpeed.set(calculateMeanSpeed(meanSpeedWindowSize, cellsPerMeter, people));
-            density.set(calculateDensity(cellsPerMeter, peopleCount.get()));
+        double lightBarrierWidth = lightBarrierCount.get() > 0 ? lightBarrierCount.get() / cellsPerMeter : 1; // Avoid division by zero error
+        flow.set(LightBarrier.getTriggerCount() / lightBarrierWidth / timeElapsed); // Flow in people/m/s
+        LightBarrier.resetTriggerCount();
 
-            double lightBarrierWidth = lightBarrierCount.get() > 0 ? lightBarrierCount.get() / cellsPerMeter : 1; // Avoid division by zero error
-            flow.set(LightBarrier.getTriggerCount() / lightBarrierWidth / timeElapsed); // Flow in people/m/s
-            LightBarrier.resetTriggerCount();
-        });
+        latestPeopleCount = peopleCount.get();
+        latestDensity = density.get();
+        latestMeanSpeed = meanSpeed.get();
+        latestFlow = flow.get();
 
         notifyStatisticsChangeListeners(peopleCount.get(), density.get(), meanSpeed.get(), flow.get());
 
@@ -563,6 +872,9 @@ public class StreamSimulator {
      * Terminate the simulator (NO MORE USABLE AFTERWARDS).
      */
     public void terminate() {
+        pause();
+        awaitEventProcessingTermination();
+
         // Log last statistics before terminating.
         updateStatistics(scheduler.currentTime() - lastStatisticsUpdateTimestamp);
 
@@ -596,11 +908,14 @@ public class StreamSimulator {
      * Set whether the simulation is currently running.
      *
      * @param running whether running
+     * @return whether the simulation has been running before
      */
-    private void setRunning(boolean running) {
+    private boolean setRunning(boolean running) {
         runningLock.writeLock().lock();
         try {
+            boolean wasRunning = this.running;
             this.running = running;
+            return wasRunning;
         } finally {
             runningLock.writeLock().unlock();
         }
@@ -620,13 +935,16 @@ public class StreamSimulator {
     }
 
     /**
-     * Calculate the density of people (1/m²) in the simulation world.
+     * Calculate the density of people (1/m²) in the density measurement area
+     * (see {@link #setStatisticsDensityArea(int, int, int, int)}) using the spatial index of the state.
      *
      * @param cellsInMeter how many cells fit in a meter
-     * @param peopleCount  count of people in the simulation
      * @return density
      */
-    private double calculateDensity(double cellsInMeter, int peopleCount) {
+    private double calculateDensity(double cellsInMeter) {
+        int peopleCount = densityArea != null
+                ? currentState.countPeopleInRect(densityArea[0], densityArea[1], densityArea[2], densityArea[3])
+                : currentState.countPeopleInRect(0, 0, currentState.getRows() - 1, currentState.getColumns() - 1);
         double totalSpaceInMeter = walkableCellCount / Math.pow(cellsInMeter, 2);
 
         return peopleCount / totalSpaceInMeter;
@@ -637,24 +955,24 @@ public class StreamSimulator {
      *
      * @param windowSize    size of the window to calculate mean speed with (negative for the whole history).
      * @param cellsPerMeter how many cells fit in a meter
-     * @param people        set of people currently in the simulation
      * @return mean speed of all people in the simulation
      */
-    private double calculateMeanSpeed(int windowSize, double cellsPerMeter, Set<Person> people) {
-        double meanSpeed = 0.0;
+    private double calculateMeanSpeed(int windowSize, double cellsPerMeter) {
+        final double[] speedSum = new double[1];
+        final int[] peopleCount = new int[1];
 
-        if (people == null || people.size() == 0) {
-            return 0.0;
-        }
+        currentState.forEachObjectOfType(SimObjectType.PERSON, object -> {
+            Person p = (Person) object;
 
-        for (Person p : people) {
-            meanSpeed += windowSize < 0 ? p.getMeanSpeed() : p.getMeanSpeed(windowSize);
-        }
+            speedSum[0] += windowSize < 0 ? p.getMeanSpeed() : p.getMeanSpeed(windowSize);
+            peopleCount[0]++;
+        });
 
-        meanSpeed /= people.size();
-        meanSpeed /= cellsPerMeter;
+        if (peopleCount[0] == 0) {
+            return 0.0;
+        }
 
-        return meanSpeed;
+        return speedSum[0] / peopleCount[0] / cellsPerMeter;
     }
 
     /**
@@ -810,6 +1128,338 @@ public class StreamSimulator {
 
     }
 
+    /**
+     * Dispatcher processing the typed events of the simulation.
+     * Payload of all typed events is the cell index of the events subject (source or person).
+     * Move events may be split into a read-only decision and the application of the decision
+     * and may be processed speculatively.
+     */
+    private class SimulationEventDispatcher implements SplittableEventDispatcher, OptimisticEventDispatcher {
+
+        /**
+         * Whether a cell is next to a target with a non-local consume strategy (lazily initialized).
+         */
+        private boolean[] nearNonLocalTarget;
+
+        /**
+         * Called when the layout of the current state has changed (see {@link #updateLayout(int...)}).
+         */
+        void onLayoutChanged() {
+            nearNonLocalTarget = null;
+        }
+
+        @Override
+        public void dispatch(EventKind kind, int cellIndex) {
+            switch (kind) {
+                case SPAWN -> {
+                    Source source = (Source) currentState.getUpperCellOccupant(cellIndex);
+                    source.getConfiguration().getSpawnStrategy().spawn(source, currentState, scheduler);
+                }
+                case MOVE -> {
+                    Person person = (Person) currentState.getUpperCellOccupant(cellIndex);
+                    getMoveStrategy(person).move(person, currentState, scheduler);
+                }
+                default -> throw new IllegalArgumentException(String.format("Cannot dispatch event of kind %s", kind));
+            }
+        }
+
+        @Override
+        public boolean isSplittable(EventKind kind) {
+            return kind == EventKind.MOVE;
+        }
+
+        @Override
+        public int evaluate(EventKind kind, int cellIndex, double timestamp) {
+            Person person = (Person) currentState.getUpperCellOccupant(cellIndex);
+
+            // Derive a random number generator from the event to be independent of the evaluation order
+            Random rng = new Random(getEventSeed(cellIndex, timestamp));
+
+            return getMoveStrategy(person).decide(person, currentState, rng);
+        }
+
+        @Override
+        public void commit(EventKind kind, int cellIndex, int evaluation) {
+            Person person = (Person) currentState.getUpperCellOccupant(cellIndex);
+
+            // Use a different random number sequence than the evaluation
+            Random rng = new Random(SeedMixer.mix(getEventSeed(cellIndex, scheduler.currentTime()), 1));
+
+            getMoveStrategy(person).apply(person, evaluation, currentState, scheduler, rng);
+        }
+
+        @Override
+        public boolean isStillValid(EventKind kind, int cellIndex, int evaluation) {
+            Person person = (Person) currentState.getUpperCellOccupant(cellIndex);
+
+            return getMoveStrategy(person).canApply(person, evaluation, currentState);
+        }
+
+        @Override
+        public int getRows() {
+            return currentState.getRows();
+        }
+
+        @Override
+        public int getColumns() {
+            return currentState.getColumns();
+        }
+
+        @Override
+        public int getInteractionRadius() {
+            int radius = 1; // Spawning reads and modifies the direct neighbourhood of the source
+            for (SimObject object : currentState.getObjectsForType(SimObjectType.SOURCE)) {
+                radius = Math.max(radius, ((Source) object).getConfiguration().getMoveStrategy().getInteractionRadius());
+            }
+
+            return radius;
+        }
+
+        @Override
+        public double getLookahead() {
+            // People move at most one cell per 1 / speed time units
+            double lookahead = Double.POSITIVE_INFINITY;
+            for (SimObject object : currentState.getObjectsForType(SimObjectType.SOURCE)) {
+                lookahead = Math.min(lookahead, 1 / ((Source) object).getConfiguration().getSpeedGenerator().getMaxSpeed());
+            }
+
+            return lookahead;
+        }
+
+        @Override
+        public Locality getLocality(EventKind kind, int cellIndex) {
+            return switch (kind) {
+                case SPAWN -> Locality.SERIAL; // Spawn strategies and generators share a random number generator
+                case MOVE -> isNearNonLocalTarget(cellIndex) ? Locality.GLOBAL : Locality.LOCAL;
+                default -> Locality.GLOBAL;
+            };
+        }
+
+        @Override
+        public void dispatch(EventKind kind, int cellIndex, double timestamp, SchedulingContext scheduler) {
+            switch (kind) {
+                case SPAWN -> {
+                    Source source = (Source) currentState.getUpperCellOccupant(cellIndex);
+                    source.getConfiguration().getSpawnStrategy().spawn(source, currentState, scheduler);
+                }
+                case MOVE -> {
+                    Person person = (Person) currentState.getUpperCellOccupant(cellIndex);
+                    MoveStrategy moveStrategy = getMoveStrategy(person);
+
+                    Random rng = new Random(getEventSeed(cellIndex, timestamp));
+                    moveStrategy.apply(person, moveStrategy.decide(person, currentState, rng), currentState, scheduler, rng);
+                }
+                default -> throw new IllegalArgumentException(String.format("Cannot dispatch event of kind %s", kind));
+            }
+        }
+
+        @Override
+        public RollbackLog createRollbackLog() {
+            return new SimulationRollbackLog();
+        }
+
+        @Override
+        public void rollback(RollbackLog[] logs, int[] checkpoints) {
+            StateJournal[] journals = new StateJournal[logs.length];
+            int[] marks = new int[logs.length];
+            for (int i = 0; i < logs.length; i++) {
+                SimulationRollbackLog log = (SimulationRollbackLog) logs[i];
+
+                log.restorePeople(checkpoints[i]);
+                journals[i] = log.journal;
+                marks[i] = log.marks[checkpoints[i]];
+            }
+
+            currentState.revert(journals, marks);
+        }
+
+        /**
+         * Get a seed for the event of the passed cell at the passed time.
+         *
+         * @param cellIndex of the event
+         * @param timestamp of the event
+         * @return seed for the event
+         */
+        private long getEventSeed(int cellIndex, double timestamp) {
+            return SeedMixer.mix(SeedMixer.mix(seed, cellIndex), Double.doubleToLongBits(timestamp));
+        }
+
+        /**
+         * Check whether the passed cell is next to a target with a non-local consume strategy.
+         *
+         * @param cellIndex to check
+         * @return whether next to a non-local target
+         */
+        private boolean isNearNonLocalTarget(int cellIndex) {
+            if (nearNonLocalTarget == null) {
+                int rows = currentState.getRows();
+                int columns = currentState.getColumns();
+
+                boolean[] lookup = new boolean[rows * columns];
+                for (SimObject object : currentState.getObjectsForType(SimObjectType.TARGET)) {
+                    Target target = (Target) object;
+                    if (target.getConfiguration().getConsumeStrategy().isLocal()) {
+                        continue;
+                    }
+
+                    Location location = target.getLocation();
+                    for (int row = Math.max(location.getRow() - 1, 0); row <= Math.min(location.getRow() + 1, rows - 1); row++) {
+                        for (int column = Math.max(location.getColumn() - 1, 0); column <= Math.min(location.getColumn() + 1, columns - 1); column++) {
+                            lookup[row * columns + column] = true;
+                        }
+                    }
+                }
+
+                nearNonLocalTarget = lookup;
+            }
+
+            return nearNonLocalTarget[cellIndex];
+        }
+
+        /**
+         * Get the move strategy of the passed person (the strategy of the source the person originates from
+         * or has last been revived at).
+         *
+         * @param person to get move strategy for
+         * @return move strategy
+         */
+        private MoveStrategy getMoveStrategy(Person person) {
+            Source source = (Source) currentState.getUpperCellOccupant(currentState.indexOf(person.getMoveSource()));
+            return source.getConfiguration().getMoveStrategy();
+        }
+
+    }
+
+    /**
+     * Rollback log recording the changes to the current state in a journal
+     * and the state of the person of each event before processing it.
+     */
+    private class SimulationRollbackLog implements RollbackLog {
+
+        /**
+         * Journal recording the changes to the current state.
+         */
+        private final StateJournal journal = new StateJournal();
+
+        /**
+         * People of the events checkpoints have been taken for (null if the event has no person).
+         */
+        private final List<Person> people = new ArrayList<>();
+
+        /**
+         * Captured states of the people.
+         */
+        private final List<Person.Memento> mementos = new ArrayList<>();
+
+        /**
+         * Journal marks of the checkpoints.
+         */
+        private int[] marks = new int[64];
+
+        @Override
+        public void bind() {
+            currentState.setJournal(journal);
+        }
+
+        @Override
+        public void unbind() {
+            currentState.setJournal(null);
+        }
+
+        @Override
+        public int checkpoint(EventKind kind, int payload) {
+            SimObject occupant = currentState.getUpperCellOccupant(payload);
+            Person person = kind == EventKind.MOVE && occupant instanceof Person ? (Person) occupant : null;
+
+            int checkpoint = people.size();
+            if (checkpoint == marks.length) {
+                marks = Arrays.copyOf(marks, checkpoint * 2);
+            }
+
+            people.add(person);
+            mementos.add(person != null ? person.createMemento() : null);
+            marks[checkpoint] = journal.mark();
+
+            return checkpoint;
+        }
+
+        /**
+         * Restore the people of all events since the passed checkpoint and discard the later checkpoints.
+         *
+         * @param checkpoint to restore
+         */
+        private void restorePeople(int checkpoint) {
+            for (int i = people.size() - 1; i >= checkpoint; i--) {
+                Person person = people.remove(i);
+                Person.Memento memento = mementos.remove(i);
+                if (person != null) {
+                    person.restore(memento);
+                }
+            }
+        }
+
+        @Override
+        public void clear() {
+            people.clear();
+            mementos.clear();
+            journal.clear();
+        }
+
+    }
+
+    /**
+     * Reasons for a headless simulation run to stop.
+     */
+    public enum StopReason {
+
+        /**
+         * There are no more events to process.
+         */
+        END,
+
+        /**
+         * The next event would happen after the maximum simulation time.
+         */
+        MAX_TIME,
+
+        /**
+         * The stop condition has been met.
+         */
+        STOP_CONDITION,
+
+        /**
+         * The running thread has been interrupted.
+         */
+        INTERRUPTED,
+
+        /**
+         * The simulation has been paused (or reset or terminated) by another thread.
+         */
+        PAUSED
+
+    }
+
+    /**
+     * Condition to stop a headless simulation run early.
+     */
+    @FunctionalInterface
+    public interface StopCondition {
+
+        /**
+         * Check whether the simulation should stop.
+         * Called whenever the statistics are updated.
+         *
+         * @param time        current simulation time
+         * @param peopleCount count of people currently
+         * @param density     of the current simulation
+         * @param meanSpeed   of the current simulation
+         * @param flow        of the current simulation
+         * @return whether to stop the simulation
+         */
+        boolean shouldStop(double time, int peopleCount, double density, double meanSpeed, double flow);
+
+    }
+
     /**
      * Formatter for our log messages.
      */
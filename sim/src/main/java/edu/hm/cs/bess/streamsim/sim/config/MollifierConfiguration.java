@@ -44,4 +44,21 @@ public final class MollifierConfiguration {
         return strength;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        MollifierConfiguration that = (MollifierConfiguration) o;
+
+        if (range != that.range) return false;
+        return Double.compare(that.strength, strength) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        long temp = Double.doubleToLongBits(strength);
+        return 31 * range + (int) (temp ^ (temp >>> 32));
+    }
+
 }
@@ -9,7 +9,7 @@ import edu.hm.cs.bess.streamsim.sim.model.object.SimObject;
 import edu.hm.cs.bess.streamsim.sim.model.object.person.Person;
 import edu.hm.cs.bess.streamsim.sim.model.object.target.Target;
 import edu.hm.cs.bess.streamsim.sim.model.state.State;
-import edu.hm.cs.bess.streamsim.sim.scheduler.Scheduler;
+import edu.hm.cs.bess.streamsim.sim.scheduler.SchedulingContext;
 
 import java.util.Random;
 
@@ -34,7 +34,7 @@ public interface ConsumeStrategy {
      * @param state     the current simulation state
      * @param scheduler of the simulation
      */
-    void reachedTarget(Target target, Person person, State state, Scheduler scheduler);
+    void reachedTarget(Target target, Person person, State state, SchedulingContext scheduler);
 
     /**
      * Called when the simulation is initialized.
@@ -52,6 +52,18 @@ public interface ConsumeStrategy {
     @JsonIgnore
     String getName();
 
+    /**
+     * Whether the strategy only modifies the target and its direct neighbourhood
+     * and only uses random numbers it gets passed (none for now).
+     * Non-local strategies (e. g. reviving people at a source) need to be processed sequentially by parallel schedulers.
+     *
+     * @return whether the strategy is local
+     */
+    @JsonIgnore
+    default boolean isLocal() {
+        return false;
+    }
+
     /**
      * Calculate the euclidean distance from the passed location to the passed location.
      *
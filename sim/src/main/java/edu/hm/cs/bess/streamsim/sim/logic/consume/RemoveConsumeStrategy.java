@@ -3,7 +3,7 @@ package edu.hm.cs.bess.streamsim.sim.logic.consume;
 import edu.hm.cs.bess.streamsim.sim.model.object.person.Person;
 import edu.hm.cs.bess.streamsim.sim.model.object.target.Target;
 import edu.hm.cs.bess.streamsim.sim.model.state.State;
-import edu.hm.cs.bess.streamsim.sim.scheduler.Scheduler;
+import edu.hm.cs.bess.streamsim.sim.scheduler.SchedulingContext;
 
 import java.util.Random;
 
@@ -20,7 +20,7 @@ public class RemoveConsumeStrategy implements ConsumeStrategy {
     public static final String NAME = "Remove";
 
     @Override
-    public void reachedTarget(Target target, Person person, State state, Scheduler scheduler) {
+    public void reachedTarget(Target target, Person person, State state, SchedulingContext scheduler) {
         state.removeOccupant(person.getLocation());
     }
 
@@ -34,4 +34,9 @@ public class RemoveConsumeStrategy implements ConsumeStrategy {
         return RemoveConsumeStrategy.NAME;
     }
 
+    @Override
+    public boolean isLocal() {
+        return true;
+    }
+
 }
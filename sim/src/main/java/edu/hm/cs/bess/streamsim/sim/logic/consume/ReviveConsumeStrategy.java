@@ -6,7 +6,8 @@ import edu.hm.cs.bess.streamsim.sim.model.object.person.Person;
 import edu.hm.cs.bess.streamsim.sim.model.object.source.Source;
 import edu.hm.cs.bess.streamsim.sim.model.object.target.Target;
 import edu.hm.cs.bess.streamsim.sim.model.state.State;
-import edu.hm.cs.bess.streamsim.sim.scheduler.Scheduler;
+import edu.hm.cs.bess.streamsim.sim.scheduler.SchedulingContext;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.EventKind;
 
 import java.util.*;
 import java.util.logging.Level;
@@ -41,20 +42,23 @@ public class ReviveConsumeStrategy implements ConsumeStrategy {
     private Set<Location> targetLocations;
 
     @Override
-    public void reachedTarget(Target target, Person person, State state, Scheduler scheduler) {
+    public void reachedTarget(Target target, Person person, State state, SchedulingContext scheduler) {
         Location sourceLocation = sourceLocations.toArray(new Location[0])[rng.nextInt(sourceLocations.size())];
         Source source = (Source) state.getCellOccupant(sourceLocation).orElseThrow();
 
+        // The person is moved by the move strategy of the reviving source from now on
+        person.setMoveSource(sourceLocation);
+
         List<Location> possibleSpawns = getPossibleSpawnLocations(state, source);
         if (possibleSpawns.size() == 0) {
             LOGGER.log(Level.FINE, String.format("Could not revive person currently at %s as there is no possible spawn location around the source", person.getLocation()));
 
-            double nextTimeStamp = scheduler.peekNextTimestamp().orElse(0.0);
+            double nextTimeStamp = scheduler.peekNextTimestamp(0.0);
 
             // Get random delay based on person speed
             nextTimeStamp += rng.nextDouble() * (1 / person.getSpeed());
 
-            scheduler.scheduleIn(() -> source.getConfiguration().getMoveStrategy().move(person, state, scheduler), nextTimeStamp - scheduler.currentTime());
+            scheduler.scheduleIn(EventKind.MOVE, state.indexOf(person.getLocation()), nextTimeStamp - scheduler.currentTime());
         } else {
             Location spawnLocation = possibleSpawns.get(rng.nextInt(possibleSpawns.size()));
 
@@ -68,7 +72,7 @@ public class ReviveConsumeStrategy implements ConsumeStrategy {
 
             double movementDistance = distance(person.getLocation(), source.getLocation());
 
-            scheduler.scheduleIn(() -> source.getConfiguration().getMoveStrategy().move(person, state, scheduler), 1 / person.getSpeed() * movementDistance);
+            scheduler.scheduleIn(EventKind.MOVE, state.indexOf(person.getLocation()), 1 / person.getSpeed() * movementDistance);
         }
     }
 
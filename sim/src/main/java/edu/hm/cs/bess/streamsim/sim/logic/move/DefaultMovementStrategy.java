@@ -1,17 +1,23 @@
 package edu.hm.cs.bess.streamsim.sim.logic.move;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import edu.hm.cs.bess.streamsim.sim.config.MollifierConfiguration;
+import edu.hm.cs.bess.streamsim.sim.logic.move.util.MollifierKernel;
 import edu.hm.cs.bess.streamsim.sim.model.misc.Location;
 import edu.hm.cs.bess.streamsim.sim.model.object.SimObjectType;
 import edu.hm.cs.bess.streamsim.sim.model.object.person.Person;
 import edu.hm.cs.bess.streamsim.sim.model.object.target.Target;
+import edu.hm.cs.bess.streamsim.sim.model.state.InteractionField;
 import edu.hm.cs.bess.streamsim.sim.model.state.State;
-import edu.hm.cs.bess.streamsim.sim.scheduler.Scheduler;
+import edu.hm.cs.bess.streamsim.sim.scheduler.SchedulingContext;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.EventKind;
 
 import java.util.*;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -35,6 +41,32 @@ public abstract class DefaultMovementStrategy implements MoveStrategy {
      */
     private final static Logger CSV_LOGGER = Logger.getLogger(MoveStrategy.class.getName());
 
+    /**
+     * Row offsets of the neighbours of a cell (in row-major order).
+     */
+    static final int[] NEIGHBOUR_ROW_OFFSETS = {-1, -1, -1, 0, 0, 1, 1, 1};
+
+    /**
+     * Column offsets of the neighbours of a cell (in row-major order).
+     */
+    static final int[] NEIGHBOUR_COLUMN_OFFSETS = {-1, 0, 1, -1, 1, -1, 0, 1};
+
+    /**
+     * Euclidean lengths of the steps to the neighbours of a cell.
+     */
+    static final double[] NEIGHBOUR_STEP_LENGTHS = new double[NEIGHBOUR_ROW_OFFSETS.length];
+
+    static {
+        for (int i = 0; i < NEIGHBOUR_STEP_LENGTHS.length; i++) {
+            NEIGHBOUR_STEP_LENGTHS[i] = Math.hypot(NEIGHBOUR_ROW_OFFSETS[i], NEIGHBOUR_COLUMN_OFFSETS[i]);
+        }
+    }
+
+    /**
+     * Reusable buffer per thread for the cell indices of the possible move locations (see {@link #chooseNextLocation(Person, State, Random)}).
+     */
+    private static final ThreadLocal<int[]> CANDIDATE_BUFFERS = ThreadLocal.withInitial(() -> new int[NEIGHBOUR_ROW_OFFSETS.length]);
+
     /**
      * Random number generator to use.
      */
@@ -46,12 +78,40 @@ public abstract class DefaultMovementStrategy implements MoveStrategy {
     private Set<Location> cachedTargets;
 
     /**
-     * Cache of the utility functions for each path to each target.
+     * Groups of targets sharing a potential (see {@link #setMergeAdjacentTargets(boolean)}),
+     * the first target of a group is its representative.
+     */
+    private Location[][] cachedTargetGroups;
+
+    /**
+     * Representative of the group of each target.
      */
-    private Map<Location, double[][]> pathUtilityCache;
+    private Map<Location, Location> targetGroupRepresentatives;
+
+    /**
+     * Cache of the utility functions for each path to each target group (by representative).
+     */
+    private Map<Location, PotentialField> pathUtilityCache;
+
+    /**
+     * Flow fields of the best moves per target group (by representative) and diagonal step ratio
+     * used when other people are not respected.
+     */
+    private Map<Location, FlowField[]> flowFieldCache;
+
+    /**
+     * Whether adjacent targets are merged into a group sharing a single potential.
+     */
+    private boolean mergeAdjacentTargets;
+
+    /**
+     * Storage of the base potentials.
+     */
+    private PotentialField.Storage potentialStorage = PotentialField.Storage.DOUBLE;
 
     /**
      * Radius specifying the neighbourhood in which to respect other people when calculating the next move.
+     * Other people are respected (using the mollifier) when the radius is greater than zero.
      */
     private final int radius;
 
@@ -60,6 +120,26 @@ public abstract class DefaultMovementStrategy implements MoveStrategy {
      */
     private final MollifierConfiguration mollifierConfiguration;
 
+    /**
+     * Precomputed mollifier values of the mollifier configuration.
+     */
+    private MollifierKernel mollifierKernel;
+
+    /**
+     * Field summing the mollifier of all people in the last used state (see {@link #getInteractionField(State)}).
+     */
+    private volatile InteractionField interactionField;
+
+    /**
+     * Pool to calculate the base potentials of the targets on (in parallel).
+     */
+    private ForkJoinPool potentialPool = ForkJoinPool.commonPool();
+
+    /**
+     * Cache the base potentials are shared with other strategies through.
+     */
+    private PotentialFieldCache potentialFieldCache = PotentialFieldCache.shared();
+
     @JsonCreator(mode = JsonCreator.Mode.PROPERTIES)
     public DefaultMovementStrategy(
             @JsonProperty("mollifierConfiguration") MollifierConfiguration mollifierConfiguration,
@@ -79,14 +159,207 @@ public abstract class DefaultMovementStrategy implements MoveStrategy {
         this.rng = rng;
         this.cachedTargets = findTargetsInState(state);
 
+        Location[][] groups = groupTargets(state, getCachedTargets());
+        PotentialField[] potentials = new PotentialField[groups.length];
+        PotentialFieldCache.Layout layout = PotentialFieldCache.Layout.of(state);
+        if (groups.length > 1) {
+            potentialPool.invoke(new BasePotentialTask(state, layout, groups, potentials, 0, groups.length));
+        } else if (groups.length == 1) {
+            potentials[0] = getBasePotential(state, layout, groups[0]);
+        }
+
+        cachedTargetGroups = groups;
+        targetGroupRepresentatives = new HashMap<>();
         pathUtilityCache = new HashMap<>();
-        for (Location targetLocation : getCachedTargets()) {
-            pathUtilityCache.put(targetLocation, calculateBasePotential(state, targetLocation));
+        flowFieldCache = new ConcurrentHashMap<>();
+        for (int i = 0; i < groups.length; i++) {
+            for (Location target : groups[i]) {
+                targetGroupRepresentatives.put(target, groups[i][0]);
+            }
+            pathUtilityCache.put(groups[i][0], potentials[i]);
+            flowFieldCache.put(groups[i][0], new FlowField[0]);
+        }
+
+        if (getRadius() > 0) {
+            mollifierKernel = MollifierKernel.of(getMollifierConfiguration());
+            interactionField = state.getInteractionField(mollifierKernel.getRange(), mollifierKernel.getValues());
+        }
+    }
+
+    @Override
+    public void onLayoutChanged(State state, int... changedCells) {
+        if (!findTargetsInState(state).equals(cachedTargets)) {
+            init(state, rng); // Every potential depends on the set of targets
+            return;
+        }
+
+        Map<Location, PotentialField> potentials = new HashMap<>();
+        Map<Location, FlowField[]> flowFields = new ConcurrentHashMap<>();
+        for (Location[] group : cachedTargetGroups) {
+            double[][] potential = potentialStorage == PotentialField.Storage.DOUBLE
+                    ? updateBasePotential(state, group, pathUtilityCache.get(group[0]).toMatrix(), changedCells)
+                    : calculateBasePotential(state, group); // Incremental updates need the exact previous potential
+
+            potentials.put(group[0], potentialStorage.of(potential));
+            flowFields.put(group[0], new FlowField[0]);
+        }
+
+        pathUtilityCache = potentials;
+        flowFieldCache = flowFields;
+    }
+
+    /**
+     * Group the passed targets.
+     * When merging adjacent targets, targets next to each other (including diagonally) form a group,
+     * otherwise every target forms its own group.
+     * The targets of a group are ordered by cell index.
+     *
+     * @param state   of the simulation world
+     * @param targets to group
+     * @return groups of targets
+     */
+    private Location[][] groupTargets(State state, Set<Location> targets) {
+        if (!mergeAdjacentTargets) {
+            return targets.stream().map(target -> new Location[]{target}).toArray(Location[][]::new);
+        }
+
+        Location[] sorted = targets.stream().sorted(Comparator.comparingInt(state::indexOf)).toArray(Location[]::new);
+        Set<Location> grouped = new HashSet<>();
+        List<Location[]> groups = new ArrayList<>();
+        for (Location first : sorted) {
+            if (!grouped.add(first)) {
+                continue;
+            }
+
+            // Collect the connected targets
+            List<Location> group = new ArrayList<>();
+            group.add(first);
+            for (int i = 0; i < group.size(); i++) {
+                Location location = group.get(i);
+                for (int n = 0; n < NEIGHBOUR_ROW_OFFSETS.length; n++) {
+                    Location neighbour = new Location(location.getRow() + NEIGHBOUR_ROW_OFFSETS[n], location.getColumn() + NEIGHBOUR_COLUMN_OFFSETS[n]);
+                    if (targets.contains(neighbour) && grouped.add(neighbour)) {
+                        group.add(neighbour);
+                    }
+                }
+            }
+
+            group.sort(Comparator.comparingInt(state::indexOf));
+            groups.add(group.toArray(new Location[0]));
+        }
+
+        return groups.toArray(new Location[0][]);
+    }
+
+    /**
+     * Set whether adjacent targets (for example the cells of a wide door) are merged into a group.
+     * All targets of a group share a single potential leading to the nearest target of the group,
+     * calculated in one pass from all of them, instead of one potential per target.
+     * People thus walk to the nearest target of the group of their target.
+     *
+     * @param mergeAdjacentTargets whether to merge adjacent targets
+     */
+    @JsonProperty("mergeAdjacentTargets")
+    public void setMergeAdjacentTargets(boolean mergeAdjacentTargets) {
+        this.mergeAdjacentTargets = mergeAdjacentTargets;
+    }
+
+    /**
+     * Check whether adjacent targets are merged into a group sharing a single potential.
+     *
+     * @return whether adjacent targets are merged
+     */
+    public boolean isMergeAdjacentTargets() {
+        return mergeAdjacentTargets;
+    }
+
+    /**
+     * Set the storage of the base potentials.
+     * Reduced precision storages need less memory, but movement decisions may differ when the potential descents
+     * to the best neighbours differ by less than twice the tolerance of the storage (see {@link PotentialField}).
+     *
+     * @param potentialStorage to store base potentials with
+     */
+    @JsonProperty("potentialStorage")
+    public void setPotentialStorage(PotentialField.Storage potentialStorage) {
+        this.potentialStorage = potentialStorage != null ? potentialStorage : PotentialField.Storage.DOUBLE;
+    }
+
+    /**
+     * Get the storage of the base potentials.
+     *
+     * @return storage
+     */
+    public PotentialField.Storage getPotentialStorage() {
+        return potentialStorage;
+    }
+
+    /**
+     * Set the pool to calculate the base potentials of the targets on when initializing.
+     * The base potentials of different targets are independent of each other and calculated in parallel.
+     *
+     * @param potentialPool to calculate base potentials on
+     */
+    @JsonIgnore
+    public void setPotentialPool(ForkJoinPool potentialPool) {
+        this.potentialPool = potentialPool;
+    }
+
+    /**
+     * Set the cache to share the base potentials with other strategies through.
+     *
+     * @param potentialFieldCache to use
+     */
+    @JsonIgnore
+    public void setPotentialFieldCache(PotentialFieldCache potentialFieldCache) {
+        this.potentialFieldCache = potentialFieldCache;
+    }
+
+    /**
+     * Get the base potential for the passed target group from the cache or calculate it.
+     * A group is identified by its representative, as the other targets of the group follow from the layout.
+     *
+     * @param state  of the simulation world
+     * @param layout of the simulation world
+     * @param group  of targets to get potential for
+     * @return base potential
+     */
+    private PotentialField getBasePotential(State state, PotentialFieldCache.Layout layout, Location[] group) {
+        String key = group.length > 1 ? getBasePotentialKey() + ":group" : getBasePotentialKey();
+        return potentialFieldCache.get(key, layout, state.indexOf(group[0]), potentialStorage, () -> calculateBasePotential(state, group));
+    }
+
+    /**
+     * Get the key identifying the base potentials of the strategy in the {@link PotentialFieldCache}.
+     * Strategies whose base potential depends on further parameters must include them.
+     *
+     * @return key of the base potentials
+     */
+    protected String getBasePotentialKey() {
+        return getClass().getName();
+    }
+
+    /**
+     * Get the field summing the mollifier of all people in the passed state.
+     *
+     * @param state to get field for
+     * @return interaction field
+     */
+    private InteractionField getInteractionField(State state) {
+        InteractionField field = interactionField;
+        if (field == null || !field.isFieldOf(state)) {
+            field = state.getInteractionField(mollifierKernel.getRange(), mollifierKernel.getValues());
+            interactionField = field;
         }
+
+        return field;
     }
 
     /**
      * Calculate the potential matrix for the strategy.
+     * Called concurrently for different targets when initializing (the state is not modified meanwhile).
+     * The result is shared with other strategies (see {@link PotentialFieldCache}),
+     * thus it must only depend on the cell layout of the state, the target and the {@link #getBasePotentialKey()}.
      *
      * @param state  of the simulation world
      * @param target to calculate potential matrix for
@@ -94,6 +367,44 @@ public abstract class DefaultMovementStrategy implements MoveStrategy {
      */
     abstract double[][] calculateBasePotential(State state, Location target);
 
+    /**
+     * Calculate the potential matrix leading to the nearest of the passed targets.
+     * By default the minimum of the potentials of the single targets,
+     * strategies able to calculate the potential from all targets in a single pass should override this.
+     *
+     * @param state   of the simulation world
+     * @param targets to calculate potential matrix for
+     * @return potential matrix
+     */
+    double[][] calculateBasePotential(State state, Location[] targets) {
+        double[][] potential = calculateBasePotential(state, targets[0]);
+        for (int i = 1; i < targets.length; i++) {
+            double[][] other = calculateBasePotential(state, targets[i]);
+            for (int row = 0; row < potential.length; row++) {
+                for (int column = 0; column < potential[row].length; column++) {
+                    potential[row][column] = Math.min(potential[row][column], other[row][column]);
+                }
+            }
+        }
+
+        return potential;
+    }
+
+    /**
+     * Update the potential matrix of the passed targets after the occupants of some cells changed.
+     * Strategies able to update a potential incrementally only re-solve the region affected by the changed cells,
+     * by default the potential is calculated again completely.
+     *
+     * @param state             of the simulation world (after the cells changed)
+     * @param targets           to update potential matrix for
+     * @param previousPotential potential matrix before the cells changed (may be shared, thus must not be modified)
+     * @param changedCells      indices of the changed cells
+     * @return updated potential matrix
+     */
+    double[][] updateBasePotential(State state, Location[] targets, double[][] previousPotential, int[] changedCells) {
+        return calculateBasePotential(state, targets);
+    }
+
     /**
      * Get the strategies name.
      *
@@ -102,27 +413,44 @@ public abstract class DefaultMovementStrategy implements MoveStrategy {
     abstract public String getName();
 
     @Override
-    public void move(Person person, State state, Scheduler scheduler) {
-        List<Location> possibleMoveLocations = chooseNextLocations(person, state);
+    public void move(Person person, State state, SchedulingContext scheduler) {
+        apply(person, decide(person, state, rng), state, scheduler, rng);
+    }
 
-        if (possibleMoveLocations.isEmpty()) {
-            onCouldNotMovePerson(person, scheduler, state);
+    @Override
+    public int decide(Person person, State state, Random rng) {
+        return chooseNextLocation(person, state, rng);
+    }
+
+    @Override
+    public void apply(Person person, int decision, State state, SchedulingContext scheduler, Random rng) {
+        Location newLocation = decision != NO_MOVE ? state.locationOf(decision) : null;
+
+        if (newLocation == null || !canMoveTo(newLocation, state)) {
+            onCouldNotMovePerson(person, scheduler, state, rng);
         } else {
-            onMovePerson(person, scheduler, state, possibleMoveLocations);
+            onMovePerson(person, scheduler, state, newLocation);
         }
 
         // log in csv format using the default locale to force . instead of , for floating point numbers
-        CSV_LOGGER.finest(String.format(
-                Locale.ROOT,
-                "%f;%d;%d;%d;%f;%f;%f",
-                scheduler.currentTime(),
-                person.getId(),
-                person.getLocation().getRow(),
-                person.getLocation().getColumn(),
-                person.getSpeed(),
-                person.getMeanSpeed(),
-                person.getMeanSpeed(5)
-        ));
+        if (CSV_LOGGER.isLoggable(Level.FINEST)) {
+            CSV_LOGGER.finest(String.format(
+                    Locale.ROOT,
+                    "%f;%d;%d;%d;%f;%f;%f",
+                    scheduler.currentTime(),
+                    person.getId(),
+                    person.getLocation().getRow(),
+                    person.getLocation().getColumn(),
+                    person.getSpeed(),
+                    person.getMeanSpeed(),
+                    person.getMeanSpeed(5)
+            ));
+        }
+    }
+
+    @Override
+    public boolean canApply(Person person, int decision, State state) {
+        return decision == NO_MOVE || canMoveTo(state.locationOf(decision), state);
     }
 
     /**
@@ -131,47 +459,50 @@ public abstract class DefaultMovementStrategy implements MoveStrategy {
      * @param person    that could not be moved
      * @param scheduler of the simulation
      * @param state     of the simulation
+     * @param rng       random number generator to use
      */
-    private void onCouldNotMovePerson(Person person, Scheduler scheduler, State state) {
-        LOGGER.log(Level.FINE, String.format("Could not move person at %s", person.getLocation()));
+    private void onCouldNotMovePerson(Person person, SchedulingContext scheduler, State state, Random rng) {
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.log(Level.FINE, String.format("Could not move person at %s", person.getLocation()));
+        }
 
         person.couldNotMove();
 
-        double nextTimeStamp = scheduler.peekNextTimestamp().orElse(0.0);
+        double nextTimeStamp = scheduler.peekNextTimestamp(0.0);
 
         // Get random delay based on person speed
         nextTimeStamp += rng.nextDouble() * (1 / person.getSpeed());
 
-        scheduler.scheduleIn(() -> move(person, state, scheduler), nextTimeStamp - scheduler.currentTime());
+        scheduler.scheduleIn(EventKind.MOVE, state.indexOf(person.getLocation()), nextTimeStamp - scheduler.currentTime());
     }
 
     /**
-     * Called when a person should be moved to one of the passed possible move locations.
+     * Called when a person should be moved to the passed location.
      *
-     * @param person                to move
-     * @param scheduler             of the simulation
-     * @param state                 of the simulation
-     * @param possibleMoveLocations the possible movements
+     * @param person      to move
+     * @param scheduler   of the simulation
+     * @param state       of the simulation
+     * @param newLocation to move the person to
      */
-    private void onMovePerson(Person person, Scheduler scheduler, State state, List<Location> possibleMoveLocations) {
-        final Location newLocation = possibleMoveLocations.size() == 1
-                ? possibleMoveLocations.get(0)
-                : possibleMoveLocations.get(rng.nextInt(possibleMoveLocations.size()));
-
+    private void onMovePerson(Person person, SchedulingContext scheduler, State state, Location newLocation) {
         person.couldMove();
 
         if (cachedTargets.contains(newLocation)) {
             // Let target consume strategy handle that
             final Target target = (Target) state.getCellOccupant(newLocation).orElseThrow();
 
-            LOGGER.log(Level.FINE, String.format("Person at reached its target at %s", target.getLocation()));
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE, String.format("Person at reached its target at %s", target.getLocation()));
+            }
 
             target.getConfiguration().getConsumeStrategy().reachedTarget(target, person, state, scheduler);
         } else {
             // Check movement distance (diagonal moves are longer: sqrt(2) > 1) -> schedule later
-            double distance = distance(person.getLocation(), newLocation);
+            double distance = stepLength(person.getLocation(), newLocation);
 
-            LOGGER.log(Level.FINE, String.format("Moving person from %s to %s", person.getLocation(), newLocation));
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE, String.format("Moving person from %s to %s", person.getLocation(), newLocation));
+            }
             state.moveOccupant(person.getLocation(), newLocation);
 
             double nextMovementDelta = 1 / person.getSpeed() * distance;
@@ -181,11 +512,35 @@ public abstract class DefaultMovementStrategy implements MoveStrategy {
             person.addMovementRecord(nextTimestamp, distance);
 
             // Schedule new movement event based on the speed of the person
-            LOGGER.log(Level.FINE, String.format("Scheduling next movement of person at %s in %f time units", person.getLocation(), nextMovementDelta));
-            scheduler.scheduleIn(() -> move(person, state, scheduler), nextMovementDelta);
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE, String.format("Scheduling next movement of person at %s in %f time units", person.getLocation(), nextMovementDelta));
+            }
+            scheduler.scheduleIn(EventKind.MOVE, state.indexOf(person.getLocation()), nextMovementDelta);
         }
     }
 
+    /**
+     * Check whether a person is able to move to the passed location.
+     *
+     * @param location to check
+     * @param state    of the simulation
+     * @return whether a person can move to the location
+     */
+    private boolean canMoveTo(Location location, State state) {
+        return canMoveTo(state.indexOf(location), state);
+    }
+
+    /**
+     * Check whether a person is able to move to the cell with the passed index.
+     *
+     * @param index of the cell to check
+     * @param state of the simulation
+     * @return whether a person can move to the cell
+     */
+    private boolean canMoveTo(int index, State state) {
+        return state.canBeOccupied(index) || state.isOfType(index, SimObjectType.TARGET);
+    }
+
     /**
      * Choose the next possible locations the given person will be able to move.
      *
@@ -194,79 +549,242 @@ public abstract class DefaultMovementStrategy implements MoveStrategy {
      * @return possible move locations
      */
     public List<Location> chooseNextLocations(Person person, State state) {
-        double[][] potentialMatrix = pathUtilityCache.get(person.getTarget());
-        assert potentialMatrix != null;
+        return chooseNextLocations(person, state, rng);
+    }
+
+    /**
+     * Choose the next possible locations the given person will be able to move.
+     * Does not modify the passed state.
+     * Allocates the resulting list, prefer {@link #chooseNextLocation(Person, State, Random)}.
+     *
+     * @param person to move
+     * @param state  to find possible move locations in
+     * @param rng    random number generator to use
+     * @return possible move locations
+     */
+    public List<Location> chooseNextLocations(Person person, State state, Random rng) {
+        final int[] candidates = CANDIDATE_BUFFERS.get();
+        final int count = findNextLocations(person, state, rng, candidates);
+
+        List<Location> possibleMoveLocations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            possibleMoveLocations.add(state.locationOf(candidates[i]));
+        }
 
-        final List<Location> otherPeopleInRadius = getOtherPeopleInRadius(person, state);
-        final double currentPotential = potentialMatrix[person.getLocation().getRow()][person.getLocation().getColumn()];
+        return possibleMoveLocations;
+    }
+
+    /**
+     * Choose the next location the given person will move to without allocating.
+     * Does not modify the passed state.
+     * When there are multiple equally good locations one of them is chosen randomly.
+     *
+     * @param person to move
+     * @param state  to find the move location in
+     * @param rng    random number generator to use
+     * @return the cell index to move to or {@link #NO_MOVE}
+     */
+    public int chooseNextLocation(Person person, State state, Random rng) {
+        final int[] candidates = CANDIDATE_BUFFERS.get();
+        final int count = findNextLocations(person, state, rng, candidates);
+
+        if (count == 0) {
+            return NO_MOVE;
+        }
+
+        return count == 1 ? candidates[0] : candidates[rng.nextInt(count)];
+    }
+
+    /**
+     * Find the cell indices of the next possible locations the given person will be able to move.
+     *
+     * @param person     to move
+     * @param state      to find possible move locations in
+     * @param rng        random number generator to use
+     * @param candidates buffer to write the cell indices of the possible move locations to (in row-major order)
+     * @return amount of possible move locations (0 if the target of the person does not exist (anymore))
+     */
+    private int findNextLocations(Person person, State state, Random rng, int[] candidates) {
+        final Location group = targetGroupRepresentatives.get(person.getTarget());
+        if (group == null) {
+            return 0; // Wait until the person has been assigned an existing target (see MoveStrategy#onLayoutChanged)
+        }
+
+        final PotentialField potentialField = pathUtilityCache.get(group);
 
-        List<Location> possibleMoveLocations = new ArrayList<>();
-        AtomicReference<Double> greatestPotentialDescent = new AtomicReference<>(-Double.MAX_VALUE);
-        forEachNeighbour(person.getLocation(), state, location -> {
-            final double potential = potentialMatrix[location.getRow()][location.getColumn()];
+        final InteractionField field = getRadius() > 0 ? getInteractionField(state) : null;
+        final double currentPotential = potentialField.get(person.getLocation().getRow(), person.getLocation().getColumn());
+
+        final int row = person.getLocation().getRow();
+        final int column = person.getLocation().getColumn();
+
+        if (field == null && isFlowFieldApplicable()) {
+            // Look up the best moves instead of evaluating all neighbours
+            final int index = row * state.getColumns() + column;
+            final FlowField flowField = getFlowField(person, state, potentialField);
+
+            int count = 0;
+            for (int mask = flowField.bestNeighboursOf(index); mask != 0; mask &= mask - 1) {
+                final int i = Integer.numberOfTrailingZeros(mask);
+                final int neighbourIndex = index + NEIGHBOUR_ROW_OFFSETS[i] * state.getColumns() + NEIGHBOUR_COLUMN_OFFSETS[i];
+
+                if (canMoveTo(neighbourIndex, state)) {
+                    candidates[count++] = neighbourIndex;
+                }
+            }
+
+            if (count > 0) {
+                if (flowField.isBadDecision(index) && person.getCouldNotMoveCounter() <= person.getPatience()) {
+                    return 0; // Reject a bad decision movement
+                }
+
+                return count;
+            }
+
+            // All best moves are blocked at the moment -> evaluate the remaining neighbours
+        }
+
+        int count = 0;
+        double greatestPotentialDescent = -Double.MAX_VALUE;
+        for (int i = 0; i < NEIGHBOUR_ROW_OFFSETS.length; i++) {
+            final int neighbourRow = row + NEIGHBOUR_ROW_OFFSETS[i];
+            final int neighbourColumn = column + NEIGHBOUR_COLUMN_OFFSETS[i];
+            if (neighbourRow < 0 || neighbourRow >= state.getRows() || neighbourColumn < 0 || neighbourColumn >= state.getColumns()) {
+                continue;
+            }
+
+            final int index = neighbourRow * state.getColumns() + neighbourColumn;
+            final double potential = potentialField.get(neighbourRow, neighbourColumn);
 
             double potentialDescent = currentPotential - potential;
 
-            final boolean isDiagonal = distance(person.getLocation(), location) > 1.0;
+            final boolean isDiagonal = NEIGHBOUR_STEP_LENGTHS[i] > 1.0;
             if (isDiagonal) {
-                potentialDescent = normalizeDiagonalPotentialDescent(potentialDescent, person);
+                potentialDescent = normalizeDiagonalPotentialDescent(potentialDescent, person, rng);
             }
 
             // Apply mollifier for nearby people
-            if (getRadius() > 0) {
+            if (field != null) {
                 // Increase the potential for nearby people -> less likely to move there if people are nearby!
-                for (Location otherPersonLocation : otherPeopleInRadius) {
-                    potentialDescent += calculateMollifierValue(location, otherPersonLocation);
-                }
+                potentialDescent += field.valueExcluding(index, -NEIGHBOUR_ROW_OFFSETS[i], -NEIGHBOUR_COLUMN_OFFSETS[i]);
             }
 
             // Check if move is possible
-            if (state.canBeOccupied(location) || state.getCellOccupant(location).get().getType() == SimObjectType.TARGET) {
-                if (potentialDescent > greatestPotentialDescent.get()) {
-                    greatestPotentialDescent.set(potentialDescent);
-                    possibleMoveLocations.clear();
-                    possibleMoveLocations.add(location);
-                } else if (potentialDescent == greatestPotentialDescent.get()) {
-                    possibleMoveLocations.add(location);
+            if (canMoveTo(index, state)) {
+                if (potentialDescent > greatestPotentialDescent) {
+                    greatestPotentialDescent = potentialDescent;
+                    candidates[0] = index;
+                    count = 1;
+                } else if (potentialDescent == greatestPotentialDescent) {
+                    candidates[count++] = index;
                 }
             }
-        });
+        }
 
-        if (greatestPotentialDescent.get() < 0.0) { // Is a bad decision movement
+        if (greatestPotentialDescent < 0.0) { // Is a bad decision movement
             if (person.getCouldNotMoveCounter() <= person.getPatience()) {
                 // Person is patient enough and is not willing to take bad decisions
-                return Collections.emptyList(); // Reject a bad decision movement
+                return 0; // Reject a bad decision movement
             }
         }
 
-        return possibleMoveLocations;
+        return count;
     }
 
-    protected double normalizeDiagonalPotentialDescent(double potentialDescent, Person person) {
-        final int rowDiff = Math.abs(person.getSource().getRow() - person.getTarget().getRow());
-        final int columnDiff = Math.abs(person.getSource().getColumn() - person.getTarget().getColumn());
+    /**
+     * Check whether the best moves may be looked up in precomputed flow fields (see {@link FlowField})
+     * instead of evaluating all neighbours.
+     * This is the case when other people are not respected.
+     * Subclasses whose diagonal normalization differs from the default one
+     * (see {@link #normalizeDiagonalPotentialDescent(double, Person, Random)}) must not use flow fields.
+     *
+     * @return whether flow fields may be used
+     */
+    protected boolean isFlowFieldApplicable() {
+        return getRadius() <= 0;
+    }
 
-        if (rowDiff > columnDiff) {
-            potentialDescent /= 1.0 + (double) columnDiff / rowDiff;
-        } else {
-            potentialDescent /= 1.0 + (double) rowDiff / columnDiff;
+    /**
+     * Get the flow field for the target group and diagonal step ratio of the passed person (built on first use).
+     *
+     * @param person          to get flow field for
+     * @param state           of the simulation
+     * @param potentialField  base potential of the target group of the person
+     * @return flow field
+     */
+    private FlowField getFlowField(Person person, State state, PotentialField potentialField) {
+        final double diagonalStepRatio = person.getDiagonalStepRatio();
+        final Location group = targetGroupRepresentatives.get(person.getTarget());
+
+        FlowField flowField = findFlowField(flowFieldCache.get(group), diagonalStepRatio);
+        if (flowField != null) {
+            return flowField;
+        }
+
+        synchronized (flowFieldCache) {
+            FlowField[] flowFields = flowFieldCache.get(group);
+
+            flowField = findFlowField(flowFields, diagonalStepRatio);
+            if (flowField == null) {
+                flowField = new FlowField(potentialField, state, diagonalStepRatio);
+
+                flowFields = Arrays.copyOf(flowFields, flowFields.length + 1);
+                flowFields[flowFields.length - 1] = flowField;
+                flowFieldCache.put(group, flowFields);
+            }
+
+            return flowField;
         }
-        return potentialDescent;
     }
 
-    private List<Location> getOtherPeopleInRadius(Person person, State state) {
-        // Find people in specified radius around the person to move.
-        List<Location> otherPeopleInRadius = new ArrayList<>();
-        if (getRadius() > 0) {
-            forEachNeighbour(person.getLocation(), state, getRadius(), location -> state.getUpperCellOccupant(location).ifPresent(occupant -> {
-                if (occupant.getType() == SimObjectType.PERSON) {
-                    if (distance(location, person.getLocation()) <= radius) {
-                        otherPeopleInRadius.add(location);
-                    }
-                }
-            }));
+    /**
+     * Find the flow field built for the passed diagonal step ratio.
+     *
+     * @param flowFields        to search in
+     * @param diagonalStepRatio to find flow field for
+     * @return flow field or null
+     */
+    private static FlowField findFlowField(FlowField[] flowFields, double diagonalStepRatio) {
+        for (FlowField flowField : flowFields) {
+            if (Double.compare(flowField.getDiagonalStepRatio(), diagonalStepRatio) == 0) {
+                return flowField;
+            }
         }
-        return otherPeopleInRadius;
+
+        return null;
+    }
+
+    /**
+     * Normalize the potential descent of a diagonal move.
+     *
+     * @param potentialDescent of the diagonal move
+     * @param person           to move
+     * @param rng              random number generator to use
+     * @return normalized potential descent
+     */
+    protected double normalizeDiagonalPotentialDescent(double potentialDescent, Person person, Random rng) {
+        return potentialDescent / (1.0 + person.getDiagonalStepRatio());
+    }
+
+    /**
+     * Get the length of the step from the passed location to the passed location.
+     * Steps to neighbours are looked up in the neighbour stencil instead of being calculated.
+     *
+     * @param from location
+     * @param to   location
+     * @return step length
+     */
+    private double stepLength(Location from, Location to) {
+        final int rowOffset = to.getRow() - from.getRow();
+        final int columnOffset = to.getColumn() - from.getColumn();
+
+        for (int i = 0; i < NEIGHBOUR_ROW_OFFSETS.length; i++) {
+            if (NEIGHBOUR_ROW_OFFSETS[i] == rowOffset && NEIGHBOUR_COLUMN_OFFSETS[i] == columnOffset) {
+                return NEIGHBOUR_STEP_LENGTHS[i];
+            }
+        }
+
+        return distance(from, to);
     }
 
     /**
@@ -311,52 +829,29 @@ public abstract class DefaultMovementStrategy implements MoveStrategy {
      */
     @Override
     public double[][] calculatePotential(State state) throws UnsupportedOperationException {
-        if (getCachedTargets().size() != 1) {
+        if (cachedTargetGroups.length != 1) {
             throw new UnsupportedOperationException("Cannot calculate the potential for multiple targets");
         }
 
-        double[][] potentialMatrix = pathUtilityCache.get(getCachedTargets().iterator().next());
+        double[][] potentialMatrix = pathUtilityCache.get(cachedTargetGroups[0][0]).toMatrix();
 
         // Check if we have to apply the mollifier for all people in the simulation world
         if (getRadius() > 0) {
-            // First and foremost deep copy the potential matrix
+            InteractionField field = getInteractionField(state);
+
             double[][] tmp = new double[state.getRows()][state.getColumns()];
             for (int row = 0; row < state.getRows(); row++) {
-                if (state.getColumns() >= 0) System.arraycopy(potentialMatrix[row], 0, tmp[row], 0, state.getColumns());
+                for (int column = 0; column < state.getColumns(); column++) {
+                    tmp[row][column] = potentialMatrix[row][column] - field.valueAt(row * state.getColumns() + column);
+                }
             }
 
-            // Find all people and apply the mollifier on the temporary potential matrix
-            state.getObjectsForType(SimObjectType.PERSON).stream()
-                    .map(o -> (Person) o)
-                    .forEach(p -> forEachNeighbour(
-                            p.getLocation(),
-                            state,
-                            getMollifierConfiguration().getRange(),
-                            location -> tmp[location.getRow()][location.getColumn()] -= calculateMollifierValue(location, p.getLocation())));
-
             return tmp;
         }
 
         return potentialMatrix;
     }
 
-    /**
-     * Calculate the mollifier value for the passed location from the given center.
-     *
-     * @param location to calculate mollifier value for
-     * @param center   the center of the mollifier
-     * @return mollifier value
-     */
-    private double calculateMollifierValue(Location location, Location center) {
-        double distance = distance(location, center);
-
-        if (distance < getMollifierConfiguration().getRange()) {
-            return -getMollifierConfiguration().getStrength() * Math.exp(1 / (Math.pow(distance / getMollifierConfiguration().getRange(), 2) - 1));
-        }
-
-        return 0.0;
-    }
-
     /**
      * Get the mollifier configuration to use.
      *
@@ -375,6 +870,16 @@ public abstract class DefaultMovementStrategy implements MoveStrategy {
         return radius;
     }
 
+    @Override
+    public int getInteractionRadius() {
+        if (radius > 0) {
+            // Candidate cells are next to the person and are repelled by the people in range of the mollifier
+            return Math.max(radius, getMollifierConfiguration().getRange() + 1);
+        }
+
+        return 1;
+    }
+
     /**
      * Execute the passed consumer for each neighbour of the passed location in the simulation state.
      *
@@ -439,4 +944,65 @@ public abstract class DefaultMovementStrategy implements MoveStrategy {
     public static Logger getCSVMovementLogger() {
         return CSV_LOGGER;
     }
+
+    /**
+     * Task calculating the base potentials of a range of target groups.
+     */
+    private class BasePotentialTask extends RecursiveAction {
+
+        /**
+         * State to calculate the base potentials in (not modified meanwhile).
+         */
+        private final State state;
+
+        /**
+         * Layout of the state.
+         */
+        private final PotentialFieldCache.Layout layout;
+
+        /**
+         * Target groups to calculate the base potentials for.
+         */
+        private final Location[][] groups;
+
+        /**
+         * Calculated base potentials (same order as the target groups).
+         */
+        private final PotentialField[] potentials;
+
+        /**
+         * First target group index to calculate.
+         */
+        private final int from;
+
+        /**
+         * Target group index to stop calculating at (exclusive).
+         */
+        private final int to;
+
+        BasePotentialTask(State state, PotentialFieldCache.Layout layout, Location[][] groups, PotentialField[] potentials, int from, int to) {
+            this.state = state;
+            this.layout = layout;
+            this.groups = groups;
+            this.potentials = potentials;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                potentials[from] = getBasePotential(state, layout, groups[from]);
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(
+                    new BasePotentialTask(state, layout, groups, potentials, from, middle),
+                    new BasePotentialTask(state, layout, groups, potentials, middle, to)
+            );
+        }
+
+    }
+
 }
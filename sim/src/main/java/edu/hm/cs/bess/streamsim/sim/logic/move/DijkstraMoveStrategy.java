@@ -8,6 +8,9 @@ import edu.hm.cs.bess.streamsim.sim.model.misc.Location;
 import edu.hm.cs.bess.streamsim.sim.model.object.person.Person;
 import edu.hm.cs.bess.streamsim.sim.model.state.State;
 
+import java.util.Arrays;
+import java.util.Random;
+
 /**
  * Strategy moving a person to its target based on the dijkstra floor-flooding algorithm.
  *
@@ -41,7 +44,12 @@ public class DijkstraMoveStrategy extends DefaultMovementStrategy {
     }
 
     @Override
-    protected double normalizeDiagonalPotentialDescent(double potentialDescent, Person person) {
+    protected boolean isFlowFieldApplicable() {
+        return false; // The diagonal normalization depends on random numbers
+    }
+
+    @Override
+    protected double normalizeDiagonalPotentialDescent(double potentialDescent, Person person, Random rng) {
         if (potentialDescent > 1.4 && potentialDescent < 1.5) {
             final int rowDiff = Math.abs(person.getSource().getRow() - person.getTarget().getRow());
             final int columnDiff = Math.abs(person.getSource().getColumn() - person.getTarget().getColumn());
@@ -73,6 +81,11 @@ public class DijkstraMoveStrategy extends DefaultMovementStrategy {
 
     @Override
     public double[][] calculateBasePotential(State state, Location target) {
+        return calculateBasePotential(state, new Location[]{target});
+    }
+
+    @Override
+    double[][] calculateBasePotential(State state, Location[] targets) {
         double[][] potentialMatrix = new double[state.getRows()][state.getColumns()];
         for (int row = 0; row < state.getRows(); row++) {
             for (int column = 0; column < state.getColumns(); column++) {
@@ -80,7 +93,20 @@ public class DijkstraMoveStrategy extends DefaultMovementStrategy {
             }
         }
 
-        Graph graph = new Graph(state, target);
+        Graph graph = new Graph(state, targets);
+        graph.setDistanceToTargetOnMatrix(potentialMatrix);
+
+        return potentialMatrix;
+    }
+
+    @Override
+    double[][] updateBasePotential(State state, Location[] targets, double[][] previousPotential, int[] changedCells) {
+        double[][] potentialMatrix = new double[state.getRows()][state.getColumns()];
+        for (double[] row : potentialMatrix) {
+            Arrays.fill(row, Double.MAX_VALUE);
+        }
+
+        Graph graph = new Graph(state, targets, previousPotential, changedCells);
         graph.setDistanceToTargetOnMatrix(potentialMatrix);
 
         return potentialMatrix;
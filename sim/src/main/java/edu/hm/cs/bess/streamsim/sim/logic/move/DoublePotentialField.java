@@ -0,0 +1,60 @@
+package edu.hm.cs.bess.streamsim.sim.logic.move;
+
+/**
+ * Potential stored exactly in the matrix it has been calculated in.
+ *
+ * @author Benjamin Eder
+ */
+final class DoublePotentialField implements PotentialField {
+
+    /**
+     * Potential matrix.
+     */
+    private final double[][] matrix;
+
+    /**
+     * Columns of the matrix.
+     */
+    private final int columns;
+
+    DoublePotentialField(double[][] matrix) {
+        this.matrix = matrix;
+        this.columns = matrix.length > 0 ? matrix[0].length : 0;
+    }
+
+    @Override
+    public int getRows() {
+        return matrix.length;
+    }
+
+    @Override
+    public int getColumns() {
+        return columns;
+    }
+
+    @Override
+    public double get(int index) {
+        return matrix[index / columns][index % columns];
+    }
+
+    @Override
+    public double get(int row, int column) {
+        return matrix[row][column];
+    }
+
+    @Override
+    public double getTolerance() {
+        return 0.0;
+    }
+
+    @Override
+    public long getMemorySize() {
+        return (long) matrix.length * columns * Double.BYTES;
+    }
+
+    @Override
+    public double[][] toMatrix() {
+        return matrix;
+    }
+
+}
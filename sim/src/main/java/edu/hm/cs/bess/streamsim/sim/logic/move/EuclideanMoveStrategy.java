@@ -49,6 +49,11 @@ public class EuclideanMoveStrategy extends DefaultMovementStrategy {
         return potentialMatrix;
     }
 
+    @Override
+    double[][] updateBasePotential(State state, Location[] targets, double[][] previousPotential, int[] changedCells) {
+        return previousPotential; // The euclidean distance does not depend on the occupants of cells
+    }
+
     @Override
     public String getName() {
         return EuclideanMoveStrategy.NAME;
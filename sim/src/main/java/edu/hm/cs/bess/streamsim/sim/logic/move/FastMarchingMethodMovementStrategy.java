@@ -4,15 +4,18 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import edu.hm.cs.bess.streamsim.sim.config.MollifierConfiguration;
 import edu.hm.cs.bess.streamsim.sim.logic.move.util.fmm.FastMarchingMethod;
+import edu.hm.cs.bess.streamsim.sim.logic.move.util.fmm.FastSweepingMethod;
 import edu.hm.cs.bess.streamsim.sim.model.misc.Location;
-import edu.hm.cs.bess.streamsim.sim.model.object.SimObject;
 import edu.hm.cs.bess.streamsim.sim.model.object.SimObjectType;
 import edu.hm.cs.bess.streamsim.sim.model.state.State;
 
-import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntToDoubleFunction;
 
 /**
  * Strategy moving a person to its target based on the fast marching method algorithm.
+ * The base potential may alternatively be calculated with the (parallel) fast sweeping method,
+ * which solves the same equation and is faster on large open areas (see {@link Solver}).
  *
  * @author Benjamin Eder
  */
@@ -28,13 +31,24 @@ public class FastMarchingMethodMovementStrategy extends DefaultMovementStrategy
      */
     public static final String NAME = "Fast marching method";
 
+    /**
+     * Solver calculating the base potential.
+     */
+    private final Solver solver;
+
+    public FastMarchingMethodMovementStrategy(MollifierConfiguration mollifierConfiguration, int radius) {
+        this(mollifierConfiguration, radius, Solver.FAST_MARCHING);
+    }
 
     @JsonCreator(mode = JsonCreator.Mode.PROPERTIES)
     public FastMarchingMethodMovementStrategy(
             @JsonProperty("mollifierConfiguration") MollifierConfiguration mollifierConfiguration,
-            @JsonProperty("radius") int radius
+            @JsonProperty("radius") int radius,
+            @JsonProperty("solver") Solver solver
     ) {
         super(mollifierConfiguration, radius);
+
+        this.solver = solver != null ? solver : Solver.FAST_MARCHING;
     }
 
     @Override
@@ -43,7 +57,7 @@ public class FastMarchingMethodMovementStrategy extends DefaultMovementStrategy
     }
 
     /**
-     * Calculate the utility function using the fast marching method.
+     * Calculate the utility function using the fast marching (or fast sweeping) method.
      *
      * @param state  to calculate on
      * @param target to calculate from
@@ -51,23 +65,117 @@ public class FastMarchingMethodMovementStrategy extends DefaultMovementStrategy
      */
     @Override
     public double[][] calculateBasePotential(State state, Location target) {
+        return calculateBasePotential(state, new Location[]{target});
+    }
+
+    /**
+     * Calculate the utility function from all passed targets in a single pass
+     * using the fast marching (or fast sweeping) method.
+     *
+     * @param state   to calculate on
+     * @param targets to calculate from
+     * @return the utility function in a discrete matrix form
+     */
+    @Override
+    double[][] calculateBasePotential(State state, Location[] targets) {
+        IntToDoubleFunction initializeFunction = initializeFunction(state);
+
+        if (solver == Solver.FAST_SWEEPING) {
+            FastSweepingMethod fsm = new FastSweepingMethod(
+                    state.getRows(),
+                    state.getColumns(),
+                    initializeFunction,
+                    (index) -> 1.0,
+                    ForkJoinPool.commonPool()
+            );
+
+            fsm.calculate(targets);
+
+            return fsm.getResult();
+        }
+
+        FastMarchingMethod fmm = new FastMarchingMethod(
+                state.getRows(),
+                state.getColumns(),
+                initializeFunction,
+                (index) -> 1.0
+        );
+
+        fmm.calculate(targets);
+
+        return fmm.getResult();
+    }
+
+    /**
+     * Update the utility function incrementally using the fast marching method
+     * (see {@link FastMarchingMethod#update(double[][], Location[], int...)}).
+     * The fast sweeping method has no incremental update, thus it calculates the utility function again.
+     *
+     * @param state             to calculate on (after the cells changed)
+     * @param targets           to calculate from
+     * @param previousPotential utility function before the cells changed
+     * @param changedCells      indices of the changed cells
+     * @return the updated utility function in a discrete matrix form
+     */
+    @Override
+    double[][] updateBasePotential(State state, Location[] targets, double[][] previousPotential, int[] changedCells) {
+        if (solver == Solver.FAST_SWEEPING) {
+            return super.updateBasePotential(state, targets, previousPotential, changedCells);
+        }
+
         FastMarchingMethod fmm = new FastMarchingMethod(
                 state.getRows(),
                 state.getColumns(),
-                (location) -> {
-                    Optional<SimObject> occupant = state.getCellOccupant(location);
-                    if (occupant.isPresent() && occupant.get().getType() == SimObjectType.OBSTACLE) {
-                        return Double.MAX_VALUE; // Avoid obstacles!
-                    }
-
-                    return null;
-                },
-                (location) -> 1.0
+                initializeFunction(state),
+                (index) -> 1.0
         );
 
-        fmm.calculate(target);
+        fmm.update(previousPotential, targets, changedCells);
 
         return fmm.getResult();
     }
 
+    /**
+     * Get the function initializing the cells of the passed state for the eikonal solvers.
+     *
+     * @param state to initialize cells of
+     * @return function initializing a cell index
+     */
+    private static IntToDoubleFunction initializeFunction(State state) {
+        return (index) -> state.isOfType(index, SimObjectType.OBSTACLE)
+                ? Double.MAX_VALUE // Avoid obstacles!
+                : FastMarchingMethod.UNKNOWN;
+    }
+
+    @Override
+    protected String getBasePotentialKey() {
+        return super.getBasePotentialKey() + ':' + solver;
+    }
+
+    /**
+     * Get the solver calculating the base potential.
+     *
+     * @return solver
+     */
+    public Solver getSolver() {
+        return solver;
+    }
+
+    /**
+     * Available solvers of the eikonal equation for the base potential.
+     */
+    public enum Solver {
+
+        /**
+         * Sequential fast marching method (fixes one cell after another in the order of their values).
+         */
+        FAST_MARCHING,
+
+        /**
+         * Fast sweeping method (Gauss-Seidel sweeps, parallelized on the common fork-join pool).
+         */
+        FAST_SWEEPING
+
+    }
+
 }
@@ -0,0 +1,97 @@
+package edu.hm.cs.bess.streamsim.sim.logic.move;
+
+/**
+ * Potential stored with single precision in a flat row-major array.
+ * {@link Double#MAX_VALUE} is stored as {@link Float#MAX_VALUE}.
+ *
+ * @author Benjamin Eder
+ */
+final class FloatPotentialField implements PotentialField {
+
+    /**
+     * Rows of the field.
+     */
+    private final int rows;
+
+    /**
+     * Columns of the field.
+     */
+    private final int columns;
+
+    /**
+     * Potential per cell index.
+     */
+    private final float[] values;
+
+    /**
+     * Maximum absolute deviation of a stored finite potential.
+     */
+    private final double tolerance;
+
+    FloatPotentialField(double[][] matrix) {
+        rows = matrix.length;
+        columns = rows > 0 ? matrix[0].length : 0;
+        values = new float[rows * columns];
+
+        double largest = 0.0;
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                final double value = matrix[row][column];
+                if (value == Double.MAX_VALUE) {
+                    values[row * columns + column] = Float.MAX_VALUE;
+                } else {
+                    values[row * columns + column] = (float) value;
+                    if (Double.isFinite(value)) {
+                        largest = Math.max(largest, Math.abs(value));
+                    }
+                }
+            }
+        }
+
+        tolerance = Math.ulp((float) largest) / 2;
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getColumns() {
+        return columns;
+    }
+
+    @Override
+    public double get(int index) {
+        final float value = values[index];
+        return value == Float.MAX_VALUE ? Double.MAX_VALUE : value;
+    }
+
+    @Override
+    public double get(int row, int column) {
+        return get(row * columns + column);
+    }
+
+    @Override
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    @Override
+    public long getMemorySize() {
+        return (long) values.length * Float.BYTES;
+    }
+
+    @Override
+    public double[][] toMatrix() {
+        double[][] matrix = new double[rows][columns];
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                matrix[row][column] = get(row * columns + column);
+            }
+        }
+
+        return matrix;
+    }
+
+}
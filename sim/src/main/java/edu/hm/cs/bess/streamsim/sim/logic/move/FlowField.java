@@ -0,0 +1,129 @@
+package edu.hm.cs.bess.streamsim.sim.logic.move;
+
+import edu.hm.cs.bess.streamsim.sim.model.object.SimObjectType;
+import edu.hm.cs.bess.streamsim.sim.model.state.State;
+
+/**
+ * Table of the best moves per cell towards a target when other people are not respected (radius 0).
+ * <p>
+ * Without the mollifier the potential descent to every neighbour only depends on the static base potential
+ * (and the diagonal normalization of a person), thus the set of equally best neighbours of a cell
+ * is stored as an 8-bit mask (bit i for the i-th neighbour of the stencil in {@link DefaultMovementStrategy}).
+ * Neighbours that can never be entered (obstacles and sources) are left out.
+ * When at least one of the masked neighbours is currently free, exactly the free masked neighbours are
+ * the best move candidates the full evaluation of all neighbours would yield.
+ * Otherwise the neighbours have to be evaluated as usual.
+ *
+ * @author Benjamin Eder
+ */
+final class FlowField {
+
+    /**
+     * Ratio the diagonal potential descents have been normalized with (see {@link edu.hm.cs.bess.streamsim.sim.model.object.person.Person#getDiagonalStepRatio()}).
+     */
+    private final double diagonalStepRatio;
+
+    /**
+     * Mask of the equally best neighbours per cell.
+     */
+    private final byte[] bestNeighbours;
+
+    /**
+     * Bitmap of the cells whose best move is a bad decision (negative potential descent).
+     */
+    private final long[] badDecisions;
+
+    /**
+     * Build the flow field for the passed base potential.
+     *
+     * @param potentialField    base potential of the target
+     * @param state             to find the cells that can never be entered in
+     * @param diagonalStepRatio to normalize diagonal potential descents with
+     */
+    FlowField(PotentialField potentialField, State state, double diagonalStepRatio) {
+        this.diagonalStepRatio = diagonalStepRatio;
+
+        final int rows = state.getRows();
+        final int columns = state.getColumns();
+
+        bestNeighbours = new byte[rows * columns];
+        badDecisions = new long[(rows * columns + 63) >>> 6];
+
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                final double currentPotential = potentialField.get(row, column);
+
+                int mask = 0;
+                double greatestPotentialDescent = -Double.MAX_VALUE;
+                for (int i = 0; i < DefaultMovementStrategy.NEIGHBOUR_ROW_OFFSETS.length; i++) {
+                    final int neighbourRow = row + DefaultMovementStrategy.NEIGHBOUR_ROW_OFFSETS[i];
+                    final int neighbourColumn = column + DefaultMovementStrategy.NEIGHBOUR_COLUMN_OFFSETS[i];
+                    if (neighbourRow < 0 || neighbourRow >= rows || neighbourColumn < 0 || neighbourColumn >= columns
+                            || isNeverEnterable(neighbourRow * columns + neighbourColumn, state)) {
+                        continue;
+                    }
+
+                    // Same arithmetic as the evaluation in DefaultMovementStrategy
+                    double potentialDescent = currentPotential - potentialField.get(neighbourRow, neighbourColumn);
+                    if (DefaultMovementStrategy.NEIGHBOUR_STEP_LENGTHS[i] > 1.0) {
+                        potentialDescent = potentialDescent / (1.0 + diagonalStepRatio);
+                    }
+
+                    if (potentialDescent > greatestPotentialDescent) {
+                        greatestPotentialDescent = potentialDescent;
+                        mask = 1 << i;
+                    } else if (potentialDescent == greatestPotentialDescent) {
+                        mask |= 1 << i;
+                    }
+                }
+
+                final int index = row * columns + column;
+                bestNeighbours[index] = (byte) mask;
+                if (greatestPotentialDescent < 0.0) {
+                    badDecisions[index >>> 6] |= 1L << index;
+                }
+            }
+        }
+    }
+
+    /**
+     * Check whether the cell with the passed index can never be entered by a person.
+     *
+     * @param index of the cell
+     * @param state to check in
+     * @return whether the cell is an obstacle or a source
+     */
+    private static boolean isNeverEnterable(int index, State state) {
+        return state.isOfType(index, SimObjectType.OBSTACLE) || state.isOfType(index, SimObjectType.SOURCE);
+    }
+
+    /**
+     * Get the ratio the diagonal potential descents have been normalized with.
+     *
+     * @return diagonal step ratio
+     */
+    double getDiagonalStepRatio() {
+        return diagonalStepRatio;
+    }
+
+    /**
+     * Get the mask of the equally best neighbours of the cell with the passed index.
+     *
+     * @param index of the cell
+     * @return neighbour mask (bit i for the i-th neighbour of the stencil)
+     */
+    int bestNeighboursOf(int index) {
+        return bestNeighbours[index] & 0xFF;
+    }
+
+    /**
+     * Check whether the best move from the cell with the passed index is a bad decision (negative potential descent).
+     *
+     * @param index of the cell
+     * @return whether the best move is a bad decision
+     */
+    boolean isBadDecision(int index) {
+        return (badDecisions[index >>> 6] & (1L << index)) != 0;
+    }
+
+}
@@ -6,7 +6,7 @@ import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import edu.hm.cs.bess.streamsim.sim.model.object.person.Person;
 import edu.hm.cs.bess.streamsim.sim.model.state.State;
-import edu.hm.cs.bess.streamsim.sim.scheduler.Scheduler;
+import edu.hm.cs.bess.streamsim.sim.scheduler.SchedulingContext;
 
 import java.util.Random;
 
@@ -23,6 +23,12 @@ import java.util.Random;
         @JsonSubTypes.Type(value = FastMarchingMethodMovementStrategy.class, name = FastMarchingMethodMovementStrategy.NAME)
 })
 public interface MoveStrategy {
+
+    /**
+     * Decision of a person not to move.
+     */
+    int NO_MOVE = -1;
+
     /**
      * Called when the simulation is initialized.
      *
@@ -31,6 +37,17 @@ public interface MoveStrategy {
      */
     void init(State state, Random rng);
 
+    /**
+     * Called when the occupants of some cells have been changed during the simulation
+     * (for example obstacles placed or removed), thus the potentials need to be updated.
+     * People whose target does not exist anymore are not moved until they have been assigned another target.
+     * Must not be called concurrently with other methods of the strategy.
+     *
+     * @param state        the current simulation state (after the cells changed)
+     * @param changedCells indices of the changed cells (see {@link State#indexOf})
+     */
+    void onLayoutChanged(State state, int... changedCells);
+
     /**
      * Called when the passed person needs to move
      *
@@ -38,7 +55,49 @@ public interface MoveStrategy {
      * @param state     the current simulation state
      * @param scheduler of the simulation
      */
-    void move(Person person, State state, Scheduler scheduler);
+    void move(Person person, State state, SchedulingContext scheduler);
+
+    /**
+     * Decide where the passed person should move to without modifying the simulation state.
+     * May be called concurrently for different people as long as the state is not modified meanwhile.
+     *
+     * @param person to decide for
+     * @param state  the current simulation state
+     * @param rng    random number generator to use for the decision
+     * @return the cell index to move to (see {@link State#indexOf}) or {@link #NO_MOVE}
+     */
+    int decide(Person person, State state, Random rng);
+
+    /**
+     * Apply a decision previously made by {@link #decide(Person, State, Random)}.
+     * In case the decided cell cannot be moved to anymore, the person is treated as not being able to move.
+     *
+     * @param person    to move
+     * @param decision  the cell index to move to or {@link #NO_MOVE}
+     * @param state     the current simulation state
+     * @param scheduler of the simulation
+     * @param rng       random number generator to use (e. g. for the delay when the person cannot move)
+     */
+    void apply(Person person, int decision, State state, SchedulingContext scheduler, Random rng);
+
+    /**
+     * Check whether a decision previously made by {@link #decide(Person, State, Random)} can still be applied
+     * to the current state (e. g. the decided cell has not been taken by someone else meanwhile).
+     *
+     * @param person   the decision has been made for
+     * @param decision the cell index to move to or {@link #NO_MOVE}
+     * @param state    the current simulation state
+     * @return whether the decision can be applied
+     */
+    boolean canApply(Person person, int decision, State state);
+
+    /**
+     * Get the maximum distance (in cells per axis) around a person that is read or modified when moving the person.
+     *
+     * @return interaction radius
+     */
+    @JsonIgnore
+    int getInteractionRadius();
 
     /**
      * Get the strategy name.
@@ -0,0 +1,106 @@
+package edu.hm.cs.bess.streamsim.sim.logic.move;
+
+/**
+ * Base potential of a target (group) over all cells of the simulation world.
+ * <p>
+ * Potentials may be stored with reduced precision to hold more of them in memory (see {@link Storage}).
+ * Every stored finite value deviates from the calculated value by at most {@link #getTolerance()},
+ * the special values {@link Double#MAX_VALUE} (obstacles, unreachable cells) and infinity are kept exactly.
+ * Movement decisions compare the potential descents to the neighbours of a cell,
+ * which thus deviate by at most twice the tolerance: Decisions are the same as with the calculated potential
+ * unless the best descents differ by less than that (ties may be broken differently then).
+ *
+ * @author Benjamin Eder
+ */
+public interface PotentialField {
+
+    /**
+     * Get the rows of the field.
+     *
+     * @return rows
+     */
+    int getRows();
+
+    /**
+     * Get the columns of the field.
+     *
+     * @return columns
+     */
+    int getColumns();
+
+    /**
+     * Get the potential of the cell with the passed index.
+     *
+     * @param index of the cell (row-major)
+     * @return potential
+     */
+    double get(int index);
+
+    /**
+     * Get the potential of the passed cell.
+     *
+     * @param row    of the cell
+     * @param column of the cell
+     * @return potential
+     */
+    double get(int row, int column);
+
+    /**
+     * Get the maximum absolute deviation of a stored finite potential from the calculated one.
+     *
+     * @return tolerance (0 if stored exactly)
+     */
+    double getTolerance();
+
+    /**
+     * Get the amount of bytes needed to store the values of the field.
+     *
+     * @return amount of bytes
+     */
+    long getMemorySize();
+
+    /**
+     * Get the potential as matrix.
+     *
+     * @return potential matrix (may be shared, thus must not be modified)
+     */
+    double[][] toMatrix();
+
+    /**
+     * Available storage modes of potentials.
+     */
+    enum Storage {
+
+        /**
+         * Double precision (8 bytes per cell), stored exactly.
+         */
+        DOUBLE,
+
+        /**
+         * Single precision (4 bytes per cell), tolerance of half a float ulp of the largest finite potential.
+         */
+        FLOAT,
+
+        /**
+         * 16-bit values quantized linearly between the smallest and largest finite potential (2 bytes per cell),
+         * tolerance of half a quantization step.
+         */
+        QUANTIZED;
+
+        /**
+         * Store the passed potential matrix.
+         *
+         * @param matrix to store (must not be modified afterwards)
+         * @return stored potential
+         */
+        public PotentialField of(double[][] matrix) {
+            return switch (this) {
+                case DOUBLE -> new DoublePotentialField(matrix);
+                case FLOAT -> new FloatPotentialField(matrix);
+                case QUANTIZED -> new QuantizedPotentialField(matrix);
+            };
+        }
+
+    }
+
+}
@@ -0,0 +1,570 @@
+package edu.hm.cs.bess.streamsim.sim.logic.move;
+
+import edu.hm.cs.bess.streamsim.sim.model.object.SimObjectType;
+import edu.hm.cs.bess.streamsim.sim.model.state.State;
+import org.jetbrains.annotations.Nullable;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Supplier;
+
+/**
+ * Cache of base potentials shared by all movement strategies of the process (see {@link #shared()}).
+ * <p>
+ * Every source has its own strategy instance and every simulation run initializes its strategies again,
+ * although the base potential of a target only depends on the strategy, the cell layout of the simulation world
+ * and the target location. Potentials are cached under exactly these keys and computed only once on first use,
+ * even when requested concurrently.
+ * Potentials are cached in the requested {@link PotentialField.Storage} (also part of the key).
+ * The memory of the cached potentials (and the layouts they are keyed by, which are shared between equal layouts)
+ * is bounded by a budget: When it is exceeded, the least recently used potentials are evicted
+ * (potentials larger than the budget are not cached at all).
+ * Cached potentials are shared and thus must never be modified.
+ * <p>
+ * Optionally potentials are persisted (with full precision) in a {@link PotentialFieldStore} and loaded from it
+ * instead of being calculated again in later processes.
+ *
+ * @author Benjamin Eder
+ */
+public final class PotentialFieldCache {
+
+    /**
+     * Default memory budget in bytes.
+     */
+    public static final long DEFAULT_MEMORY_BUDGET = 256L * 1024 * 1024;
+
+    /**
+     * Cache shared by all strategies of the process.
+     */
+    private static final PotentialFieldCache SHARED = new PotentialFieldCache(DEFAULT_MEMORY_BUDGET);
+
+    /**
+     * Cached potentials in least recently used order (guarded by this).
+     */
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Layouts of the cached potentials, shared by all potentials with an equal layout (guarded by this).
+     */
+    private final HashMap<Layout, SharedLayout> layouts = new HashMap<>();
+
+    /**
+     * Maximum amount of bytes of the cached potentials (guarded by this).
+     */
+    private long memoryBudget;
+
+    /**
+     * Amount of bytes of the cached potentials and their layouts (guarded by this).
+     */
+    private long usedMemory;
+
+    /**
+     * Store to load potentials from and save calculated potentials to (or null).
+     */
+    @Nullable
+    private volatile PotentialFieldStore store;
+
+    public PotentialFieldCache(long memoryBudget) {
+        setMemoryBudget(memoryBudget);
+    }
+
+    /**
+     * Get the cache shared by all strategies of the process.
+     *
+     * @return shared cache
+     */
+    public static PotentialFieldCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Set the maximum amount of bytes of the cached potentials.
+     * Evicts the least recently used potentials if necessary.
+     *
+     * @param memoryBudget in bytes (0 disables caching)
+     */
+    public synchronized void setMemoryBudget(long memoryBudget) {
+        if (memoryBudget < 0) {
+            throw new IllegalArgumentException("The memory budget must not be negative");
+        }
+
+        this.memoryBudget = memoryBudget;
+        evict();
+    }
+
+    /**
+     * Set the store to load potentials from and save calculated potentials to.
+     *
+     * @param store to use or null to only calculate potentials
+     */
+    public void setStore(@Nullable PotentialFieldStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Get the maximum amount of bytes of the cached potentials.
+     *
+     * @return memory budget in bytes
+     */
+    public synchronized long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Get the amount of bytes of the cached potentials and their layouts.
+     *
+     * @return used memory in bytes
+     */
+    public synchronized long getUsedMemory() {
+        return usedMemory;
+    }
+
+    /**
+     * Get the amount of cached potentials.
+     *
+     * @return amount of potentials
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Remove all cached potentials.
+     */
+    public synchronized void clear() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.isDone()) {
+                iterator.remove();
+                usedMemory -= entry.size;
+                release(entry);
+            }
+        }
+    }
+
+    /**
+     * Get the base potential for the passed key (stored with double precision) or calculate it (once) on first use.
+     *
+     * @param strategyKey identifying the strategy (and its parameters) calculating the potential
+     * @param layout      of the simulation world
+     * @param target      cell index of the target
+     * @param calculator  to calculate the potential with if it is not cached yet
+     * @return the base potential (must not be modified)
+     */
+    public double[][] get(String strategyKey, Layout layout, int target, Supplier<double[][]> calculator) {
+        return get(strategyKey, layout, target, PotentialField.Storage.DOUBLE, calculator).toMatrix();
+    }
+
+    /**
+     * Get the base potential for the passed key or calculate it (once) on first use.
+     *
+     * @param strategyKey identifying the strategy (and its parameters) calculating the potential
+     * @param layout      of the simulation world
+     * @param target      cell index of the target
+     * @param storage     to store the potential with
+     * @param calculator  to calculate the potential with if it is not cached yet
+     * @return the base potential
+     */
+    public PotentialField get(String strategyKey, Layout layout, int target, PotentialField.Storage storage, Supplier<double[][]> calculator) {
+        Key key;
+        Entry entry;
+        boolean created = false;
+        synchronized (this) {
+            SharedLayout sharedLayout = layouts.get(layout);
+            key = new Key(strategyKey, sharedLayout != null ? sharedLayout.layout : layout, target, storage);
+
+            entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry(() -> storage.of(loadOrCalculate(strategyKey, layout, target, calculator)));
+                entries.put(key, entry);
+                retain(entry, key.layout);
+                created = true;
+            }
+        }
+
+        if (created) {
+            entry.task.run();
+            synchronized (this) {
+                if (entry.task.isCancelled() || !succeeded(entry)) {
+                    if (entries.remove(key, entry)) {
+                        release(entry);
+                    }
+                } else if (entries.get(key) == entry) {
+                    entry.size = sizeOf(entry);
+                    usedMemory += entry.size;
+                    evict();
+                }
+            }
+        }
+
+        try {
+            return entry.task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a potential to be calculated", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+
+            throw new IllegalStateException("Could not calculate the potential", e.getCause());
+        }
+    }
+
+    /**
+     * Load the passed potential from the store or calculate it (and save it to the store).
+     *
+     * @param strategyKey identifying the strategy calculating the potential
+     * @param layout      of the simulation world
+     * @param target      cell index of the target
+     * @param calculator  to calculate the potential with
+     * @return the potential
+     */
+    private double[][] loadOrCalculate(String strategyKey, Layout layout, int target, Supplier<double[][]> calculator) {
+        PotentialFieldStore store = this.store;
+        if (store == null) {
+            return calculator.get();
+        }
+
+        double[][] potential = store.load(strategyKey, layout, target);
+        if (potential == null) {
+            potential = calculator.get();
+            store.save(strategyKey, layout, target, potential);
+        }
+
+        return potential;
+    }
+
+    /**
+     * Check whether the calculation of the passed entry succeeded.
+     *
+     * @param entry to check (calculation must be done)
+     * @return whether the potential has been calculated
+     */
+    private static boolean succeeded(Entry entry) {
+        try {
+            entry.task.get();
+            return true;
+        } catch (InterruptedException | ExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Evict the least recently used potentials until the used memory is within the budget.
+     * Potentials still being calculated are not evicted.
+     */
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (usedMemory > memoryBudget && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.isDone()) {
+                iterator.remove();
+                usedMemory -= entry.size;
+                release(entry);
+            }
+        }
+    }
+
+    /**
+     * Let the passed new entry reference the shared instance of the passed layout.
+     * The memory of the layout is counted once for all entries referencing it.
+     *
+     * @param entry  to retain layout for
+     * @param layout of the entry (the shared instance if there is one already)
+     */
+    private void retain(Entry entry, Layout layout) {
+        SharedLayout sharedLayout = layouts.get(layout);
+        if (sharedLayout == null) {
+            sharedLayout = new SharedLayout(layout);
+            layouts.put(layout, sharedLayout);
+            usedMemory += layout.getMemorySize();
+        }
+
+        sharedLayout.references++;
+        entry.layout = sharedLayout;
+    }
+
+    /**
+     * Release the layout referenced by the passed removed entry (if any).
+     *
+     * @param entry removed from the cache
+     */
+    private void release(Entry entry) {
+        SharedLayout sharedLayout = entry.layout;
+        if (sharedLayout == null) {
+            return;
+        }
+
+        entry.layout = null;
+        if (--sharedLayout.references == 0) {
+            layouts.remove(sharedLayout.layout);
+            usedMemory -= sharedLayout.layout.getMemorySize();
+        }
+    }
+
+    /**
+     * Get the amount of bytes of the potential of the passed entry.
+     *
+     * @param entry to get size of (calculation must have succeeded)
+     * @return amount of bytes
+     */
+    private static long sizeOf(Entry entry) {
+        try {
+            return entry.task.get().getMemorySize();
+        } catch (InterruptedException | ExecutionException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Cell layout of a simulation world (the types of the occupants of all cells) a base potential depends on.
+     * People are transient and do not influence base potentials, thus cells occupied by people
+     * are part of the layout as if they were free.
+     * Layouts are compared by their content.
+     */
+    public static final class Layout {
+
+        /**
+         * Rows of the simulation world.
+         */
+        private final int rows;
+
+        /**
+         * Columns of the simulation world.
+         */
+        private final int columns;
+
+        /**
+         * Type IDs of the upper cell occupants (except people) followed by the type IDs of the walkable cell occupants.
+         */
+        private final byte[] types;
+
+        /**
+         * Hash code of the layout.
+         */
+        private final int hash;
+
+        /**
+         * SHA-256 digest of the layout (calculated on first use, see {@link #digest()}).
+         */
+        private volatile byte[] digest;
+
+        private Layout(State state) {
+            rows = state.getRows();
+            columns = state.getColumns();
+
+            int cells = rows * columns;
+            types = new byte[2 * cells];
+            for (int index = 0; index < cells; index++) {
+                byte type = state.typeAt(index);
+                byte walkableType = state.walkableTypeAt(index);
+
+                // A person hides the walkable object it stands on (if any)
+                types[index] = type == SimObjectType.PERSON.getID() ? walkableType : type;
+                types[cells + index] = walkableType;
+            }
+
+            hash = 31 * (31 * rows + columns) + Arrays.hashCode(types);
+        }
+
+        /**
+         * Get the current layout of the passed state.
+         *
+         * @param state to get layout of
+         * @return layout
+         */
+        public static Layout of(State state) {
+            return new Layout(state);
+        }
+
+        /**
+         * Get the rows of the simulation world.
+         *
+         * @return rows
+         */
+        public int getRows() {
+            return rows;
+        }
+
+        /**
+         * Get the columns of the simulation world.
+         *
+         * @return columns
+         */
+        public int getColumns() {
+            return columns;
+        }
+
+        /**
+         * Get the amount of bytes of the layout.
+         *
+         * @return amount of bytes
+         */
+        long getMemorySize() {
+            return types.length;
+        }
+
+        /**
+         * Get the SHA-256 digest of the layout (identifying the layout across processes).
+         *
+         * @return digest (must not be modified)
+         */
+        byte[] digest() {
+            byte[] result = digest;
+            if (result == null) {
+                try {
+                    MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+                    messageDigest.update(new byte[]{
+                            (byte) (rows >>> 24), (byte) (rows >>> 16), (byte) (rows >>> 8), (byte) rows,
+                            (byte) (columns >>> 24), (byte) (columns >>> 16), (byte) (columns >>> 8), (byte) columns
+                    });
+                    messageDigest.update(types);
+                    result = messageDigest.digest();
+                } catch (NoSuchAlgorithmException e) {
+                    throw new IllegalStateException("SHA-256 is not available", e);
+                }
+                digest = result;
+            }
+
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            Layout layout = (Layout) o;
+
+            return rows == layout.rows
+                    && columns == layout.columns
+                    && hash == layout.hash
+                    && Arrays.equals(types, layout.types);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+    }
+
+    /**
+     * Key of a cached potential.
+     */
+    private static final class Key {
+
+        /**
+         * Key identifying the strategy calculating the potential.
+         */
+        private final String strategyKey;
+
+        /**
+         * Layout of the simulation world.
+         */
+        private final Layout layout;
+
+        /**
+         * Cell index of the target.
+         */
+        private final int target;
+
+        /**
+         * Storage of the potential.
+         */
+        private final PotentialField.Storage storage;
+
+        Key(String strategyKey, Layout layout, int target, PotentialField.Storage storage) {
+            this.strategyKey = strategyKey;
+            this.layout = layout;
+            this.target = target;
+            this.storage = storage;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            Key key = (Key) o;
+
+            return target == key.target
+                    && storage == key.storage
+                    && strategyKey.equals(key.strategyKey)
+                    && layout.equals(key.layout);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * (31 * strategyKey.hashCode() + layout.hashCode()) + target) + storage.hashCode();
+        }
+
+    }
+
+    /**
+     * Layout shared by all cached potentials with an equal layout.
+     */
+    private static final class SharedLayout {
+
+        /**
+         * The shared layout instance.
+         */
+        private final Layout layout;
+
+        /**
+         * Amount of cached entries referencing the layout.
+         */
+        private int references;
+
+        SharedLayout(Layout layout) {
+            this.layout = layout;
+        }
+
+    }
+
+    /**
+     * A cached (or currently calculated) potential.
+     */
+    private static final class Entry {
+
+        /**
+         * Task calculating the potential.
+         */
+        private final FutureTask<PotentialField> task;
+
+        /**
+         * Amount of bytes of the potential (0 while calculating).
+         */
+        private long size;
+
+        /**
+         * Shared layout referenced by the entry (null once removed from the cache).
+         */
+        private SharedLayout layout;
+
+        Entry(Supplier<PotentialField> calculator) {
+            task = new FutureTask<>(calculator::get);
+        }
+
+        /**
+         * Check whether the potential has been calculated.
+         *
+         * @return whether the calculation is done
+         */
+        boolean isDone() {
+            return task.isDone();
+        }
+
+    }
+
+}
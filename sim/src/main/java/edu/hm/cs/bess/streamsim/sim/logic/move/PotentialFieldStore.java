@@ -0,0 +1,253 @@
+package edu.hm.cs.bess.streamsim.sim.logic.move;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Directory of base potentials persisted across processes (see {@link PotentialFieldCache#setStore(PotentialFieldStore)}).
+ * <p>
+ * Every potential is stored in its own file named after the SHA-256 digest of its key
+ * (strategy key, digest of the cell layout and target cell index).
+ * A file consists of a header followed by the values of the potential (row-major, big-endian doubles):
+ * <pre>
+ * int    magic number
+ * int    format version
+ * int    rows
+ * int    columns
+ * int    target cell index
+ * byte[] digest of the cell layout (32 bytes)
+ * int    length of the strategy key in bytes
+ * byte[] strategy key (UTF-8), padded with zeros to a multiple of 8 bytes
+ * double rows * columns values
+ * </pre>
+ * Files are read and written with plain channel I/O (mapped files could not be replaced or deleted on some platforms
+ * as long as the mapping is alive, which is until it is garbage collected).
+ * They are written to a temporary file first, which is then atomically moved into place,
+ * thus readers never see partially written potentials.
+ * Files not matching the requested key (e. g. corrupted or written by another format version) are ignored.
+ * Failing to read or write a file never fails the simulation, the potential is calculated instead.
+ *
+ * @author Benjamin Eder
+ */
+public final class PotentialFieldStore {
+
+    /**
+     * Logger of the store.
+     */
+    private static final Logger LOGGER = Logger.getLogger(PotentialFieldStore.class.getName());
+
+    /**
+     * Magic number at the beginning of every potential file.
+     */
+    private static final int MAGIC = 0x53535046; // "SSPF"
+
+    /**
+     * Version of the file format.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * File extension of potential files.
+     */
+    private static final String EXTENSION = ".potential";
+
+    /**
+     * Directory the potentials are stored in.
+     */
+    private final Path directory;
+
+    /**
+     * Create a store in the passed directory (created if it does not exist).
+     *
+     * @param directory to store potentials in
+     * @throws IOException in case the directory could not be created
+     */
+    public PotentialFieldStore(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    /**
+     * Get the directory the potentials are stored in.
+     *
+     * @return directory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Load the potential with the passed key.
+     *
+     * @param strategyKey identifying the strategy that calculated the potential
+     * @param layout      of the simulation world
+     * @param target      cell index of the target
+     * @return the potential or null if it is not stored (or could not be read)
+     */
+    @Nullable
+    public double[][] load(String strategyKey, PotentialFieldCache.Layout layout, int target) {
+        Path file = fileOf(strategyKey, layout, target);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            byte[] header = header(strategyKey, layout, target);
+            if (channel.size() != header.length + (long) layout.getRows() * layout.getColumns() * Double.BYTES) {
+                return null;
+            }
+
+            ByteBuffer storedHeader = ByteBuffer.allocate(header.length);
+            if (!readFully(channel, storedHeader) || !Arrays.equals(header, storedHeader.array())) {
+                return null;
+            }
+
+            double[][] potential = new double[layout.getRows()][layout.getColumns()];
+            ByteBuffer row = ByteBuffer.allocate(layout.getColumns() * Double.BYTES);
+            for (double[] values : potential) {
+                row.clear();
+                if (!readFully(channel, row)) {
+                    return null;
+                }
+                row.flip().asDoubleBuffer().get(values);
+            }
+
+            return potential;
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, String.format("Could not load the potential from '%s'", file), e);
+            return null;
+        }
+    }
+
+    /**
+     * Save the passed potential under the passed key.
+     *
+     * @param strategyKey identifying the strategy that calculated the potential
+     * @param layout      of the simulation world
+     * @param target      cell index of the target
+     * @param potential   to save
+     */
+    public void save(String strategyKey, PotentialFieldCache.Layout layout, int target, double[][] potential) {
+        Path file = fileOf(strategyKey, layout, target);
+
+        Path temporaryFile = null;
+        try {
+            temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+
+            try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE)) {
+                writeFully(channel, ByteBuffer.wrap(header(strategyKey, layout, target)));
+
+                ByteBuffer row = ByteBuffer.allocate(layout.getColumns() * Double.BYTES);
+                for (double[] values : potential) {
+                    row.clear();
+                    row.asDoubleBuffer().put(values);
+                    writeFully(channel, row);
+                }
+
+                channel.force(false);
+            }
+
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, String.format("Could not save the potential to '%s'", file), e);
+
+            if (temporaryFile != null) {
+                try {
+                    Files.deleteIfExists(temporaryFile);
+                } catch (IOException ignored) {
+                    // Nothing left to do
+                }
+            }
+        }
+    }
+
+    /**
+     * Read from the passed channel until the passed buffer is full.
+     *
+     * @param channel to read from
+     * @param buffer  to read into
+     * @return whether the buffer could be filled (false if the end of the file has been reached before)
+     * @throws IOException in case the channel could not be read
+     */
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Write the remaining bytes of the passed buffer to the passed channel.
+     *
+     * @param channel to write to
+     * @param buffer  to write
+     * @throws IOException in case the channel could not be written
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Get the file of the potential with the passed key.
+     *
+     * @param strategyKey identifying the strategy that calculated the potential
+     * @param layout      of the simulation world
+     * @param target      cell index of the target
+     * @return file of the potential
+     */
+    private Path fileOf(String strategyKey, PotentialFieldCache.Layout layout, int target) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(header(strategyKey, layout, target));
+
+            StringBuilder name = new StringBuilder();
+            for (byte b : digest.digest()) {
+                name.append(String.format("%02x", b));
+            }
+
+            return directory.resolve(name.append(EXTENSION).toString());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Build the file header of the potential with the passed key.
+     *
+     * @param strategyKey identifying the strategy that calculated the potential
+     * @param layout      of the simulation world
+     * @param target      cell index of the target
+     * @return header
+     */
+    private static byte[] header(String strategyKey, PotentialFieldCache.Layout layout, int target) {
+        byte[] key = strategyKey.getBytes(StandardCharsets.UTF_8);
+        byte[] layoutDigest = layout.digest();
+
+        int length = 5 * Integer.BYTES + layoutDigest.length + Integer.BYTES + key.length;
+        return ByteBuffer.allocate((length + Double.BYTES - 1) / Double.BYTES * Double.BYTES) // Align the values
+                .putInt(MAGIC)
+                .putInt(VERSION)
+                .putInt(layout.getRows())
+                .putInt(layout.getColumns())
+                .putInt(target)
+                .put(layoutDigest)
+                .putInt(key.length)
+                .put(key)
+                .array();
+    }
+
+}
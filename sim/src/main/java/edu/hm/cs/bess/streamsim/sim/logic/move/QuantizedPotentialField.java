@@ -0,0 +1,145 @@
+package edu.hm.cs.bess.streamsim.sim.logic.move;
+
+/**
+ * Potential stored as unsigned 16-bit codes in a flat row-major array.
+ * Finite potentials are quantized linearly between the smallest and the largest finite potential of the field
+ * ({@code offset + code * scale}), the highest codes are reserved for special values
+ * (infinities, {@link Double#MAX_VALUE} and NaN), which are kept exactly.
+ *
+ * @author Benjamin Eder
+ */
+final class QuantizedPotentialField implements PotentialField {
+
+    /**
+     * Special values with their reserved codes (the highest codes in order).
+     */
+    private static final double[] SPECIAL_VALUES = {
+            Double.POSITIVE_INFINITY,
+            Double.MAX_VALUE,
+            Double.NEGATIVE_INFINITY,
+            -Double.MAX_VALUE,
+            Double.NaN
+    };
+
+    /**
+     * Highest code of a finite potential.
+     */
+    private static final int MAX_CODE = 0xFFFF - SPECIAL_VALUES.length;
+
+    /**
+     * Rows of the field.
+     */
+    private final int rows;
+
+    /**
+     * Columns of the field.
+     */
+    private final int columns;
+
+    /**
+     * Code per cell index.
+     */
+    private final short[] codes;
+
+    /**
+     * Smallest finite potential (the potential of code 0).
+     */
+    private final double offset;
+
+    /**
+     * Difference of the potentials of consecutive codes.
+     */
+    private final double scale;
+
+    QuantizedPotentialField(double[][] matrix) {
+        rows = matrix.length;
+        columns = rows > 0 ? matrix[0].length : 0;
+        codes = new short[rows * columns];
+
+        double smallest = Double.POSITIVE_INFINITY;
+        double largest = Double.NEGATIVE_INFINITY;
+        for (double[] row : matrix) {
+            for (double value : row) {
+                if (specialCodeOf(value) < 0) {
+                    smallest = Math.min(smallest, value);
+                    largest = Math.max(largest, value);
+                }
+            }
+        }
+
+        offset = smallest <= largest ? smallest : 0.0;
+        scale = smallest < largest ? (largest - smallest) / MAX_CODE : 0.0;
+
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                final double value = matrix[row][column];
+                int code = specialCodeOf(value);
+                if (code < 0) {
+                    code = scale > 0.0 ? (int) Math.min(MAX_CODE, Math.round((value - offset) / scale)) : 0;
+                }
+
+                codes[row * columns + column] = (short) code;
+            }
+        }
+    }
+
+    /**
+     * Get the reserved code of the passed value.
+     *
+     * @param value to get code of
+     * @return reserved code or -1 if the value is quantized
+     */
+    private static int specialCodeOf(double value) {
+        for (int i = 0; i < SPECIAL_VALUES.length; i++) {
+            if (Double.compare(value, SPECIAL_VALUES[i]) == 0) {
+                return 0xFFFF - i;
+            }
+        }
+
+        return -1;
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getColumns() {
+        return columns;
+    }
+
+    @Override
+    public double get(int index) {
+        final int code = codes[index] & 0xFFFF;
+        return code <= MAX_CODE ? offset + code * scale : SPECIAL_VALUES[0xFFFF - code];
+    }
+
+    @Override
+    public double get(int row, int column) {
+        return get(row * columns + column);
+    }
+
+    @Override
+    public double getTolerance() {
+        return scale / 2 + Math.ulp(offset + MAX_CODE * scale); // Rounding of the decoding
+    }
+
+    @Override
+    public long getMemorySize() {
+        return (long) codes.length * Short.BYTES;
+    }
+
+    @Override
+    public double[][] toMatrix() {
+        double[][] matrix = new double[rows][columns];
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                matrix[row][column] = get(row * columns + column);
+            }
+        }
+
+        return matrix;
+    }
+
+}
@@ -0,0 +1,228 @@
+package edu.hm.cs.bess.streamsim.sim.logic.move.util;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of integer items (e. g. cell indices) in the range [0, capacity) ordered by a double key.
+ * The heap knows the position of every item, thus the key of an item already in the heap can be decreased
+ * (or increased) in logarithmic time instead of inserting the item again.
+ * Items with equal keys are ordered by their value, which makes the order of polled items deterministic.
+ *
+ * @author Benjamin Eder
+ */
+public final class IndexedMinHeap {
+
+    /**
+     * Position of an item that is not in the heap.
+     */
+    private static final int NOT_IN_HEAP = -1;
+
+    /**
+     * Items in heap order.
+     */
+    private int[] items;
+
+    /**
+     * Keys of the items in heap order.
+     */
+    private double[] keys;
+
+    /**
+     * Position of every item in the heap (or {@link #NOT_IN_HEAP}).
+     */
+    private final int[] positions;
+
+    /**
+     * Amount of items in the heap.
+     */
+    private int size;
+
+    public IndexedMinHeap(int capacity) {
+        items = new int[Math.min(capacity, 64)];
+        keys = new double[items.length];
+        positions = new int[capacity];
+
+        Arrays.fill(positions, NOT_IN_HEAP);
+    }
+
+    /**
+     * Check whether the heap is empty.
+     *
+     * @return whether the heap is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get the amount of items in the heap.
+     *
+     * @return amount of items
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check whether the passed item is in the heap.
+     *
+     * @param item to check
+     * @return whether the item is in the heap
+     */
+    public boolean contains(int item) {
+        return positions[item] != NOT_IN_HEAP;
+    }
+
+    /**
+     * Get the key of the passed item in the heap.
+     *
+     * @param item to get key of (must be in the heap)
+     * @return key of the item
+     */
+    public double keyOf(int item) {
+        return keys[positions[item]];
+    }
+
+    /**
+     * Insert the passed item or change its key if it is already in the heap.
+     *
+     * @param item to insert
+     * @param key  of the item
+     */
+    public void insertOrUpdate(int item, double key) {
+        int position = positions[item];
+
+        if (position == NOT_IN_HEAP) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+
+            siftUp(size++, item, key);
+        } else if (isLess(key, item, keys[position], item)) {
+            siftUp(position, item, key);
+        } else {
+            siftDown(position, item, key);
+        }
+    }
+
+    /**
+     * Get the item with the smallest key without removing it.
+     *
+     * @return item with the smallest key (heap must not be empty)
+     */
+    public int peek() {
+        return items[0];
+    }
+
+    /**
+     * Get the smallest key in the heap.
+     *
+     * @return smallest key (heap must not be empty)
+     */
+    public double peekKey() {
+        return keys[0];
+    }
+
+    /**
+     * Remove the item with the smallest key.
+     *
+     * @return item with the smallest key (heap must not be empty)
+     */
+    public int poll() {
+        int first = items[0];
+        positions[first] = NOT_IN_HEAP;
+
+        size--;
+        if (size > 0) {
+            siftDown(0, items[size], keys[size]);
+        }
+
+        return first;
+    }
+
+    /**
+     * Remove all items from the heap.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[items[i]] = NOT_IN_HEAP;
+        }
+        size = 0;
+    }
+
+    /**
+     * Move the passed item up from the passed position until the heap order is restored.
+     *
+     * @param position to start at
+     * @param item     to place
+     * @param key      of the item
+     */
+    private void siftUp(int position, int item, double key) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!isLess(key, item, keys[parent], items[parent])) {
+                break;
+            }
+
+            place(position, items[parent], keys[parent]);
+            position = parent;
+        }
+
+        place(position, item, key);
+    }
+
+    /**
+     * Move the passed item down from the passed position until the heap order is restored.
+     *
+     * @param position to start at
+     * @param item     to place
+     * @param key      of the item
+     */
+    private void siftDown(int position, int item, double key) {
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if (right < size && isLess(keys[right], items[right], keys[child], items[child])) {
+                child = right;
+            }
+
+            if (!isLess(keys[child], items[child], key, item)) {
+                break;
+            }
+
+            place(position, items[child], keys[child]);
+            position = child;
+        }
+
+        place(position, item, key);
+    }
+
+    /**
+     * Place the passed item at the passed position.
+     *
+     * @param position to place item at
+     * @param item     to place
+     * @param key      of the item
+     */
+    private void place(int position, int item, double key) {
+        items[position] = item;
+        keys[position] = key;
+        positions[item] = position;
+    }
+
+    /**
+     * Check whether the first item is ordered before the second item.
+     *
+     * @param key       of the first item
+     * @param item      first item
+     * @param otherKey  of the second item
+     * @param otherItem second item
+     * @return whether the first item comes first
+     */
+    private static boolean isLess(double key, int item, double otherKey, int otherItem) {
+        return key < otherKey || (key == otherKey && item < otherItem);
+    }
+
+}
@@ -0,0 +1,108 @@
+package edu.hm.cs.bess.streamsim.sim.logic.move.util;
+
+import edu.hm.cs.bess.streamsim.sim.config.MollifierConfiguration;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Table of the mollifier values {@code -strength * exp(1 / ((d / range)^2 - 1))} for all integer cell offsets
+ * (dr, dc) in [-range, range] x [-range, range] with the euclidean distance d.
+ * Tables are computed once per mollifier configuration and shared (see {@link #of(MollifierConfiguration)}),
+ * thus looking up the mollifier value during a movement decision does not need any transcendental math.
+ *
+ * @author Benjamin Eder
+ */
+public final class MollifierKernel {
+
+    /**
+     * Kernels computed so far per mollifier configuration.
+     */
+    private static final Map<MollifierConfiguration, MollifierKernel> KERNELS = new ConcurrentHashMap<>();
+
+    /**
+     * Maximum row and column offset with a (possibly) non-zero mollifier value.
+     */
+    private final int range;
+
+    /**
+     * Width of the table (2 * range + 1).
+     */
+    private final int width;
+
+    /**
+     * Mollifier values (row-major, offset (dr, dc) at (range + dr) * width + range + dc).
+     */
+    private final double[] values;
+
+    private MollifierKernel(MollifierConfiguration configuration) {
+        range = Math.max(configuration.getRange(), 0);
+        width = 2 * range + 1;
+
+        values = new double[width * width];
+        for (int rowOffset = -range; rowOffset <= range; rowOffset++) {
+            for (int columnOffset = -range; columnOffset <= range; columnOffset++) {
+                values[(range + rowOffset) * width + range + columnOffset] = calculateValue(configuration, Math.hypot(rowOffset, columnOffset));
+            }
+        }
+    }
+
+    /**
+     * Get the kernel for the passed mollifier configuration.
+     *
+     * @param configuration of the mollifier
+     * @return kernel
+     */
+    public static MollifierKernel of(MollifierConfiguration configuration) {
+        return KERNELS.computeIfAbsent(configuration, MollifierKernel::new);
+    }
+
+    /**
+     * Calculate the mollifier value for the passed distance from the center of the mollifier.
+     *
+     * @param configuration of the mollifier
+     * @param distance      from the center of the mollifier
+     * @return mollifier value
+     */
+    private static double calculateValue(MollifierConfiguration configuration, double distance) {
+        if (distance < configuration.getRange()) {
+            return -configuration.getStrength() * Math.exp(1 / (Math.pow(distance / configuration.getRange(), 2) - 1));
+        }
+
+        return 0.0;
+    }
+
+    /**
+     * Get the maximum row and column offset with a (possibly) non-zero mollifier value.
+     *
+     * @return range of the kernel
+     */
+    public int getRange() {
+        return range;
+    }
+
+    /**
+     * Get the mollifier value for the passed offset from the center of the mollifier.
+     *
+     * @param rowOffset    from the center
+     * @param columnOffset from the center
+     * @return mollifier value
+     */
+    public double valueAt(int rowOffset, int columnOffset) {
+        if (Math.abs(rowOffset) > range || Math.abs(columnOffset) > range) {
+            return 0.0;
+        }
+
+        return values[(range + rowOffset) * width + range + columnOffset];
+    }
+
+    /**
+     * Get a copy of all mollifier values (row-major, offset (dr, dc) at (range + dr) * (2 * range + 1) + range + dc).
+     *
+     * @return mollifier values
+     */
+    public double[] getValues() {
+        return values.clone();
+    }
+
+}
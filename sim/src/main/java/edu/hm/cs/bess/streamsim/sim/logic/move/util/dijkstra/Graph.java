@@ -1,94 +1,266 @@
 package edu.hm.cs.bess.streamsim.sim.logic.move.util.dijkstra;
 
+import edu.hm.cs.bess.streamsim.sim.logic.move.util.IndexedMinHeap;
 import edu.hm.cs.bess.streamsim.sim.model.misc.Location;
 import edu.hm.cs.bess.streamsim.sim.model.object.SimObjectType;
 import edu.hm.cs.bess.streamsim.sim.model.state.State;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Arrays;
 
 /**
+ * Graph of the cells a person can walk on (8-neighbourhood, diagonal edges of length sqrt(2))
+ * with the shortest distance of every cell to a target (or the nearest of multiple targets).
+ * <p>
+ * The distances are calculated with an iterative Dijkstra on a flat distance array
+ * using an indexed min-heap, thus large simulation worlds neither need much memory per cell nor a deep stack.
+ * People do not block cells, as they are only temporary obstacles.
+ * <p>
+ * When only some cells changed since a previous calculation, the distances can be updated incrementally
+ * (similar to D* Lite): Only the cells whose shortest path led over a changed cell are calculated again,
+ * all other distances are taken from the previous calculation. The result is identical to a complete calculation.
+ *
  * @author Benedikt Beil
+ * @author Benjamin Eder
  */
 public class Graph {
-    private final Node[][] nodes;
-    private final State state;
-    private final Node targetNode;
 
-    public Graph(State state, Location target) {
-        this.state = state;
-        nodes = new Node[state.getRows()][state.getColumns()];
-        targetNode = new Node(target);
-        nodes[target.getRow()][target.getColumn()] = targetNode;
+    /**
+     * Length of a diagonal edge.
+     */
+    private static final double DIAGONAL_DISTANCE = Math.hypot(1, 1);
 
-        initGraph();
-    }
+    /**
+     * Rows of the simulation world.
+     */
+    private final int rows;
+
+    /**
+     * Columns of the simulation world.
+     */
+    private final int columns;
+
+    /**
+     * Shortest distance to the target per cell ({@link Double#MAX_VALUE} if the target cannot be reached).
+     */
+    private final double[] distances;
+
+    /**
+     * Create a graph with the shortest distances of all cells to the nearest of the passed targets.
+     *
+     * @param state   of the simulation world
+     * @param targets to calculate distances to
+     */
+    public Graph(State state, Location... targets) {
+        rows = state.getRows();
+        columns = state.getColumns();
+
+        distances = new double[rows * columns];
+        Arrays.fill(distances, Double.MAX_VALUE);
+
+        boolean[] isTarget = targetCells(state, targets);
+        boolean[] walkable = walkableCells(state, isTarget);
 
-    private void initGraph() {
-        addAllValidLocationsAsNode();
-        connectAdjacentNodes();
-        setDistanceToTargetForAllNodes();
+        IndexedMinHeap heap = new IndexedMinHeap(distances.length);
+        for (Location target : targets) {
+            final int targetIndex = state.indexOf(target);
+            distances[targetIndex] = 0;
+            heap.insertOrUpdate(targetIndex, 0);
+        }
+
+        calculateDistances(heap, walkable);
     }
 
-    private void connectAdjacentNodes() {
-        for (int row = 0; row < state.getRows(); row++) {
-            for (int column = 0; column < state.getColumns(); column++) {
-                final Node currentNode = nodes[row][column];
-                if (currentNode != null) {
-                    Set<Node> adjacentNodes = getAllAdjacentNodes(currentNode);
-                    for (Node adjacentNode : adjacentNodes) {
-                        currentNode.addAdjacent(adjacentNode);
+    /**
+     * Create a graph by updating the distances of a previous calculation for the same targets.
+     *
+     * @param state             of the simulation world (after the cells changed)
+     * @param targets           to calculate distances to
+     * @param previousDistances distance matrix of the previous calculation ({@link Double#MAX_VALUE} for unreachable cells, not modified)
+     * @param changedCells      indices of the cells whose occupant changed since the previous calculation
+     */
+    public Graph(State state, Location[] targets, double[][] previousDistances, int... changedCells) {
+        rows = state.getRows();
+        columns = state.getColumns();
+
+        distances = new double[rows * columns];
+        for (int row = 0; row < rows; row++) {
+            System.arraycopy(previousDistances[row], 0, distances, row * columns, columns);
+        }
+
+        boolean[] isTarget = targetCells(state, targets);
+        boolean[] walkable = walkableCells(state, isTarget);
+
+        int[] invalidated = invalidate(isTarget, changedCells);
+        for (int index : invalidated) {
+            distances[index] = Double.MAX_VALUE;
+        }
+
+        // Seed the heap with the invalidated cells bordering still valid cells
+        IndexedMinHeap heap = new IndexedMinHeap(distances.length);
+        for (int index : invalidated) {
+            if (!walkable[index]) {
+                continue;
+            }
+
+            final int row = index / columns;
+            final int column = index - row * columns;
+
+            double distance = Double.MAX_VALUE;
+            for (int neighbourRow = Math.max(0, row - 1); neighbourRow <= Math.min(row + 1, rows - 1); neighbourRow++) {
+                for (int neighbourColumn = Math.max(0, column - 1); neighbourColumn <= Math.min(column + 1, columns - 1); neighbourColumn++) {
+                    final int neighbour = neighbourRow * columns + neighbourColumn;
+                    if (distances[neighbour] != Double.MAX_VALUE) {
+                        distance = Math.min(distance, distances[neighbour] + edgeLength(row, column, neighbourRow, neighbourColumn));
                     }
                 }
             }
+
+            if (distance != Double.MAX_VALUE) {
+                distances[index] = distance;
+                heap.insertOrUpdate(index, distance);
+            }
         }
+
+        calculateDistances(heap, walkable);
     }
 
-    private void addAllValidLocationsAsNode() {
-        for (int row = 0; row < state.getRows(); row++) {
-            for (int column = 0; column < state.getColumns(); column++) {
-                final Location currentLocation = new Location(row, column);
+    /**
+     * Mark the passed target cells.
+     *
+     * @param state   of the simulation world
+     * @param targets to mark
+     * @return whether a cell is a target per cell index
+     */
+    private static boolean[] targetCells(State state, Location[] targets) {
+        boolean[] isTarget = new boolean[state.getRows() * state.getColumns()];
+        for (Location target : targets) {
+            isTarget[state.indexOf(target)] = true;
+        }
 
-                if (state.canBeOccupied(currentLocation)) {
-                    nodes[row][column] = new Node(currentLocation);
-                } else if (state.getCellOccupant(currentLocation).get().getType() != SimObjectType.TARGET) {
-                    nodes[row][column] = null;
-                }
-            }
+        return isTarget;
+    }
+
+    /**
+     * Determine the cells a person can walk on.
+     *
+     * @param state    of the simulation world
+     * @param isTarget whether a cell is a target (not walkable as it is the end of every path) per cell index
+     * @return whether a cell is walkable per cell index
+     */
+    private static boolean[] walkableCells(State state, boolean[] isTarget) {
+        boolean[] walkable = new boolean[isTarget.length];
+        for (int index = 0; index < walkable.length; index++) {
+            walkable[index] = !isTarget[index] && (state.canBeOccupied(index) || state.isOfType(index, SimObjectType.PERSON));
         }
+
+        return walkable;
     }
 
-    private Set<Node> getAllAdjacentNodes(Node node) {
-        final Location location = node.getRepresentativeLocation();
-        Set<Node> adjacentNodes = new HashSet<>();
-        for (int row = Math.max(0, location.getRow() - 1);
-             row <= Math.min(location.getRow() + 1, state.getRows() - 1); row++) {
-            for (int column = Math.max(0, location.getColumn() - 1);
-                 column <= Math.min(location.getColumn() + 1, state.getColumns() - 1); column++) {
-                if (row != location.getRow() || column != location.getColumn()) {
-                    final Location currentLocation = new Location(row, column);
-                    if (state.canBeOccupied(currentLocation)
-                            || state.getCellOccupant(currentLocation).get().getType() == SimObjectType.TARGET) {
-                        adjacentNodes.add(nodes[currentLocation.getRow()][currentLocation.getColumn()]);
+    /**
+     * Collect the changed cells and all cells whose (previous) shortest path led over them.
+     *
+     * @param isTarget     whether a cell is a target (never invalidated) per cell index
+     * @param changedCells indices of the changed cells
+     * @return indices of the invalidated cells
+     */
+    private int[] invalidate(boolean[] isTarget, int[] changedCells) {
+        boolean[] invalid = new boolean[distances.length];
+        int[] result = new int[Math.max(16, changedCells.length)];
+        int size = 0;
+
+        for (int cell : changedCells) {
+            if (!isTarget[cell] && !invalid[cell]) {
+                invalid[cell] = true;
+                result[size++] = cell;
+            }
+        }
+
+        for (int next = 0; next < size; next++) {
+            final int index = result[next];
+            final int row = index / columns;
+            final int column = index - row * columns;
+            final double distance = distances[index];
+            if (distance == Double.MAX_VALUE) {
+                continue; // Nothing led over a previously unreachable cell
+            }
+
+            for (int neighbourRow = Math.max(0, row - 1); neighbourRow <= Math.min(row + 1, rows - 1); neighbourRow++) {
+                for (int neighbourColumn = Math.max(0, column - 1); neighbourColumn <= Math.min(column + 1, columns - 1); neighbourColumn++) {
+                    final int neighbour = neighbourRow * columns + neighbourColumn;
+                    if (invalid[neighbour] || isTarget[neighbour]
+                            || distances[neighbour] != distance + edgeLength(row, column, neighbourRow, neighbourColumn)) {
+                        continue;
+                    }
+
+                    invalid[neighbour] = true;
+                    if (size == result.length) {
+                        result = Arrays.copyOf(result, size * 2);
                     }
+                    result[size++] = neighbour;
                 }
             }
         }
-        return adjacentNodes;
+
+        return Arrays.copyOf(result, size);
     }
 
-    private void setDistanceToTargetForAllNodes() {
-        targetNode.setDistanceToTarget(0); // The target node sets its neighbors and so on
+    /**
+     * Get the length of the edge between two neighbouring cells.
+     *
+     * @param row             of the first cell
+     * @param column          of the first cell
+     * @param neighbourRow    of the second cell
+     * @param neighbourColumn of the second cell
+     * @return edge length
+     */
+    private static double edgeLength(int row, int column, int neighbourRow, int neighbourColumn) {
+        return neighbourRow != row && neighbourColumn != column ? DIAGONAL_DISTANCE : 1.0;
     }
 
+    /**
+     * Calculate the shortest distances to the target starting from the cells in the passed heap.
+     *
+     * @param heap     of the cells whose distance has been lowered (keyed by their distance)
+     * @param walkable whether a cell is walkable per cell index
+     */
+    private void calculateDistances(IndexedMinHeap heap, boolean[] walkable) {
+        while (!heap.isEmpty()) {
+            final int index = heap.poll();
+            final int row = index / columns;
+            final int column = index - row * columns;
+            final double distance = distances[index];
+
+            for (int neighbourRow = Math.max(0, row - 1); neighbourRow <= Math.min(row + 1, rows - 1); neighbourRow++) {
+                for (int neighbourColumn = Math.max(0, column - 1); neighbourColumn <= Math.min(column + 1, columns - 1); neighbourColumn++) {
+                    final int neighbour = neighbourRow * columns + neighbourColumn;
+                    if (!walkable[neighbour]) {
+                        continue;
+                    }
+
+                    final double newDistance = distance + edgeLength(row, column, neighbourRow, neighbourColumn);
+                    if (newDistance < distances[neighbour]) {
+                        distances[neighbour] = newDistance;
+                        heap.insertOrUpdate(neighbour, newDistance);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Write the shortest distance to the target of every cell a person can walk on to the passed matrix.
+     *
+     * @param potentialMatrix to write distances to
+     */
     public void setDistanceToTargetOnMatrix(double[][] potentialMatrix) {
-        for (int row = 0; row < state.getRows(); row++) {
-            for (int column = 0; column < state.getColumns(); column++) {
-                final Node currentNode = nodes[row][column];
-                if (currentNode != null) {
-                    potentialMatrix[currentNode.getRow()][currentNode.getColumn()] = currentNode.getTotalDistanceToTarget();
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                final int index = row * columns + column;
+                if (distances[index] != Double.MAX_VALUE) {
+                    potentialMatrix[row][column] = distances[index];
                 }
             }
         }
     }
+
 }
@@ -1,138 +1,404 @@
 package edu.hm.cs.bess.streamsim.sim.logic.move.util.fmm;
 
+import edu.hm.cs.bess.streamsim.sim.logic.move.util.IndexedMinHeap;
 import edu.hm.cs.bess.streamsim.sim.model.misc.Location;
-import org.jetbrains.annotations.NotNull;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Objects;
-import java.util.PriorityQueue;
-import java.util.function.Consumer;
-import java.util.function.Function;
+import java.util.Arrays;
+import java.util.function.IntToDoubleFunction;
 
 /**
  * Utility class for calculating the fast marching method.
+ * <p>
+ * Cells are addressed by their row-major index ({@code row * columns + column}).
+ * The values of the cells are stored in a flat array and the considered cells (narrow band)
+ * are kept in an indexed min-heap, thus updating the value of a considered cell restores the heap order.
  *
  * @author Benjamin Eder
  */
 public class FastMarchingMethod {
 
     /**
-     * Rows of the area to calculate.
+     * Value of a cell that is not known yet.
      */
-    private final int rows;
+    public static final double UNKNOWN = Double.POSITIVE_INFINITY;
 
     /**
-     * Columns of the area to calculate.
+     * Minimum decrease of a known value to reopen the cell when updating a previous result
+     * (see {@link #update(double[], int, int...)}).
      */
-    private final int columns;
+    public static final double UPDATE_TOLERANCE = 1e-9;
 
     /**
-     * Function used to initialize a location in the known matrix.
+     * Rows of the area to calculate.
      */
-    private final Function<Location, Double> initializeLocationFunction;
+    private final int rows;
 
     /**
-     * Function used to fetch the surface speed for the passed location needed by the algorithm.
+     * Columns of the area to calculate.
      */
-    private final Function<Location, Double> speedFunction;
+    private final int columns;
 
     /**
-     * The current known matrix (result of the calculation once algorithm finished).
+     * Function used to initialize a cell index in the known matrix ({@link #UNKNOWN} for cells to calculate).
      */
-    private double[][] known;
+    private final IntToDoubleFunction initializeFunction;
 
     /**
-     * Lookup for currently considered nodes.
+     * Function used to fetch the surface speed for the passed cell index needed by the algorithm.
      */
-    Map<Location, ConsideredNode> consideredNodeLookup;
+    private final IntToDoubleFunction speedFunction;
 
     /**
-     * Queue of currently considered nodes.
-     * The one with the lowest value will always be picked first.
+     * The current known values per cell index (result of the calculation once algorithm finished).
      */
-    PriorityQueue<ConsideredNode> consideredNodes;
+    private double[] known;
 
     /**
      * Create fast marching method calculator.
      *
-     * @param rows                       of the area to calculate
-     * @param columns                    of the area to calculate
-     * @param initializeLocationFunction function to intitialize the result matrix with
-     * @param speedFunction              to fetch the surface speed for passed locations
+     * @param rows               of the area to calculate
+     * @param columns            of the area to calculate
+     * @param initializeFunction function to initialize the result with per cell index ({@link #UNKNOWN} for cells to calculate)
+     * @param speedFunction      to fetch the surface speed for passed cell indices
      */
-    public FastMarchingMethod(int rows, int columns, Function<Location, Double> initializeLocationFunction, Function<Location, Double> speedFunction) {
+    public FastMarchingMethod(int rows, int columns, IntToDoubleFunction initializeFunction, IntToDoubleFunction speedFunction) {
         this.rows = rows;
         this.columns = columns;
-        this.initializeLocationFunction = initializeLocationFunction;
+        this.initializeFunction = initializeFunction;
         this.speedFunction = speedFunction;
     }
 
     /**
      * Calculate the known matrix using the fast marching method.
+     * When passing multiple locations, the arrival time from the nearest of them is calculated.
+     *
+     * @param locations to calculate algorithm from
+     */
+    public void calculate(Location... locations) {
+        calculate(indicesOf(locations));
+    }
+
+    /**
+     * Calculate the known values using the fast marching method.
+     * When passing multiple cells, the arrival time from the nearest of them is calculated (in a single pass).
      *
-     * @param location to calculate algorithm from
+     * @param starts indices of the cells to calculate algorithm from
      */
-    public void calculate(Location location) {
+    public void calculate(int... starts) {
         initialize();
 
-        known[location.getRow()][location.getColumn()] = 0.0; // Set starting point
+        IndexedMinHeap considered = new IndexedMinHeap(known.length);
 
-        Location next = location;
-        while (next != null) {
-            forEachNeighbour(next, (neighbourLocation) -> {
-                // Check if not already fixed in known matrix
-                double curValue = known[neighbourLocation.getRow()][neighbourLocation.getColumn()];
-                if (curValue < Double.POSITIVE_INFINITY) {
-                    return;
+        for (int start : starts) {
+            known[start] = 0.0; // Set starting points
+        }
+        for (int start : starts) {
+            consider(considered, start, null);
+        }
+
+        march(considered, null);
+    }
+
+    /**
+     * Update the known values of a previous calculation after the initial values of some cells changed
+     * (for example when obstacles have been placed or removed).
+     * <p>
+     * Only the region whose values depend on the changed cells is calculated again (similar to dynamic fast marching):
+     * <ol>
+     * <li>All cells whose value was derived (transitively) from the old value of a changed cell are invalidated.</li>
+     * <li>The invalidated cells are reset to their initial values and the narrow band is seeded with those of them
+     * bordering still valid cells.</li>
+     * <li>The narrow band is marched again. Cells outside the invalidated region whose value decreases
+     * by more than {@link #UPDATE_TOLERANCE} (e. g. due to a removed obstacle) are reopened.</li>
+     * </ol>
+     * The result matches a complete calculation within {@link #UPDATE_TOLERANCE} per cell on the path to the start.
+     *
+     * @param previous     result of the previous calculation from the same starts (row-major, not modified)
+     * @param starts       indices of the cells the previous result has been calculated from
+     * @param changedCells indices of the cells whose initial value changed since the previous calculation
+     */
+    public void update(double[] previous, int[] starts, int... changedCells) {
+        known = previous.clone();
+
+        boolean[] start = new boolean[known.length];
+        for (int index : starts) {
+            start[index] = true;
+        }
+
+        boolean[] fixed = new boolean[known.length];
+        for (int index = 0; index < known.length; index++) {
+            fixed[index] = start[index] || initializeFunction.applyAsDouble(index) != UNKNOWN;
+        }
+
+        int[] invalidated = invalidate(changedCells, start, fixed);
+
+        IndexedMinHeap considered = new IndexedMinHeap(known.length);
+        for (int index : invalidated) {
+            known[index] = initializeFunction.applyAsDouble(index);
+        }
+        for (int index : invalidated) {
+            if (known[index] == UNKNOWN && hasMarchedNeighbour(index, start, fixed)) {
+                final int row = index / columns;
+                double value = calculateValue(index, row, index - row * columns);
+                if (value < UNKNOWN) {
+                    considered.insertOrUpdate(index, value);
+                }
+            }
+        }
+
+        march(considered, fixed);
+    }
+
+    /**
+     * Update the known matrix of a previous calculation after the initial values of some cells changed.
+     *
+     * @param previous     result of the previous calculation from the same starts (not modified)
+     * @param starts       locations the previous result has been calculated from
+     * @param changedCells indices of the cells whose initial value changed since the previous calculation
+     * @see #update(double[], int[], int...)
+     */
+    public void update(double[][] previous, Location[] starts, int... changedCells) {
+        double[] values = new double[rows * columns];
+        for (int row = 0; row < rows; row++) {
+            System.arraycopy(previous[row], 0, values, row * columns, columns);
+        }
+
+        update(values, indicesOf(starts), changedCells);
+    }
+
+    /**
+     * Get the cell indices of the passed locations.
+     *
+     * @param locations to get indices of
+     * @return cell indices
+     */
+    private int[] indicesOf(Location[] locations) {
+        int[] indices = new int[locations.length];
+        for (int i = 0; i < locations.length; i++) {
+            indices[i] = locations[i].getRow() * columns + locations[i].getColumn();
+        }
+
+        return indices;
+    }
+
+    /**
+     * Collect the changed cells and all cells whose (old) value has been derived from them.
+     * A cell is derived from a horizontal or vertical neighbour if the neighbour has a smaller value
+     * and is the smaller one of the neighbours on its axis (thus has been used by the upwind scheme).
+     * Cells only reachable diagonally ({@link Double#MAX_VALUE}) are derived from all their neighbours.
+     *
+     * @param changedCells indices of the changed cells
+     * @param start        whether a cell is a starting cell (never invalidated)
+     * @param fixed        cells whose value never changes
+     * @return indices of the invalidated cells
+     */
+    private int[] invalidate(int[] changedCells, boolean[] start, boolean[] fixed) {
+        boolean[] invalid = new boolean[known.length];
+        int[] result = new int[Math.max(16, changedCells.length)];
+        int size = 0;
+
+        for (int cell : changedCells) {
+            if (!start[cell] && !invalid[cell]) {
+                invalid[cell] = true;
+                result[size++] = cell;
+            }
+        }
+
+        for (int next = 0; next < size; next++) {
+            final int index = result[next];
+            final int row = index / columns;
+            final int column = index - row * columns;
+
+            for (int neighbourRow = Math.max(0, row - 1); neighbourRow <= Math.min(row + 1, rows - 1); neighbourRow++) {
+                for (int neighbourColumn = Math.max(0, column - 1); neighbourColumn <= Math.min(column + 1, columns - 1); neighbourColumn++) {
+                    final int neighbour = neighbourRow * columns + neighbourColumn;
+                    if (invalid[neighbour] || fixed[neighbour] || known[neighbour] == UNKNOWN) {
+                        continue;
+                    }
+
+                    if (known[neighbour] != Double.MAX_VALUE) {
+                        if (neighbourRow != row && neighbourColumn != column) {
+                            continue; // Diagonal neighbours are not used by the upwind scheme
+                        }
+
+                        if (!(known[index] < known[neighbour])) {
+                            continue;
+                        }
+
+                        // Check whether the cell is the smaller one of the neighbours on its axis
+                        final int opposite = 2 * neighbour - index;
+                        final boolean hasOpposite = neighbourRow != row
+                                ? neighbourRow + (neighbourRow - row) >= 0 && neighbourRow + (neighbourRow - row) < rows
+                                : neighbourColumn + (neighbourColumn - column) >= 0 && neighbourColumn + (neighbourColumn - column) < columns;
+                        if (hasOpposite && known[opposite] < known[index]) {
+                            continue;
+                        }
+                    }
+
+                    invalid[neighbour] = true;
+                    if (size == result.length) {
+                        result = Arrays.copyOf(result, size * 2);
+                    }
+                    result[size++] = neighbour;
                 }
+            }
+        }
 
-                double newValue = calculateValue(neighbourLocation);
-                if (newValue >= known[neighbourLocation.getRow()][neighbourLocation.getColumn()]) {
-                    return;
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Check whether the passed cell has a neighbour (including diagonal ones) the narrow band has been marched over,
+     * as only those cells are considered by a complete calculation.
+     *
+     * @param index of the cell
+     * @param start whether a cell is a starting cell
+     * @param fixed cells whose value never changes
+     * @return whether the cell has a marched neighbour
+     */
+    private boolean hasMarchedNeighbour(int index, boolean[] start, boolean[] fixed) {
+        final int row = index / columns;
+        final int column = index - row * columns;
+
+        for (int neighbourRow = Math.max(0, row - 1); neighbourRow <= Math.min(row + 1, rows - 1); neighbourRow++) {
+            for (int neighbourColumn = Math.max(0, column - 1); neighbourColumn <= Math.min(column + 1, columns - 1); neighbourColumn++) {
+                final int neighbour = neighbourRow * columns + neighbourColumn;
+                if (known[neighbour] != UNKNOWN && (!fixed[neighbour] || start[neighbour])) {
+                    return true;
                 }
+            }
+        }
 
-                // Set new update value for the considered node
-                ConsideredNode consideredNode = consideredNodeLookup.get(neighbourLocation);
-                if (consideredNode != null) {
-                    consideredNode.setValue(newValue);
-                } else {
-                    consideredNode = new ConsideredNode(newValue, neighbourLocation);
-                    consideredNodeLookup.put(neighbourLocation, consideredNode);
-                    consideredNodes.add(consideredNode);
+        return false;
+    }
+
+    /**
+     * Get the horizontal or vertical neighbour of a cell.
+     *
+     * @param index     of the cell
+     * @param row       of the cell
+     * @param column    of the cell
+     * @param direction 0 (up), 1 (down), 2 (left) or 3 (right)
+     * @return index of the neighbour or -1 if the neighbour lies outside of the area
+     */
+    private int neighbourOf(int index, int row, int column, int direction) {
+        switch (direction) {
+            case 0:
+                return row > 0 ? index - columns : -1;
+            case 1:
+                return row + 1 < rows ? index + columns : -1;
+            case 2:
+                return column > 0 ? index - 1 : -1;
+            default:
+                return column + 1 < columns ? index + 1 : -1;
+        }
+    }
+
+    /**
+     * March the narrow band until no considered cell is left.
+     *
+     * @param considered cells of the narrow band
+     * @param fixed      cells whose value never changes or null if known values are never reopened
+     */
+    private void march(IndexedMinHeap considered, boolean[] fixed) {
+        while (!considered.isEmpty()) {
+            known[considered.peek()] = considered.peekKey();
+            consider(considered, considered.poll(), fixed);
+        }
+    }
+
+    /**
+     * Consider the still unknown neighbours of the passed just fixed cell for the narrow band.
+     *
+     * @param considered cells of the narrow band
+     * @param index      of the cell that has just been fixed
+     * @param fixed      cells whose value never changes or null if known values are never reopened
+     */
+    private void consider(IndexedMinHeap considered, int index, boolean[] fixed) {
+        final int row = index / columns;
+        final int column = index - row * columns;
+
+        for (int neighbourRow = Math.max(0, row - 1); neighbourRow <= Math.min(row + 1, rows - 1); neighbourRow++) {
+            for (int neighbourColumn = Math.max(0, column - 1); neighbourColumn <= Math.min(column + 1, columns - 1); neighbourColumn++) {
+                final int neighbour = neighbourRow * columns + neighbourColumn;
+
+                // Check if not already fixed in known matrix
+                if (known[neighbour] != UNKNOWN) {
+                    continue;
                 }
-            });
-
-            ConsideredNode nextNode = consideredNodes.poll();
-            if (nextNode != null) {
-                known[nextNode.getLocation().getRow()][nextNode.getLocation().getColumn()] = nextNode.value;
-                next = nextNode.getLocation();
-            } else {
-                next = null;
+
+                double newValue = calculateValue(neighbour, neighbourRow, neighbourColumn);
+                double currentValue = considered.contains(neighbour) ? considered.keyOf(neighbour) : UNKNOWN;
+                if (newValue < currentValue) {
+                    considered.insertOrUpdate(neighbour, newValue);
+                }
+            }
+        }
+
+        if (fixed != null) {
+            reopenNeighbours(considered, index, fixed);
+        }
+    }
+
+    /**
+     * Reopen the known horizontal and vertical neighbours of the passed cell
+     * whose value decreases by more than {@link #UPDATE_TOLERANCE}.
+     *
+     * @param considered cells of the narrow band
+     * @param index      of the cell whose value changed
+     * @param fixed      cells whose value never changes
+     */
+    private void reopenNeighbours(IndexedMinHeap considered, int index, boolean[] fixed) {
+        final int row = index / columns;
+        final int column = index - row * columns;
+
+        for (int direction = 0; direction < 4; direction++) {
+            final int neighbour = neighbourOf(index, row, column, direction);
+            if (neighbour < 0 || fixed[neighbour] || known[neighbour] == UNKNOWN) {
+                continue;
+            }
+
+            final int neighbourRow = neighbour / columns;
+            double newValue = calculateValue(neighbour, neighbourRow, neighbour - neighbourRow * columns);
+            double currentValue = considered.contains(neighbour) ? considered.keyOf(neighbour) : known[neighbour] - UPDATE_TOLERANCE;
+            if (newValue < currentValue) {
+                considered.insertOrUpdate(neighbour, newValue);
             }
         }
     }
 
     /**
-     * Calculate the update value for the passed location.
+     * Calculate the update value for the passed cell from its known horizontal and vertical neighbours.
      *
-     * @param location to calculate update value for
+     * @param index  of the cell
+     * @param row    of the cell
+     * @param column of the cell
      * @return update value
      */
-    private double calculateValue(Location location) {
-        double v0 = location.getRow() - 1 >= 0 ? known[location.getRow() - 1][location.getColumn()] : Double.POSITIVE_INFINITY;
-        double v1 = location.getRow() + 1 < rows ? known[location.getRow() + 1][location.getColumn()] : Double.POSITIVE_INFINITY;
+    private double calculateValue(int index, int row, int column) {
+        double v0 = row > 0 ? known[index - columns] : UNKNOWN;
+        double v1 = row + 1 < rows ? known[index + columns] : UNKNOWN;
         double v = Math.min(v0, v1);
 
-        double h0 = location.getColumn() - 1 >= 0 ? known[location.getRow()][location.getColumn() - 1] : Double.POSITIVE_INFINITY;
-        double h1 = location.getColumn() + 1 < columns ? known[location.getRow()][location.getColumn() + 1] : Double.POSITIVE_INFINITY;
+        double h0 = column > 0 ? known[index - 1] : UNKNOWN;
+        double h1 = column + 1 < columns ? known[index + 1] : UNKNOWN;
         double h = Math.min(h0, h1);
 
-        double speed = speedFunction.apply(location);
-        double inverseSpeed = 1 / speed;
+        return solve(h, v, 1 / speedFunction.applyAsDouble(index));
+    }
 
+    /**
+     * Solve the discretized eikonal equation for a cell (upwind scheme).
+     *
+     * @param h            smallest value of the horizontal neighbours
+     * @param v            smallest value of the vertical neighbours
+     * @param inverseSpeed of the cell
+     * @return value of the cell
+     */
+    static double solve(double h, double v, double inverseSpeed) {
         if (Math.abs(v - h) <= inverseSpeed) {
-            return (h + v) / 2 + 0.5 * Math.sqrt(Math.pow(h + v, 2) - 2 * (Math.pow(h, 2) + Math.pow(v, 2) - Math.pow(inverseSpeed, 2)));
+            double sum = h + v;
+            return sum / 2 + 0.5 * Math.sqrt(sum * sum - 2 * (h * h + v * v - inverseSpeed * inverseSpeed));
         } else {
             return Math.min(h, v) + inverseSpeed;
         }
@@ -144,41 +410,32 @@ public class FastMarchingMethod {
      * @return result
      */
     public double[][] getResult() {
-        return known;
+        double[][] result = new double[rows][];
+        for (int row = 0; row < rows; row++) {
+            result[row] = new double[columns];
+            System.arraycopy(known, row * columns, result[row], 0, columns);
+        }
+
+        return result;
     }
 
     /**
-     * Initialize the known matrix.
+     * Get the resulting known values per cell index.
+     *
+     * @return result (row-major)
      */
-    private void initialize() {
-        consideredNodeLookup = new HashMap<>();
-        consideredNodes = new PriorityQueue<>();
-
-        known = new double[rows][columns];
-
-        for (int row = 0; row < rows; row++) {
-            for (int column = 0; column < columns; column++) {
-                known[row][column] = Objects.requireNonNullElse(
-                        initializeLocationFunction.apply(new Location(row, column)),
-                        Double.POSITIVE_INFINITY
-                );
-            }
-        }
+    public double[] getValues() {
+        return known;
     }
 
     /**
-     * Execute the passed consumer for each neighbour of the passed location.
-     *
-     * @param location          to find neighbours of
-     * @param neighbourConsumer to execute for each neighbour of the passed location
+     * Initialize the known values.
      */
-    private void forEachNeighbour(Location location, Consumer<Location> neighbourConsumer) {
-        for (int row = Math.max(0, location.getRow() - 1); row <= Math.min(location.getRow() + 1, rows - 1); row++) {
-            for (int column = Math.max(0, location.getColumn() - 1); column <= Math.min(location.getColumn() + 1, columns - 1); column++) {
-                if (row != location.getRow() || column != location.getColumn()) {
-                    neighbourConsumer.accept(new Location(row, column));
-                }
-            }
+    private void initialize() {
+        known = new double[rows * columns];
+
+        for (int index = 0; index < known.length; index++) {
+            known[index] = initializeFunction.applyAsDouble(index);
         }
     }
 
@@ -209,58 +466,4 @@ public class FastMarchingMethod {
         return output.toString();
     }
 
-    /**
-     * A considered node of the fast marching algorithm.
-     */
-    private static class ConsideredNode implements Comparable<ConsideredNode> {
-
-        /**
-         * The current value.
-         */
-        private double value;
-
-        /**
-         * Location of the considered node.
-         */
-        private final Location location;
-
-        public ConsideredNode(double value, Location location) {
-            this.value = value;
-            this.location = location;
-        }
-
-        public double getValue() {
-            return value;
-        }
-
-        public void setValue(double value) {
-            this.value = value;
-        }
-
-        public Location getLocation() {
-            return location;
-        }
-
-        @Override
-        public int compareTo(@NotNull ConsideredNode o) {
-            return Double.compare(getValue(), o.getValue());
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-
-            ConsideredNode that = (ConsideredNode) o;
-
-            return location.equals(that.location);
-        }
-
-        @Override
-        public int hashCode() {
-            return location.hashCode();
-        }
-
-    }
-
 }
@@ -0,0 +1,296 @@
+package edu.hm.cs.bess.streamsim.sim.logic.move.util.fmm;
+
+import edu.hm.cs.bess.streamsim.sim.model.misc.Location;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Utility class for calculating the fast sweeping method.
+ * <p>
+ * Solves the same discretized eikonal equation as the {@link FastMarchingMethod},
+ * but instead of fixing one cell after another it updates all cells in Gauss-Seidel sweeps
+ * in the four diagonal directions until no value changes anymore.
+ * Each sweep visits the cells anti-diagonal by anti-diagonal: A cell only depends on its horizontal and vertical
+ * neighbours, which all lie on the previous or next anti-diagonal, thus the cells of an anti-diagonal
+ * are updated in parallel on a fork-join pool.
+ * The result does not depend on the parallelism of the used pool.
+ * <p>
+ * Cells are addressed by their row-major index ({@code row * columns + column}).
+ *
+ * @author Benjamin Eder
+ */
+public class FastSweepingMethod {
+
+    /**
+     * Minimum amount of cells of an anti-diagonal to update in a single task.
+     */
+    private static final int MIN_CELLS_PER_TASK = 1024;
+
+    /**
+     * Rows of the area to calculate.
+     */
+    private final int rows;
+
+    /**
+     * Columns of the area to calculate.
+     */
+    private final int columns;
+
+    /**
+     * Function used to initialize a cell index in the known matrix ({@link FastMarchingMethod#UNKNOWN} for cells to calculate).
+     */
+    private final IntToDoubleFunction initializeFunction;
+
+    /**
+     * Function used to fetch the surface speed for the passed cell index needed by the algorithm.
+     */
+    private final IntToDoubleFunction speedFunction;
+
+    /**
+     * Pool to update the cells of an anti-diagonal with.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The current values per cell index (result of the calculation once algorithm finished).
+     */
+    private double[] known;
+
+    /**
+     * Whether the value of a cell is fixed (initialized or starting point).
+     */
+    private boolean[] fixed;
+
+    /**
+     * Inverse surface speed per cell index.
+     */
+    private double[] inverseSpeeds;
+
+    /**
+     * Create fast sweeping method calculator.
+     *
+     * @param rows               of the area to calculate
+     * @param columns            of the area to calculate
+     * @param initializeFunction function to initialize the result with per cell index ({@link FastMarchingMethod#UNKNOWN} for cells to calculate)
+     * @param speedFunction      to fetch the surface speed for passed cell indices
+     * @param pool               to update cells in parallel with
+     */
+    public FastSweepingMethod(int rows, int columns, IntToDoubleFunction initializeFunction, IntToDoubleFunction speedFunction, ForkJoinPool pool) {
+        this.rows = rows;
+        this.columns = columns;
+        this.initializeFunction = initializeFunction;
+        this.speedFunction = speedFunction;
+        this.pool = pool;
+    }
+
+    /**
+     * Calculate the known matrix using the fast sweeping method.
+     * When passing multiple locations, the arrival time from the nearest of them is calculated.
+     *
+     * @param locations to calculate algorithm from
+     */
+    public void calculate(Location... locations) {
+        int[] starts = new int[locations.length];
+        for (int i = 0; i < locations.length; i++) {
+            starts[i] = locations[i].getRow() * columns + locations[i].getColumn();
+        }
+
+        calculate(starts);
+    }
+
+    /**
+     * Calculate the known values using the fast sweeping method.
+     * When passing multiple cells, the arrival time from the nearest of them is calculated.
+     *
+     * @param starts indices of the cells to calculate algorithm from
+     */
+    public void calculate(int... starts) {
+        initialize();
+
+        for (int start : starts) {
+            known[start] = 0.0; // Set starting points
+            fixed[start] = true;
+        }
+
+        boolean changed = true;
+        while (changed) {
+            changed = sweep(1, 1);
+            changed |= sweep(1, -1);
+            changed |= sweep(-1, -1);
+            changed |= sweep(-1, 1);
+        }
+    }
+
+    /**
+     * Update all cells anti-diagonal by anti-diagonal in the passed direction.
+     *
+     * @param rowDirection    1 to sweep from top to bottom, -1 to sweep from bottom to top
+     * @param columnDirection 1 to sweep from left to right, -1 to sweep from right to left
+     * @return whether a value changed
+     */
+    private boolean sweep(int rowDirection, int columnDirection) {
+        boolean changed = false;
+
+        for (int diagonal = 0; diagonal < rows + columns - 1; diagonal++) {
+            int from = Math.max(0, diagonal - (columns - 1));
+            int to = Math.min(diagonal, rows - 1);
+
+            if (to - from >= MIN_CELLS_PER_TASK && pool.getParallelism() > 1) {
+                changed |= pool.invoke(new DiagonalUpdate(rowDirection, columnDirection, diagonal, from, to));
+            } else {
+                changed |= updateDiagonal(rowDirection, columnDirection, diagonal, from, to);
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * Update the cells of an anti-diagonal.
+     *
+     * @param rowDirection    of the sweep
+     * @param columnDirection of the sweep
+     * @param diagonal        to update (sum of the row and column steps in sweep direction)
+     * @param from            first row step of the cells to update
+     * @param to              last row step of the cells to update (inclusive)
+     * @return whether a value changed
+     */
+    private boolean updateDiagonal(int rowDirection, int columnDirection, int diagonal, int from, int to) {
+        boolean changed = false;
+
+        for (int step = from; step <= to; step++) {
+            int row = rowDirection > 0 ? step : rows - 1 - step;
+            int column = columnDirection > 0 ? diagonal - step : columns - 1 - (diagonal - step);
+
+            changed |= update(row, column);
+        }
+
+        return changed;
+    }
+
+    /**
+     * Update the value of the passed cell from its horizontal and vertical neighbours.
+     *
+     * @param row    of the cell
+     * @param column of the cell
+     * @return whether the value changed
+     */
+    private boolean update(int row, int column) {
+        int index = row * columns + column;
+        if (fixed[index]) {
+            return false;
+        }
+
+        double v0 = row > 0 ? known[index - columns] : FastMarchingMethod.UNKNOWN;
+        double v1 = row + 1 < rows ? known[index + columns] : FastMarchingMethod.UNKNOWN;
+        double v = Math.min(v0, v1);
+
+        double h0 = column > 0 ? known[index - 1] : FastMarchingMethod.UNKNOWN;
+        double h1 = column + 1 < columns ? known[index + 1] : FastMarchingMethod.UNKNOWN;
+        double h = Math.min(h0, h1);
+
+        double newValue = FastMarchingMethod.solve(h, v, inverseSpeeds[index]);
+        if (newValue < known[index]) {
+            known[index] = newValue;
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Get the resulting known matrix.
+     *
+     * @return result
+     */
+    public double[][] getResult() {
+        double[][] result = new double[rows][];
+        for (int row = 0; row < rows; row++) {
+            result[row] = new double[columns];
+            System.arraycopy(known, row * columns, result[row], 0, columns);
+        }
+
+        return result;
+    }
+
+    /**
+     * Get the resulting known values per cell index.
+     *
+     * @return result (row-major)
+     */
+    public double[] getValues() {
+        return known;
+    }
+
+    /**
+     * Initialize the known values.
+     */
+    private void initialize() {
+        known = new double[rows * columns];
+        fixed = new boolean[known.length];
+        inverseSpeeds = new double[known.length];
+
+        for (int index = 0; index < known.length; index++) {
+            known[index] = initializeFunction.applyAsDouble(index);
+            fixed[index] = known[index] != FastMarchingMethod.UNKNOWN;
+            inverseSpeeds[index] = 1 / speedFunction.applyAsDouble(index);
+        }
+    }
+
+    /**
+     * Task updating a part of an anti-diagonal.
+     */
+    private class DiagonalUpdate extends RecursiveTask<Boolean> {
+
+        /**
+         * Row direction of the sweep.
+         */
+        private final int rowDirection;
+
+        /**
+         * Column direction of the sweep.
+         */
+        private final int columnDirection;
+
+        /**
+         * Anti-diagonal to update.
+         */
+        private final int diagonal;
+
+        /**
+         * First row step of the cells to update.
+         */
+        private final int from;
+
+        /**
+         * Last row step of the cells to update (inclusive).
+         */
+        private final int to;
+
+        DiagonalUpdate(int rowDirection, int columnDirection, int diagonal, int from, int to) {
+            this.rowDirection = rowDirection;
+            this.columnDirection = columnDirection;
+            this.diagonal = diagonal;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Boolean compute() {
+            if (to - from < MIN_CELLS_PER_TASK) {
+                return updateDiagonal(rowDirection, columnDirection, diagonal, from, to);
+            }
+
+            int middle = (from + to) >>> 1;
+            DiagonalUpdate second = new DiagonalUpdate(rowDirection, columnDirection, diagonal, middle + 1, to);
+            second.fork();
+
+            boolean changed = new DiagonalUpdate(rowDirection, columnDirection, diagonal, from, middle).compute();
+            return second.join() | changed;
+        }
+
+    }
+
+}
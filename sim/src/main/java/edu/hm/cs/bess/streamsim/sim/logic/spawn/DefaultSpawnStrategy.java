@@ -5,7 +5,8 @@ import edu.hm.cs.bess.streamsim.sim.model.object.SimObjectType;
 import edu.hm.cs.bess.streamsim.sim.model.object.person.Person;
 import edu.hm.cs.bess.streamsim.sim.model.object.source.Source;
 import edu.hm.cs.bess.streamsim.sim.model.state.State;
-import edu.hm.cs.bess.streamsim.sim.scheduler.Scheduler;
+import edu.hm.cs.bess.streamsim.sim.scheduler.SchedulingContext;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.EventKind;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -43,19 +44,21 @@ public abstract class DefaultSpawnStrategy implements SpawnStrategy {
      * @param state     the current simulation state
      * @param scheduler of the simulation
      */
-    public void spawn(Source source, State state, Scheduler scheduler) {
+    public void spawn(Source source, State state, SchedulingContext scheduler) {
         List<Location> possibleSpawnLocations = getPossibleSpawnLocations(state, source.getLocation());
 
         if (possibleSpawnLocations.isEmpty()) {
-            LOGGER.log(Level.FINE, String.format("Could not spawn new person from source at %s", source.getLocation()));
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE, String.format("Could not spawn new person from source at %s", source.getLocation()));
+            }
 
             // Schedule try-again spawn event
-            double nextTimeStamp = scheduler.peekNextTimestamp().orElse(0.0);
+            double nextTimeStamp = scheduler.peekNextTimestamp(0.0);
 
             // Get random delay based on next spawn time
             nextTimeStamp += rng.nextDouble() * getNextSpawnTime();
 
-            scheduler.scheduleIn(() -> source.getConfiguration().getSpawnStrategy().spawn(source, state, scheduler), nextTimeStamp - scheduler.currentTime());
+            scheduler.scheduleIn(EventKind.SPAWN, state.indexOf(source.getLocation()), nextTimeStamp - scheduler.currentTime());
         } else {
             Location newLocation = possibleSpawnLocations.get(rng.nextInt(possibleSpawnLocations.size()));
 
@@ -76,7 +79,9 @@ public abstract class DefaultSpawnStrategy implements SpawnStrategy {
             );
             state.setCellOccupant(person, person.getLocation());
 
-            LOGGER.log(Level.FINE, String.format("Spawned new person at %s from source at %s with target location %s and speed %f cells/time unit", newLocation, source.getLocation(), randomTargetLocation, person.getSpeed()));
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE, String.format("Spawned new person at %s from source at %s with target location %s and speed %f cells/time unit", newLocation, source.getLocation(), randomTargetLocation, person.getSpeed()));
+            }
 
             source.increaseSpawnCounter();
 
@@ -85,12 +90,12 @@ public abstract class DefaultSpawnStrategy implements SpawnStrategy {
             person.addMovementRecord(scheduler.currentTime() + 1 / person.getSpeed() * movementDistance, movementDistance);
 
             // Schedule new movement event based on the speed of the person
-            scheduler.scheduleIn(() -> source.getConfiguration().getMoveStrategy().move(person, state, scheduler), 1 / person.getSpeed() * movementDistance);
+            scheduler.scheduleIn(EventKind.MOVE, state.indexOf(person.getLocation()), 1 / person.getSpeed() * movementDistance);
 
             // Schedule next spawn event
             if (source.getConfiguration().areSpawnsUnlimited()
                     || source.getSpawnCounter() < source.getConfiguration().getMaxSpawns()) {
-                scheduler.scheduleIn(() -> source.getConfiguration().getSpawnStrategy().spawn(source, state, scheduler), getNextSpawnTime());
+                scheduler.scheduleIn(EventKind.SPAWN, state.indexOf(source.getLocation()), getNextSpawnTime());
             }
         }
     }
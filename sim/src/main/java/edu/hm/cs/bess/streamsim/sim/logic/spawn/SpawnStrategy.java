@@ -6,7 +6,7 @@ import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import edu.hm.cs.bess.streamsim.sim.model.object.source.Source;
 import edu.hm.cs.bess.streamsim.sim.model.state.State;
-import edu.hm.cs.bess.streamsim.sim.scheduler.Scheduler;
+import edu.hm.cs.bess.streamsim.sim.scheduler.SchedulingContext;
 
 import java.util.Random;
 
@@ -31,7 +31,7 @@ public interface SpawnStrategy {
      * @param state     the current simulation state
      * @param scheduler of the simulation
      */
-    void spawn(Source source, State state, Scheduler scheduler);
+    void spawn(Source source, State state, SchedulingContext scheduler);
 
 
     /**
@@ -40,6 +40,11 @@ public final class FixedSpeedGenerator implements SpeedGenerator {
         return speed;
     }
 
+    @Override
+    public double getMaxSpeed() {
+        return speed;
+    }
+
     @Override
     public void init(Random rng) {
         // Nothing to do.
@@ -62,6 +62,11 @@ public final class NormSpeedGenerator implements SpeedGenerator {
         return Math.max(Math.min(dist.sample(), max), min);
     }
 
+    @Override
+    public double getMaxSpeed() {
+        return meanExpectation + standardDeviation;
+    }
+
     @Override
     public void init(Random rng) {
         dist = new NormalDistribution(new CommonsMathRandomAdapter(rng), meanExpectation, standardDeviation);
@@ -1,5 +1,6 @@
 package edu.hm.cs.bess.streamsim.sim.logic.spawn.speed;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
@@ -26,6 +27,14 @@ public interface SpeedGenerator {
      */
     double generateSpeed();
 
+    /**
+     * Get the maximum speed the generator may generate (in cells/time unit).
+     *
+     * @return maximum speed
+     */
+    @JsonIgnore
+    double getMaxSpeed();
+
     /**
      * Called when the simulation is initialized.
      *
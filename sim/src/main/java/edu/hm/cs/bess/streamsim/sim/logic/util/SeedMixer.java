@@ -0,0 +1,30 @@
+package edu.hm.cs.bess.streamsim.sim.logic.util;
+
+/**
+ * Utility deriving independent, reproducible seeds from a base seed.
+ * Used wherever work is evaluated in parallel and thus cannot draw from a single shared random number generator.
+ *
+ * @author Benjamin Eder
+ */
+public final class SeedMixer {
+
+    private SeedMixer() {
+        // Utility class
+    }
+
+    /**
+     * Mix the passed value into the passed seed (SplitMix64 finalizer).
+     * Calls may be chained to mix in multiple values.
+     *
+     * @param seed  to mix value into
+     * @param value to mix into the seed
+     * @return the derived seed
+     */
+    public static long mix(long seed, long value) {
+        long z = seed + value * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+}
@@ -39,4 +39,11 @@ public abstract class WalkableSimObject implements SimObject {
 
     public abstract SimObjectType getActualType();
 
+    /**
+     * Create a copy of the walkable object that is not being walked on (used when copying a state).
+     *
+     * @return free copy of the walkable object
+     */
+    public abstract WalkableSimObject copy();
+
 }
@@ -28,6 +28,13 @@ public class LightBarrier extends WalkableSimObject {
         TRIGGER_COUNT++;
     }
 
+    /**
+     * Undo a previous trigger (used when reverting a state).
+     */
+    public static void revertTrigger() {
+        TRIGGER_COUNT--;
+    }
+
     public static int getTriggerCount() {
         return TRIGGER_COUNT;
     }
@@ -41,6 +48,11 @@ public class LightBarrier extends WalkableSimObject {
         return SimObjectType.LIGHT_BARRIER;
     }
 
+    @Override
+    public LightBarrier copy() {
+        return new LightBarrier(location);
+    }
+
     @Override
     public Location getLocation() {
         return location;
@@ -4,8 +4,7 @@ import edu.hm.cs.bess.streamsim.sim.model.misc.Location;
 import edu.hm.cs.bess.streamsim.sim.model.object.SimObject;
 import edu.hm.cs.bess.streamsim.sim.model.object.SimObjectType;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 /**
  * Person in the simulation.
@@ -22,11 +21,22 @@ public class Person implements SimObject {
      */
     private final Location source;
 
+    /**
+     * Location of the source whose move strategy moves the person
+     * (the source location unless the person has been revived at another source).
+     */
+    private Location moveSource;
+
     /**
      * Target of the person.
      */
     private Location target;
 
+    /**
+     * Ratio of the shorter to the longer axis distance between source and target (see {@link #getDiagonalStepRatio()}).
+     */
+    private double diagonalStepRatio;
+
     /**
      * Speed of the person (in cells/timeunit).
      */
@@ -59,16 +69,44 @@ public class Person implements SimObject {
      * History of speeds over time (in cells/timeunit).
      * Used to calculate the mean speed of a person.
      */
-    private final List<Double> speedHistory = new ArrayList<>();
+    private double[] speedHistory = new double[16];
+
+    /**
+     * Amount of recorded speeds in the speed history.
+     */
+    private int speedHistorySize = 0;
 
     public Person(Location source, Location target, Location location, double speed, double creationTimestamp, int patience) {
         this.source = source;
+        this.moveSource = source;
         this.target = target;
         this.speed = speed;
         this.location = location;
         this.id = cur_id++;
         this.lastMoveTimestamp = creationTimestamp;
         this.patience = patience;
+
+        updateDiagonalStepRatio();
+    }
+
+    /**
+     * Create an independent copy of the passed person keeping its ID.
+     *
+     * @param other person to copy
+     */
+    private Person(Person other) {
+        this.source = other.source;
+        this.moveSource = other.moveSource;
+        this.target = other.target;
+        this.diagonalStepRatio = other.diagonalStepRatio;
+        this.speed = other.speed;
+        this.location = other.location;
+        this.id = other.id;
+        this.lastMoveTimestamp = other.lastMoveTimestamp;
+        this.couldNotMoveCounter = other.couldNotMoveCounter;
+        this.patience = other.patience;
+        this.speedHistory = Arrays.copyOf(other.speedHistory, other.speedHistory.length);
+        this.speedHistorySize = other.speedHistorySize;
     }
 
     @Override
@@ -99,6 +137,25 @@ public class Person implements SimObject {
         return source;
     }
 
+    /**
+     * Get the location of the source whose move strategy moves the person.
+     *
+     * @return move source location
+     */
+    public Location getMoveSource() {
+        return moveSource;
+    }
+
+    /**
+     * Set the location of the source whose move strategy moves the person from now on
+     * (for example when the person is revived at another source).
+     *
+     * @param moveSource location of the source
+     */
+    public void setMoveSource(Location moveSource) {
+        this.moveSource = moveSource;
+    }
+
     public void setLocation(Location location) {
         this.location = location;
     }
@@ -119,6 +176,29 @@ public class Person implements SimObject {
      */
     public void setTarget(Location target) {
         this.target = target;
+
+        updateDiagonalStepRatio();
+    }
+
+    /**
+     * Get the ratio of the shorter to the longer axis distance (rows or columns) between source and target.
+     * It is the fraction of diagonal steps on a direct path from the source to the target
+     * and is cached as it is needed for every movement decision.
+     *
+     * @return diagonal step ratio (NaN if source and target are the same)
+     */
+    public double getDiagonalStepRatio() {
+        return diagonalStepRatio;
+    }
+
+    /**
+     * Update the diagonal step ratio from the current source and target.
+     */
+    private void updateDiagonalStepRatio() {
+        final int rowDiff = Math.abs(source.getRow() - target.getRow());
+        final int columnDiff = Math.abs(source.getColumn() - target.getColumn());
+
+        diagonalStepRatio = (double) Math.min(rowDiff, columnDiff) / Math.max(rowDiff, columnDiff);
     }
 
     /**
@@ -146,7 +226,10 @@ public class Person implements SimObject {
 
         lastMoveTimestamp = timestamp;
 
-        speedHistory.add(speed);
+        if (speedHistorySize == speedHistory.length) {
+            speedHistory = Arrays.copyOf(speedHistory, speedHistory.length * 2);
+        }
+        speedHistory[speedHistorySize++] = speed;
     }
 
     /**
@@ -155,7 +238,7 @@ public class Person implements SimObject {
      * @return mean speed
      */
     public double getMeanSpeed() {
-        return getMeanSpeed(speedHistory.size());
+        return getMeanSpeed(speedHistorySize);
     }
 
     /**
@@ -165,14 +248,14 @@ public class Person implements SimObject {
      * @return mean speed
      */
     public double getMeanSpeed(int windowSize) {
-        windowSize = Math.min(windowSize, speedHistory.size());
+        windowSize = Math.min(windowSize, speedHistorySize);
         if (windowSize <= 0) {
             return getSpeed();
         }
 
         double speed = 0.0;
-        for (int i = speedHistory.size() - windowSize; i < speedHistory.size(); i++) {
-            speed += speedHistory.get(i);
+        for (int i = speedHistorySize - windowSize; i < speedHistorySize; i++) {
+            speed += speedHistory[i];
         }
 
         return speed / windowSize;
@@ -201,6 +284,41 @@ public class Person implements SimObject {
         return couldNotMoveCounter;
     }
 
+    /**
+     * Create an independent copy of the person (with the same ID) that may be modified
+     * without affecting this person (used when copying a state).
+     *
+     * @return copy of the person
+     */
+    public Person copy() {
+        return new Person(this);
+    }
+
+    /**
+     * Capture the mutable state of the person.
+     *
+     * @return memento to restore the state from later
+     */
+    public Memento createMemento() {
+        return new Memento(moveSource, target, location, lastMoveTimestamp, couldNotMoveCounter, speedHistorySize);
+    }
+
+    /**
+     * Restore the mutable state of the person captured in the passed memento.
+     *
+     * @param memento to restore
+     */
+    public void restore(Memento memento) {
+        moveSource = memento.moveSource;
+        target = memento.target;
+        location = memento.location;
+        lastMoveTimestamp = memento.lastMoveTimestamp;
+        couldNotMoveCounter = memento.couldNotMoveCounter;
+        speedHistorySize = memento.speedHistorySize;
+
+        updateDiagonalStepRatio();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -239,4 +357,51 @@ public class Person implements SimObject {
                 '}';
     }
 
+    /**
+     * Captured mutable state of a person (see {@link #createMemento()}).
+     * The speed history only grows, thus it suffices to remember its size.
+     */
+    public static final class Memento {
+
+        /**
+         * Location of the source whose move strategy moves the person.
+         */
+        private final Location moveSource;
+
+        /**
+         * Target location of the person.
+         */
+        private final Location target;
+
+        /**
+         * Location of the person.
+         */
+        private final Location location;
+
+        /**
+         * Timestamp of the last movement.
+         */
+        private final double lastMoveTimestamp;
+
+        /**
+         * Amount of times the person could not move.
+         */
+        private final int couldNotMoveCounter;
+
+        /**
+         * Amount of recorded speeds in the speed history.
+         */
+        private final int speedHistorySize;
+
+        private Memento(Location moveSource, Location target, Location location, double lastMoveTimestamp, int couldNotMoveCounter, int speedHistorySize) {
+            this.moveSource = moveSource;
+            this.target = target;
+            this.location = location;
+            this.lastMoveTimestamp = lastMoveTimestamp;
+            this.couldNotMoveCounter = couldNotMoveCounter;
+            this.speedHistorySize = speedHistorySize;
+        }
+
+    }
+
 }
@@ -72,6 +72,13 @@ public class Source implements SimObject {
         return spawnCounter;
     }
 
+    /**
+     * Reset the spawn counter (at the start of a simulation run).
+     */
+    public void resetSpawnCounter() {
+        spawnCounter = 0;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
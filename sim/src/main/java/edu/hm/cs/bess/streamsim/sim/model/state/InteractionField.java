@@ -0,0 +1,170 @@
+package edu.hm.cs.bess.streamsim.sim.model.state;
+
+import java.util.Arrays;
+
+/**
+ * Field summing the interaction kernel (e. g. the repulsion of the mollifier) of all people in a state per cell
+ * (see {@link State#getInteractionField(int, double[])}).
+ * <p>
+ * The field is maintained incrementally by the state: whenever a person enters or leaves a cell
+ * the kernel stencil around the cell is added or subtracted.
+ * Reading the interaction of all people with a cell thus is a single array access.
+ * The values are summed in fixed-point arithmetic (with a resolution of 2^-40),
+ * which makes them exact and independent of the order the people moved in (no drift over time).
+ *
+ * @author Benjamin Eder
+ */
+public final class InteractionField {
+
+    /**
+     * Factor converting kernel values to fixed-point values.
+     */
+    private static final double SCALE = 0x1p40;
+
+    /**
+     * Factor converting fixed-point values to kernel values.
+     */
+    private static final double INVERSE_SCALE = 0x1p-40;
+
+    /**
+     * State the field belongs to.
+     */
+    private final State state;
+
+    /**
+     * Rows of the simulation world.
+     */
+    private final int rows;
+
+    /**
+     * Columns of the simulation world.
+     */
+    private final int columns;
+
+    /**
+     * Maximum row and column offset of the kernel.
+     */
+    private final int range;
+
+    /**
+     * Kernel the field has been created with (row-major, (2 * range + 1)^2 values,
+     * the value at (range + dr, range + dc) is the interaction of a person with the cell at offset (dr, dc) from it).
+     */
+    private final double[] kernel;
+
+    /**
+     * Fixed-point kernel values.
+     */
+    private final long[] fixedKernel;
+
+    /**
+     * Fixed-point sum of the kernels of all people per cell.
+     */
+    private final long[] values;
+
+    InteractionField(State state, int range, double[] kernel) {
+        int width = 2 * range + 1;
+        if (range < 0 || kernel.length != width * width) {
+            throw new IllegalArgumentException(String.format("Expected a kernel of %d x %d values", width, width));
+        }
+
+        this.state = state;
+        this.rows = state.getRows();
+        this.columns = state.getColumns();
+        this.range = range;
+        this.kernel = kernel.clone();
+
+        fixedKernel = new long[kernel.length];
+        for (int i = 0; i < kernel.length; i++) {
+            fixedKernel[i] = Math.round(kernel[i] * SCALE);
+        }
+
+        values = new long[rows * columns];
+    }
+
+    /**
+     * Create a copy of the passed field for another state.
+     *
+     * @param other field to copy
+     * @param state the copy belongs to
+     */
+    InteractionField(InteractionField other, State state) {
+        this.state = state;
+        rows = other.rows;
+        columns = other.columns;
+        range = other.range;
+        kernel = other.kernel;
+        fixedKernel = other.fixedKernel;
+
+        values = other.values.clone();
+    }
+
+    /**
+     * Check whether the field has been created with the passed kernel.
+     *
+     * @param range  maximum row and column offset of the kernel
+     * @param kernel to check
+     * @return whether the field has the passed kernel
+     */
+    boolean hasKernel(int range, double[] kernel) {
+        return this.range == range && Arrays.equals(this.kernel, kernel);
+    }
+
+    /**
+     * Check whether the field belongs to (and is maintained by) the passed state.
+     *
+     * @param state to check
+     * @return whether the field belongs to the state
+     */
+    public boolean isFieldOf(State state) {
+        return this.state == state;
+    }
+
+    /**
+     * Add (or subtract) the kernel stencil around the cell with the passed index.
+     *
+     * @param index of the cell
+     * @param sign  1 to add or -1 to subtract the stencil
+     */
+    void apply(int index, int sign) {
+        int centerRow = index / columns;
+        int centerColumn = index - centerRow * columns;
+        int width = 2 * range + 1;
+
+        for (int row = Math.max(0, centerRow - range); row <= Math.min(centerRow + range, rows - 1); row++) {
+            int kernelOffset = (row - centerRow + range) * width + range - centerColumn;
+
+            for (int column = Math.max(0, centerColumn - range); column <= Math.min(centerColumn + range, columns - 1); column++) {
+                values[row * columns + column] += sign * fixedKernel[kernelOffset + column];
+            }
+        }
+    }
+
+    /**
+     * Get the summed kernel values of all people at the cell with the passed index.
+     *
+     * @param index of the cell
+     * @return field value
+     */
+    public double valueAt(int index) {
+        return values[index] * INVERSE_SCALE;
+    }
+
+    /**
+     * Get the summed kernel values of all people at the cell with the passed index
+     * except the kernel value of the person at the passed offset from the cell (e. g. the person asking).
+     *
+     * @param index        of the cell
+     * @param rowOffset    of the excluded person relative to the cell
+     * @param columnOffset of the excluded person relative to the cell
+     * @return field value without the excluded person
+     */
+    public double valueExcluding(int index, int rowOffset, int columnOffset) {
+        if (Math.abs(rowOffset) > range || Math.abs(columnOffset) > range) {
+            return valueAt(index);
+        }
+
+        return (values[index] - fixedKernel[(range - rowOffset) * (2 * range + 1) + range - columnOffset]) * INVERSE_SCALE;
+    }
+
+}
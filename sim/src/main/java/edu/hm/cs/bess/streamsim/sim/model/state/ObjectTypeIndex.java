@@ -0,0 +1,122 @@
+package edu.hm.cs.bess.streamsim.sim.model.state;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Index of the cells holding objects of a single simulation object type.
+ * The cell indices are stored densely in an array, thus iterating them is a linear scan.
+ * Adding and removing a cell takes constant time (removal swaps the last cell into the freed slot).
+ *
+ * @author Benjamin Eder
+ */
+final class ObjectTypeIndex {
+
+    /**
+     * Position of a cell that is not indexed.
+     */
+    private static final int NOT_INDEXED = -1;
+
+    /**
+     * Indexed cells (densely packed in the range [0, size)).
+     */
+    private int[] cells;
+
+    /**
+     * Position in the dense cell array for every cell of the simulation world (or {@link #NOT_INDEXED}).
+     */
+    private final int[] positions;
+
+    /**
+     * Amount of indexed cells.
+     */
+    private int size;
+
+    ObjectTypeIndex(int cellCount) {
+        cells = new int[Math.min(cellCount, 16)];
+        positions = new int[cellCount];
+
+        Arrays.fill(positions, NOT_INDEXED);
+    }
+
+    /**
+     * Create a copy of the passed index.
+     *
+     * @param other index to copy
+     */
+    ObjectTypeIndex(ObjectTypeIndex other) {
+        cells = other.cells.clone();
+        positions = other.positions.clone();
+        size = other.size;
+    }
+
+    /**
+     * Add the passed cell to the index.
+     *
+     * @param cell index of the cell
+     * @return whether the cell has not been indexed before
+     */
+    boolean add(int cell) {
+        if (positions[cell] != NOT_INDEXED) {
+            return false;
+        }
+
+        if (size == cells.length) {
+            cells = Arrays.copyOf(cells, Math.max(size * 2, 1));
+        }
+
+        cells[size] = cell;
+        positions[cell] = size++;
+        return true;
+    }
+
+    /**
+     * Remove the passed cell from the index.
+     *
+     * @param cell index of the cell
+     * @return whether the cell has been indexed before
+     */
+    boolean remove(int cell) {
+        int position = positions[cell];
+        if (position == NOT_INDEXED) {
+            return false;
+        }
+
+        int last = cells[--size];
+        cells[position] = last;
+        positions[last] = position;
+        positions[cell] = NOT_INDEXED;
+        return true;
+    }
+
+    /**
+     * Get the amount of indexed cells.
+     *
+     * @return amount of indexed cells
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Get the indexed cell at the passed position.
+     *
+     * @param position in the dense cell array
+     * @return cell index
+     */
+    int cellAt(int position) {
+        return cells[position];
+    }
+
+    /**
+     * Call the passed consumer for every indexed cell.
+     *
+     * @param consumer to call with the cell indices
+     */
+    void forEach(IntConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            consumer.accept(cells[i]);
+        }
+    }
+
+}
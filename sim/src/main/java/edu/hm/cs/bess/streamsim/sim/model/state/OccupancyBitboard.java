@@ -0,0 +1,245 @@
+package edu.hm.cs.bess.streamsim.sim.model.state;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Spatial index of occupied cells stored as one bitboard per row (64 cells per word).
+ * Neighbourhood queries only visit the words overlapping the queried area
+ * and skip unoccupied cells using bit operations instead of looking at every cell.
+ *
+ * @author Benjamin Eder
+ */
+final class OccupancyBitboard {
+
+    /**
+     * Rows of the simulation world.
+     */
+    private final int rows;
+
+    /**
+     * Columns of the simulation world.
+     */
+    private final int columns;
+
+    /**
+     * Amount of words per row.
+     */
+    private final int wordsPerRow;
+
+    /**
+     * Occupancy bits (row-major, bit {@code column % 64} of word {@code row * wordsPerRow + column / 64}).
+     */
+    private final long[] words;
+
+    OccupancyBitboard(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+        this.wordsPerRow = (columns + 63) >>> 6;
+
+        words = new long[rows * wordsPerRow];
+    }
+
+    /**
+     * Create a copy of the passed bitboard.
+     *
+     * @param other bitboard to copy
+     */
+    OccupancyBitboard(OccupancyBitboard other) {
+        rows = other.rows;
+        columns = other.columns;
+        wordsPerRow = other.wordsPerRow;
+
+        words = other.words.clone();
+    }
+
+    /**
+     * Set whether the cell with the passed index is occupied.
+     *
+     * @param index    of the cell
+     * @param occupied whether the cell is occupied
+     * @return whether the occupancy of the cell changed
+     */
+    boolean set(int index, boolean occupied) {
+        int row = index / columns;
+        int column = index - row * columns;
+        int word = row * wordsPerRow + (column >>> 6);
+
+        long previous = words[word];
+        if (occupied) {
+            words[word] |= 1L << column;
+        } else {
+            words[word] &= ~(1L << column);
+        }
+
+        return words[word] != previous;
+    }
+
+    /**
+     * Call the passed consumer for every occupied cell (except the center cell) whose euclidean distance
+     * to the passed center cell is less than or equal to the passed radius.
+     * Cells are visited in row-major order.
+     *
+     * @param index    of the center cell
+     * @param radius   to search in
+     * @param consumer to call with the indices of the occupied cells
+     */
+    void forEachWithin(int index, int radius, IntConsumer consumer) {
+        int centerRow = index / columns;
+        int centerColumn = index - centerRow * columns;
+        int squaredRadius = radius * radius;
+
+        for (int row = Math.max(0, centerRow - radius); row <= Math.min(centerRow + radius, rows - 1); row++) {
+            int rowDiff = row - centerRow;
+            int columnRadius = isqrt(squaredRadius - rowDiff * rowDiff);
+
+            int from = Math.max(0, centerColumn - columnRadius);
+            int to = Math.min(centerColumn + columnRadius, columns - 1);
+
+            int rowOffset = row * wordsPerRow;
+            for (int wordIndex = from >>> 6; wordIndex <= to >>> 6; wordIndex++) {
+                long word = words[rowOffset + wordIndex] & rangeMask(wordIndex, from, to);
+
+                while (word != 0) {
+                    int column = (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+
+                    if (row != centerRow || column != centerColumn) {
+                        consumer.accept(row * columns + column);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Count the occupied cells in the passed rectangle (bounds are inclusive and clamped to the simulation world).
+     *
+     * @param fromRow    first row
+     * @param fromColumn first column
+     * @param toRow      last row
+     * @param toColumn   last column
+     * @return amount of occupied cells
+     */
+    int countInRect(int fromRow, int fromColumn, int toRow, int toColumn) {
+        fromRow = Math.max(fromRow, 0);
+        fromColumn = Math.max(fromColumn, 0);
+        toRow = Math.min(toRow, rows - 1);
+        toColumn = Math.min(toColumn, columns - 1);
+
+        int count = 0;
+        for (int row = fromRow; row <= toRow; row++) {
+            int rowOffset = row * wordsPerRow;
+
+            for (int wordIndex = fromColumn >>> 6; wordIndex <= toColumn >>> 6; wordIndex++) {
+                count += Long.bitCount(words[rowOffset + wordIndex] & rangeMask(wordIndex, fromColumn, toColumn));
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Find the occupied cells (except the center cell) nearest to the passed center cell.
+     * Cells with equal euclidean distance are ordered by their index.
+     *
+     * @param index  of the center cell
+     * @param k      maximum amount of cells to find
+     * @param result to write the indices of the found cells to (ordered by distance, at least k long)
+     * @return amount of found cells
+     */
+    int nearest(int index, int k, int[] result) {
+        if (k <= 0) {
+            return 0;
+        }
+
+        int centerRow = index / columns;
+        int centerColumn = index - centerRow * columns;
+        int maxRadius = Math.max(Math.max(centerRow, rows - 1 - centerRow), Math.max(centerColumn, columns - 1 - centerColumn));
+
+        long[] candidates = new long[Math.max(k, 16)];
+        for (int radius = 1; ; radius = Math.min(radius * 2, maxRadius)) {
+            // Collect the occupied cells in the square around the center ordered by distance and index
+            int count = 0;
+            for (int row = Math.max(0, centerRow - radius); row <= Math.min(centerRow + radius, rows - 1); row++) {
+                int rowOffset = row * wordsPerRow;
+                int from = Math.max(0, centerColumn - radius);
+                int to = Math.min(centerColumn + radius, columns - 1);
+
+                for (int wordIndex = from >>> 6; wordIndex <= to >>> 6; wordIndex++) {
+                    long word = words[rowOffset + wordIndex] & rangeMask(wordIndex, from, to);
+
+                    while (word != 0) {
+                        int column = (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+                        word &= word - 1;
+
+                        if (row == centerRow && column == centerColumn) {
+                            continue;
+                        }
+
+                        long rowDiff = row - centerRow;
+                        long columnDiff = column - centerColumn;
+                        long squaredDistance = rowDiff * rowDiff + columnDiff * columnDiff;
+
+                        if (count == candidates.length) {
+                            candidates = Arrays.copyOf(candidates, count * 2);
+                        }
+                        candidates[count++] = (squaredDistance << 32) | (row * columns + column);
+                    }
+                }
+            }
+            Arrays.sort(candidates, 0, count);
+
+            // Cells outside the square are farther away than the radius -> found cells within the radius are final
+            long squaredRadius = (long) radius * radius;
+            if (radius == maxRadius || (count >= k && candidates[k - 1] >>> 32 <= squaredRadius)) {
+                int found = Math.min(k, count);
+                for (int i = 0; i < found; i++) {
+                    result[i] = (int) candidates[i];
+                }
+                return found;
+            }
+        }
+    }
+
+    /**
+     * Get the mask of the bits of the passed word lying in the passed column range.
+     *
+     * @param wordIndex index of the word in its row
+     * @param from      first column (inclusive)
+     * @param to        last column (inclusive)
+     * @return bit mask
+     */
+    private static long rangeMask(int wordIndex, int from, int to) {
+        int base = wordIndex << 6;
+        long mask = -1L;
+
+        if (from > base) {
+            mask &= -1L << (from - base);
+        }
+        if (to < base + 63) {
+            mask &= -1L >>> (63 - (to - base));
+        }
+
+        return mask;
+    }
+
+    /**
+     * Calculate the integer square root (the greatest integer whose square is less than or equal to the passed value).
+     *
+     * @param value to calculate the integer square root of
+     * @return integer square root
+     */
+    private static int isqrt(int value) {
+        int root = (int) Math.sqrt(value);
+        while (root * root > value) {
+            root--;
+        }
+        while ((root + 1) * (root + 1) <= value) {
+            root++;
+        }
+
+        return root;
+    }
+
+}
@@ -5,7 +5,7 @@ import edu.hm.cs.bess.streamsim.sim.model.object.SimObject;
 import edu.hm.cs.bess.streamsim.sim.model.object.SimObjectType;
 import edu.hm.cs.bess.streamsim.sim.model.object.WalkableSimObject;
 import edu.hm.cs.bess.streamsim.sim.model.object.lightbarrier.LightBarrier;
-import edu.hm.cs.bess.streamsim.sim.model.state.cell.StateCell;
+import edu.hm.cs.bess.streamsim.sim.model.object.person.Person;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
@@ -13,19 +13,60 @@ import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
+import java.util.function.IntConsumer;
 
 /**
  * The simulations state representation.
+ * <p>
+ * The two-dimensional simulation world is stored in flat arrays indexed by the cell index
+ * ({@code row * columns + column}, see {@link #indexOf(Location)}).
+ * Next to the cell occupants the state maintains primitive layers (cell types, walkable overlay and occupant IDs)
+ * that may be queried without allocating (see {@link #typeAt(int)} and {@link #canBeOccupied(int)}).
+ * The location based methods are a thin facade over the primitive layers.
  *
  * @author Benjamin Eder
  */
 public class State implements Cloneable {
 
     /**
-     * Cells forming the two-dimensional simulation world.
+     * Type ID of an empty cell (see {@link #typeAt(int)}).
      */
-    private final StateCell[][] cells;
+    public static final byte EMPTY = 0;
+
+    /**
+     * Occupant ID of a cell not occupied by a person (see {@link #occupantIdAt(int)}).
+     */
+    public static final int NO_OCCUPANT = -1;
+
+    /**
+     * Rows of the simulation world.
+     */
+    private final int rows;
+
+    /**
+     * Columns of the simulation world.
+     */
+    private final int columns;
+
+    /**
+     * Occupants of the cells forming the two-dimensional simulation world (null if free).
+     */
+    private final SimObject[] occupants;
+
+    /**
+     * Type IDs of the upper cell occupants (see {@link #getUpperCellOccupant(int)}) or {@link #EMPTY}.
+     */
+    private final byte[] types;
+
+    /**
+     * Walkable overlay holding the type IDs of the walkable cell occupants or {@link #EMPTY}.
+     */
+    private final byte[] walkableTypes;
+
+    /**
+     * IDs of the people occupying the cells or {@link #NO_OCCUPANT}.
+     */
+    private final int[] occupantIds;
 
     /**
      * Update listeners getting notified of state changes during the simulation.
@@ -33,23 +74,116 @@ public class State implements Cloneable {
     private List<StateUpdateListener> updateListeners;
 
     /**
-     * Object type to location mapping.
+     * Object type to cell index mapping (see {@link #forEachCellOfType(SimObjectType, IntConsumer)}).
+     */
+    private final Map<SimObjectType, ObjectTypeIndex> objectTypeIndices = new EnumMap<>(SimObjectType.class);
+
+    /**
+     * Spatial index of the cells occupied by people (see {@link #forEachPersonWithin(int, int, IntConsumer)}).
      */
-    private final Map<SimObjectType, Set<Location>> objectTypeMapping = new HashMap<>();
+    private final OccupancyBitboard people;
+
+    /**
+     * Interaction fields maintained on every change of the people (guarded by the update lock, see {@link #getInteractionField(int, double[])}).
+     */
+    private final List<InteractionField> interactionFields = new ArrayList<>();
 
     /**
      * Lock for the object type mapping.
      */
     private final ReadWriteLock updateLock = new ReentrantReadWriteLock();
 
+    /**
+     * Journals recording the changes made by the thread they are bound to (see {@link #setJournal(StateJournal)}).
+     */
+    private final ThreadLocal<StateJournal> journals = new ThreadLocal<>();
+
+    /**
+     * Sequence number of the last journal entry recorded (guarded by the update lock).
+     */
+    private long journalSequence;
+
+    /**
+     * Snapshots saving the cells before they are changed (guarded by the update lock, see {@link #snapshot()}).
+     */
+    private final List<StateSnapshot> snapshots = new ArrayList<>();
+
+    /**
+     * Buffers collecting the changed cells (guarded by the update lock, see {@link #createChangeBuffer()}).
+     */
+    private final List<StateChangeBuffer> changeBuffers = new ArrayList<>();
+
     public State(int rows, int columns) {
-        cells = new StateCell[rows][columns];
+        this.rows = rows;
+        this.columns = rows > 0 ? columns : 0;
+
+        occupants = new SimObject[rows * columns];
+        types = new byte[rows * columns];
+        walkableTypes = new byte[rows * columns];
+        occupantIds = new int[rows * columns];
+
+        Arrays.fill(occupantIds, NO_OCCUPANT);
+
+        people = new OccupancyBitboard(rows, this.columns);
+
+        for (SimObjectType type : SimObjectType.values()) {
+            objectTypeIndices.put(type, new ObjectTypeIndex(rows * columns));
+        }
+    }
+
+    /**
+     * Create a deep copy of the passed state.
+     * People and walkable objects are copied, stationary objects (obstacles, sources, targets) are shared.
+     * Update listeners, journals and snapshots are not copied.
+     *
+     * @param other state to copy
+     */
+    private State(State other) {
+        other.updateLock.readLock().lock();
+        try {
+            rows = other.rows;
+            columns = other.columns;
+
+            occupants = new SimObject[other.occupants.length];
+            for (int i = 0; i < occupants.length; i++) {
+                occupants[i] = copyOf(other.occupants[i]);
+            }
+
+            types = other.types.clone();
+            walkableTypes = other.walkableTypes.clone();
+            occupantIds = other.occupantIds.clone();
 
-        for (int row = 0; row < rows; row++) {
-            for (int column = 0; column < columns; column++) {
-                cells[row][column] = new StateCell();
+            people = new OccupancyBitboard(other.people);
+            for (InteractionField field : other.interactionFields) {
+                interactionFields.add(new InteractionField(field, this));
             }
+
+            for (Map.Entry<SimObjectType, ObjectTypeIndex> entry : other.objectTypeIndices.entrySet()) {
+                objectTypeIndices.put(entry.getKey(), new ObjectTypeIndex(entry.getValue()));
+            }
+        } finally {
+            other.updateLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Copy the passed cell occupant (see {@link #State(State)}).
+     *
+     * @param occupant to copy
+     * @return copy of the occupant
+     */
+    private static SimObject copyOf(@Nullable SimObject occupant) {
+        if (occupant instanceof Person) {
+            return ((Person) occupant).copy();
+        } else if (occupant != null && occupant.isWalkable()) {
+            WalkableSimObject walkableSimObject = (WalkableSimObject) occupant;
+
+            WalkableSimObject copy = walkableSimObject.copy();
+            copy.setOccupant(copyOf(walkableSimObject.getOccupant()));
+            return copy;
         }
+
+        return occupant;
     }
 
     /**
@@ -58,7 +192,7 @@ public class State implements Cloneable {
      * @return columns
      */
     public int getColumns() {
-        return cells.length > 0 ? cells[0].length : 0;
+        return columns;
     }
 
     /**
@@ -67,7 +201,7 @@ public class State implements Cloneable {
      * @return rows
      */
     public int getRows() {
-        return cells.length;
+        return rows;
     }
 
     /**
@@ -81,7 +215,8 @@ public class State implements Cloneable {
 
         updateLock.writeLock().lock();
         try {
-            SimObject oldOccupant = cells[location.getRow()][location.getColumn()].getOccupant().orElse(null);
+            int index = indexOf(location);
+            SimObject oldOccupant = occupants[index];
             if (occupant == null) {
                 throw new IllegalArgumentException("Occupant to set must be non-null, to remove please use method State.removeOccupant(...)");
             }
@@ -92,15 +227,19 @@ public class State implements Cloneable {
                     throw new IllegalArgumentException("Cannot occupy already occupied walkable simulation object");
                 }
 
+                recordCell(location);
                 walkableSimObject.setOccupant(occupant);
+                refresh(index);
 
-                objectTypeMapping.computeIfAbsent(occupant.getType(), k -> new HashSet<>()).add(location);
+                index(occupant.getType(), location);
 
                 event = new UpdateEvent(EventType.CHANGED, location, occupant, walkableSimObject);
             } else {
-                cells[location.getRow()][location.getColumn()].setOccupant(occupant);
+                recordCell(location);
+                occupants[index] = occupant;
+                refresh(index);
 
-                objectTypeMapping.computeIfAbsent(occupant.getType(), k -> new HashSet<>()).add(location);
+                index(occupant.getType(), location);
 
                 event = new UpdateEvent(EventType.ADDED, location, occupant, oldOccupant);
             }
@@ -123,53 +262,71 @@ public class State implements Cloneable {
             return false;
         }
 
-        List<UpdateEvent> events = new ArrayList<>();
+        // Only create update events if there is someone interested in them
+        List<UpdateEvent> events = hasUpdateListeners() ? new ArrayList<>(2) : null;
 
         updateLock.writeLock().lock();
         try {
-            if (!canBeOccupied(to)) {
+            int fromIndex = indexOf(from);
+            int toIndex = indexOf(to);
+            if (!canBeOccupied(toIndex)) {
                 return false;
             }
 
-            SimObject occupant = getCellOccupant(from).orElseThrow();
+            recordCell(from);
+            recordCell(to);
+
+            SimObject occupant = Objects.requireNonNull(occupants[fromIndex]);
             if (occupant.isWalkable()) {
                 WalkableSimObject walkableSimObject = (WalkableSimObject) occupant;
                 occupant = walkableSimObject.getOccupant();
                 walkableSimObject.setOccupant(null);
 
-                events.add(new UpdateEvent(EventType.CHANGED, from, walkableSimObject, occupant));
+                if (events != null) {
+                    events.add(new UpdateEvent(EventType.CHANGED, from, walkableSimObject, occupant));
+                }
             } else {
-                SimObject oldOccupant = cells[from.getRow()][from.getColumn()].getOccupant().orElse(null);
-                cells[from.getRow()][from.getColumn()].setOccupant(null);
+                occupants[fromIndex] = null;
 
-                events.add(new UpdateEvent(EventType.REMOVED, from, null, oldOccupant));
+                if (events != null) {
+                    events.add(new UpdateEvent(EventType.REMOVED, from, null, occupant));
+                }
             }
+            refresh(fromIndex);
 
             occupant.setLocation(to);
 
-            Optional<SimObject> optionalSimObject = getCellOccupant(to);
-            if (optionalSimObject.isPresent() && optionalSimObject.get().isWalkable()) {
-                ((WalkableSimObject) optionalSimObject.get()).setOccupant(occupant);
+            SimObject toOccupant = occupants[toIndex];
+            if (toOccupant != null && toOccupant.isWalkable()) {
+                ((WalkableSimObject) toOccupant).setOccupant(occupant);
 
-                if (optionalSimObject.get() instanceof LightBarrier) {
+                if (toOccupant instanceof LightBarrier) {
                     LightBarrier.trigger();
+                    recordTrigger();
                 }
 
-                events.add(new UpdateEvent(EventType.CHANGED, to, occupant, optionalSimObject.get()));
+                if (events != null) {
+                    events.add(new UpdateEvent(EventType.CHANGED, to, occupant, toOccupant));
+                }
             } else {
-                cells[to.getRow()][to.getColumn()].setOccupant(occupant);
+                occupants[toIndex] = occupant;
 
-                events.add(new UpdateEvent(EventType.ADDED, to, occupant, null));
+                if (events != null) {
+                    events.add(new UpdateEvent(EventType.ADDED, to, occupant, null));
+                }
             }
+            refresh(toIndex);
 
             // Update object type mapping
-            objectTypeMapping.get(occupant.getType()).remove(from);
-            objectTypeMapping.get(occupant.getType()).add(to);
+            unindex(occupant.getType(), from);
+            index(occupant.getType(), to);
         } finally {
             updateLock.writeLock().unlock();
         }
 
-        notifyUpdateListeners(events);
+        if (events != null) {
+            notifyUpdateListeners(events);
+        }
 
         return true;
     }
@@ -185,19 +342,22 @@ public class State implements Cloneable {
 
         updateLock.writeLock().lock();
         try {
-            SimObject occupant = getCellOccupant(location).orElse(null);
+            int index = indexOf(location);
+            SimObject occupant = occupants[index];
             if (occupant == null) {
                 return false;
             }
 
+            recordCell(location);
+
             if (occupant.isWalkable()) {
                 WalkableSimObject walkableSimObject = (WalkableSimObject) occupant;
 
                 if (walkableSimObject.isFree()) {
                     // Remove the walkable sim object
-                    cells[location.getRow()][location.getColumn()].setOccupant(null);
+                    occupants[index] = null;
 
-                    objectTypeMapping.get(walkableSimObject.getType()).remove(location);
+                    unindex(walkableSimObject.getType(), location);
 
                     event = new UpdateEvent(EventType.REMOVED, location, null, walkableSimObject);
                 } else {
@@ -206,17 +366,18 @@ public class State implements Cloneable {
                     // Remove only the object currently walking on the walkable sim object
                     walkableSimObject.setOccupant(null);
 
-                    objectTypeMapping.get(oldOccupant.getType()).remove(location);
+                    unindex(oldOccupant.getType(), location);
 
                     event = new UpdateEvent(EventType.CHANGED, location, walkableSimObject, oldOccupant);
                 }
             } else {
-                cells[location.getRow()][location.getColumn()].setOccupant(null);
+                occupants[index] = null;
 
-                objectTypeMapping.get(occupant.getType()).remove(location);
+                unindex(occupant.getType(), location);
 
                 event = new UpdateEvent(EventType.REMOVED, location, null, occupant);
             }
+            refresh(index);
         } finally {
             updateLock.writeLock().unlock();
         }
@@ -226,6 +387,362 @@ public class State implements Cloneable {
         return true;
     }
 
+    /**
+     * Bind a journal to the calling thread recording all changes the thread makes to the state from now on.
+     * The recorded changes may be reverted using {@link #revert(StateJournal, int)}.
+     *
+     * @param journal to bind or null to stop recording
+     */
+    public void setJournal(@Nullable StateJournal journal) {
+        if (journal != null) {
+            journals.set(journal);
+        } else {
+            journals.remove();
+        }
+    }
+
+    /**
+     * Revert all changes recorded in the passed journal after the passed mark (see {@link StateJournal#mark()}).
+     * Update listeners are notified of the restored cells.
+     *
+     * @param journal the changes have been recorded in
+     * @param mark    to revert to
+     */
+    public void revert(StateJournal journal, int mark) {
+        revert(new StateJournal[]{journal}, new int[]{mark});
+    }
+
+    /**
+     * Revert all changes recorded in the passed journals after the respective marks (see {@link StateJournal#mark()}).
+     * The changes of all journals are reverted in the reverse order they have been made in,
+     * thus the journals may have recorded changes of the same cells.
+     * Update listeners are notified of the restored cells.
+     *
+     * @param journals the changes have been recorded in
+     * @param marks    to revert the journals to
+     */
+    public void revert(StateJournal[] journals, int[] marks) {
+        List<UpdateEvent> events = new ArrayList<>();
+
+        updateLock.writeLock().lock();
+        try {
+            int[] positions = new int[journals.length];
+            for (int i = 0; i < journals.length; i++) {
+                positions[i] = journals[i].size() - 1;
+            }
+
+            while (true) {
+                // Find the latest change not yet reverted
+                int latest = -1;
+                for (int i = 0; i < journals.length; i++) {
+                    if (positions[i] >= marks[i]
+                            && (latest == -1 || journals[i].sequenceAt(positions[i]) > journals[latest].sequenceAt(positions[latest]))) {
+                        latest = i;
+                    }
+                }
+                if (latest == -1) {
+                    break;
+                }
+
+                revertEntry(journals[latest], positions[latest]--, events);
+            }
+
+            for (int i = 0; i < journals.length; i++) {
+                journals[i].truncate(marks[i]);
+            }
+        } finally {
+            updateLock.writeLock().unlock();
+        }
+
+        notifyUpdateListeners(events);
+    }
+
+    /**
+     * Revert a single journal entry.
+     * Must be called while holding the write lock.
+     *
+     * @param journal the entry belongs to
+     * @param index   of the entry
+     * @param events  to add update events for restored cells to
+     */
+    private void revertEntry(StateJournal journal, int index, List<UpdateEvent> events) {
+        Location location = journal.locationAt(index);
+
+        switch (journal.kindAt(index)) {
+            case StateJournal.CELL -> {
+                SimObject occupant = journal.occupantAt(index);
+                SimObject walker = journal.walkerAt(index);
+
+                int cellIndex = indexOf(location);
+                saveCell(cellIndex);
+                restoreCell(cellIndex, occupant, walker, events);
+            }
+            case StateJournal.INDEXED -> objectTypeIndices.get(journal.typeAt(index)).remove(indexOf(location));
+            case StateJournal.UNINDEXED -> objectTypeIndices.get(journal.typeAt(index)).add(indexOf(location));
+            case StateJournal.TRIGGERED -> LightBarrier.revertTrigger();
+            default -> throw new IllegalStateException(String.format("Unknown journal entry kind %d", journal.kindAt(index)));
+        }
+    }
+
+    /**
+     * Set the content of the cell with the passed index.
+     * Must be called while holding the write lock.
+     * The object type mapping is not updated.
+     *
+     * @param index    of the cell
+     * @param occupant to set
+     * @param walker   to set walking on the occupant (if it is walkable)
+     * @param events   to add an update event for the restored cell to
+     */
+    private void restoreCell(int index, @Nullable SimObject occupant, @Nullable SimObject walker, List<UpdateEvent> events) {
+        Location location = locationOf(index);
+
+        occupants[index] = occupant;
+        if (occupant == null) {
+            events.add(new UpdateEvent(EventType.REMOVED, location, null, null));
+        } else if (occupant.isWalkable()) {
+            ((WalkableSimObject) occupant).setOccupant(walker);
+            events.add(new UpdateEvent(EventType.CHANGED, location, walker != null ? walker : occupant, occupant));
+        } else {
+            events.add(new UpdateEvent(EventType.ADDED, location, occupant, null));
+        }
+        refresh(index);
+    }
+
+    /**
+     * Take a snapshot of the state.
+     * From now on the content of every cell is saved right before it is changed for the first time,
+     * so that the state may be restored to the snapshot (see {@link #restore(StateSnapshot)})
+     * in time proportional to the amount of changed cells.
+     * Release the snapshot when it is no more needed (see {@link #release(StateSnapshot)}).
+     *
+     * @return the snapshot
+     */
+    public StateSnapshot snapshot() {
+        updateLock.writeLock().lock();
+        try {
+            StateSnapshot snapshot = new StateSnapshot(this);
+            snapshots.add(snapshot);
+            return snapshot;
+        } finally {
+            updateLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Restore the state to the passed snapshot (see {@link #snapshot()}).
+     * The cells, the object type mapping and the people located in the changed cells are restored.
+     * The snapshot remains usable and may be restored again later.
+     * Update listeners are notified of the restored cells.
+     * <p>
+     * Must not be called while the state is changed by a running simulation.
+     *
+     * @param snapshot to restore
+     */
+    public void restore(StateSnapshot snapshot) {
+        if (snapshot.getState() != this) {
+            throw new IllegalArgumentException("Cannot restore a snapshot taken of another state");
+        }
+
+        List<UpdateEvent> events = new ArrayList<>();
+
+        updateLock.writeLock().lock();
+        try {
+            if (!snapshots.contains(snapshot)) {
+                throw new IllegalStateException("Cannot restore an already released snapshot");
+            }
+
+            for (int i = 0; i < snapshot.getChangedCellCount(); i++) {
+                int index = snapshot.cellAt(i);
+
+                saveCell(index); // Other snapshots may still need the current content
+
+                indexCell(index, false);
+                restoreCell(index, snapshot.occupantAt(i), snapshot.walkerAt(i), events);
+                indexCell(index, true);
+
+                Person.Memento memento = snapshot.mementoAt(i);
+                if (memento != null) {
+                    ((Person) getUpperCellOccupant(index)).restore(memento);
+                }
+            }
+
+            snapshot.clear();
+        } finally {
+            updateLock.writeLock().unlock();
+        }
+
+        notifyUpdateListeners(events);
+    }
+
+    /**
+     * Release the passed snapshot (see {@link #snapshot()}) so that changes are no more saved for it.
+     *
+     * @param snapshot to release
+     */
+    public void release(StateSnapshot snapshot) {
+        updateLock.writeLock().lock();
+        try {
+            snapshots.remove(snapshot);
+        } finally {
+            updateLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Save the current content of the cell with the passed index in all snapshots (see {@link #snapshot()}).
+     * Must be called while holding the write lock right before the cell is changed.
+     *
+     * @param index of the cell
+     */
+    private void saveCell(int index) {
+        if (snapshots.isEmpty()) {
+            return;
+        }
+
+        SimObject occupant = occupants[index];
+        SimObject walker = occupant != null && occupant.isWalkable() ? ((WalkableSimObject) occupant).getOccupant() : null;
+
+        for (int i = 0; i < snapshots.size(); i++) {
+            snapshots.get(i).save(index, occupant, walker);
+        }
+    }
+
+    /**
+     * Add the content of the cell with the passed index to (or remove it from) the object type mapping.
+     * Must be called while holding the write lock.
+     *
+     * @param index of the cell
+     * @param add   whether to add or remove the content
+     */
+    private void indexCell(int index, boolean add) {
+        SimObject occupant = occupants[index];
+        if (occupant == null) {
+            return;
+        }
+
+        if (occupant.isWalkable()) {
+            WalkableSimObject walkableSimObject = (WalkableSimObject) occupant;
+
+            updateObjectTypeIndex(walkableSimObject.getActualType(), index, add);
+            if (walkableSimObject.getOccupant() != null) {
+                updateObjectTypeIndex(walkableSimObject.getOccupant().getType(), index, add);
+            }
+        } else {
+            updateObjectTypeIndex(occupant.getType(), index, add);
+        }
+    }
+
+    /**
+     * Add the passed cell to (or remove it from) the object type mapping without recording the change.
+     *
+     * @param type  of the object in the cell
+     * @param index of the cell
+     * @param add   whether to add or remove the cell
+     */
+    private void updateObjectTypeIndex(SimObjectType type, int index, boolean add) {
+        if (add) {
+            objectTypeIndices.get(type).add(index);
+        } else {
+            objectTypeIndices.get(type).remove(index);
+        }
+    }
+
+    /**
+     * Update the primitive layers, the spatial index and the interaction fields of the cell with the passed index
+     * from its current occupant and mark the cell as changed in all change buffers.
+     * Must be called while holding the write lock after every change of the cell.
+     *
+     * @param index of the cell
+     */
+    private void refresh(int index) {
+        SimObject occupant = occupants[index];
+        SimObject upper = occupant;
+        byte walkableType = EMPTY;
+
+        if (occupant != null && occupant.isWalkable()) {
+            WalkableSimObject walkableSimObject = (WalkableSimObject) occupant;
+            walkableType = (byte) walkableSimObject.getActualType().getID();
+
+            if (walkableSimObject.getOccupant() != null) {
+                upper = walkableSimObject.getOccupant();
+            }
+        }
+
+        types[index] = upper != null ? (byte) upper.getType().getID() : EMPTY;
+        walkableTypes[index] = walkableType;
+        occupantIds[index] = upper instanceof Person ? ((Person) upper).getId() : NO_OCCUPANT;
+
+        boolean isPerson = upper instanceof Person;
+        if (people.set(index, isPerson)) {
+            for (int i = 0; i < interactionFields.size(); i++) {
+                interactionFields.get(i).apply(index, isPerson ? 1 : -1);
+            }
+        }
+
+        for (int i = 0; i < changeBuffers.size(); i++) {
+            changeBuffers.get(i).markChanged(index);
+        }
+    }
+
+    /**
+     * Record the current content of the cell at the passed location in the journal bound to the calling thread (if any)
+     * and save it in all snapshots.
+     *
+     * @param location of the cell
+     */
+    private void recordCell(Location location) {
+        saveCell(indexOf(location));
+
+        StateJournal journal = journals.get();
+        if (journal != null) {
+            SimObject occupant = occupants[indexOf(location)];
+            SimObject walker = occupant != null && occupant.isWalkable() ? ((WalkableSimObject) occupant).getOccupant() : null;
+
+            journal.recordCell(++journalSequence, location, occupant, walker);
+        }
+    }
+
+    /**
+     * Record a light barrier trigger in the journal bound to the calling thread (if any).
+     */
+    private void recordTrigger() {
+        StateJournal journal = journals.get();
+        if (journal != null) {
+            journal.recordTrigger(++journalSequence);
+        }
+    }
+
+    /**
+     * Add the passed location to the object type mapping.
+     *
+     * @param type     of the object at the location
+     * @param location to add
+     */
+    private void index(SimObjectType type, Location location) {
+        if (objectTypeIndices.get(type).add(indexOf(location))) {
+            StateJournal journal = journals.get();
+            if (journal != null) {
+                journal.recordIndexChange(++journalSequence, type, location, true);
+            }
+        }
+    }
+
+    /**
+     * Remove the passed location from the object type mapping.
+     *
+     * @param type     of the object at the location
+     * @param location to remove
+     */
+    private void unindex(SimObjectType type, Location location) {
+        if (objectTypeIndices.get(type).remove(indexOf(location))) {
+            StateJournal journal = journals.get();
+            if (journal != null) {
+                journal.recordIndexChange(++journalSequence, type, location, false);
+            }
+        }
+    }
+
     /**
      * Get the cell occupant at the passed location (or null).
      *
@@ -233,7 +750,18 @@ public class State implements Cloneable {
      * @return occupant (or null)
      */
     public Optional<SimObject> getCellOccupant(Location location) {
-        return cells[location.getRow()][location.getColumn()].getOccupant();
+        return Optional.ofNullable(occupants[indexOf(location)]);
+    }
+
+    /**
+     * Get the cell occupant at the passed cell index (see {@link #indexOf(Location)}) without allocating.
+     *
+     * @param index of the cell
+     * @return occupant or null
+     */
+    @Nullable
+    public SimObject getCellOccupant(int index) {
+        return occupants[index];
     }
 
     /**
@@ -243,19 +771,92 @@ public class State implements Cloneable {
      * @return the upper cell occupant
      */
     public Optional<SimObject> getUpperCellOccupant(Location location) {
-        SimObject simObject = getCellOccupant(location).orElse(null);
+        return Optional.ofNullable(getUpperCellOccupant(indexOf(location)));
+    }
+
+    /**
+     * Get the cell occupant that may be currently walking on another walkable cell occupant
+     * at the passed cell index (see {@link #indexOf(Location)}) without allocating.
+     *
+     * @param index of the cell
+     * @return the upper cell occupant or null
+     */
+    @Nullable
+    public SimObject getUpperCellOccupant(int index) {
+        SimObject simObject = occupants[index];
 
         if (simObject != null && simObject.isWalkable()) {
             WalkableSimObject walkableSimObject = (WalkableSimObject) simObject;
 
-            if (walkableSimObject.getOccupant() != null) {
-                return Optional.of(walkableSimObject.getOccupant());
-            } else {
-                return Optional.of(walkableSimObject);
-            }
-        } else {
-            return Optional.ofNullable(simObject);
+            return walkableSimObject.getOccupant() != null ? walkableSimObject.getOccupant() : walkableSimObject;
         }
+
+        return simObject;
+    }
+
+    /**
+     * Get the index of the cell at the passed location (row * columns + column).
+     *
+     * @param location of the cell
+     * @return cell index
+     */
+    public int indexOf(Location location) {
+        return location.getRow() * columns + location.getColumn();
+    }
+
+    /**
+     * Get the location of the cell with the passed index (see {@link #indexOf(Location)}).
+     *
+     * @param index of the cell
+     * @return location of the cell
+     */
+    public Location locationOf(int index) {
+        return new Location(index / columns, index % columns);
+    }
+
+    /**
+     * Get the type ID (see {@link SimObjectType#getID()}) of the upper cell occupant (see {@link #getUpperCellOccupant(int)})
+     * at the passed cell index or {@link #EMPTY} if the cell is free.
+     *
+     * @param index of the cell
+     * @return type ID
+     */
+    public byte typeAt(int index) {
+        return types[index];
+    }
+
+    /**
+     * Get the type ID of the walkable cell occupant (walkable overlay) at the passed cell index
+     * or {@link #EMPTY} if the cell is not occupied by a walkable object.
+     *
+     * @param index of the cell
+     * @return type ID of the walkable cell occupant
+     */
+    public byte walkableTypeAt(int index) {
+        return walkableTypes[index];
+    }
+
+    /**
+     * Get the ID of the person occupying the cell at the passed cell index (see {@link Person#getId()})
+     * or {@link #NO_OCCUPANT} if no person is occupying the cell.
+     *
+     * @param index of the cell
+     * @return person ID
+     */
+    public int occupantIdAt(int index) {
+        return occupantIds[index];
+    }
+
+    /**
+     * Check whether the cell at the passed cell index is occupied by an object of the passed type
+     * (or an object of the passed type is walking on the cell occupant).
+     *
+     * @param index of the cell
+     * @param type  to check for
+     * @return whether the upper cell occupant is of the passed type
+     */
+    public boolean isOfType(int index, SimObjectType type) {
+        return types[index] == type.getID();
     }
 
     /**
@@ -267,12 +868,7 @@ public class State implements Cloneable {
     public int getObjectTypeCount(SimObjectType type) {
         updateLock.readLock().lock();
         try {
-            Set<Location> locations = objectTypeMapping.get(type);
-            if (locations == null) {
-                return 0;
-            } else {
-                return locations.size();
-            }
+            return objectTypeIndices.get(type).size();
         } finally {
             updateLock.readLock().unlock();
         }
@@ -280,38 +876,143 @@ public class State implements Cloneable {
 
     /**
      * Get the objects with the passed type.
+     * Allocates a new set, prefer {@link #forEachObjectOfType(SimObjectType, Consumer)}.
      *
-     * @param type to get count for
-     * @return count
+     * @param type to get objects for
+     * @return objects of the type
      */
     public Set<SimObject> getObjectsForType(SimObjectType type) {
+        Set<SimObject> result = new HashSet<>();
+        forEachObjectOfType(type, result::add);
+
+        return Collections.unmodifiableSet(result);
+    }
+
+    /**
+     * Call the passed consumer with the index of every cell holding an object of the passed type without allocating.
+     * The consumer is called while holding the read lock and thus must not change the state.
+     *
+     * @param type     of the objects
+     * @param consumer to call with the cell indices
+     */
+    public void forEachCellOfType(SimObjectType type, IntConsumer consumer) {
         updateLock.readLock().lock();
         try {
-            Set<Location> locations = objectTypeMapping.get(type);
-            if (locations == null) {
-                return Collections.emptySet();
-            } else {
-                return locations.stream().map(l -> getCellOccupant(l).orElseThrow()).collect(Collectors.toUnmodifiableSet());
-            }
+            objectTypeIndices.get(type).forEach(consumer);
         } finally {
             updateLock.readLock().unlock();
         }
     }
 
     /**
-     * Read the object type mapping in a exclusive access environment.
+     * Call the passed consumer with every object of the passed type without allocating.
+     * People walking on walkable objects are included.
+     * The consumer is called while holding the read lock and thus must not change the state.
      *
-     * @param consumer to execute when locked
+     * @param type     of the objects
+     * @param consumer to call with the objects
      */
-    public void readObjectTypeMapping(Consumer<Map<SimObjectType, Set<Location>>> consumer) {
+    public void forEachObjectOfType(SimObjectType type, Consumer<SimObject> consumer) {
         updateLock.readLock().lock();
         try {
-            consumer.accept(Collections.unmodifiableMap(objectTypeMapping));
+            ObjectTypeIndex index = objectTypeIndices.get(type);
+            for (int i = 0; i < index.size(); i++) {
+                consumer.accept(getObjectOfType(index.cellAt(i), type));
+            }
         } finally {
             updateLock.readLock().unlock();
         }
     }
 
+    /**
+     * Get the object of the passed type in the cell with the passed index.
+     *
+     * @param index of the cell
+     * @param type  of the object
+     * @return the cell occupant or the object walking on it
+     */
+    private SimObject getObjectOfType(int index, SimObjectType type) {
+        SimObject occupant = occupants[index];
+        if (occupant.isWalkable() && ((WalkableSimObject) occupant).getActualType() != type) {
+            return ((WalkableSimObject) occupant).getOccupant();
+        }
+
+        return occupant;
+    }
+
+    /**
+     * Call the passed consumer with the index of every cell occupied by a person
+     * whose euclidean distance to the cell with the passed index is less than or equal to the passed radius.
+     * The passed cell itself is skipped and the cells are visited in row-major order.
+     * Like the other primitive accessors this does not lock, so it is meant to be used by the thread changing the state.
+     *
+     * @param index    of the center cell
+     * @param radius   to search in (in cells)
+     * @param consumer to call with the cell indices
+     */
+    public void forEachPersonWithin(int index, int radius, IntConsumer consumer) {
+        people.forEachWithin(index, radius, consumer);
+    }
+
+    /**
+     * Count the people in the passed rectangle of cells (bounds are inclusive and clamped to the simulation world).
+     *
+     * @param fromRow    first row
+     * @param fromColumn first column
+     * @param toRow      last row
+     * @param toColumn   last column
+     * @return amount of people in the rectangle
+     */
+    public int countPeopleInRect(int fromRow, int fromColumn, int toRow, int toColumn) {
+        return people.countInRect(fromRow, fromColumn, toRow, toColumn);
+    }
+
+    /**
+     * Find the people nearest to the cell with the passed index (the passed cell itself is skipped).
+     * People with equal euclidean distance are ordered by their cell index.
+     *
+     * @param index  of the center cell
+     * @param k      maximum amount of people to find
+     * @param result to write the cell indices of the found people to (ordered by distance, at least k long)
+     * @return amount of found people
+     */
+    public int findNearestPeople(int index, int k, int[] result) {
+        return people.nearest(index, k, result);
+    }
+
+    /**
+     * Get the interaction field summing the passed kernel of all people in the state (see {@link InteractionField}).
+     * The field is created (from the people currently in the state) when first requested
+     * and from then on kept up to date on every change of the state.
+     * Requesting a field with an equal kernel again returns the same field.
+     *
+     * @param range  maximum row and column offset of the kernel
+     * @param kernel row-major kernel values for the offsets in [-range, range] x [-range, range]
+     * @return interaction field
+     */
+    public InteractionField getInteractionField(int range, double[] kernel) {
+        updateLock.writeLock().lock();
+        try {
+            for (InteractionField field : interactionFields) {
+                if (field.hasKernel(range, kernel)) {
+                    return field;
+                }
+            }
+
+            InteractionField field = new InteractionField(this, range, kernel);
+            for (int index = 0; index < types.length; index++) {
+                if (types[index] == SimObjectType.PERSON.getID()) {
+                    field.apply(index, 1);
+                }
+            }
+
+            interactionFields.add(field);
+            return field;
+        } finally {
+            updateLock.writeLock().unlock();
+        }
+    }
+
     /**
      * Check whether the passed cell location is free.
      *
@@ -319,7 +1020,17 @@ public class State implements Cloneable {
      * @return whether the cell is free
      */
     public boolean isCellFree(Location location) {
-        return cells[location.getRow()][location.getColumn()].isFree();
+        return isCellFree(indexOf(location));
+    }
+
+    /**
+     * Check whether the cell at the passed cell index is free.
+     *
+     * @param index of the cell
+     * @return whether the cell is free
+     */
+    public boolean isCellFree(int index) {
+        return types[index] == EMPTY;
     }
 
     /**
@@ -329,7 +1040,19 @@ public class State implements Cloneable {
      * @return can be occupied
      */
     public boolean canBeOccupied(Location location) {
-        return cells[location.getRow()][location.getColumn()].canBeOccupied();
+        return canBeOccupied(indexOf(location));
+    }
+
+    /**
+     * Whether something could be moved to the cell at the passed cell index.
+     * The cell must either be free or occupied by a walkable object nobody is walking on.
+     *
+     * @param index of the cell
+     * @return can be occupied
+     */
+    public boolean canBeOccupied(int index) {
+        byte type = types[index];
+        return type == EMPTY || type == walkableTypes[index];
     }
 
     /**
@@ -357,6 +1080,46 @@ public class State implements Cloneable {
         }
     }
 
+    /**
+     * Check whether there are update listeners to notify of state changes.
+     *
+     * @return whether there are update listeners
+     */
+    private boolean hasUpdateListeners() {
+        return updateListeners != null && !updateListeners.isEmpty();
+    }
+
+    /**
+     * Create a buffer collecting the cells changed from now on (see {@link StateChangeBuffer}).
+     * Remove the buffer when it is no more needed (see {@link #removeChangeBuffer(StateChangeBuffer)}).
+     *
+     * @return the change buffer
+     */
+    public StateChangeBuffer createChangeBuffer() {
+        updateLock.writeLock().lock();
+        try {
+            StateChangeBuffer buffer = new StateChangeBuffer(occupants.length);
+            changeBuffers.add(buffer);
+            return buffer;
+        } finally {
+            updateLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove the passed change buffer so that changes are no more collected in it.
+     *
+     * @param buffer to remove
+     */
+    public void removeChangeBuffer(StateChangeBuffer buffer) {
+        updateLock.writeLock().lock();
+        try {
+            changeBuffers.remove(buffer);
+        } finally {
+            updateLock.writeLock().unlock();
+        }
+    }
+
     /**
      * Notify all update listeners of a state change
      *
@@ -370,9 +1133,14 @@ public class State implements Cloneable {
         }
     }
 
+    /**
+     * Create a deep copy of the state (see {@link #State(State)}) that may be changed independently.
+     *
+     * @return copy of the state
+     */
     @Override
     public Object clone() throws CloneNotSupportedException {
-        return super.clone();
+        return new State(this);
     }
 
     /**
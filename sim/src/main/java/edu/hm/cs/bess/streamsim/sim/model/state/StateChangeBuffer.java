@@ -0,0 +1,117 @@
+package edu.hm.cs.bess.streamsim.sim.model.state;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Buffer of the cells changed in a state (see {@link State#createChangeBuffer()}).
+ * <p>
+ * Instead of being notified of every single change (see {@link State.StateUpdateListener})
+ * a consumer (e. g. the visualization) pulls the changed cells at its own rate using {@link #drainChanges(IntConsumer)}.
+ * Multiple changes of the same cell are coalesced, thus the consumer only sees the latest content of a cell.
+ * The buffer is double-buffered: the simulation keeps marking changed cells in one bitmap
+ * while the consumer processes the cells of the other, so the simulation never waits for the consumer
+ * and marking a cell never allocates.
+ *
+ * @author Benjamin Eder
+ */
+public final class StateChangeBuffer {
+
+    /**
+     * Lock serializing consumers draining the buffer.
+     */
+    private final Object drainLock = new Object();
+
+    /**
+     * Bitmap of the changed cells currently marked by the simulation.
+     */
+    private long[] dirty;
+
+    /**
+     * Indices of the changed cells currently marked by the simulation (in the order of their first change).
+     */
+    private int[] cells;
+
+    /**
+     * Amount of changed cells currently marked by the simulation.
+     */
+    private int size;
+
+    /**
+     * Bitmap of the changed cells currently drained by a consumer.
+     */
+    private long[] drainingDirty;
+
+    /**
+     * Indices of the changed cells currently drained by a consumer.
+     */
+    private int[] drainingCells;
+
+    StateChangeBuffer(int cellCount) {
+        dirty = new long[(cellCount + 63) >>> 6];
+        cells = new int[cellCount];
+
+        drainingDirty = new long[dirty.length];
+        drainingCells = new int[cellCount];
+    }
+
+    /**
+     * Mark the cell with the passed index as changed.
+     *
+     * @param index of the cell
+     */
+    synchronized void markChanged(int index) {
+        long bit = 1L << index;
+        int word = index >>> 6;
+
+        if ((dirty[word] & bit) == 0) {
+            dirty[word] |= bit;
+            cells[size++] = index;
+        }
+    }
+
+    /**
+     * Check whether there are changed cells that have not been drained yet.
+     *
+     * @return whether there are pending changes
+     */
+    public synchronized boolean hasChanges() {
+        return size > 0;
+    }
+
+    /**
+     * Call the passed consumer with the index of every cell changed since the last call and forget them.
+     * Use the primitive accessors of the state (e. g. {@link State#typeAt(int)}) to read the latest content of the cells.
+     * The simulation may continue changing the state while the consumer is called.
+     *
+     * @param consumer to call with the changed cell indices
+     * @return amount of changed cells
+     */
+    public int drainChanges(IntConsumer consumer) {
+        synchronized (drainLock) {
+            int count;
+
+            synchronized (this) {
+                long[] tmpDirty = dirty;
+                dirty = drainingDirty;
+                drainingDirty = tmpDirty;
+
+                int[] tmpCells = cells;
+                cells = drainingCells;
+                drainingCells = tmpCells;
+
+                count = size;
+                size = 0;
+            }
+
+            for (int i = 0; i < count; i++) {
+                int index = drainingCells[i];
+                drainingDirty[index >>> 6] &= ~(1L << index);
+
+                consumer.accept(index);
+            }
+
+            return count;
+        }
+    }
+
+}
@@ -0,0 +1,236 @@
+package edu.hm.cs.bess.streamsim.sim.model.state;
+
+import edu.hm.cs.bess.streamsim.sim.model.misc.Location;
+import edu.hm.cs.bess.streamsim.sim.model.object.SimObject;
+import edu.hm.cs.bess.streamsim.sim.model.object.SimObjectType;
+
+import java.util.Arrays;
+
+/**
+ * Journal of changes made to a state.
+ * Used to revert the state to an earlier point (see {@link State#revert(StateJournal, int)}).
+ *
+ * @author Benjamin Eder
+ */
+public final class StateJournal {
+
+    /**
+     * Kind of entry recording the previous content of a cell.
+     */
+    static final byte CELL = 0;
+
+    /**
+     * Kind of entry recording that a location has been added to the object type mapping.
+     */
+    static final byte INDEXED = 1;
+
+    /**
+     * Kind of entry recording that a location has been removed from the object type mapping.
+     */
+    static final byte UNINDEXED = 2;
+
+    /**
+     * Kind of entry recording that a light barrier has been triggered.
+     */
+    static final byte TRIGGERED = 3;
+
+    /**
+     * Initial capacity of the entry arrays.
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Kinds of the entries.
+     */
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+
+    /**
+     * Locations of the entries.
+     */
+    private Location[] locations = new Location[INITIAL_CAPACITY];
+
+    /**
+     * Previous cell occupants of the entries of kind {@link #CELL}.
+     */
+    private SimObject[] occupants = new SimObject[INITIAL_CAPACITY];
+
+    /**
+     * Previous occupants walking on the previous cell occupant of the entries of kind {@link #CELL}.
+     */
+    private SimObject[] walkers = new SimObject[INITIAL_CAPACITY];
+
+    /**
+     * Object types of the entries of kind {@link #INDEXED} and {@link #UNINDEXED}.
+     */
+    private SimObjectType[] types = new SimObjectType[INITIAL_CAPACITY];
+
+    /**
+     * Sequence numbers of the entries ordering the entries of all journals of a state.
+     */
+    private long[] sequences = new long[INITIAL_CAPACITY];
+
+    /**
+     * Amount of entries.
+     */
+    private int size;
+
+    /**
+     * Get the current position in the journal to revert to later.
+     *
+     * @return current position
+     */
+    public int mark() {
+        return size;
+    }
+
+    /**
+     * Forget all recorded changes.
+     */
+    public void clear() {
+        truncate(0);
+    }
+
+    /**
+     * Record the previous content of a cell.
+     *
+     * @param sequence number of the entry
+     * @param location of the cell
+     * @param occupant previous cell occupant
+     * @param walker   previous occupant walking on the cell occupant
+     */
+    void recordCell(long sequence, Location location, SimObject occupant, SimObject walker) {
+        int index = append(sequence, CELL, location);
+        occupants[index] = occupant;
+        walkers[index] = walker;
+    }
+
+    /**
+     * Record a change of the object type mapping.
+     *
+     * @param sequence number of the entry
+     * @param type     of the object
+     * @param location added or removed
+     * @param added    whether the location has been added
+     */
+    void recordIndexChange(long sequence, SimObjectType type, Location location, boolean added) {
+        int index = append(sequence, added ? INDEXED : UNINDEXED, location);
+        types[index] = type;
+    }
+
+    /**
+     * Record that a light barrier has been triggered.
+     *
+     * @param sequence number of the entry
+     */
+    void recordTrigger(long sequence) {
+        append(sequence, TRIGGERED, null);
+    }
+
+    /**
+     * Append an entry.
+     *
+     * @param sequence number of the entry
+     * @param kind     of the entry
+     * @param location of the entry
+     * @return index of the entry
+     */
+    private int append(long sequence, byte kind, Location location) {
+        if (size == kinds.length) {
+            int capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            locations = Arrays.copyOf(locations, capacity);
+            occupants = Arrays.copyOf(occupants, capacity);
+            walkers = Arrays.copyOf(walkers, capacity);
+            types = Arrays.copyOf(types, capacity);
+            sequences = Arrays.copyOf(sequences, capacity);
+        }
+
+        sequences[size] = sequence;
+        kinds[size] = kind;
+        locations[size] = location;
+        return size++;
+    }
+
+    /**
+     * Remove all entries after the passed position.
+     *
+     * @param mark position to truncate the journal to
+     */
+    void truncate(int mark) {
+        Arrays.fill(locations, mark, size, null);
+        Arrays.fill(occupants, mark, size, null);
+        Arrays.fill(walkers, mark, size, null);
+        Arrays.fill(types, mark, size, null);
+        size = mark;
+    }
+
+    /**
+     * Get the amount of entries.
+     *
+     * @return amount of entries
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Get the sequence number of the entry at the passed index.
+     *
+     * @param index of the entry
+     * @return sequence number
+     */
+    long sequenceAt(int index) {
+        return sequences[index];
+    }
+
+    /**
+     * Get the kind of the entry at the passed index.
+     *
+     * @param index of the entry
+     * @return kind
+     */
+    byte kindAt(int index) {
+        return kinds[index];
+    }
+
+    /**
+     * Get the location of the entry at the passed index.
+     *
+     * @param index of the entry
+     * @return location
+     */
+    Location locationAt(int index) {
+        return locations[index];
+    }
+
+    /**
+     * Get the previous cell occupant of the entry at the passed index.
+     *
+     * @param index of the entry
+     * @return previous cell occupant
+     */
+    SimObject occupantAt(int index) {
+        return occupants[index];
+    }
+
+    /**
+     * Get the previous walking occupant of the entry at the passed index.
+     *
+     * @param index of the entry
+     * @return previous walking occupant
+     */
+    SimObject walkerAt(int index) {
+        return walkers[index];
+    }
+
+    /**
+     * Get the object type of the entry at the passed index.
+     *
+     * @param index of the entry
+     * @return object type
+     */
+    SimObjectType typeAt(int index) {
+        return types[index];
+    }
+
+}
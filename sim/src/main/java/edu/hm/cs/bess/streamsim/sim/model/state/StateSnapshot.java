@@ -0,0 +1,168 @@
+package edu.hm.cs.bess.streamsim.sim.model.state;
+
+import edu.hm.cs.bess.streamsim.sim.model.object.SimObject;
+import edu.hm.cs.bess.streamsim.sim.model.object.person.Person;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Snapshot of a state taken with {@link State#snapshot()}.
+ * <p>
+ * The snapshot does not copy the state when it is taken.
+ * Instead the previous content of a cell is saved once right before the cell is changed for the first time
+ * after the snapshot has been taken (copy-on-write per cell).
+ * Restoring the snapshot (see {@link State#restore(StateSnapshot)}) thus takes time proportional
+ * to the amount of changed cells instead of the size of the simulation world.
+ *
+ * @author Benjamin Eder
+ */
+public final class StateSnapshot {
+
+    /**
+     * Initial capacity of the saved cell arrays.
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * State the snapshot has been taken of.
+     */
+    private final State state;
+
+    /**
+     * Cells (indices) whose content has already been saved.
+     */
+    private final BitSet saved = new BitSet();
+
+    /**
+     * Indices of the saved cells.
+     */
+    private int[] cells = new int[INITIAL_CAPACITY];
+
+    /**
+     * Saved cell occupants.
+     */
+    private SimObject[] occupants = new SimObject[INITIAL_CAPACITY];
+
+    /**
+     * Saved occupants walking on the saved cell occupants.
+     */
+    private SimObject[] walkers = new SimObject[INITIAL_CAPACITY];
+
+    /**
+     * Saved mutable state of the people in the saved cells (or null).
+     */
+    private Person.Memento[] mementos = new Person.Memento[INITIAL_CAPACITY];
+
+    /**
+     * Amount of saved cells.
+     */
+    private int size;
+
+    StateSnapshot(State state) {
+        this.state = state;
+    }
+
+    /**
+     * Get the state the snapshot has been taken of.
+     *
+     * @return state
+     */
+    State getState() {
+        return state;
+    }
+
+    /**
+     * Save the passed content of a cell unless the cell has already been saved.
+     *
+     * @param index    of the cell
+     * @param occupant current cell occupant
+     * @param walker   current occupant walking on the cell occupant
+     */
+    void save(int index, SimObject occupant, SimObject walker) {
+        if (saved.get(index)) {
+            return;
+        }
+        saved.set(index);
+
+        if (size == cells.length) {
+            int capacity = size * 2;
+            cells = Arrays.copyOf(cells, capacity);
+            occupants = Arrays.copyOf(occupants, capacity);
+            walkers = Arrays.copyOf(walkers, capacity);
+            mementos = Arrays.copyOf(mementos, capacity);
+        }
+
+        SimObject upper = walker != null ? walker : occupant;
+
+        cells[size] = index;
+        occupants[size] = occupant;
+        walkers[size] = walker;
+        mementos[size] = upper instanceof Person ? ((Person) upper).createMemento() : null;
+        size++;
+    }
+
+    /**
+     * Get the amount of cells changed since the snapshot has been taken (or last restored).
+     *
+     * @return amount of changed cells
+     */
+    public int getChangedCellCount() {
+        return size;
+    }
+
+    /**
+     * Get the index of the saved cell at the passed position.
+     *
+     * @param position of the saved cell
+     * @return cell index
+     */
+    int cellAt(int position) {
+        return cells[position];
+    }
+
+    /**
+     * Get the saved occupant of the cell at the passed position.
+     *
+     * @param position of the saved cell
+     * @return saved cell occupant
+     */
+    SimObject occupantAt(int position) {
+        return occupants[position];
+    }
+
+    /**
+     * Get the saved walking occupant of the cell at the passed position.
+     *
+     * @param position of the saved cell
+     * @return saved walking occupant
+     */
+    SimObject walkerAt(int position) {
+        return walkers[position];
+    }
+
+    /**
+     * Get the saved mutable state of the person in the cell at the passed position.
+     *
+     * @param position of the saved cell
+     * @return saved person state (or null)
+     */
+    Person.Memento mementoAt(int position) {
+        return mementos[position];
+    }
+
+    /**
+     * Forget all saved cells (after the snapshot has been restored).
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            saved.clear(cells[i]);
+        }
+
+        Arrays.fill(occupants, 0, size, null);
+        Arrays.fill(walkers, 0, size, null);
+        Arrays.fill(mementos, 0, size, null);
+        size = 0;
+    }
+
+}
@@ -0,0 +1,454 @@
+package edu.hm.cs.bess.streamsim.sim.scheduler;
+
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.Event;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.EventDispatcher;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.EventHandler;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.EventKind;
+import edu.hm.cs.bess.streamsim.sim.scheduler.exception.EventExecutionException;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Event-driven simulation scheduler backed by a calendar queue (R. Brown, 1988).
+ * <p>
+ * Events are sorted into "day" buckets of a fixed width by their timestamp.
+ * The amount of buckets (one "year") and the bucket width are adjusted to the amount of pending events,
+ * which results in amortized O(1) enqueue and dequeue operations instead of O(log n) for a binary heap.
+ * Events with equal timestamps are processed in the order they have been scheduled.
+ *
+ * @author Benjamin Eder
+ */
+public class CalendarQueueScheduler implements Scheduler {
+
+    /**
+     * Name of the scheduler.
+     */
+    public static final String NAME = "Calendar queue";
+
+    /**
+     * Minimum amount of buckets in the calendar.
+     */
+    private static final int MIN_BUCKET_COUNT = 2;
+
+    /**
+     * Maximum amount of events to sample when estimating a new bucket width.
+     */
+    private static final int WIDTH_SAMPLE_SIZE = 25;
+
+    /**
+     * Buckets ("days") of the calendar.
+     * The amount of buckets is always a power of two.
+     */
+    private Bucket[] buckets;
+
+    /**
+     * Mask used to map a day to its bucket index.
+     */
+    private int bucketMask;
+
+    /**
+     * Width of a bucket in time units.
+     */
+    private double bucketWidth;
+
+    /**
+     * The (virtual) day of the last dequeued event.
+     * No pending event lies in an earlier day.
+     */
+    private long currentDay;
+
+    /**
+     * Amount of pending events.
+     */
+    private int size;
+
+    /**
+     * Whether the calendar may currently be resized.
+     */
+    private boolean resizeEnabled = true;
+
+    /**
+     * The current time of the scheduler.
+     */
+    private double currentTime;
+
+    /**
+     * Dispatcher processing typed events.
+     */
+    private EventDispatcher dispatcher;
+
+    public CalendarQueueScheduler() {
+        this(0);
+    }
+
+    public CalendarQueueScheduler(double startTime) {
+        currentTime = startTime;
+
+        initialize(MIN_BUCKET_COUNT, 1.0);
+    }
+
+    @Override
+    public void scheduleIn(EventHandler handler, double relativeTime) {
+        enqueue(new Event(handler, toAbsoluteTimestamp(relativeTime)));
+    }
+
+    @Override
+    public void scheduleIn(EventKind kind, int payload, double relativeTime) {
+        enqueue(new Event(kind, payload, toAbsoluteTimestamp(relativeTime)));
+    }
+
+    @Override
+    public void setEventDispatcher(EventDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Convert the passed relative time to an absolute timestamp.
+     *
+     * @param relativeTime to convert
+     * @return absolute timestamp
+     */
+    private double toAbsoluteTimestamp(double relativeTime) {
+        if (relativeTime < 0) {
+            throw new IllegalArgumentException("Can only schedule events in the future. relativeTime needs to be greater or equal to 0.");
+        }
+
+        double absoluteTimestamp = currentTime + relativeTime;
+        if (absoluteTimestamp == Double.MAX_VALUE) {
+            // Overflow occurred -> Reset the schedulers time
+            resetTime();
+            absoluteTimestamp = currentTime + relativeTime;
+        }
+
+        return absoluteTimestamp;
+    }
+
+    /**
+     * Reset the schedulers internal time and of all scheduled events.
+     */
+    private void resetTime() {
+        Bucket[] oldBuckets = buckets;
+        double offset = currentTime;
+
+        currentTime = 0;
+        initialize(buckets.length, bucketWidth);
+
+        resizeEnabled = false;
+        for (Bucket bucket : oldBuckets) {
+            for (int i = bucket.head; i < bucket.tail; i++) {
+                Event event = bucket.events[i];
+                event.setTimestamp(event.getTimestamp() - offset);
+
+                enqueue(event);
+            }
+        }
+        resizeEnabled = true;
+    }
+
+    @Override
+    public double currentTime() {
+        return currentTime;
+    }
+
+    @Override
+    public void clear() {
+        currentTime = 0;
+        initialize(MIN_BUCKET_COUNT, 1.0);
+    }
+
+    @Override
+    public boolean processNext() throws EventExecutionException {
+        Event event = dequeue();
+
+        if (event != null) {
+            currentTime = event.getTimestamp();
+
+            switch (event.getKind()) {
+                case HANDLER -> event.getHandler().process();
+                case SPAWN, MOVE -> {
+                    if (dispatcher == null) {
+                        throw new EventExecutionException(String.format("No event dispatcher set to process event of kind %s", event.getKind()));
+                    }
+
+                    dispatcher.dispatch(event.getKind(), event.getPayload());
+                }
+            }
+            return true;
+        }
+
+        return false;
+    }
+
+    @Override
+    public Optional<Double> peekNextTimestamp() {
+        if (size == 0) {
+            return Optional.empty();
+        }
+
+        return Optional.of(buckets[locateNext()].first().getTimestamp());
+    }
+
+    @Override
+    public double peekNextTimestamp(double fallback) {
+        if (size == 0) {
+            return fallback;
+        }
+
+        return buckets[locateNext()].first().getTimestamp();
+    }
+
+    /**
+     * Get the amount of currently pending events.
+     *
+     * @return pending event count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Initialize an empty calendar.
+     *
+     * @param bucketCount amount of buckets (power of two)
+     * @param width       of a bucket
+     */
+    private void initialize(int bucketCount, double width) {
+        buckets = new Bucket[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new Bucket();
+        }
+
+        bucketMask = bucketCount - 1;
+        bucketWidth = width;
+        currentDay = dayOf(currentTime);
+        size = 0;
+    }
+
+    /**
+     * Get the (virtual) day the passed timestamp falls into.
+     *
+     * @param timestamp to get day for
+     * @return day
+     */
+    private long dayOf(double timestamp) {
+        return (long) Math.floor(timestamp / bucketWidth);
+    }
+
+    /**
+     * Add the passed event to the calendar.
+     *
+     * @param event to add
+     */
+    private void enqueue(Event event) {
+        buckets[(int) (dayOf(event.getTimestamp()) & bucketMask)].insert(event);
+        size++;
+
+        if (resizeEnabled && size > 2 * buckets.length) {
+            resize(2 * buckets.length);
+        }
+    }
+
+    /**
+     * Remove the next event from the calendar.
+     *
+     * @return the next event or null if there is none
+     */
+    private Event dequeue() {
+        if (size == 0) {
+            return null;
+        }
+
+        Event event = buckets[locateNext()].removeFirst();
+        size--;
+
+        if (resizeEnabled && buckets.length > MIN_BUCKET_COUNT && size < buckets.length / 2) {
+            resize(buckets.length / 2);
+        }
+
+        return event;
+    }
+
+    /**
+     * Find the bucket holding the next event and advance the current day to its day.
+     * Must only be called when there are pending events.
+     *
+     * @return index of the bucket holding the next event
+     */
+    private int locateNext() {
+        // Walk through the days of the current year
+        if (currentDay <= Long.MAX_VALUE - buckets.length) {
+            for (int i = 0; i < buckets.length; i++) {
+                long day = currentDay + i;
+                int index = (int) (day & bucketMask);
+
+                Bucket bucket = buckets[index];
+                if (!bucket.isEmpty() && dayOf(bucket.first().getTimestamp()) <= day) {
+                    currentDay = day;
+                    return index;
+                }
+            }
+        }
+
+        // Next event is more than a year away -> search directly for the earliest bucket head
+        int nextIndex = -1;
+        for (int index = 0; index < buckets.length; index++) {
+            Bucket bucket = buckets[index];
+            if (!bucket.isEmpty() && (nextIndex == -1 || bucket.first().getTimestamp() < buckets[nextIndex].first().getTimestamp())) {
+                nextIndex = index;
+            }
+        }
+
+        currentDay = dayOf(buckets[nextIndex].first().getTimestamp());
+        return nextIndex;
+    }
+
+    /**
+     * Resize the calendar to the passed amount of buckets and re-estimate the bucket width.
+     *
+     * @param bucketCount new amount of buckets (power of two)
+     */
+    private void resize(int bucketCount) {
+        resizeEnabled = false;
+
+        // Sample the earliest events to estimate a new bucket width
+        Event[] sample = new Event[Math.min(size, WIDTH_SAMPLE_SIZE)];
+        for (int i = 0; i < sample.length; i++) {
+            sample[i] = dequeue();
+        }
+
+        Bucket[] oldBuckets = buckets;
+        initialize(bucketCount, estimateBucketWidth(sample));
+
+        // Re-insert the sampled (earliest) events first to keep the order of events with equal timestamps
+        for (Event event : sample) {
+            enqueue(event);
+        }
+        for (Bucket bucket : oldBuckets) {
+            for (int i = bucket.head; i < bucket.tail; i++) {
+                enqueue(bucket.events[i]);
+            }
+        }
+
+        resizeEnabled = true;
+    }
+
+    /**
+     * Estimate a bucket width from the passed ordered sample of the earliest events.
+     * The width is chosen to be three times the average separation of events,
+     * ignoring separations that are unusually large.
+     *
+     * @param sample ordered sample of the earliest events
+     * @return estimated bucket width
+     */
+    private double estimateBucketWidth(Event[] sample) {
+        if (sample.length < 2) {
+            return bucketWidth;
+        }
+
+        double averageSeparation = (sample[sample.length - 1].getTimestamp() - sample[0].getTimestamp()) / (sample.length - 1);
+        if (averageSeparation <= 0) {
+            return bucketWidth; // Only simultaneous events -> keep current width
+        }
+
+        double separationSum = 0;
+        int separationCount = 0;
+        for (int i = 1; i < sample.length; i++) {
+            double separation = sample[i].getTimestamp() - sample[i - 1].getTimestamp();
+            if (separation <= 2 * averageSeparation) {
+                separationSum += separation;
+                separationCount++;
+            }
+        }
+
+        double width = 3 * (separationSum > 0 ? separationSum / separationCount : averageSeparation);
+
+        return Double.isFinite(width) ? width : bucketWidth;
+    }
+
+    /**
+     * A bucket (day) of the calendar holding events ordered by their timestamp.
+     */
+    private static final class Bucket {
+
+        /**
+         * Events of the bucket between head (inclusive) and tail (exclusive).
+         */
+        private Event[] events = new Event[4];
+
+        /**
+         * Index of the first event.
+         */
+        private int head;
+
+        /**
+         * Index after the last event.
+         */
+        private int tail;
+
+        /**
+         * Whether the bucket is empty.
+         *
+         * @return whether empty
+         */
+        boolean isEmpty() {
+            return head == tail;
+        }
+
+        /**
+         * Get the earliest event of the bucket.
+         *
+         * @return earliest event
+         */
+        Event first() {
+            return events[head];
+        }
+
+        /**
+         * Remove the earliest event of the bucket.
+         *
+         * @return the removed event
+         */
+        Event removeFirst() {
+            Event event = events[head];
+            events[head++] = null;
+
+            if (head == tail) {
+                head = 0;
+                tail = 0;
+            }
+
+            return event;
+        }
+
+        /**
+         * Insert the passed event behind all events with a lower or equal timestamp.
+         *
+         * @param event to insert
+         */
+        void insert(Event event) {
+            if (tail == events.length) {
+                if (head > 0) {
+                    System.arraycopy(events, head, events, 0, tail - head);
+                    Arrays.fill(events, tail - head, tail, null);
+                    tail -= head;
+                    head = 0;
+                } else {
+                    events = Arrays.copyOf(events, events.length * 2);
+                }
+            }
+
+            // Most events are scheduled after all others in the bucket -> search from the back
+            int position = tail;
+            while (position > head && events[position - 1].getTimestamp() > event.getTimestamp()) {
+                position--;
+            }
+
+            System.arraycopy(events, position, events, position + 1, tail - position);
+            events[position] = event;
+            tail++;
+        }
+
+    }
+
+}
@@ -0,0 +1,672 @@
+package edu.hm.cs.bess.streamsim.sim.scheduler;
+
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.EventDispatcher;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.EventHandler;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.EventKind;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.PartitionableEventDispatcher;
+import edu.hm.cs.bess.streamsim.sim.scheduler.exception.EventExecutionException;
+
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Conservative parallel discrete-event simulation scheduler partitioning the grid into vertical stripes.
+ * <p>
+ * Each stripe owns an event queue for the events of its cells.
+ * Events are processed in time windows of the length of the lookahead (the minimum time a person needs to move a cell).
+ * Within a window every stripe processes its local events in timestamp order on the fork-join pool,
+ * while events that could interact with another stripe (events near the stripe border or events near an earlier
+ * such event of the stripe) as well as events using shared resources are deferred and processed sequentially afterwards.
+ * Events scheduled for other stripes are exchanged through lock-free queues and merged at the end of the window.
+ * Events that may affect the whole grid are processed on their own.
+ * <p>
+ * Deferred events only interact with events processed after them, thus the result is the same
+ * as processing all events in the order of their timestamp (ties are broken by cell index and kind).
+ * The result for a fixed seed is therefore independent of the amount of stripes.
+ * The dispatcher needs to be a {@link PartitionableEventDispatcher}, otherwise all events are processed sequentially.
+ *
+ * @author Benjamin Eder
+ */
+public class ConservativeParallelScheduler implements Scheduler {
+
+    /**
+     * Name of the scheduler.
+     */
+    public static final String NAME = "Conservative parallel";
+
+    /**
+     * Amount of stripes to partition the grid into.
+     */
+    private final int stripeCount;
+
+    /**
+     * Pool to process the stripes with.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Queue of the event handlers (always processed on their own).
+     */
+    private final EventDrivenScheduler handlerQueue = new EventDrivenScheduler();
+
+    /**
+     * Queue of the typed events that need to be processed on their own.
+     */
+    private final WindowQueue globalQueue = new WindowQueue();
+
+    /**
+     * Events for the global queue scheduled while processing stripes in parallel.
+     */
+    private final Queue<ExchangedEvent> globalInbox = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Context used to process events sequentially.
+     */
+    private final Context sequentialContext = new Context(null);
+
+    /**
+     * Dispatcher processing typed events.
+     */
+    private EventDispatcher dispatcher;
+
+    /**
+     * The dispatcher in case it supports partitioning, otherwise null.
+     */
+    private PartitionableEventDispatcher partitionableDispatcher;
+
+    /**
+     * Stripes the grid is partitioned into (null until initialized).
+     */
+    private Stripe[] stripes;
+
+    /**
+     * Lookup of the stripe index for each column.
+     */
+    private int[] stripeOfColumn;
+
+    /**
+     * Amount of columns of the grid.
+     */
+    private int columns;
+
+    /**
+     * Maximum distance (in cells per axis) of two events that may interact with each other.
+     */
+    private int conflictDistance;
+
+    /**
+     * Lookahead (minimum delay of follow-up events for other cells).
+     */
+    private double lookahead;
+
+    /**
+     * Window number for each cell in which the cell has been marked to interact with a deferred event.
+     */
+    private int[] deferralStamps;
+
+    /**
+     * Number of the current window.
+     */
+    private int window;
+
+    /**
+     * Start of the current window (inclusive).
+     */
+    private double windowStart = Double.NEGATIVE_INFINITY;
+
+    /**
+     * End of the current window (exclusive).
+     */
+    private double windowEnd = Double.NEGATIVE_INFINITY;
+
+    /**
+     * The current time of the scheduler.
+     */
+    private double currentTime;
+
+    public ConservativeParallelScheduler() {
+        this(ForkJoinPool.commonPool().getParallelism(), ForkJoinPool.commonPool());
+    }
+
+    public ConservativeParallelScheduler(int stripeCount, ForkJoinPool pool) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("Need at least one stripe");
+        }
+
+        this.stripeCount = stripeCount;
+        this.pool = pool;
+    }
+
+    @Override
+    public void scheduleIn(EventHandler handler, double relativeTime) {
+        handlerQueue.scheduleAt(handler, currentTime + checkRelativeTime(relativeTime));
+    }
+
+    @Override
+    public void scheduleIn(EventKind kind, int payload, double relativeTime) {
+        enqueue(kind, payload, currentTime + checkRelativeTime(relativeTime));
+    }
+
+    /**
+     * Check that the passed relative time is not in the past.
+     *
+     * @param relativeTime to check
+     * @return the relative time
+     */
+    private static double checkRelativeTime(double relativeTime) {
+        if (relativeTime < 0) {
+            throw new IllegalArgumentException("Can only schedule events in the future. relativeTime needs to be greater or equal to 0.");
+        }
+
+        return relativeTime;
+    }
+
+    /**
+     * Add the passed event to the queue it belongs to.
+     * Must not be called while stripes are processed in parallel.
+     *
+     * @param kind      of the event
+     * @param payload   of the event
+     * @param timestamp of the event
+     */
+    private void enqueue(EventKind kind, int payload, double timestamp) {
+        initialize();
+
+        if (partitionableDispatcher == null
+                || partitionableDispatcher.getLocality(kind, payload) == PartitionableEventDispatcher.Locality.GLOBAL) {
+            globalQueue.add(timestamp, kind, payload);
+        } else {
+            stripes[stripeOf(payload)].queue.scheduleAt(kind, payload, timestamp);
+        }
+    }
+
+    /**
+     * Partition the grid into stripes if not done yet.
+     */
+    private void initialize() {
+        if (stripes != null || partitionableDispatcher == null) {
+            return;
+        }
+
+        columns = partitionableDispatcher.getColumns();
+        conflictDistance = partitionableDispatcher.getInteractionRadius() + 1; // Reads of one event may overlap the modified neighbours of another
+        lookahead = partitionableDispatcher.getLookahead();
+        deferralStamps = new int[partitionableDispatcher.getRows() * columns];
+
+        int count = Math.max(Math.min(stripeCount, columns), 1);
+        stripes = new Stripe[count];
+        stripeOfColumn = new int[columns];
+        for (int i = 0; i < count; i++) {
+            int from = (int) ((long) i * columns / count);
+            int to = (int) ((long) (i + 1) * columns / count);
+
+            stripes[i] = new Stripe(from, to);
+            for (int column = from; column < to; column++) {
+                stripeOfColumn[column] = i;
+            }
+        }
+    }
+
+    /**
+     * Get the index of the stripe the passed cell belongs to.
+     *
+     * @param cellIndex to get stripe for
+     * @return stripe index
+     */
+    private int stripeOf(int cellIndex) {
+        return stripeOfColumn[cellIndex % columns];
+    }
+
+    @Override
+    public void setEventDispatcher(EventDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+        this.partitionableDispatcher = dispatcher instanceof PartitionableEventDispatcher
+                ? (PartitionableEventDispatcher) dispatcher
+                : null;
+
+        stripes = null;
+    }
+
+    @Override
+    public double currentTime() {
+        return currentTime;
+    }
+
+    @Override
+    public void clear() {
+        handlerQueue.clear();
+        globalQueue.clear();
+        globalInbox.clear();
+        stripes = null;
+
+        currentTime = 0;
+    }
+
+    /**
+     * Process the next global event or the next window of events.
+     *
+     * @return whether there was something left to process
+     * @throws EventExecutionException in case an event could not be processed
+     */
+    @Override
+    public boolean processNext() throws EventExecutionException {
+        double nextHandlerTimestamp = handlerQueue.peekNextTimestamp(Double.POSITIVE_INFINITY);
+        double nextGlobalTimestamp = Math.min(nextHandlerTimestamp, peekGlobalQueue());
+        double nextTimestamp = peekNextTimestamp(Double.NaN);
+        if (Double.isNaN(nextTimestamp)) {
+            return false;
+        }
+
+        currentTime = nextTimestamp;
+
+        if (nextHandlerTimestamp == nextTimestamp) {
+            return handlerQueue.processNext();
+        } else if (nextGlobalTimestamp == nextTimestamp) {
+            EventKind kind = globalQueue.peekKind();
+            int payload = globalQueue.peekPayload();
+            globalQueue.remove();
+
+            sequentialContext.process(nextTimestamp, kind, payload);
+            return true;
+        }
+
+        window++;
+        windowStart = nextTimestamp;
+        windowEnd = Math.min(nextTimestamp + lookahead, nextGlobalTimestamp);
+        try {
+            processWindowInParallel();
+            processDeferredEvents();
+        } finally {
+            windowStart = Double.NEGATIVE_INFINITY;
+            windowEnd = Double.NEGATIVE_INFINITY;
+        }
+
+        return true;
+    }
+
+    /**
+     * Process the local events of the current window of all stripes in parallel.
+     *
+     * @throws EventExecutionException in case an event could not be processed
+     */
+    private void processWindowInParallel() throws EventExecutionException {
+        if (stripes.length == 1) {
+            stripes[0].compute();
+        } else {
+            for (Stripe stripe : stripes) {
+                stripe.reinitialize();
+            }
+
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(stripes);
+                }
+            });
+        }
+
+        for (Stripe stripe : stripes) {
+
+            if (stripe.failure != null) {
+                EventExecutionException failure = stripe.failure;
+                stripe.failure = null;
+                throw failure;
+            }
+        }
+
+        // Merge the exchanged events
+        for (Stripe stripe : stripes) {
+            ExchangedEvent event;
+            while ((event = stripe.inbox.poll()) != null) {
+                stripe.queue.scheduleAt(event.kind, event.payload, event.timestamp);
+            }
+        }
+        ExchangedEvent event;
+        while ((event = globalInbox.poll()) != null) {
+            if (event.handler != null) {
+                handlerQueue.scheduleAt(event.handler, event.timestamp);
+            } else {
+                globalQueue.add(event.timestamp, event.kind, event.payload);
+            }
+        }
+    }
+
+    /**
+     * Process the deferred events of all stripes sequentially in timestamp order.
+     *
+     * @throws EventExecutionException in case an event could not be processed
+     */
+    private void processDeferredEvents() throws EventExecutionException {
+        WindowQueue queue = sequentialContext.windowQueue;
+        for (Stripe stripe : stripes) {
+            WindowQueue deferred = stripe.deferred;
+            while (!deferred.isEmpty()) {
+                queue.add(deferred.peekTimestamp(), deferred.peekKind(), deferred.peekPayload());
+                deferred.remove();
+            }
+
+            currentTime = Math.max(currentTime, stripe.context.latestTimestamp);
+        }
+
+        while (!queue.isEmpty()) {
+            double timestamp = queue.peekTimestamp();
+            EventKind kind = queue.peekKind();
+            int payload = queue.peekPayload();
+            queue.remove();
+
+            sequentialContext.process(timestamp, kind, payload);
+        }
+
+        currentTime = Math.max(currentTime, sequentialContext.latestTimestamp);
+    }
+
+    /**
+     * Check whether the passed timestamp lies within the current window.
+     *
+     * @param timestamp to check
+     * @return whether in the current window
+     */
+    private boolean isInWindow(double timestamp) {
+        return timestamp < windowEnd || timestamp == windowStart;
+    }
+
+    /**
+     * Get the timestamp of the next typed event to process on its own.
+     *
+     * @return timestamp or positive infinity
+     */
+    private double peekGlobalQueue() {
+        return globalQueue.isEmpty() ? Double.POSITIVE_INFINITY : globalQueue.peekTimestamp();
+    }
+
+    @Override
+    public Optional<Double> peekNextTimestamp() {
+        double nextTimestamp = peekNextTimestamp(Double.NaN);
+
+        return Double.isNaN(nextTimestamp) ? Optional.empty() : Optional.of(nextTimestamp);
+    }
+
+    @Override
+    public double peekNextTimestamp(double fallback) {
+        double nextTimestamp = Math.min(handlerQueue.peekNextTimestamp(Double.POSITIVE_INFINITY), peekGlobalQueue());
+        if (stripes != null) {
+            for (Stripe stripe : stripes) {
+                nextTimestamp = Math.min(nextTimestamp, stripe.queue.peekNextTimestamp(Double.POSITIVE_INFINITY));
+            }
+        }
+
+        return nextTimestamp == Double.POSITIVE_INFINITY ? fallback : nextTimestamp;
+    }
+
+    /**
+     * Stripe of the grid (a range of columns) with its own event queue.
+     */
+    private class Stripe extends RecursiveAction {
+
+        /**
+         * First column of the stripe (inclusive).
+         */
+        private final int from;
+
+        /**
+         * Last column of the stripe (exclusive).
+         */
+        private final int to;
+
+        /**
+         * Queue of the events of the stripe.
+         */
+        private final EventDrivenScheduler queue = new EventDrivenScheduler();
+
+        /**
+         * Events scheduled for the stripe by other stripes during the parallel phase.
+         */
+        private final Queue<ExchangedEvent> inbox = new ConcurrentLinkedQueue<>();
+
+        /**
+         * Events of the current window deferred to be processed sequentially.
+         */
+        private final WindowQueue deferred = new WindowQueue();
+
+        /**
+         * Context to process the events of the stripe with.
+         */
+        private final Context context = new Context(this);
+
+        /**
+         * Failure that occurred during the last parallel phase.
+         */
+        private EventExecutionException failure;
+
+        Stripe(int from, int to) {
+            this.from = from;
+            this.to = to;
+
+            queue.setEventDispatcher((kind, payload) -> context.windowQueue.add(queue.currentTime(), kind, payload));
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                // Move the events of the window into the ordered window queue
+                while (isInWindow(queue.peekNextTimestamp(Double.POSITIVE_INFINITY))) {
+                    queue.processNext();
+                }
+
+                WindowQueue windowQueue = context.windowQueue;
+                while (!windowQueue.isEmpty()) {
+                    double timestamp = windowQueue.peekTimestamp();
+                    EventKind kind = windowQueue.peekKind();
+                    int payload = windowQueue.peekPayload();
+                    windowQueue.remove();
+
+                    if (mustDefer(kind, payload)) {
+                        defer(timestamp, kind, payload);
+                    } else {
+                        context.process(timestamp, kind, payload);
+                    }
+                }
+            } catch (EventExecutionException e) {
+                failure = e;
+                context.windowQueue.clear();
+            }
+        }
+
+        /**
+         * Check whether the passed event needs to be deferred to the sequential phase.
+         *
+         * @param kind    of the event
+         * @param payload of the event
+         * @return whether to defer the event
+         */
+        private boolean mustDefer(EventKind kind, int payload) {
+            if (deferralStamps[payload] == window
+                    || partitionableDispatcher.getLocality(kind, payload) != PartitionableEventDispatcher.Locality.LOCAL) {
+                return true;
+            }
+
+            // Events near the border could interact with events of the neighbouring stripe
+            int column = payload % columns;
+            return (from > 0 && column - from < conflictDistance) || (to < columns && to - 1 - column < conflictDistance);
+        }
+
+        /**
+         * Defer the passed event and mark the cells of the stripe it may interact with,
+         * so that later events of the window interacting with it are deferred as well.
+         *
+         * @param timestamp of the event
+         * @param kind      of the event
+         * @param payload   of the event
+         */
+        private void defer(double timestamp, EventKind kind, int payload) {
+            deferred.add(timestamp, kind, payload);
+
+            int row = payload / columns;
+            int column = payload % columns;
+            int rows = deferralStamps.length / columns;
+
+            for (int r = Math.max(row - conflictDistance, 0); r <= Math.min(row + conflictDistance, rows - 1); r++) {
+                for (int c = Math.max(column - conflictDistance, from); c <= Math.min(column + conflictDistance, to - 1); c++) {
+                    deferralStamps[r * columns + c] = window;
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Scheduling context handed to the dispatcher while processing a single event.
+     * Follow-up events of the current window are processed in the same phase,
+     * all others are passed to the queue of the stripe they belong to.
+     */
+    private class Context implements SchedulingContext {
+
+        /**
+         * Stripe the context belongs to (null for the sequential phase).
+         */
+        private final Stripe stripe;
+
+        /**
+         * Ordered events of the current window to process in this context.
+         */
+        private final WindowQueue windowQueue = new WindowQueue();
+
+        /**
+         * Timestamp of the event currently processed.
+         */
+        private double timestamp;
+
+        /**
+         * Payload of the event currently processed.
+         */
+        private int payload;
+
+        /**
+         * Latest timestamp of an event processed in this context.
+         */
+        private double latestTimestamp;
+
+        Context(Stripe stripe) {
+            this.stripe = stripe;
+        }
+
+        /**
+         * Process the passed event.
+         *
+         * @param timestamp of the event
+         * @param kind      of the event
+         * @param payload   of the event
+         * @throws EventExecutionException in case the event could not be processed
+         */
+        void process(double timestamp, EventKind kind, int payload) throws EventExecutionException {
+            this.timestamp = timestamp;
+            this.payload = payload;
+            latestTimestamp = Math.max(latestTimestamp, timestamp);
+
+            if (partitionableDispatcher != null) {
+                partitionableDispatcher.dispatch(kind, payload, timestamp, this);
+            } else if (dispatcher != null) {
+                currentTime = timestamp;
+                dispatcher.dispatch(kind, payload);
+            } else {
+                throw new EventExecutionException(String.format("No event dispatcher set to process event of kind %s", kind));
+            }
+        }
+
+        @Override
+        public void scheduleIn(EventHandler handler, double relativeTime) {
+            double timestamp = this.timestamp + checkRelativeTime(relativeTime);
+
+            if (stripe != null) {
+                globalInbox.add(new ExchangedEvent(timestamp, EventKind.HANDLER, 0, handler));
+            } else {
+                handlerQueue.scheduleAt(handler, timestamp);
+            }
+        }
+
+        @Override
+        public void scheduleIn(EventKind kind, int payload, double relativeTime) {
+            double timestamp = this.timestamp + checkRelativeTime(relativeTime);
+
+            if (isInWindow(timestamp)) {
+                if (payload != this.payload) {
+                    throw new IllegalStateException(String.format(
+                            "Event for cell %d at %f violates the lookahead of %f",
+                            payload,
+                            timestamp,
+                            lookahead
+                    ));
+                }
+
+                windowQueue.add(timestamp, kind, payload);
+            } else if (stripe == null) {
+                enqueue(kind, payload, timestamp);
+            } else if (partitionableDispatcher.getLocality(kind, payload) == PartitionableEventDispatcher.Locality.GLOBAL) {
+                globalInbox.add(new ExchangedEvent(timestamp, kind, payload, null));
+            } else {
+                Stripe target = stripes[stripeOf(payload)];
+                if (target == stripe) {
+                    stripe.queue.scheduleAt(kind, payload, timestamp);
+                } else {
+                    target.inbox.add(new ExchangedEvent(timestamp, kind, payload, null));
+                }
+            }
+        }
+
+        @Override
+        public double currentTime() {
+            return timestamp;
+        }
+
+        /**
+         * The next timestamp of other stripes is not known while processing an event,
+         * thus the timestamp of the current event is returned.
+         *
+         * @param fallback is never used
+         * @return timestamp of the current event
+         */
+        @Override
+        public double peekNextTimestamp(double fallback) {
+            return timestamp;
+        }
+
+    }
+
+    /**
+     * Event passed between stripes.
+     */
+    private static class ExchangedEvent {
+
+        /**
+         * Timestamp of the event.
+         */
+        final double timestamp;
+
+        /**
+         * Kind of the event.
+         */
+        final EventKind kind;
+
+        /**
+         * Payload of the event.
+         */
+        final int payload;
+
+        /**
+         * Handler of the event (only for events of kind {@link EventKind#HANDLER}).
+         */
+        final EventHandler handler;
+
+        ExchangedEvent(double timestamp, EventKind kind, int payload, EventHandler handler) {
+            this.timestamp = timestamp;
+            this.kind = kind;
+            this.payload = payload;
+            this.handler = handler;
+        }
+
+    }
+
+}
@@ -0,0 +1,206 @@
+package edu.hm.cs.bess.streamsim.sim.scheduler;
+
+import edu.hm.cs.bess.streamsim.sim.logic.util.SeedMixer;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.EventKind;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.SplittableEventDispatcher;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Batch of splittable events evaluated together (in parallel if there are enough)
+ * and committed sequentially in a seeded random priority order.
+ *
+ * @author Benjamin Eder
+ */
+final class EventBatch {
+
+    /**
+     * Maximum amount of events to evaluate sequentially in a single fork-join task.
+     */
+    private static final int EVALUATION_BATCH_SIZE = 64;
+
+    /**
+     * Kinds of the events.
+     */
+    private EventKind[] kinds = new EventKind[64];
+
+    /**
+     * Payloads of the events.
+     */
+    private int[] payloads = new int[64];
+
+    /**
+     * Evaluation results of the events.
+     */
+    private int[] evaluations = new int[64];
+
+    /**
+     * Commit order of the events (priority in the upper, batch index in the lower 32 bit).
+     */
+    private long[] order = new long[64];
+
+    /**
+     * Amount of events.
+     */
+    private int size;
+
+    /**
+     * Add an event to the batch.
+     *
+     * @param kind    of the event
+     * @param payload of the event
+     */
+    void add(EventKind kind, int payload) {
+        if (size == kinds.length) {
+            int capacity = kinds.length * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            payloads = Arrays.copyOf(payloads, capacity);
+            evaluations = Arrays.copyOf(evaluations, capacity);
+            order = Arrays.copyOf(order, capacity);
+        }
+
+        kinds[size] = kind;
+        payloads[size] = payload;
+        size++;
+    }
+
+    /**
+     * Get the amount of events in the batch.
+     *
+     * @return amount of events
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Evaluate all events of the batch (in parallel if there are enough).
+     *
+     * @param dispatcher to evaluate the events with
+     * @param timestamp  the events are processed at
+     * @param pool       to evaluate the events on
+     */
+    void evaluate(SplittableEventDispatcher dispatcher, double timestamp, ForkJoinPool pool) {
+        if (size <= EVALUATION_BATCH_SIZE) {
+            for (int i = 0; i < size; i++) {
+                evaluations[i] = dispatcher.evaluate(kinds[i], payloads[i], timestamp);
+            }
+        } else {
+            pool.invoke(new EvaluationTask(dispatcher, timestamp, 0, size));
+        }
+    }
+
+    /**
+     * Determine the commit order of the events.
+     * The priority of an event only depends on the passed seed and its payload.
+     *
+     * @param seed to derive the priorities from
+     */
+    void sort(long seed) {
+        for (int i = 0; i < size; i++) {
+            long priority = SeedMixer.mix(seed, payloads[i]);
+            order[i] = (priority & 0xFFFFFFFF00000000L) | i;
+        }
+        Arrays.sort(order, 0, size);
+    }
+
+    /**
+     * Get the batch index of the event at the passed position of the commit order (see {@link #sort(long)}).
+     *
+     * @param position in the commit order
+     * @return batch index of the event
+     */
+    int indexAt(int position) {
+        return (int) order[position];
+    }
+
+    /**
+     * Get the kind of the event with the passed batch index.
+     *
+     * @param index of the event
+     * @return kind
+     */
+    EventKind kindAt(int index) {
+        return kinds[index];
+    }
+
+    /**
+     * Get the payload of the event with the passed batch index.
+     *
+     * @param index of the event
+     * @return payload
+     */
+    int payloadAt(int index) {
+        return payloads[index];
+    }
+
+    /**
+     * Get the evaluation result of the event with the passed batch index.
+     *
+     * @param index of the event
+     * @return evaluation result
+     */
+    int evaluationAt(int index) {
+        return evaluations[index];
+    }
+
+    /**
+     * Remove all events from the batch.
+     */
+    void clear() {
+        Arrays.fill(kinds, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Task evaluating a range of the events.
+     */
+    private class EvaluationTask extends RecursiveAction {
+
+        /**
+         * Dispatcher to evaluate the events with.
+         */
+        private final SplittableEventDispatcher dispatcher;
+
+        /**
+         * Timestamp the events are processed at.
+         */
+        private final double timestamp;
+
+        /**
+         * Start of the range to evaluate (inclusive).
+         */
+        private final int from;
+
+        /**
+         * End of the range to evaluate (exclusive).
+         */
+        private final int to;
+
+        EvaluationTask(SplittableEventDispatcher dispatcher, double timestamp, int from, int to) {
+            this.dispatcher = dispatcher;
+            this.timestamp = timestamp;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= EVALUATION_BATCH_SIZE) {
+                for (int i = from; i < to; i++) {
+                    evaluations[i] = dispatcher.evaluate(kinds[i], payloads[i], timestamp);
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(
+                        new EvaluationTask(dispatcher, timestamp, from, middle),
+                        new EvaluationTask(dispatcher, timestamp, middle, to)
+                );
+            }
+        }
+
+    }
+
+}
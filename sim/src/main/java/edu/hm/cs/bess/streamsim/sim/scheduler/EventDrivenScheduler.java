@@ -1,23 +1,63 @@
 package edu.hm.cs.bess.streamsim.sim.scheduler;
 
-import edu.hm.cs.bess.streamsim.sim.scheduler.event.Event;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.EventDispatcher;
 import edu.hm.cs.bess.streamsim.sim.scheduler.event.EventHandler;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.EventKind;
 import edu.hm.cs.bess.streamsim.sim.scheduler.exception.EventExecutionException;
 
+import java.util.Arrays;
 import java.util.Optional;
-import java.util.PriorityQueue;
 
 /**
  * Event-driven simulation scheduler.
+ * <p>
+ * Events are stored in a binary min-heap made of parallel primitive arrays (timestamp, kind, payload)
+ * so that scheduling and processing typed events does not produce any garbage.
+ * The heap orders events exactly like a {@link java.util.PriorityQueue} of events would.
  *
  * @author Benjamin Eder
  */
 public class EventDrivenScheduler implements Scheduler {
 
     /**
-     * The schedulers event queue.
+     * Name of the scheduler.
      */
-    private final PriorityQueue<Event> eventQueue = new PriorityQueue<>();
+    public static final String NAME = "Binary heap";
+
+    /**
+     * Initial capacity of the event heap.
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Timestamps of the events in the heap.
+     */
+    private double[] timestamps = new double[INITIAL_CAPACITY];
+
+    /**
+     * Kinds of the events in the heap.
+     */
+    private EventKind[] kinds = new EventKind[INITIAL_CAPACITY];
+
+    /**
+     * Payloads of the typed events in the heap.
+     */
+    private int[] payloads = new int[INITIAL_CAPACITY];
+
+    /**
+     * Handlers of the events of kind {@link EventKind#HANDLER} in the heap.
+     */
+    private EventHandler[] handlers = new EventHandler[INITIAL_CAPACITY];
+
+    /**
+     * Amount of pending events.
+     */
+    private int size;
+
+    /**
+     * Dispatcher processing typed events.
+     */
+    private EventDispatcher dispatcher;
 
     /**
      * The current time of the scheduler.
@@ -34,6 +74,28 @@ public class EventDrivenScheduler implements Scheduler {
 
     @Override
     public void scheduleIn(EventHandler handler, double relativeTime) {
+        offer(EventKind.HANDLER, 0, handler, relativeTime);
+    }
+
+    @Override
+    public void scheduleIn(EventKind kind, int payload, double relativeTime) {
+        offer(kind, payload, null, relativeTime);
+    }
+
+    @Override
+    public void setEventDispatcher(EventDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Add an event to the heap.
+     *
+     * @param kind         of the event
+     * @param payload      of the event
+     * @param handler      of the event (only for events of kind {@link EventKind#HANDLER})
+     * @param relativeTime in which to process the event
+     */
+    private void offer(EventKind kind, int payload, EventHandler handler, double relativeTime) {
         if (relativeTime < 0) {
             throw new IllegalArgumentException("Can only schedule events in the future. relativeTime needs to be greater or equal to 0.");
         }
@@ -45,15 +107,74 @@ public class EventDrivenScheduler implements Scheduler {
             absoluteTimestamp = currentTime + relativeTime;
         }
 
-        eventQueue.add(new Event(handler, absoluteTimestamp));
+        if (size == timestamps.length) {
+            grow();
+        }
+
+        siftUp(size++, absoluteTimestamp, kind, payload, handler);
+    }
+
+    /**
+     * Add an event for the passed absolute timestamp.
+     * Used by schedulers composing this one to avoid rounding errors of converting to relative times.
+     *
+     * @param handler   of the event
+     * @param timestamp to process the event at
+     */
+    void scheduleAt(EventHandler handler, double timestamp) {
+        insert(EventKind.HANDLER, 0, handler, timestamp);
+    }
+
+    /**
+     * Add a typed event for the passed absolute timestamp.
+     * Used by schedulers composing this one to avoid rounding errors of converting to relative times.
+     *
+     * @param kind      of the event
+     * @param payload   of the event
+     * @param timestamp to process the event at
+     */
+    void scheduleAt(EventKind kind, int payload, double timestamp) {
+        insert(kind, payload, null, timestamp);
+    }
+
+    /**
+     * Add an event for the passed absolute timestamp to the heap.
+     *
+     * @param kind      of the event
+     * @param payload   of the event
+     * @param handler   of the event (only for events of kind {@link EventKind#HANDLER})
+     * @param timestamp to process the event at
+     */
+    private void insert(EventKind kind, int payload, EventHandler handler, double timestamp) {
+        if (timestamp < currentTime) {
+            throw new IllegalArgumentException("Can only schedule events in the future. timestamp needs to be greater or equal to the current time.");
+        }
+
+        if (size == timestamps.length) {
+            grow();
+        }
+
+        siftUp(size++, timestamp, kind, payload, handler);
+    }
+
+    /**
+     * Double the capacity of the heap.
+     */
+    private void grow() {
+        int capacity = timestamps.length * 2;
+
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        kinds = Arrays.copyOf(kinds, capacity);
+        payloads = Arrays.copyOf(payloads, capacity);
+        handlers = Arrays.copyOf(handlers, capacity);
     }
 
     /**
      * Reset the schedulers internal time and of all scheduled events.
      */
     private void resetTime() {
-        for (Event event : eventQueue) {
-            event.setTimestamp(event.getTimestamp() - currentTime);
+        for (int i = 0; i < size; i++) {
+            timestamps[i] -= currentTime;
         }
 
         currentTime = 0;
@@ -66,27 +187,137 @@ public class EventDrivenScheduler implements Scheduler {
 
     @Override
     public void clear() {
-        eventQueue.clear();
+        Arrays.fill(kinds, 0, size, null);
+        Arrays.fill(handlers, 0, size, null);
+        size = 0;
+
         resetTime();
     }
 
     @Override
     public boolean processNext() throws EventExecutionException {
-        Event event = eventQueue.poll();
+        if (size == 0) {
+            return false;
+        }
+
+        double timestamp = timestamps[0];
+        EventKind kind = kinds[0];
+        int payload = payloads[0];
+        EventHandler handler = handlers[0];
+
+        int last = --size;
+        if (last > 0) {
+            siftDown(0, timestamps[last], kinds[last], payloads[last], handlers[last], last);
+        }
+        kinds[last] = null;
+        handlers[last] = null;
+
+        currentTime = timestamp;
 
-        if (event != null) {
-            currentTime = event.getTimestamp();
+        switch (kind) {
+            case HANDLER -> handler.process();
+            case SPAWN, MOVE -> {
+                if (dispatcher == null) {
+                    throw new EventExecutionException(String.format("No event dispatcher set to process event of kind %s", kind));
+                }
 
-            event.getHandler().process();
-            return true;
+                dispatcher.dispatch(kind, payload);
+            }
         }
 
-        return false;
+        return true;
     }
 
     @Override
     public Optional<Double> peekNextTimestamp() {
-        return Optional.ofNullable(eventQueue.peek()).map(Event::getTimestamp);
+        return size > 0 ? Optional.of(timestamps[0]) : Optional.empty();
+    }
+
+    @Override
+    public double peekNextTimestamp(double fallback) {
+        return size > 0 ? timestamps[0] : fallback;
+    }
+
+    /**
+     * Place the passed event at the passed free position or one of its ancestors.
+     *
+     * @param k         free position to start at
+     * @param timestamp of the event
+     * @param kind      of the event
+     * @param payload   of the event
+     * @param handler   of the event
+     */
+    private void siftUp(int k, double timestamp, EventKind kind, int payload, EventHandler handler) {
+        while (k > 0) {
+            int parent = (k - 1) >>> 1;
+            if (Double.compare(timestamp, timestamps[parent]) >= 0) {
+                break;
+            }
+
+            move(parent, k);
+            k = parent;
+        }
+
+        set(k, timestamp, kind, payload, handler);
+    }
+
+    /**
+     * Place the passed event at the passed free position or one of its descendants.
+     *
+     * @param k         free position to start at
+     * @param timestamp of the event
+     * @param kind      of the event
+     * @param payload   of the event
+     * @param handler   of the event
+     * @param n         amount of events in the heap
+     */
+    private void siftDown(int k, double timestamp, EventKind kind, int payload, EventHandler handler, int n) {
+        int half = n >>> 1;
+        while (k < half) {
+            int child = (k << 1) + 1;
+            int right = child + 1;
+            if (right < n && Double.compare(timestamps[child], timestamps[right]) > 0) {
+                child = right;
+            }
+
+            if (Double.compare(timestamp, timestamps[child]) <= 0) {
+                break;
+            }
+
+            move(child, k);
+            k = child;
+        }
+
+        set(k, timestamp, kind, payload, handler);
+    }
+
+    /**
+     * Move the event at the passed position to another position.
+     *
+     * @param from position of the event
+     * @param to   position to move the event to
+     */
+    private void move(int from, int to) {
+        timestamps[to] = timestamps[from];
+        kinds[to] = kinds[from];
+        payloads[to] = payloads[from];
+        handlers[to] = handlers[from];
+    }
+
+    /**
+     * Set the event at the passed position.
+     *
+     * @param k         position to set event at
+     * @param timestamp of the event
+     * @param kind      of the event
+     * @param payload   of the event
+     * @param handler   of the event
+     */
+    private void set(int k, double timestamp, EventKind kind, int payload, EventHandler handler) {
+        timestamps[k] = timestamp;
+        kinds[k] = kind;
+        payloads[k] = payload;
+        handlers[k] = handler;
     }
 
 }
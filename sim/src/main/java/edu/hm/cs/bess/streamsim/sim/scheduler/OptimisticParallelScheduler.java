@@ -0,0 +1,889 @@
+package edu.hm.cs.bess.streamsim.sim.scheduler;
+
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.EventDispatcher;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.EventHandler;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.EventKind;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.OptimisticEventDispatcher;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.PartitionableEventDispatcher;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.RollbackLog;
+import edu.hm.cs.bess.streamsim.sim.scheduler.exception.EventExecutionException;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Optimistic parallel discrete-event simulation scheduler (a windowed variant of Time Warp)
+ * partitioning the grid into vertical stripes.
+ * <p>
+ * Events are processed in time windows spanning several lookaheads.
+ * Within a window every stripe speculatively processes all local events of its cells in timestamp order
+ * on the fork-join pool, taking a checkpoint before each event.
+ * At the end of the window the speculatively processed events are checked for causality violations:
+ * Two events of different stripes closer than the interaction radius might have influenced each other
+ * in the wrong order, events scheduled for another stripe or events that need to be processed on their own
+ * have not been seen by the stripe they concern in time.
+ * All stripes are rolled back to the earliest of these violations (the global virtual time),
+ * everything before is committed and the checkpoints are discarded (fossil collection).
+ * The rolled back rest of the window is processed sequentially.
+ * <p>
+ * The result equals processing all events in the order of their timestamp (ties are broken by cell index and kind)
+ * and is thus the same as for the {@link ConservativeParallelScheduler} and independent of the amount of stripes.
+ * Note that side effects outside the simulation state (e. g. log records) of rolled back events are not undone.
+ * The dispatcher needs to be an {@link OptimisticEventDispatcher}, otherwise all events are processed sequentially.
+ *
+ * @author Benjamin Eder
+ */
+public class OptimisticParallelScheduler implements Scheduler {
+
+    /**
+     * Name of the scheduler.
+     */
+    public static final String NAME = "Optimistic parallel";
+
+    /**
+     * Default length of a window in lookaheads.
+     */
+    public static final double DEFAULT_WINDOW_FACTOR = 4.0;
+
+    /**
+     * Amount of stripes to partition the grid into.
+     */
+    private final int stripeCount;
+
+    /**
+     * Length of a window in lookaheads.
+     */
+    private final double windowFactor;
+
+    /**
+     * Pool to process the stripes with.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Queue of the event handlers (always processed on their own).
+     */
+    private final EventDrivenScheduler handlerQueue = new EventDrivenScheduler();
+
+    /**
+     * Queue of the typed events not yet processed.
+     */
+    private final WindowQueue queue = new WindowQueue();
+
+    /**
+     * Queue used to collect the events of a window before assigning them to the stripes.
+     */
+    private final WindowQueue staging = new WindowQueue();
+
+    /**
+     * Context used to process events sequentially.
+     */
+    private final Context sequentialContext = new Context(null);
+
+    /**
+     * Dispatcher processing typed events.
+     */
+    private EventDispatcher dispatcher;
+
+    /**
+     * The dispatcher in case it supports speculative processing, otherwise null.
+     */
+    private OptimisticEventDispatcher optimisticDispatcher;
+
+    /**
+     * Stripes the grid is partitioned into (null until initialized).
+     */
+    private Stripe[] stripes;
+
+    /**
+     * Lookup of the stripe index for each column.
+     */
+    private int[] stripeOfColumn;
+
+    /**
+     * Amount of columns of the grid.
+     */
+    private int columns;
+
+    /**
+     * Maximum distance (in cells per axis) of two events that may interact with each other.
+     */
+    private int conflictDistance;
+
+    /**
+     * Lookahead (minimum delay of follow-up events for other cells).
+     */
+    private double lookahead;
+
+    /**
+     * Window number for each cell in which an event of the cell near a stripe border has been processed.
+     */
+    private int[] stamps;
+
+    /**
+     * Earliest timestamp of an event of the cell processed in the window of the cells stamp.
+     */
+    private double[] earliestTimestamps;
+
+    /**
+     * Number of the current window.
+     */
+    private int window;
+
+    /**
+     * End of the current window (exclusive).
+     */
+    private double windowEnd = Double.NEGATIVE_INFINITY;
+
+    /**
+     * The current time of the scheduler.
+     */
+    private double currentTime;
+
+    /**
+     * Time up to which all events have been committed.
+     */
+    private double globalVirtualTime;
+
+    /**
+     * Amount of speculatively processed events that have been rolled back.
+     */
+    private long rolledBackEventCount;
+
+    public OptimisticParallelScheduler() {
+        this(ForkJoinPool.commonPool().getParallelism(), DEFAULT_WINDOW_FACTOR, ForkJoinPool.commonPool());
+    }
+
+    public OptimisticParallelScheduler(int stripeCount, double windowFactor, ForkJoinPool pool) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("Need at least one stripe");
+        }
+        if (!(windowFactor > 0)) {
+            throw new IllegalArgumentException("Window factor needs to be greater than 0");
+        }
+
+        this.stripeCount = stripeCount;
+        this.windowFactor = windowFactor;
+        this.pool = pool;
+    }
+
+    @Override
+    public void scheduleIn(EventHandler handler, double relativeTime) {
+        handlerQueue.scheduleAt(handler, currentTime + checkRelativeTime(relativeTime));
+    }
+
+    @Override
+    public void scheduleIn(EventKind kind, int payload, double relativeTime) {
+        queue.add(currentTime + checkRelativeTime(relativeTime), kind, payload);
+    }
+
+    /**
+     * Check that the passed relative time is not in the past.
+     *
+     * @param relativeTime to check
+     * @return the relative time
+     */
+    private static double checkRelativeTime(double relativeTime) {
+        if (relativeTime < 0) {
+            throw new IllegalArgumentException("Can only schedule events in the future. relativeTime needs to be greater or equal to 0.");
+        }
+
+        return relativeTime;
+    }
+
+    /**
+     * Partition the grid into stripes if not done yet.
+     */
+    private void initialize() {
+        if (stripes != null || optimisticDispatcher == null) {
+            return;
+        }
+
+        columns = optimisticDispatcher.getColumns();
+        conflictDistance = optimisticDispatcher.getInteractionRadius() + 1; // Reads of one event may overlap the modified neighbours of another
+        lookahead = optimisticDispatcher.getLookahead();
+        stamps = new int[optimisticDispatcher.getRows() * columns];
+        earliestTimestamps = new double[stamps.length];
+
+        int count = Math.max(Math.min(stripeCount, columns), 1);
+        stripes = new Stripe[count];
+        stripeOfColumn = new int[columns];
+        for (int i = 0; i < count; i++) {
+            int from = (int) ((long) i * columns / count);
+            int to = (int) ((long) (i + 1) * columns / count);
+
+            stripes[i] = new Stripe(i, from, to, optimisticDispatcher.createRollbackLog());
+            for (int column = from; column < to; column++) {
+                stripeOfColumn[column] = i;
+            }
+        }
+    }
+
+    /**
+     * Get the index of the stripe the passed cell belongs to.
+     *
+     * @param cellIndex to get stripe for
+     * @return stripe index
+     */
+    private int stripeOf(int cellIndex) {
+        return stripeOfColumn[cellIndex % columns];
+    }
+
+    @Override
+    public void setEventDispatcher(EventDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+        this.optimisticDispatcher = dispatcher instanceof OptimisticEventDispatcher
+                ? (OptimisticEventDispatcher) dispatcher
+                : null;
+
+        stripes = null;
+    }
+
+    @Override
+    public double currentTime() {
+        return currentTime;
+    }
+
+    /**
+     * Get the time up to which all events have been committed (the global virtual time).
+     *
+     * @return global virtual time
+     */
+    public double getGlobalVirtualTime() {
+        return globalVirtualTime;
+    }
+
+    /**
+     * Get the amount of speculatively processed events that had to be rolled back so far.
+     *
+     * @return rolled back event count
+     */
+    public long getRolledBackEventCount() {
+        return rolledBackEventCount;
+    }
+
+    @Override
+    public void clear() {
+        handlerQueue.clear();
+        queue.clear();
+        stripes = null;
+
+        currentTime = 0;
+        globalVirtualTime = 0;
+        rolledBackEventCount = 0;
+    }
+
+    /**
+     * Process the next event that needs to be processed on its own or the next window of events.
+     *
+     * @return whether there was something left to process
+     * @throws EventExecutionException in case an event could not be processed
+     */
+    @Override
+    public boolean processNext() throws EventExecutionException {
+        double nextHandlerTimestamp = handlerQueue.peekNextTimestamp(Double.POSITIVE_INFINITY);
+        double nextTimestamp = queue.isEmpty() ? Double.POSITIVE_INFINITY : queue.peekTimestamp();
+        if (nextHandlerTimestamp == Double.POSITIVE_INFINITY && nextTimestamp == Double.POSITIVE_INFINITY) {
+            return false;
+        }
+
+        if (nextHandlerTimestamp <= nextTimestamp) {
+            currentTime = nextHandlerTimestamp;
+            globalVirtualTime = nextHandlerTimestamp;
+            return handlerQueue.processNext();
+        }
+
+        currentTime = nextTimestamp;
+        globalVirtualTime = nextTimestamp;
+
+        initialize();
+        if (optimisticDispatcher == null || !(lookahead > 0) || !stageWindow(nextTimestamp, nextHandlerTimestamp)) {
+            processFirstEvent();
+            return true;
+        }
+
+        try {
+            processWindowInParallel();
+            double rollbackTimestamp = commitWindow();
+            processRemainingEventsOfWindow(rollbackTimestamp);
+        } finally {
+            windowEnd = Double.NEGATIVE_INFINITY;
+        }
+
+        return true;
+    }
+
+    /**
+     * Process the first typed event of the queue on its own.
+     *
+     * @throws EventExecutionException in case the event could not be processed
+     */
+    private void processFirstEvent() throws EventExecutionException {
+        double timestamp = queue.peekTimestamp();
+        EventKind kind = queue.peekKind();
+        int payload = queue.peekPayload();
+        queue.remove();
+
+        sequentialContext.process(timestamp, kind, payload);
+    }
+
+    /**
+     * Determine the next window and assign its events to the stripes.
+     * The window ends after the configured amount of lookaheads, at the next handler
+     * or at the next event that is not local, whatever comes first.
+     *
+     * @param start                start of the window
+     * @param nextHandlerTimestamp timestamp of the next handler
+     * @return whether there are events to process in the window
+     */
+    private boolean stageWindow(double start, double nextHandlerTimestamp) {
+        windowEnd = Math.min(start + lookahead * windowFactor, nextHandlerTimestamp);
+        while (!queue.isEmpty() && queue.peekTimestamp() < windowEnd) {
+            EventKind kind = queue.peekKind();
+            int payload = queue.peekPayload();
+            if (optimisticDispatcher.getLocality(kind, payload) != PartitionableEventDispatcher.Locality.LOCAL) {
+                windowEnd = queue.peekTimestamp();
+                break;
+            }
+
+            staging.add(queue.peekTimestamp(), kind, payload);
+            queue.remove();
+        }
+
+        // Events with the timestamp of the window end belong to the next window
+        boolean hasEvents = false;
+        while (!staging.isEmpty()) {
+            double timestamp = staging.peekTimestamp();
+            EventKind kind = staging.peekKind();
+            int payload = staging.peekPayload();
+            staging.remove();
+
+            if (timestamp < windowEnd) {
+                stripes[stripeOf(payload)].windowQueue.add(timestamp, kind, payload);
+                hasEvents = true;
+            } else {
+                queue.add(timestamp, kind, payload);
+            }
+        }
+
+        if (hasEvents) {
+            window++;
+        } else {
+            windowEnd = Double.NEGATIVE_INFINITY;
+        }
+
+        return hasEvents;
+    }
+
+    /**
+     * Speculatively process the events of the current window of all stripes in parallel.
+     *
+     * @throws EventExecutionException in case an event could not be processed
+     */
+    private void processWindowInParallel() throws EventExecutionException {
+        if (stripes.length == 1) {
+            stripes[0].compute();
+        } else {
+            for (Stripe stripe : stripes) {
+                stripe.reinitialize();
+            }
+
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(stripes);
+                }
+            });
+        }
+
+        for (Stripe stripe : stripes) {
+            if (stripe.failure != null) {
+                EventExecutionException failure = stripe.failure;
+                stripe.failure = null;
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * Find the earliest causality violation of the current window, roll back all stripes to it
+     * and commit everything before.
+     *
+     * @return timestamp all stripes have been rolled back to
+     */
+    private double commitWindow() {
+        double rollbackTimestamp = windowEnd;
+        for (Stripe stripe : stripes) {
+            rollbackTimestamp = Math.min(rollbackTimestamp, stripe.violationTimestamp);
+            stripe.stampBorderEvents();
+        }
+        for (Stripe stripe : stripes) {
+            rollbackTimestamp = stripe.findConflicts(rollbackTimestamp);
+        }
+
+        rollBack(rollbackTimestamp);
+        for (Stripe stripe : stripes) {
+            stripe.commit();
+        }
+
+        globalVirtualTime = rollbackTimestamp;
+
+        return rollbackTimestamp;
+    }
+
+    /**
+     * Roll back all stripes to the passed timestamp.
+     *
+     * @param rollbackTimestamp to roll back to
+     */
+    private void rollBack(double rollbackTimestamp) {
+        RollbackLog[] logs = new RollbackLog[stripes.length];
+        int[] checkpoints = new int[stripes.length];
+        int count = 0;
+        for (Stripe stripe : stripes) {
+            EventLog processed = stripe.processed;
+
+            int committed = 0;
+            while (committed < processed.size && processed.timestamps[committed] < rollbackTimestamp) {
+                committed++;
+            }
+
+            stripe.committed = committed;
+            if (committed < processed.size) {
+                logs[count] = stripe.rollbackLog;
+                checkpoints[count++] = processed.checkpoints[committed];
+                rolledBackEventCount += processed.size - committed;
+            }
+        }
+
+        if (count > 0) {
+            optimisticDispatcher.rollback(Arrays.copyOf(logs, count), Arrays.copyOf(checkpoints, count));
+        }
+    }
+
+    /**
+     * Process the rolled back events of the current window sequentially.
+     *
+     * @param rollbackTimestamp timestamp all stripes have been rolled back to
+     * @throws EventExecutionException in case an event could not be processed
+     */
+    private void processRemainingEventsOfWindow(double rollbackTimestamp) throws EventExecutionException {
+        if (rollbackTimestamp >= windowEnd) {
+            return;
+        }
+
+        while (!queue.isEmpty()
+                && queue.peekTimestamp() < windowEnd
+                && queue.peekTimestamp() < handlerQueue.peekNextTimestamp(Double.POSITIVE_INFINITY)) {
+            processFirstEvent();
+        }
+
+        globalVirtualTime = currentTime;
+    }
+
+    @Override
+    public Optional<Double> peekNextTimestamp() {
+        double nextTimestamp = peekNextTimestamp(Double.NaN);
+
+        return Double.isNaN(nextTimestamp) ? Optional.empty() : Optional.of(nextTimestamp);
+    }
+
+    @Override
+    public double peekNextTimestamp(double fallback) {
+        double nextTimestamp = handlerQueue.peekNextTimestamp(Double.POSITIVE_INFINITY);
+        if (!queue.isEmpty()) {
+            nextTimestamp = Math.min(nextTimestamp, queue.peekTimestamp());
+        }
+
+        return nextTimestamp == Double.POSITIVE_INFINITY ? fallback : nextTimestamp;
+    }
+
+    /**
+     * Stripe of the grid (a range of columns) speculatively processing the events of its cells.
+     */
+    private class Stripe extends RecursiveAction {
+
+        /**
+         * Index of the stripe.
+         */
+        private final int index;
+
+        /**
+         * First column of the stripe (inclusive).
+         */
+        private final int from;
+
+        /**
+         * Last column of the stripe (exclusive).
+         */
+        private final int to;
+
+        /**
+         * Log to take checkpoints with.
+         */
+        private final RollbackLog rollbackLog;
+
+        /**
+         * Ordered events of the current window to process.
+         */
+        private final WindowQueue windowQueue = new WindowQueue();
+
+        /**
+         * Events speculatively processed in the current window (in processing order).
+         */
+        private final EventLog processed = new EventLog();
+
+        /**
+         * Follow-up events scheduled in the current window that are not processed by the stripe.
+         */
+        private final EventLog outbox = new EventLog();
+
+        /**
+         * Context to process the events of the stripe with.
+         */
+        private final Context context = new Context(this);
+
+        /**
+         * Earliest timestamp of a follow-up event the stripe could not process itself in the current window.
+         */
+        private double violationTimestamp = Double.POSITIVE_INFINITY;
+
+        /**
+         * Amount of processed events of the current window that are committed.
+         */
+        private int committed;
+
+        /**
+         * Failure that occurred during the last parallel phase.
+         */
+        private EventExecutionException failure;
+
+        Stripe(int index, int from, int to, RollbackLog rollbackLog) {
+            this.index = index;
+            this.from = from;
+            this.to = to;
+            this.rollbackLog = rollbackLog;
+        }
+
+        @Override
+        protected void compute() {
+            rollbackLog.bind();
+            try {
+                while (!windowQueue.isEmpty()) {
+                    double timestamp = windowQueue.peekTimestamp();
+                    EventKind kind = windowQueue.peekKind();
+                    int payload = windowQueue.peekPayload();
+                    int origin = windowQueue.peekOrigin();
+                    windowQueue.remove();
+
+                    int event = processed.add(timestamp, kind, payload, origin, rollbackLog.checkpoint(kind, payload), null);
+                    context.process(timestamp, kind, payload, event);
+                }
+            } catch (EventExecutionException e) {
+                failure = e;
+                windowQueue.clear();
+            } finally {
+                rollbackLog.unbind();
+            }
+        }
+
+        /**
+         * Check whether the passed cell is near the border to another stripe.
+         *
+         * @param cellIndex to check
+         * @return whether near the border
+         */
+        private boolean isNearBorder(int cellIndex) {
+            int column = cellIndex % columns;
+            return (from > 0 && column - from < conflictDistance) || (to < columns && to - 1 - column < conflictDistance);
+        }
+
+        /**
+         * Stamp the cells of the processed events near the border with the earliest event timestamp.
+         */
+        private void stampBorderEvents() {
+            for (int i = 0; i < processed.size; i++) {
+                int payload = processed.payloads[i];
+                if (stamps[payload] != window && isNearBorder(payload)) {
+                    stamps[payload] = window;
+                    earliestTimestamps[payload] = processed.timestamps[i];
+                }
+            }
+        }
+
+        /**
+         * Find processed events near the border that may have interacted with processed events of other stripes.
+         * Since both events have been processed concurrently, both stripes need to be rolled back to the earlier one.
+         *
+         * @param rollbackTimestamp the current rollback timestamp
+         * @return the updated rollback timestamp
+         */
+        private double findConflicts(double rollbackTimestamp) {
+            int rows = stamps.length / columns;
+
+            // Conflicts with later events are detected when checking the events of the other stripe
+            for (int i = 0; i < processed.size && processed.timestamps[i] < rollbackTimestamp; i++) {
+                int payload = processed.payloads[i];
+                if (!isNearBorder(payload)) {
+                    continue;
+                }
+
+                int row = payload / columns;
+                int column = payload % columns;
+                for (int r = Math.max(row - conflictDistance, 0); r <= Math.min(row + conflictDistance, rows - 1); r++) {
+                    for (int c = Math.max(column - conflictDistance, 0); c <= Math.min(column + conflictDistance, columns - 1); c++) {
+                        if (c >= from && c < to) {
+                            continue; // Own cells cannot conflict
+                        }
+
+                        int cell = r * columns + c;
+                        if (stamps[cell] == window) {
+                            rollbackTimestamp = Math.min(rollbackTimestamp, Math.min(processed.timestamps[i], earliestTimestamps[cell]));
+                        }
+                    }
+                }
+            }
+
+            return rollbackTimestamp;
+        }
+
+        /**
+         * Commit the events not rolled back.
+         * Rolled back events and follow-up events of committed events are passed back to the scheduler queues.
+         */
+        private void commit() {
+            if (committed > 0) {
+                currentTime = Math.max(currentTime, processed.timestamps[committed - 1]);
+            }
+
+            // Events scheduled by committed events (or before the window) are still pending
+            for (int i = committed; i < processed.size; i++) {
+                if (processed.origins[i] < committed) {
+                    queue.add(processed.timestamps[i], processed.kinds[i], processed.payloads[i]);
+                }
+            }
+
+            for (int i = 0; i < outbox.size; i++) {
+                if (outbox.origins[i] < committed) {
+                    if (outbox.handlers[i] != null) {
+                        handlerQueue.scheduleAt(outbox.handlers[i], outbox.timestamps[i]);
+                    } else {
+                        queue.add(outbox.timestamps[i], outbox.kinds[i], outbox.payloads[i]);
+                    }
+                }
+            }
+
+            // Fossil collection
+            rollbackLog.clear();
+            processed.clear();
+            outbox.clear();
+            violationTimestamp = Double.POSITIVE_INFINITY;
+        }
+
+    }
+
+    /**
+     * Scheduling context handed to the dispatcher while processing a single event.
+     * Follow-up events a stripe is able to process itself in the current window are processed right away,
+     * all others are collected to be passed to the scheduler queues when the window is committed.
+     */
+    private class Context implements SchedulingContext {
+
+        /**
+         * Stripe the context belongs to (null for sequential processing).
+         */
+        private final Stripe stripe;
+
+        /**
+         * Timestamp of the event currently processed.
+         */
+        private double timestamp;
+
+        /**
+         * Number of the event currently processed in the log of the stripe.
+         */
+        private int event;
+
+        Context(Stripe stripe) {
+            this.stripe = stripe;
+        }
+
+        /**
+         * Process the passed event sequentially.
+         *
+         * @param timestamp of the event
+         * @param kind      of the event
+         * @param payload   of the event
+         * @throws EventExecutionException in case the event could not be processed
+         */
+        void process(double timestamp, EventKind kind, int payload) throws EventExecutionException {
+            currentTime = Math.max(currentTime, timestamp);
+            process(timestamp, kind, payload, -1);
+        }
+
+        /**
+         * Process the passed event.
+         *
+         * @param timestamp of the event
+         * @param kind      of the event
+         * @param payload   of the event
+         * @param event     number of the event in the log of the stripe
+         * @throws EventExecutionException in case the event could not be processed
+         */
+        void process(double timestamp, EventKind kind, int payload, int event) throws EventExecutionException {
+            this.timestamp = timestamp;
+            this.event = event;
+
+            if (optimisticDispatcher != null) {
+                optimisticDispatcher.dispatch(kind, payload, timestamp, this);
+            } else if (dispatcher != null) {
+                dispatcher.dispatch(kind, payload);
+            } else {
+                throw new EventExecutionException(String.format("No event dispatcher set to process event of kind %s", kind));
+            }
+        }
+
+        @Override
+        public void scheduleIn(EventHandler handler, double relativeTime) {
+            double timestamp = this.timestamp + checkRelativeTime(relativeTime);
+
+            if (stripe != null) {
+                stripe.outbox.add(timestamp, EventKind.HANDLER, 0, event, -1, handler);
+            } else {
+                handlerQueue.scheduleAt(handler, timestamp);
+            }
+        }
+
+        @Override
+        public void scheduleIn(EventKind kind, int payload, double relativeTime) {
+            double timestamp = this.timestamp + checkRelativeTime(relativeTime);
+
+            if (stripe == null) {
+                queue.add(timestamp, kind, payload);
+                return;
+            }
+
+            if (timestamp < windowEnd) {
+                if (stripeOf(payload) == stripe.index
+                        && optimisticDispatcher.getLocality(kind, payload) == PartitionableEventDispatcher.Locality.LOCAL) {
+                    stripe.windowQueue.add(timestamp, kind, payload, event);
+                    return;
+                }
+
+                // Another stripe or the sequential processing should have seen the event -> causality violation
+                stripe.violationTimestamp = Math.min(stripe.violationTimestamp, timestamp);
+            }
+
+            stripe.outbox.add(timestamp, kind, payload, event, -1, null);
+        }
+
+        @Override
+        public double currentTime() {
+            return timestamp;
+        }
+
+        /**
+         * The next timestamp of other stripes is not known while processing an event,
+         * thus the timestamp of the current event is returned.
+         *
+         * @param fallback is never used
+         * @return timestamp of the current event
+         */
+        @Override
+        public double peekNextTimestamp(double fallback) {
+            return timestamp;
+        }
+
+    }
+
+    /**
+     * Growable list of events with the number of the event that scheduled them.
+     */
+    private static class EventLog {
+
+        /**
+         * Initial capacity of the arrays.
+         */
+        private static final int INITIAL_CAPACITY = 64;
+
+        /**
+         * Timestamps of the events.
+         */
+        double[] timestamps = new double[INITIAL_CAPACITY];
+
+        /**
+         * Kinds of the events.
+         */
+        EventKind[] kinds = new EventKind[INITIAL_CAPACITY];
+
+        /**
+         * Payloads of the events.
+         */
+        int[] payloads = new int[INITIAL_CAPACITY];
+
+        /**
+         * Numbers of the events that scheduled the events (-1 if scheduled before the window).
+         */
+        int[] origins = new int[INITIAL_CAPACITY];
+
+        /**
+         * Checkpoints taken before processing the events.
+         */
+        int[] checkpoints = new int[INITIAL_CAPACITY];
+
+        /**
+         * Handlers of the events (only for events of kind {@link EventKind#HANDLER}).
+         */
+        EventHandler[] handlers = new EventHandler[INITIAL_CAPACITY];
+
+        /**
+         * Amount of events.
+         */
+        int size;
+
+        /**
+         * Add an event.
+         *
+         * @param timestamp  of the event
+         * @param kind       of the event
+         * @param payload    of the event
+         * @param origin     number of the event that scheduled the event
+         * @param checkpoint taken before processing the event
+         * @param handler    of the event
+         * @return number of the added event
+         */
+        int add(double timestamp, EventKind kind, int payload, int origin, int checkpoint, EventHandler handler) {
+            if (size == timestamps.length) {
+                int capacity = size * 2;
+                timestamps = Arrays.copyOf(timestamps, capacity);
+                kinds = Arrays.copyOf(kinds, capacity);
+                payloads = Arrays.copyOf(payloads, capacity);
+                origins = Arrays.copyOf(origins, capacity);
+                checkpoints = Arrays.copyOf(checkpoints, capacity);
+                handlers = Arrays.copyOf(handlers, capacity);
+            }
+
+            timestamps[size] = timestamp;
+            kinds[size] = kind;
+            payloads[size] = payload;
+            origins[size] = origin;
+            checkpoints[size] = checkpoint;
+            handlers[size] = handler;
+
+            return size++;
+        }
+
+        /**
+         * Remove all events.
+         */
+        void clear() {
+            Arrays.fill(kinds, 0, size, null);
+            Arrays.fill(handlers, 0, size, null);
+            size = 0;
+        }
+
+    }
+
+}
@@ -1,6 +1,6 @@
 package edu.hm.cs.bess.streamsim.sim.scheduler;
 
-import edu.hm.cs.bess.streamsim.sim.scheduler.event.EventHandler;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.EventDispatcher;
 import edu.hm.cs.bess.streamsim.sim.scheduler.exception.EventExecutionException;
 
 import java.util.Optional;
@@ -10,22 +10,24 @@ import java.util.Optional;
  *
  * @author Benjamin Eder
  */
-public interface Scheduler {
+public interface Scheduler extends SchedulingContext {
 
     /**
-     * Schedule the passed event in the passed relative time.
+     * Set the dispatcher processing typed events.
      *
-     * @param handler      to schedule processing of
-     * @param relativeTime in which to process the event
+     * @param dispatcher to process typed events with
      */
-    void scheduleIn(EventHandler handler, double relativeTime);
+    void setEventDispatcher(EventDispatcher dispatcher);
 
     /**
-     * The current time of the scheduler.
+     * Set the seed of the simulation run.
+     * Used by schedulers that need to break ties between events in a reproducible random order.
      *
-     * @return current time
+     * @param seed of the simulation run
      */
-    double currentTime();
+    default void setSeed(long seed) {
+        // Most schedulers do not need a seed
+    }
 
     /**
      * Clear all pending events to be processed.
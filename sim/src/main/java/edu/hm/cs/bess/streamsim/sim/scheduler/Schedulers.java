@@ -0,0 +1,37 @@
+package edu.hm.cs.bess.streamsim.sim.scheduler;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Information about available schedulers.
+ *
+ * @author Benjamin Eder
+ */
+public class Schedulers {
+
+    /**
+     * Supplier for the default scheduler.
+     */
+    public static final Supplier<Scheduler> DEFAULT = EventDrivenScheduler::new;
+
+    /**
+     * Lookup of available schedulers (unmodifiable).
+     */
+    public static final Map<String, Supplier<Scheduler>> LOOKUP;
+
+    static {
+        Map<String, Supplier<Scheduler>> lookup = new HashMap<>();
+
+        lookup.put(EventDrivenScheduler.NAME, EventDrivenScheduler::new);
+        lookup.put(CalendarQueueScheduler.NAME, CalendarQueueScheduler::new);
+        lookup.put(TimeSteppedScheduler.NAME, TimeSteppedScheduler::new);
+        lookup.put(ConservativeParallelScheduler.NAME, ConservativeParallelScheduler::new);
+        lookup.put(OptimisticParallelScheduler.NAME, OptimisticParallelScheduler::new);
+        lookup.put(TieGroupParallelScheduler.NAME, TieGroupParallelScheduler::new);
+
+        LOOKUP = Map.copyOf(lookup);
+    }
+
+}
@@ -0,0 +1,48 @@
+package edu.hm.cs.bess.streamsim.sim.scheduler;
+
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.EventHandler;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.EventKind;
+
+/**
+ * Context events are processed in, used to schedule follow-up events.
+ * In contrast to the {@link Scheduler} it does not allow to control the event processing itself,
+ * so that parallel schedulers are able to hand out a context per event being processed.
+ *
+ * @author Benjamin Eder
+ */
+public interface SchedulingContext {
+
+    /**
+     * Schedule the passed event in the passed relative time.
+     *
+     * @param handler      to schedule processing of
+     * @param relativeTime in which to process the event
+     */
+    void scheduleIn(EventHandler handler, double relativeTime);
+
+    /**
+     * Schedule a typed event in the passed relative time.
+     * Typed events are processed by the set event dispatcher.
+     *
+     * @param kind         of the event
+     * @param payload      of the event
+     * @param relativeTime in which to process the event
+     */
+    void scheduleIn(EventKind kind, int payload, double relativeTime);
+
+    /**
+     * The current time of the scheduler.
+     *
+     * @return current time
+     */
+    double currentTime();
+
+    /**
+     * Peek the currently next events timestamp without boxing.
+     *
+     * @param fallback to return when there is no event left
+     * @return next events timestamp or the passed fallback
+     */
+    double peekNextTimestamp(double fallback);
+
+}
@@ -0,0 +1,238 @@
+package edu.hm.cs.bess.streamsim.sim.scheduler;
+
+import edu.hm.cs.bess.streamsim.sim.logic.util.SeedMixer;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.EventDispatcher;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.EventHandler;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.EventKind;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.SplittableEventDispatcher;
+import edu.hm.cs.bess.streamsim.sim.scheduler.exception.EventExecutionException;
+
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Event-driven simulation scheduler processing events with identical timestamps (tie-groups) together.
+ * <p>
+ * Events with distinct timestamps are processed one after another exactly like the {@link EventDrivenScheduler} does.
+ * When multiple splittable events (person moves) share a timestamp, e. g. due to fixed rate spawning and fixed speeds,
+ * the events that cannot be split are processed first in insertion order.
+ * Afterwards the splittable events are evaluated in parallel on a fork-join pool against the unchanged simulation state
+ * and committed sequentially in a seeded random priority order.
+ * Only events whose evaluation has become invalid by an earlier commit (e. g. the chosen cell has been taken)
+ * are evaluated again right before their commit.
+ * <p>
+ * Results for a fixed seed do not depend on the parallelism of the used pool.
+ *
+ * @author Benjamin Eder
+ */
+public class TieGroupParallelScheduler implements Scheduler {
+
+    /**
+     * Name of the scheduler.
+     */
+    public static final String NAME = "Tie-group parallel";
+
+    /**
+     * Queue holding the pending events.
+     */
+    private final EventDrivenScheduler queue = new EventDrivenScheduler();
+
+    /**
+     * Pool to evaluate the events of a tie-group with.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * All typed events of the current tie-group in insertion order.
+     */
+    private final EventBatch group = new EventBatch();
+
+    /**
+     * Splittable events of the current tie-group.
+     */
+    private final EventBatch batch = new EventBatch();
+
+    /**
+     * Dispatcher processing typed events.
+     */
+    private EventDispatcher dispatcher;
+
+    /**
+     * Seed used to determine the commit order of the events of a tie-group.
+     */
+    private long seed;
+
+    /**
+     * Amount of events that had to be evaluated again since their evaluation became invalid.
+     */
+    private long reevaluationCount;
+
+    public TieGroupParallelScheduler() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public TieGroupParallelScheduler(ForkJoinPool pool) {
+        this.pool = pool;
+
+        queue.setEventDispatcher(group::add);
+    }
+
+    @Override
+    public void scheduleIn(EventHandler handler, double relativeTime) {
+        queue.scheduleIn(handler, relativeTime);
+    }
+
+    @Override
+    public void scheduleIn(EventKind kind, int payload, double relativeTime) {
+        queue.scheduleIn(kind, payload, relativeTime);
+    }
+
+    @Override
+    public void setEventDispatcher(EventDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public double currentTime() {
+        return queue.currentTime();
+    }
+
+    /**
+     * Get the amount of events that had to be evaluated again because an earlier commit of their tie-group
+     * invalidated their evaluation.
+     *
+     * @return re-evaluation count
+     */
+    public long getReevaluationCount() {
+        return reevaluationCount;
+    }
+
+    @Override
+    public void clear() {
+        queue.clear();
+        group.clear();
+        batch.clear();
+
+        reevaluationCount = 0;
+    }
+
+    /**
+     * Process all events with the timestamp of the next event.
+     *
+     * @return whether there was something left to process
+     * @throws EventExecutionException in case an event could not be processed
+     */
+    @Override
+    public boolean processNext() throws EventExecutionException {
+        double timestamp = queue.peekNextTimestamp(Double.NaN);
+        if (Double.isNaN(timestamp)) {
+            return false;
+        }
+
+        // Events scheduled for the current timestamp while processing are processed in another round
+        while (queue.peekNextTimestamp(Double.POSITIVE_INFINITY) == timestamp) {
+            while (queue.peekNextTimestamp(Double.POSITIVE_INFINITY) == timestamp) {
+                queue.processNext(); // Processes handlers and collects typed events in the group
+            }
+
+            processGroup(timestamp);
+        }
+
+        return true;
+    }
+
+    /**
+     * Process the collected typed events of the current tie-group.
+     *
+     * @param timestamp of the tie-group
+     * @throws EventExecutionException in case an event could not be processed
+     */
+    private void processGroup(double timestamp) throws EventExecutionException {
+        if (group.size() == 0) {
+            return;
+        } else if (dispatcher == null) {
+            group.clear();
+            throw new EventExecutionException("No event dispatcher set to process typed events");
+        }
+
+        SplittableEventDispatcher splittableDispatcher = dispatcher instanceof SplittableEventDispatcher
+                ? (SplittableEventDispatcher) dispatcher
+                : null;
+
+        int splittableCount = 0;
+        if (splittableDispatcher != null) {
+            for (int i = 0; i < group.size(); i++) {
+                if (splittableDispatcher.isSplittable(group.kindAt(i))) {
+                    splittableCount++;
+                }
+            }
+        }
+
+        try {
+            if (splittableCount < 2) {
+                // Nothing to gain -> same order as the event-driven scheduler
+                for (int i = 0; i < group.size(); i++) {
+                    dispatcher.dispatch(group.kindAt(i), group.payloadAt(i));
+                }
+                return;
+            }
+
+            for (int i = 0; i < group.size(); i++) {
+                EventKind kind = group.kindAt(i);
+                if (splittableDispatcher.isSplittable(kind)) {
+                    batch.add(kind, group.payloadAt(i));
+                } else {
+                    dispatcher.dispatch(kind, group.payloadAt(i));
+                }
+            }
+
+            batch.evaluate(splittableDispatcher, timestamp, pool);
+            commitBatch(splittableDispatcher, timestamp);
+        } finally {
+            group.clear();
+            batch.clear();
+        }
+    }
+
+    /**
+     * Commit the evaluated splittable events of the current tie-group in a seeded random priority order.
+     * Events whose evaluation has become invalid are evaluated again.
+     *
+     * @param splittableDispatcher to commit the events with
+     * @param timestamp            of the tie-group
+     * @throws EventExecutionException in case an event could not be committed
+     */
+    private void commitBatch(SplittableEventDispatcher splittableDispatcher, double timestamp) throws EventExecutionException {
+        batch.sort(SeedMixer.mix(seed, Double.doubleToLongBits(timestamp)));
+
+        for (int k = 0; k < batch.size(); k++) {
+            int i = batch.indexAt(k);
+            EventKind kind = batch.kindAt(i);
+            int payload = batch.payloadAt(i);
+
+            int evaluation = batch.evaluationAt(i);
+            if (!splittableDispatcher.isStillValid(kind, payload, evaluation)) {
+                evaluation = splittableDispatcher.evaluate(kind, payload, timestamp);
+                reevaluationCount++;
+            }
+
+            splittableDispatcher.commit(kind, payload, evaluation);
+        }
+    }
+
+    @Override
+    public Optional<Double> peekNextTimestamp() {
+        return queue.peekNextTimestamp();
+    }
+
+    @Override
+    public double peekNextTimestamp(double fallback) {
+        return queue.peekNextTimestamp(fallback);
+    }
+
+}
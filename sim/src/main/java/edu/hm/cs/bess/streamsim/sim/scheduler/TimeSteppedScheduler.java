@@ -0,0 +1,245 @@
+package edu.hm.cs.bess.streamsim.sim.scheduler;
+
+import edu.hm.cs.bess.streamsim.sim.logic.util.SeedMixer;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.EventDispatcher;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.EventHandler;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.EventKind;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.SplittableEventDispatcher;
+import edu.hm.cs.bess.streamsim.sim.scheduler.exception.EventExecutionException;
+
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Synchronous (cellular-automaton style) simulation scheduler.
+ * <p>
+ * Time advances in ticks of a fixed length and every event is processed at the end of the tick it falls into.
+ * Each tick, events that cannot be split (spawns, generic handlers) are processed first in timestamp order.
+ * Afterwards all splittable events of the tick (person moves) are evaluated in parallel on a fork-join pool
+ * against the unchanged simulation state and committed sequentially in a seeded random priority order.
+ * Conflicts (e. g. two people choosing the same cell) are resolved by that order:
+ * The commit of a lower priority event notices that its decision has become invalid and waits instead.
+ * <p>
+ * Since every event is delayed to the end of its tick, movement delays are effectively rounded up to the tick length.
+ * Results for a fixed seed do not depend on the parallelism of the used pool.
+ *
+ * @author Benjamin Eder
+ */
+public class TimeSteppedScheduler implements Scheduler {
+
+    /**
+     * Name of the scheduler.
+     */
+    public static final String NAME = "Time-stepped";
+
+    /**
+     * Default length of a tick in time units.
+     */
+    public static final double DEFAULT_TICK_LENGTH = 0.05;
+
+    /**
+     * Queue holding the pending events with their exact timestamps.
+     */
+    private final EventDrivenScheduler queue = new EventDrivenScheduler();
+
+    /**
+     * Length of a tick in time units.
+     */
+    private final double tickLength;
+
+    /**
+     * Pool to evaluate the events of a tick with.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Dispatcher processing typed events.
+     */
+    private EventDispatcher dispatcher;
+
+    /**
+     * Seed used to determine the commit order of the events of a tick.
+     */
+    private long seed;
+
+    /**
+     * The current time of the scheduler (end of the current tick).
+     */
+    private double currentTime;
+
+    /**
+     * Index of the current tick.
+     */
+    private long currentTick;
+
+    /**
+     * Collected splittable events of the current tick.
+     */
+    private final EventBatch batch = new EventBatch();
+
+    public TimeSteppedScheduler() {
+        this(DEFAULT_TICK_LENGTH, ForkJoinPool.commonPool());
+    }
+
+    public TimeSteppedScheduler(double tickLength, ForkJoinPool pool) {
+        if (tickLength <= 0) {
+            throw new IllegalArgumentException("The tick length needs to be greater than 0");
+        }
+
+        this.tickLength = tickLength;
+        this.pool = pool;
+
+        queue.setEventDispatcher(this::collect);
+    }
+
+    @Override
+    public void scheduleIn(EventHandler handler, double relativeTime) {
+        queue.scheduleIn(handler, toQueueRelativeTime(relativeTime));
+    }
+
+    @Override
+    public void scheduleIn(EventKind kind, int payload, double relativeTime) {
+        queue.scheduleIn(kind, payload, toQueueRelativeTime(relativeTime));
+    }
+
+    /**
+     * Convert the passed time relative to the current tick to a time relative to the queues time.
+     *
+     * @param relativeTime relative to the current tick
+     * @return time relative to the queues time
+     */
+    private double toQueueRelativeTime(double relativeTime) {
+        if (relativeTime < 0) {
+            throw new IllegalArgumentException("Can only schedule events in the future. relativeTime needs to be greater or equal to 0.");
+        }
+
+        return currentTime + relativeTime - queue.currentTime();
+    }
+
+    @Override
+    public void setEventDispatcher(EventDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public double currentTime() {
+        return currentTime;
+    }
+
+    @Override
+    public void clear() {
+        queue.clear();
+        batch.clear();
+
+        currentTime = 0;
+        currentTick = 0;
+    }
+
+    /**
+     * Process all events of the next tick.
+     *
+     * @return whether there was something left to process
+     * @throws EventExecutionException in case an event could not be processed
+     */
+    @Override
+    public boolean processNext() throws EventExecutionException {
+        double nextTimestamp = queue.peekNextTimestamp(Double.NaN);
+        if (Double.isNaN(nextTimestamp)) {
+            return false;
+        }
+
+        currentTick = (long) Math.ceil(nextTimestamp / tickLength);
+        currentTime = toTickTime(nextTimestamp);
+
+        // Events scheduled for the current tick while committing are processed in another round
+        while (queue.peekNextTimestamp(Double.POSITIVE_INFINITY) <= currentTime) {
+            while (queue.peekNextTimestamp(Double.POSITIVE_INFINITY) <= currentTime) {
+                queue.processNext(); // Processes or collects the event (see collect(...))
+            }
+
+            if (batch.size() > 0) {
+                batch.evaluate((SplittableEventDispatcher) dispatcher, currentTime, pool);
+                commitBatch();
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Called by the queue for every typed event of the current tick.
+     * Splittable events are collected to be evaluated in parallel, all others are dispatched immediately.
+     *
+     * @param kind    of the event
+     * @param payload of the event
+     * @throws EventExecutionException in case the event could not be processed
+     */
+    private void collect(EventKind kind, int payload) throws EventExecutionException {
+        if (dispatcher == null) {
+            throw new EventExecutionException(String.format("No event dispatcher set to process event of kind %s", kind));
+        }
+
+        if (dispatcher instanceof SplittableEventDispatcher && ((SplittableEventDispatcher) dispatcher).isSplittable(kind)) {
+            batch.add(kind, payload);
+        } else {
+            dispatcher.dispatch(kind, payload);
+        }
+    }
+
+    /**
+     * Commit all collected events of the current tick in a seeded random priority order.
+     *
+     * @throws EventExecutionException in case an event could not be committed
+     */
+    private void commitBatch() throws EventExecutionException {
+        SplittableEventDispatcher splittableDispatcher = (SplittableEventDispatcher) dispatcher;
+
+        batch.sort(SeedMixer.mix(seed, currentTick));
+
+        for (int k = 0; k < batch.size(); k++) {
+            int i = batch.indexAt(k);
+            splittableDispatcher.commit(batch.kindAt(i), batch.payloadAt(i), batch.evaluationAt(i));
+        }
+
+        batch.clear();
+    }
+
+    /**
+     * Get the timestamp of the next event as it will be processed (at the end of its tick).
+     *
+     * @return timestamp of the next event
+     */
+    @Override
+    public Optional<Double> peekNextTimestamp() {
+        return queue.peekNextTimestamp().map(this::toTickTime);
+    }
+
+    /**
+     * Get the timestamp of the next event as it will be processed (at the end of its tick).
+     *
+     * @param fallback to return when there is no next event
+     * @return timestamp of the next event or the fallback
+     */
+    @Override
+    public double peekNextTimestamp(double fallback) {
+        double nextTimestamp = queue.peekNextTimestamp(Double.NaN);
+
+        return Double.isNaN(nextTimestamp) ? fallback : toTickTime(nextTimestamp);
+    }
+
+    /**
+     * Get the time the passed timestamp is processed at (the end of the tick it falls into).
+     *
+     * @param timestamp to convert
+     * @return the time at the end of the tick
+     */
+    private double toTickTime(double timestamp) {
+        return Math.max(Math.ceil(timestamp / tickLength) * tickLength, timestamp);
+    }
+
+}
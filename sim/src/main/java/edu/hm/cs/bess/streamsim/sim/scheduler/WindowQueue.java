@@ -0,0 +1,226 @@
+package edu.hm.cs.bess.streamsim.sim.scheduler;
+
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.EventKind;
+
+import java.util.Arrays;
+
+/**
+ * Binary heap of typed events ordered by timestamp, then payload, then kind.
+ * In contrast to the insertion order based tie-breaking of {@link EventDrivenScheduler}
+ * the order of events only depends on the events themselves.
+ * Used by parallel schedulers to process the events of a time window in a reproducible order.
+ *
+ * @author Benjamin Eder
+ */
+final class WindowQueue {
+
+    /**
+     * Initial capacity of the heap arrays.
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Timestamps of the queued events.
+     */
+    private double[] timestamps = new double[INITIAL_CAPACITY];
+
+    /**
+     * Kinds of the queued events.
+     */
+    private EventKind[] kinds = new EventKind[INITIAL_CAPACITY];
+
+    /**
+     * Payloads of the queued events.
+     */
+    private int[] payloads = new int[INITIAL_CAPACITY];
+
+    /**
+     * Origins of the queued events (an arbitrary number identifying the event that scheduled it or -1).
+     */
+    private int[] origins = new int[INITIAL_CAPACITY];
+
+    /**
+     * Amount of queued events.
+     */
+    private int size;
+
+    /**
+     * Add an event to the queue.
+     *
+     * @param timestamp of the event
+     * @param kind      of the event
+     * @param payload   of the event
+     */
+    void add(double timestamp, EventKind kind, int payload) {
+        add(timestamp, kind, payload, -1);
+    }
+
+    /**
+     * Add an event with a known origin to the queue.
+     *
+     * @param timestamp of the event
+     * @param kind      of the event
+     * @param payload   of the event
+     * @param origin    of the event
+     */
+    void add(double timestamp, EventKind kind, int payload, int origin) {
+        if (size == timestamps.length) {
+            int capacity = size * 2;
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            kinds = Arrays.copyOf(kinds, capacity);
+            payloads = Arrays.copyOf(payloads, capacity);
+            origins = Arrays.copyOf(origins, capacity);
+        }
+
+        int index = size++;
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (compare(timestamp, kind, payload, parent) >= 0) {
+                break;
+            }
+
+            move(parent, index);
+            index = parent;
+        }
+
+        set(index, timestamp, kind, payload, origin);
+    }
+
+    /**
+     * Remove the first event of the queue.
+     * Read it beforehand using {@link #peekTimestamp()}, {@link #peekKind()} and {@link #peekPayload()}.
+     */
+    void remove() {
+        int last = --size;
+
+        double timestamp = timestamps[last];
+        EventKind kind = kinds[last];
+        int payload = payloads[last];
+        int origin = origins[last];
+        kinds[last] = null;
+
+        if (last == 0) {
+            return;
+        }
+
+        int index = 0;
+        int half = last >>> 1;
+        while (index < half) {
+            int child = (index << 1) + 1;
+            int right = child + 1;
+            if (right < last && compare(timestamps[right], kinds[right], payloads[right], child) < 0) {
+                child = right;
+            }
+
+            if (compare(timestamp, kind, payload, child) <= 0) {
+                break;
+            }
+
+            move(child, index);
+            index = child;
+        }
+
+        set(index, timestamp, kind, payload, origin);
+    }
+
+    /**
+     * Get the timestamp of the first event.
+     *
+     * @return timestamp
+     */
+    double peekTimestamp() {
+        return timestamps[0];
+    }
+
+    /**
+     * Get the kind of the first event.
+     *
+     * @return kind
+     */
+    EventKind peekKind() {
+        return kinds[0];
+    }
+
+    /**
+     * Get the payload of the first event.
+     *
+     * @return payload
+     */
+    int peekPayload() {
+        return payloads[0];
+    }
+
+    /**
+     * Get the origin of the first event.
+     *
+     * @return origin
+     */
+    int peekOrigin() {
+        return origins[0];
+    }
+
+    /**
+     * Check whether the queue is empty.
+     *
+     * @return whether empty
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove all events from the queue.
+     */
+    void clear() {
+        Arrays.fill(kinds, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Compare the passed event with the event at the passed heap position.
+     *
+     * @param timestamp of the event
+     * @param kind      of the event
+     * @param payload   of the event
+     * @param index     of the event to compare with
+     * @return comparison result
+     */
+    private int compare(double timestamp, EventKind kind, int payload, int index) {
+        int result = Double.compare(timestamp, timestamps[index]);
+        if (result == 0) {
+            result = Integer.compare(payload, payloads[index]);
+        }
+        if (result == 0) {
+            result = kind.compareTo(kinds[index]);
+        }
+
+        return result;
+    }
+
+    /**
+     * Move the event at the passed heap position to another position.
+     *
+     * @param from position
+     * @param to   position
+     */
+    private void move(int from, int to) {
+        set(to, timestamps[from], kinds[from], payloads[from], origins[from]);
+    }
+
+    /**
+     * Set the event at the passed heap position.
+     *
+     * @param index     position
+     * @param timestamp of the event
+     * @param kind      of the event
+     * @param payload   of the event
+     * @param origin    of the event
+     */
+    private void set(int index, double timestamp, EventKind kind, int payload, int origin) {
+        timestamps[index] = timestamp;
+        kinds[index] = kind;
+        payloads[index] = payload;
+        origins[index] = origin;
+    }
+
+}
@@ -13,12 +13,31 @@ public class Event implements Comparable<Event> {
     private double timestamp;
 
     /**
-     * Event handler being executed when the event occurs.
+     * Event handler being executed when the event occurs (only for events of kind {@link EventKind#HANDLER}).
      */
     private final EventHandler handler;
 
+    /**
+     * Kind of the event.
+     */
+    private final EventKind kind;
+
+    /**
+     * Payload of a typed event.
+     */
+    private final int payload;
+
     public Event(EventHandler handler, double timestamp) {
         this.handler = handler;
+        this.kind = EventKind.HANDLER;
+        this.payload = 0;
+        this.timestamp = timestamp;
+    }
+
+    public Event(EventKind kind, int payload, double timestamp) {
+        this.handler = null;
+        this.kind = kind;
+        this.payload = payload;
         this.timestamp = timestamp;
     }
 
@@ -49,6 +68,24 @@ public class Event implements Comparable<Event> {
         return handler;
     }
 
+    /**
+     * Get the kind of the event.
+     *
+     * @return kind
+     */
+    public EventKind getKind() {
+        return kind;
+    }
+
+    /**
+     * Get the payload of a typed event.
+     *
+     * @return payload
+     */
+    public int getPayload() {
+        return payload;
+    }
+
     @Override
     public int compareTo(Event o) {
         return Double.compare(getTimestamp(), o.getTimestamp());
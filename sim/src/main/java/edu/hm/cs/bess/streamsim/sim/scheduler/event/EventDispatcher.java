@@ -0,0 +1,22 @@
+package edu.hm.cs.bess.streamsim.sim.scheduler.event;
+
+import edu.hm.cs.bess.streamsim.sim.scheduler.exception.EventExecutionException;
+
+/**
+ * Dispatcher processing typed events of a scheduler.
+ *
+ * @author Benjamin Eder
+ */
+@FunctionalInterface
+public interface EventDispatcher {
+
+    /**
+     * Process the typed event of the passed kind.
+     *
+     * @param kind    of the event
+     * @param payload of the event
+     * @throws EventExecutionException in case the execution has gone wrong
+     */
+    void dispatch(EventKind kind, int payload) throws EventExecutionException;
+
+}
@@ -0,0 +1,29 @@
+package edu.hm.cs.bess.streamsim.sim.scheduler.event;
+
+/**
+ * Kind of an event managed by a scheduler.
+ * Typed events (all kinds except {@link #HANDLER}) only carry an integer payload
+ * and are dispatched by the schedulers {@link EventDispatcher} instead of an {@link EventHandler}.
+ *
+ * @author Benjamin Eder
+ */
+public enum EventKind {
+
+    /**
+     * Generic event processed by an {@link EventHandler}.
+     */
+    HANDLER,
+
+    /**
+     * A source should spawn a new person.
+     * The payload is the cell index of the source.
+     */
+    SPAWN,
+
+    /**
+     * A person should move.
+     * The payload is the cell index of the person.
+     */
+    MOVE
+
+}
@@ -0,0 +1,28 @@
+package edu.hm.cs.bess.streamsim.sim.scheduler.event;
+
+/**
+ * Partitionable event dispatcher able to undo the processing of local events.
+ * Used by schedulers speculatively processing events that may later turn out to conflict.
+ *
+ * @author Benjamin Eder
+ */
+public interface OptimisticEventDispatcher extends PartitionableEventDispatcher {
+
+    /**
+     * Create a new log to take checkpoints with.
+     *
+     * @return rollback log
+     */
+    RollbackLog createRollbackLog();
+
+    /**
+     * Undo all changes recorded in the passed logs since the respective checkpoints have been taken.
+     * Later checkpoints are discarded.
+     * The logs are rolled back together, as events recorded in different logs may have changed the same cells.
+     *
+     * @param logs        to roll back
+     * @param checkpoints to roll the logs back to
+     */
+    void rollback(RollbackLog[] logs, int[] checkpoints);
+
+}
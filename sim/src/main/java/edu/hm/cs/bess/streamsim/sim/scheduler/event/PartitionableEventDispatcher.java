@@ -0,0 +1,92 @@
+package edu.hm.cs.bess.streamsim.sim.scheduler.event;
+
+import edu.hm.cs.bess.streamsim.sim.scheduler.SchedulingContext;
+import edu.hm.cs.bess.streamsim.sim.scheduler.exception.EventExecutionException;
+
+/**
+ * Event dispatcher for typed events whose payload is a cell index of a grid.
+ * Provides the information needed by schedulers partitioning the grid to process events of
+ * distant cells in parallel.
+ *
+ * @author Benjamin Eder
+ */
+public interface PartitionableEventDispatcher extends EventDispatcher {
+
+    /**
+     * Get the amount of rows of the grid.
+     *
+     * @return rows
+     */
+    int getRows();
+
+    /**
+     * Get the amount of columns of the grid.
+     *
+     * @return columns
+     */
+    int getColumns();
+
+    /**
+     * Get the maximum distance (in cells per axis) around the cell of a local event that
+     * is read when processing the event.
+     * Local events may only modify their own cell and its direct neighbours.
+     *
+     * @return interaction radius (at least 1)
+     */
+    int getInteractionRadius();
+
+    /**
+     * Get the minimum delay between a local event and any follow-up event it schedules for another cell.
+     * Follow-up events for the same cell may be scheduled earlier.
+     *
+     * @return lookahead (0 if there is no guarantee)
+     */
+    double getLookahead();
+
+    /**
+     * Get the locality of the passed event.
+     *
+     * @param kind    of the event
+     * @param payload of the event (a cell index)
+     * @return locality of the event
+     */
+    Locality getLocality(EventKind kind, int payload);
+
+    /**
+     * Process the passed event using the passed scheduler to schedule follow-up events.
+     * In contrast to {@link #dispatch(EventKind, int)} local events must not use any shared random number generator,
+     * so that the result does not depend on the order local events of distant cells are processed in.
+     *
+     * @param kind      of the event
+     * @param payload   of the event (a cell index)
+     * @param timestamp the event is processed at
+     * @param scheduler to schedule follow-up events with
+     * @throws EventExecutionException in case the execution has gone wrong
+     */
+    void dispatch(EventKind kind, int payload, double timestamp, SchedulingContext scheduler) throws EventExecutionException;
+
+    /**
+     * Locality of an event.
+     */
+    enum Locality {
+
+        /**
+         * The event only reads cells within the interaction radius (and modifies direct neighbours)
+         * and may be processed in parallel to events of distant cells.
+         */
+        LOCAL,
+
+        /**
+         * The event only reads cells within the interaction radius (and modifies direct neighbours)
+         * but uses shared resources (e. g. a shared random number generator) and thus needs to be processed sequentially.
+         */
+        SERIAL,
+
+        /**
+         * The event may read or modify any cell and needs to be processed on its own.
+         */
+        GLOBAL
+
+    }
+
+}
@@ -0,0 +1,36 @@
+package edu.hm.cs.bess.streamsim.sim.scheduler.event;
+
+/**
+ * Log of checkpoints taken before speculatively processing typed events.
+ * A log is used by a single thread at a time and must be bound to it before processing events.
+ * Logs are rolled back using {@link OptimisticEventDispatcher#rollback(RollbackLog[], int[])}.
+ *
+ * @author Benjamin Eder
+ */
+public interface RollbackLog {
+
+    /**
+     * Bind the log to the calling thread, so that all changes made by the thread are recorded.
+     */
+    void bind();
+
+    /**
+     * Stop recording the changes made by the calling thread.
+     */
+    void unbind();
+
+    /**
+     * Take a checkpoint before processing the passed event.
+     *
+     * @param kind    of the event
+     * @param payload of the event (a cell index)
+     * @return the checkpoint to roll back to later
+     */
+    int checkpoint(EventKind kind, int payload);
+
+    /**
+     * Discard all checkpoints as the processed events are final (fossil collection).
+     */
+    void clear();
+
+}
@@ -0,0 +1,62 @@
+package edu.hm.cs.bess.streamsim.sim.scheduler.event;
+
+import edu.hm.cs.bess.streamsim.sim.scheduler.exception.EventExecutionException;
+
+/**
+ * Event dispatcher able to split the processing of some typed events into two phases:
+ * A read-only evaluation phase that may run concurrently for many events
+ * and a sequential commit phase applying the evaluation results.
+ * <p>
+ * Used by schedulers processing multiple events at once in parallel.
+ *
+ * @author Benjamin Eder
+ */
+public interface SplittableEventDispatcher extends EventDispatcher {
+
+    /**
+     * Whether events of the passed kind may be split into evaluation and commit.
+     *
+     * @param kind of the event
+     * @return whether splittable
+     */
+    boolean isSplittable(EventKind kind);
+
+    /**
+     * Evaluate the passed splittable event without modifying the simulation state.
+     * May be called concurrently for multiple events.
+     * The result must only depend on the passed arguments and the current simulation state.
+     *
+     * @param kind      of the event
+     * @param payload   of the event
+     * @param timestamp the event is processed at
+     * @return evaluation result to pass to {@link #commit(EventKind, int, int)}
+     */
+    int evaluate(EventKind kind, int payload, double timestamp);
+
+    /**
+     * Commit a previously evaluated event.
+     * Since other events may have been committed since the evaluation,
+     * the evaluation result needs to be validated against the current simulation state.
+     *
+     * @param kind       of the event
+     * @param payload    of the event
+     * @param evaluation result of the evaluation
+     * @throws EventExecutionException in case the execution has gone wrong
+     */
+    void commit(EventKind kind, int payload, int evaluation) throws EventExecutionException;
+
+    /**
+     * Check whether a previous evaluation is still valid against the current simulation state,
+     * e. g. whether the cell a person decided to move to is still free.
+     * By default evaluations never become invalid.
+     *
+     * @param kind       of the event
+     * @param payload    of the event
+     * @param evaluation result of the evaluation
+     * @return whether the evaluation is still valid
+     */
+    default boolean isStillValid(EventKind kind, int payload, int evaluation) {
+        return true;
+    }
+
+}
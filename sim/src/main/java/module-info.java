@@ -13,7 +13,9 @@ module edu.hm.cs.bess.streamsim.sim {
     exports edu.hm.cs.bess.streamsim.sim.model.object.target;
     exports edu.hm.cs.bess.streamsim.sim.model.object.obstacle;
     exports edu.hm.cs.bess.streamsim.sim.model.state;
-    exports edu.hm.cs.bess.streamsim.sim.model.state.cell;
+    exports edu.hm.cs.bess.streamsim.sim.scheduler;
+    exports edu.hm.cs.bess.streamsim.sim.scheduler.event;
+    exports edu.hm.cs.bess.streamsim.sim.scheduler.exception;
     exports edu.hm.cs.bess.streamsim.sim.logic.consume;
     exports edu.hm.cs.bess.streamsim.sim.logic.move;
     exports edu.hm.cs.bess.streamsim.sim.logic.spawn;
@@ -4,11 +4,15 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.hm.cs.bess.streamsim.sim.config.CellDescriptor;
 import edu.hm.cs.bess.streamsim.sim.config.SimConfig;
 import edu.hm.cs.bess.streamsim.sim.model.object.SimObject;
+import edu.hm.cs.bess.streamsim.sim.model.object.SimObjectType;
 import edu.hm.cs.bess.streamsim.sim.model.state.State;
+import edu.hm.cs.bess.streamsim.sim.scheduler.Scheduler;
 import org.assertj.core.api.Assertions;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 public class AbstractSimulationTest {
@@ -38,4 +42,37 @@ public class AbstractSimulationTest {
         }
         return state;
     }
+
+    /**
+     * Create a simulator (without logging) for the passed configuration file using the passed scheduler.
+     *
+     * @param fileName  of the configuration
+     * @param scheduler to use
+     * @return simulator
+     */
+    protected StreamSimulator createSimulator(@NotNull String fileName, Scheduler scheduler) {
+        SimConfig config = createSimConfigFromFile(fileName);
+        assert config != null;
+
+        return new StreamSimulator(buildState(config), config.getSeed(), false, null, null, scheduler);
+    }
+
+    /**
+     * Get the cell indices of all people in the passed state (in ascending order).
+     *
+     * @param state to get people locations of
+     * @return cell indices of people
+     */
+    protected List<Integer> getPeopleLocations(State state) {
+        List<Integer> locations = new ArrayList<>();
+        for (int i = 0; i < state.getRows() * state.getColumns(); i++) {
+            SimObject occupant = state.getUpperCellOccupant(i);
+            if (occupant != null && occupant.getType() == SimObjectType.PERSON) {
+                locations.add(i);
+            }
+        }
+
+        return locations;
+    }
+
 }
@@ -0,0 +1,256 @@
+package edu.hm.cs.bess.streamsim.sim;
+
+import edu.hm.cs.bess.streamsim.sim.config.SimConfig;
+import edu.hm.cs.bess.streamsim.sim.config.TargetConfiguration;
+import edu.hm.cs.bess.streamsim.sim.logic.consume.RemoveConsumeStrategy;
+import edu.hm.cs.bess.streamsim.sim.model.misc.Location;
+import edu.hm.cs.bess.streamsim.sim.model.object.SimObject;
+import edu.hm.cs.bess.streamsim.sim.model.object.SimObjectType;
+import edu.hm.cs.bess.streamsim.sim.model.object.obstacle.Obstacle;
+import edu.hm.cs.bess.streamsim.sim.model.object.person.Person;
+import edu.hm.cs.bess.streamsim.sim.model.object.target.Target;
+import edu.hm.cs.bess.streamsim.sim.model.state.State;
+import edu.hm.cs.bess.streamsim.sim.scheduler.exception.EventExecutionException;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Benjamin Eder
+ */
+public class StreamSimulatorTest extends AbstractSimulationTest {
+
+    private static final String CONFIG_FILE_NAME = "TwoDoorsTestConfig.json";
+
+    @Test
+    public void testRunUntilEnd() throws EventExecutionException {
+        StreamSimulator simulator = createSimulatorFromFile(CONFIG_FILE_NAME);
+
+        Assertions.assertEquals(StreamSimulator.StopReason.END, simulator.runUntil(Double.POSITIVE_INFINITY));
+        Assertions.assertFalse(simulator.isRunning());
+        Assertions.assertEquals(0, simulator.getPeopleCount());
+        Assertions.assertTrue(simulator.getScheduler().peekNextTimestamp().isEmpty());
+    }
+
+    @Test
+    public void testRunUntilMaxTime() throws EventExecutionException {
+        StreamSimulator simulator = createSimulatorFromFile(CONFIG_FILE_NAME);
+
+        Assertions.assertEquals(StreamSimulator.StopReason.MAX_TIME, simulator.runUntil(50));
+        Assertions.assertFalse(simulator.isRunning());
+        Assertions.assertTrue(simulator.getScheduler().currentTime() <= 50);
+        Assertions.assertTrue(simulator.getScheduler().peekNextTimestamp(-1) > 50);
+    }
+
+    @Test
+    public void testContinuedRunIsEqualToSingleRun() throws EventExecutionException {
+        StreamSimulator singleRun = createSimulatorFromFile(CONFIG_FILE_NAME);
+        singleRun.runUntil(Double.POSITIVE_INFINITY);
+
+        StreamSimulator continuedRun = createSimulatorFromFile(CONFIG_FILE_NAME);
+        continuedRun.runUntil(20);
+        continuedRun.runUntil(60);
+        continuedRun.runUntil(Double.POSITIVE_INFINITY);
+
+        Assertions.assertEquals(singleRun.getScheduler().currentTime(), continuedRun.getScheduler().currentTime());
+    }
+
+    @Test
+    public void testRunUntilStopCondition() throws EventExecutionException {
+        StreamSimulator simulator = createSimulatorFromFile(CONFIG_FILE_NAME);
+        simulator.setStatisticsUpdateDebounceDelay(1.0);
+
+        StreamSimulator.StopReason reason = simulator.runUntil((time, peopleCount, density, meanSpeed, flow) -> peopleCount >= 20);
+
+        Assertions.assertEquals(StreamSimulator.StopReason.STOP_CONDITION, reason);
+        Assertions.assertTrue(simulator.getPeopleCount() >= 20);
+        Assertions.assertTrue(simulator.getScheduler().peekNextTimestamp().isPresent());
+    }
+
+    @Test
+    public void testRunUntilStopsWhenPausedAndResetByAnotherThread() throws Exception {
+        StreamSimulator simulator = createSimulatorFromFile(CONFIG_FILE_NAME);
+        simulator.setStatisticsUpdateDebounceDelay(1.0);
+
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch paused = new CountDownLatch(1);
+        simulator.addStatisticsChangeListener((peopleCount, density, meanSpeed, flow) -> {
+            if (peopleCount > 0 && running.getCount() > 0) {
+                running.countDown();
+                try {
+                    paused.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<StreamSimulator.StopReason> reason = executor.submit(() -> simulator.runUntil(Double.POSITIVE_INFINITY));
+
+            Assertions.assertTrue(running.await(10, TimeUnit.SECONDS));
+            simulator.pause();
+            paused.countDown();
+            simulator.reset(); // Waits for the run to stop
+
+            Assertions.assertEquals(StreamSimulator.StopReason.PAUSED, reason.get(10, TimeUnit.SECONDS));
+            Assertions.assertFalse(simulator.isRunning());
+            Assertions.assertEquals(0, simulator.getPeopleCount());
+            Assertions.assertTrue(simulator.getScheduler().peekNextTimestamp().isEmpty());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testDensityIsMeasuredInArea() throws EventExecutionException {
+        StreamSimulator simulator = createSimulatorFromFile(CONFIG_FILE_NAME);
+        State state = simulator.getCurrentState();
+        int toRow = state.getRows() / 2;
+        int toColumn = state.getColumns() - 1;
+        simulator.setStatisticsUpdateDebounceDelay(1.0);
+        simulator.setStatisticsCellsPerMeter(2.0);
+        simulator.setStatisticsDensityArea(0, 0, toRow, toColumn);
+
+        List<Double> densities = new ArrayList<>();
+        List<Double> expectedDensities = new ArrayList<>();
+        simulator.addStatisticsChangeListener((peopleCount, density, meanSpeed, flow) -> {
+            int people = 0;
+            int walkableCells = 0;
+            for (int row = 0; row <= toRow; row++) {
+                for (int column = 0; column <= toColumn; column++) {
+                    SimObject occupant = state.getCellOccupant(new Location(row, column)).orElse(null);
+                    if (occupant == null || occupant.isWalkable() || occupant.getType() == SimObjectType.PERSON) {
+                        walkableCells++;
+                    }
+                    if (state.isOfType(state.indexOf(new Location(row, column)), SimObjectType.PERSON)) {
+                        people++;
+                    }
+                }
+            }
+
+            densities.add(density);
+            expectedDensities.add(people / (walkableCells / 4.0));
+        });
+
+        simulator.runUntil(50);
+
+        Assertions.assertFalse(densities.isEmpty());
+        Assertions.assertTrue(densities.stream().anyMatch(density -> density > 0));
+        Assertions.assertEquals(expectedDensities, densities);
+    }
+
+    @Test
+    public void testResetRestoresStartState() throws EventExecutionException {
+        StreamSimulator simulator = createSimulatorFromFile(CONFIG_FILE_NAME);
+        State state = simulator.getCurrentState();
+
+        simulator.runUntil(50);
+        List<Integer> peopleLocations = getPeopleLocations(state);
+        Assertions.assertFalse(peopleLocations.isEmpty());
+
+        simulator.reset();
+        Assertions.assertSame(state, simulator.getCurrentState());
+        Assertions.assertEquals(0, state.getObjectTypeCount(SimObjectType.PERSON));
+
+        simulator.runUntil(50);
+        Assertions.assertEquals(peopleLocations, getPeopleLocations(state));
+    }
+
+    @Test
+    public void testStartStateIsNotShared() throws EventExecutionException {
+        SimConfig config = createSimConfigFromFile(CONFIG_FILE_NAME);
+        assert config != null;
+
+        State state = buildState(config);
+        StreamSimulator simulator = new StreamSimulator(state, config.getSeed());
+        simulator.runUntil(50);
+
+        Assertions.assertNotSame(state, simulator.getCurrentState());
+        Assertions.assertEquals(0, state.getObjectTypeCount(SimObjectType.PERSON));
+    }
+
+    @Test
+    public void testUpdateLayoutWhilePaused() throws EventExecutionException {
+        StreamSimulator simulator = createSimulatorFromFile(CONFIG_FILE_NAME);
+        State state = simulator.getCurrentState();
+
+        simulator.runUntil(30);
+        Assertions.assertTrue(simulator.getPeopleCount() > 0);
+
+        // Place a wall and remove the upper target
+        Location removedTarget = new Location(0, 25);
+        Location remainingTarget = new Location(50, 25);
+        List<Location> wall = new ArrayList<>();
+        for (int column = 5; column < 15; column++) {
+            Location location = new Location(10, column);
+            if (state.isCellFree(location)) {
+                state.setCellOccupant(new Obstacle(location), location);
+                wall.add(location);
+            }
+        }
+        state.removeOccupant(removedTarget);
+        simulator.updateLayout(indicesOf(state, wall, removedTarget));
+
+        state.forEachObjectOfType(SimObjectType.PERSON, person -> Assertions.assertEquals(remainingTarget, ((Person) person).getTarget()));
+
+        simulator.runUntil(60);
+
+        // Remove the last target -> people wait
+        state.removeOccupant(remainingTarget);
+        simulator.updateLayout(state.indexOf(remainingTarget));
+        int peopleCount = simulator.getPeopleCount();
+
+        Assertions.assertEquals(StreamSimulator.StopReason.MAX_TIME, simulator.runUntil(80));
+        Assertions.assertTrue(simulator.getPeopleCount() >= peopleCount);
+
+        // Place the target again and remove the wall -> everyone reaches it eventually
+        state.setCellOccupant(new Target(removedTarget, new TargetConfiguration(new RemoveConsumeStrategy())), removedTarget);
+        for (Location location : wall) {
+            state.removeOccupant(location);
+        }
+        simulator.updateLayout(indicesOf(state, wall, removedTarget));
+
+        state.forEachObjectOfType(SimObjectType.PERSON, person -> Assertions.assertEquals(removedTarget, ((Person) person).getTarget()));
+        Assertions.assertEquals(StreamSimulator.StopReason.END, simulator.runUntil(Double.POSITIVE_INFINITY));
+        Assertions.assertEquals(0, simulator.getPeopleCount());
+    }
+
+    @Test
+    public void testUpdateLayoutRejectsChangedSources() throws EventExecutionException {
+        StreamSimulator simulator = createSimulatorFromFile(CONFIG_FILE_NAME);
+        simulator.runUntil(10);
+
+        Location source = new Location(20, 20);
+        simulator.getCurrentState().removeOccupant(source);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> simulator.updateLayout(simulator.getCurrentState().indexOf(source)));
+    }
+
+    private static int[] indicesOf(State state, List<Location> locations, Location location) {
+        int[] indices = new int[locations.size() + 1];
+        for (int i = 0; i < locations.size(); i++) {
+            indices[i] = state.indexOf(locations.get(i));
+        }
+        indices[locations.size()] = state.indexOf(location);
+
+        return indices;
+    }
+
+    private StreamSimulator createSimulatorFromFile(@NotNull String fileName) {
+        SimConfig config = createSimConfigFromFile(fileName);
+        assert config != null;
+
+        return new StreamSimulator(buildState(config), config.getSeed());
+    }
+
+}
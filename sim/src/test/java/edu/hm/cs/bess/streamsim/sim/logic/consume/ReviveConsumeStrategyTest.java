@@ -2,7 +2,13 @@ package edu.hm.cs.bess.streamsim.sim.logic.consume;
 
 import edu.hm.cs.bess.streamsim.sim.AbstractSimulationTest;
 import edu.hm.cs.bess.streamsim.sim.StreamSimulator;
+import edu.hm.cs.bess.streamsim.sim.config.MollifierConfiguration;
 import edu.hm.cs.bess.streamsim.sim.config.SimConfig;
+import edu.hm.cs.bess.streamsim.sim.config.SourceConfiguration;
+import edu.hm.cs.bess.streamsim.sim.logic.move.DijkstraMoveStrategy;
+import edu.hm.cs.bess.streamsim.sim.logic.spawn.patience.PatienceGenerators;
+import edu.hm.cs.bess.streamsim.sim.logic.spawn.SpawnStrategies;
+import edu.hm.cs.bess.streamsim.sim.logic.spawn.speed.SpeedGenerators;
 import edu.hm.cs.bess.streamsim.sim.model.misc.Location;
 import edu.hm.cs.bess.streamsim.sim.model.object.SimObject;
 import edu.hm.cs.bess.streamsim.sim.model.object.SimObjectType;
@@ -13,7 +19,9 @@ import edu.hm.cs.bess.streamsim.sim.model.state.State;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * @author Beil Benedikt
@@ -58,4 +66,48 @@ public class ReviveConsumeStrategyTest extends AbstractSimulationTest {
         final double distanceBetweenPersonAndSource = target.getConfiguration().getConsumeStrategy().distance(person.getLocation(), source.getLocation());
         Assertions.assertTrue(distanceBetweenPersonAndSource < 1.5);
     }
+
+    @Test
+    public void revivedPersonMovedByRevivingSourceTest() {
+        SimConfig config = createSimConfigFromFile("ReviveConsumeStrategyTestConfig.json");
+        assert config != null;
+        State state = buildState(config);
+
+        final Source source = (Source) state.getObjectsForType(SimObjectType.SOURCE).iterator().next();
+        final Target target = (Target) state.getObjectsForType(SimObjectType.TARGET).iterator().next();
+
+        // Second source with another move strategy
+        final Location otherSourceLocation = new Location(0, 4);
+        state.setCellOccupant(new Source(otherSourceLocation, new SourceConfiguration(
+                SpawnStrategies.DEFAULT.get(),
+                new DijkstraMoveStrategy(new MollifierConfiguration(MollifierConfiguration.DEFAULT_RANGE, MollifierConfiguration.DEFAULT_STRENGTH), 0),
+                0,
+                SpeedGenerators.DEFAULT.get(),
+                PatienceGenerators.DEFAULT.get()
+        )), otherSourceLocation);
+
+        StreamSimulator simulator = new StreamSimulator(state, config.getSeed());
+
+        Person person = new Person(source.getLocation(), target.getLocation(), new Location(3, 3), 5.0, 0.0, 1);
+        simulator.getCurrentState().setCellOccupant(person, person.getLocation());
+
+        // init the simulation
+        simulator.play();
+        simulator.pause();
+
+        Assertions.assertEquals(source.getLocation(), person.getMoveSource());
+
+        Set<Location> moveSources = new HashSet<>();
+        for (int i = 0; i < 20; i++) {
+            target.getConfiguration().getConsumeStrategy().reachedTarget(target, person, simulator.getCurrentState(), simulator.getScheduler());
+
+            // Revived next to the source whose move strategy moves the person from now on
+            Assertions.assertTrue(target.getConfiguration().getConsumeStrategy().distance(person.getLocation(), person.getMoveSource()) < 1.5);
+            Assertions.assertEquals(source.getLocation(), person.getSource());
+            moveSources.add(person.getMoveSource());
+        }
+
+        Assertions.assertEquals(Set.of(source.getLocation(), otherSourceLocation), moveSources);
+    }
+
 }
@@ -1,15 +1,24 @@
 package edu.hm.cs.bess.streamsim.sim.logic.move;
 
 import edu.hm.cs.bess.streamsim.sim.config.MollifierConfiguration;
+import edu.hm.cs.bess.streamsim.sim.config.TargetConfiguration;
+import edu.hm.cs.bess.streamsim.sim.logic.consume.RemoveConsumeStrategy;
 import edu.hm.cs.bess.streamsim.sim.model.misc.Location;
+import edu.hm.cs.bess.streamsim.sim.model.object.obstacle.Obstacle;
+import edu.hm.cs.bess.streamsim.sim.model.object.person.Person;
+import edu.hm.cs.bess.streamsim.sim.model.object.target.Target;
 import edu.hm.cs.bess.streamsim.sim.model.state.State;
 import edu.hm.cs.bess.streamsim.sim.scheduler.exception.EventExecutionException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -100,4 +109,174 @@ public class DefaultMovementStrategyTest {
         assertEquals(anticipatedLocations.size(), 3);
     }
 
+    @Test
+    public void testChooseNextLocation_matchesPossibleMoveLocations() {
+        State state = new State(20, 20);
+        List<Person> people = populate(state);
+
+        strategy.init(state, new Random(0));
+
+        for (int i = 0; i < people.size(); i++) {
+            Person person = people.get(i);
+
+            Random listRng = new Random(i);
+            List<Location> possibleMoveLocations = strategy.chooseNextLocations(person, state, listRng);
+            int expected = MoveStrategy.NO_MOVE;
+            if (!possibleMoveLocations.isEmpty()) {
+                expected = state.indexOf(possibleMoveLocations.size() == 1
+                        ? possibleMoveLocations.get(0)
+                        : possibleMoveLocations.get(listRng.nextInt(possibleMoveLocations.size())));
+            }
+
+            assertEquals(expected, strategy.chooseNextLocation(person, state, new Random(i)));
+        }
+    }
+
+    @Test
+    public void testChooseNextLocation_flowFieldMatchesEvaluation() {
+        State state = new State(20, 20);
+        state.setCellOccupant(new Obstacle(new Location(10, 10)), new Location(10, 10));
+        List<Person> people = populate(state);
+
+        MollifierConfiguration mollifierConfiguration = new MollifierConfiguration(
+                MollifierConfiguration.DEFAULT_RANGE,
+                MollifierConfiguration.DEFAULT_STRENGTH
+        );
+        DefaultMovementStrategy flowFieldStrategy = new EuclideanMoveStrategy(mollifierConfiguration, 0);
+        DefaultMovementStrategy evaluatingStrategy = new EuclideanMoveStrategy(mollifierConfiguration, 0) {
+            @Override
+            protected boolean isFlowFieldApplicable() {
+                return false;
+            }
+        };
+        flowFieldStrategy.init(state, new Random(0));
+        evaluatingStrategy.init(state, new Random(0));
+
+        for (int i = 0; i < people.size(); i++) {
+            Person person = people.get(i);
+
+            assertEquals(
+                    evaluatingStrategy.chooseNextLocations(person, state, new Random(i)),
+                    flowFieldStrategy.chooseNextLocations(person, state, new Random(i))
+            );
+        }
+    }
+
+    @Test
+    public void testInit_parallelPotentialsMatchSequential() {
+        State state = new State(30, 30);
+        for (int row = 5; row < 25; row++) {
+            state.setCellOccupant(new Obstacle(new Location(row, 15)), new Location(row, 15));
+        }
+
+        List<Location> targets = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Location targetLocation = new Location(i * 5, i % 2 == 0 ? 0 : 29);
+            state.setCellOccupant(new Target(targetLocation, new TargetConfiguration(new RemoveConsumeStrategy())), targetLocation);
+            targets.add(targetLocation);
+        }
+
+        Random placementRng = new Random(0);
+        List<Person> people = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Location location = new Location(placementRng.nextInt(30), placementRng.nextInt(30));
+            if (state.isCellFree(location)) {
+                Person person = new Person(location, targets.get(i % targets.size()), location, 1.0, 0.0, 0);
+                state.setCellOccupant(person, location);
+                people.add(person);
+            }
+        }
+
+        MollifierConfiguration mollifierConfiguration = new MollifierConfiguration(
+                MollifierConfiguration.DEFAULT_RANGE,
+                MollifierConfiguration.DEFAULT_STRENGTH
+        );
+        DefaultMovementStrategy sequentialStrategy = new FastMarchingMethodMovementStrategy(mollifierConfiguration, 0);
+        DefaultMovementStrategy parallelStrategy = new FastMarchingMethodMovementStrategy(mollifierConfiguration, 0);
+
+        ForkJoinPool sequentialPool = new ForkJoinPool(1);
+        ForkJoinPool parallelPool = new ForkJoinPool(4);
+        try {
+            sequentialStrategy.setPotentialPool(sequentialPool);
+            sequentialStrategy.init(state, new Random(0));
+            parallelStrategy.setPotentialPool(parallelPool);
+            parallelStrategy.init(state, new Random(0));
+        } finally {
+            sequentialPool.shutdown();
+            parallelPool.shutdown();
+        }
+
+        for (int i = 0; i < people.size(); i++) {
+            Person person = people.get(i);
+
+            assertEquals(
+                    sequentialStrategy.chooseNextLocations(person, state, new Random(i)),
+                    parallelStrategy.chooseNextLocations(person, state, new Random(i))
+            );
+        }
+    }
+
+    @Test
+    public void testInit_mergedTargetGroupSharesPotential() {
+        State state = new State(20, 20);
+
+        // A wide door at the right border and a single target in the top left corner
+        for (int row = 5; row < 10; row++) {
+            Location targetLocation = new Location(row, 19);
+            state.setCellOccupant(new Target(targetLocation, new TargetConfiguration(new RemoveConsumeStrategy())), targetLocation);
+        }
+        Location singleTarget = new Location(0, 0);
+        state.setCellOccupant(new Target(singleTarget, new TargetConfiguration(new RemoveConsumeStrategy())), singleTarget);
+
+        Location location = new Location(9, 15);
+        Person person = new Person(location, new Location(5, 19), location, 1.0, 0.0, 0);
+        state.setCellOccupant(person, location);
+
+        MollifierConfiguration mollifierConfiguration = new MollifierConfiguration(
+                MollifierConfiguration.DEFAULT_RANGE,
+                MollifierConfiguration.DEFAULT_STRENGTH
+        );
+        PotentialFieldCache cache = new PotentialFieldCache(PotentialFieldCache.DEFAULT_MEMORY_BUDGET);
+
+        DefaultMovementStrategy strategy = new EuclideanMoveStrategy(mollifierConfiguration, 0);
+        strategy.setPotentialFieldCache(cache);
+        strategy.setMergeAdjacentTargets(true);
+        strategy.init(state, new Random(0));
+
+        // One potential for the door and one for the single target
+        assertEquals(2, cache.size());
+
+        // Heading straight to the nearest cell of the door instead of the assigned one
+        assertEquals(List.of(new Location(9, 16)), strategy.chooseNextLocations(person, state, new Random(0)));
+
+        strategy.setMergeAdjacentTargets(false);
+        strategy.init(state, new Random(0));
+        assertEquals(7, cache.size());
+        assertEquals(List.of(new Location(8, 16)), strategy.chooseNextLocations(person, state, new Random(0)));
+    }
+
+    /**
+     * Fill the passed state with a target in the bottom right corner and people heading to it.
+     *
+     * @param state to fill
+     * @return the people in the state
+     */
+    private List<Person> populate(State state) {
+        Location targetLocation = new Location(state.getRows() - 1, state.getColumns() - 1);
+        state.setCellOccupant(new Target(targetLocation, new TargetConfiguration(new RemoveConsumeStrategy())), targetLocation);
+
+        Random placementRng = new Random(0);
+        List<Person> people = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            Location location = new Location(placementRng.nextInt(state.getRows() - 1), placementRng.nextInt(state.getColumns() - 1));
+            if (state.isCellFree(location)) {
+                Person person = new Person(new Location(i % 5, 0), targetLocation, location, 1.0, 0.0, 0);
+                state.setCellOccupant(person, location);
+                people.add(person);
+            }
+        }
+
+        return people;
+    }
+
 }
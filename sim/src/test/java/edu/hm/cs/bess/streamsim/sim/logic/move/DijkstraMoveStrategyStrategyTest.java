@@ -1,6 +1,11 @@
 package edu.hm.cs.bess.streamsim.sim.logic.move;
 
 import edu.hm.cs.bess.streamsim.sim.config.MollifierConfiguration;
+import edu.hm.cs.bess.streamsim.sim.model.misc.Location;
+import edu.hm.cs.bess.streamsim.sim.model.object.obstacle.Obstacle;
+import edu.hm.cs.bess.streamsim.sim.model.object.target.Target;
+import edu.hm.cs.bess.streamsim.sim.model.state.State;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -32,6 +37,96 @@ public class DijkstraMoveStrategyStrategyTest extends MovementStrategyTest {
         testPotential(FILE_PREFIX + DIJKSTRA_PREFIX + WALL_CONFIG, expected);
     }
 
+    @Test
+    public void calculatePotentialOnLargeGridTest() {
+        // Used to overflow the stack with the recursive distance propagation
+        int size = 2000;
+        State state = new State(size, size);
+        for (int row = 1; row < size; row++) {
+            Location location = new Location(row, size / 2);
+            state.setCellOccupant(new Obstacle(location), location);
+        }
+        Location target = new Location(0, 0);
+        state.setCellOccupant(new Target(target, null), target);
+
+        double[][] potential = ((DijkstraMoveStrategy) CreateSut()).calculateBasePotential(state, target);
+
+        Assertions.assertEquals(0.0, potential[0][0]);
+        Assertions.assertEquals(Double.MAX_VALUE, potential[size - 1][size / 2]);
+        Assertions.assertEquals((size / 2 - 1) * Math.sqrt(2) + size / 2, potential[size - 1][size / 2 - 1], 1e-6);
+        // Around the end of the wall at the top
+        Assertions.assertEquals(size / 2 + (size / 2 - 1) * Math.sqrt(2) + size / 2, potential[size - 1][size - 1], 1e-6);
+    }
+
+    @Test
+    public void updateBasePotentialTest() {
+        int size = 60;
+        State state = new State(size, size);
+        Location target = new Location(0, 0);
+        state.setCellOccupant(new Target(target, null), target);
+
+        DijkstraMoveStrategy sut = (DijkstraMoveStrategy) CreateSut();
+        double[][] potential = sut.calculateBasePotential(state, target);
+
+        // Place a wall with a gap at the top
+        int[] wall = new int[size - 1];
+        for (int row = 1; row < size; row++) {
+            Location location = new Location(row, size / 2);
+            state.setCellOccupant(new Obstacle(location), location);
+            wall[row - 1] = state.indexOf(location);
+        }
+        potential = sut.updateBasePotential(state, new Location[]{target}, potential, wall);
+        Assertions.assertArrayEquals(sut.calculateBasePotential(state, target), potential);
+
+        // Close the gap
+        Location gap = new Location(0, size / 2);
+        state.setCellOccupant(new Obstacle(gap), gap);
+        potential = sut.updateBasePotential(state, new Location[]{target}, potential, new int[]{state.indexOf(gap)});
+        Assertions.assertArrayEquals(sut.calculateBasePotential(state, target), potential);
+        Assertions.assertEquals(Double.MAX_VALUE, potential[size - 1][size - 1]);
+
+        // Open a gap at the bottom
+        gap = new Location(size - 1, size / 2);
+        state.removeOccupant(gap);
+        potential = sut.updateBasePotential(state, new Location[]{target}, potential, new int[]{state.indexOf(gap)});
+        Assertions.assertArrayEquals(sut.calculateBasePotential(state, target), potential);
+        Assertions.assertNotEquals(Double.MAX_VALUE, potential[size - 1][size - 1]);
+    }
+
+    @Test
+    public void calculateBasePotentialForTargetGroupTest() {
+        int size = 40;
+        State state = new State(size, size);
+        for (int row = 10; row < size; row++) {
+            Location location = new Location(row, 20);
+            state.setCellOccupant(new Obstacle(location), location);
+        }
+        Location[] targets = new Location[5];
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = new Location(0, 10 + i);
+            state.setCellOccupant(new Target(targets[i], null), targets[i]);
+        }
+
+        DijkstraMoveStrategy sut = (DijkstraMoveStrategy) CreateSut();
+        double[][] potential = sut.calculateBasePotential(state, targets);
+
+        // The distance to the nearest target of the group
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                double nearest = Double.MAX_VALUE;
+                for (Location target : targets) {
+                    nearest = Math.min(nearest, sut.calculateBasePotential(state, target)[row][column]);
+                }
+
+                if (row > 0 || column < 10 || column >= 15) {
+                    Assertions.assertEquals(nearest, potential[row][column], 1e-9);
+                } else {
+                    Assertions.assertEquals(0.0, potential[row][column]);
+                }
+            }
+        }
+    }
+
     @Override
     public MoveStrategy CreateSut() {
         return new DijkstraMoveStrategy(new MollifierConfiguration(MollifierConfiguration.DEFAULT_RANGE, MollifierConfiguration.DEFAULT_STRENGTH), DijkstraMoveStrategy.DEFAULT_RADIUS);
@@ -1,33 +1,74 @@
 package edu.hm.cs.bess.streamsim.sim.logic.move;
 
 import edu.hm.cs.bess.streamsim.sim.config.MollifierConfiguration;
+import edu.hm.cs.bess.streamsim.sim.config.SimConfig;
+import edu.hm.cs.bess.streamsim.sim.model.state.State;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.Random;
+
 public class FastMarchingMovementStrategyStrategyTest extends MovementStrategyTest {
 
+    private static final double[][] EXPECTED_POTENTIAL = {
+            {3.2524357066126695, 2.545328925426122, 2.0},
+            {2.545328925426122, 1.7071067811865475, 1.0},
+            {2.0, 1.0, 0.0}
+    };
+
+    private static final double[][] EXPECTED_POTENTIAL_WITH_WALL = {
+            {10.741804598955463, 10.370902299477738, Double.MAX_VALUE, 1.0, 0.0},
+            {9.813132706281781, 9.370902299477738, Double.MAX_VALUE, 1.7071067811865475, 1.0},
+            {8.916231224903841, 8.370902299477738, Double.MAX_VALUE, 2.545328925426122, 2.0},
+            {8.078009080664286, 7.370902299477738, Double.MAX_VALUE, 3.4422304068040503, 3.0},
+            {7.370902299477738, 6.370902299477738, 5.370902299477738, 4.370902299477738, 4.0}
+    };
+
+    /**
+     * Maximum deviation of the fast sweeping method from the fast marching method.
+     */
+    private static final double SWEEPING_TOLERANCE = 1e-9;
+
     @Test
     @Override
     public void calculatePotentialTest() {
-        double[][] expected = {
-                {3.2524357066126695, 2.545328925426122, 2.0},
-                {2.545328925426122, 1.7071067811865475, 1.0},
-                {2.0, 1.0, 0.0}
-        };
-
-        testPotential(FILE_PREFIX + FAST_MARCHING_PREFIX + BASE_CONFIG, expected);
+        testPotential(FILE_PREFIX + FAST_MARCHING_PREFIX + BASE_CONFIG, EXPECTED_POTENTIAL);
     }
 
     @Test
     @Override
     public void calculatePotentialWithWallTest() {
-        double[][] expected = {
-                {10.741804598955463, 10.370902299477738, Double.MAX_VALUE, 1.0, 0.0},
-                {9.813132706281781, 9.370902299477738, Double.MAX_VALUE, 1.7071067811865475, 1.0},
-                {8.916231224903841, 8.370902299477738, Double.MAX_VALUE, 2.545328925426122, 2.0},
-                {8.078009080664286, 7.370902299477738, Double.MAX_VALUE, 3.4422304068040503, 3.0},
-                {7.370902299477738, 6.370902299477738, 5.370902299477738, 4.370902299477738, 4.0}
-        };
-        testPotential(FILE_PREFIX + FAST_MARCHING_PREFIX + WALL_CONFIG, expected);
+        testPotential(FILE_PREFIX + FAST_MARCHING_PREFIX + WALL_CONFIG, EXPECTED_POTENTIAL_WITH_WALL);
+    }
+
+    @Test
+    public void calculatePotentialWithSweepingTest() {
+        testSweepingPotential(FILE_PREFIX + FAST_MARCHING_PREFIX + BASE_CONFIG, EXPECTED_POTENTIAL);
+    }
+
+    @Test
+    public void calculatePotentialWithWallWithSweepingTest() {
+        testSweepingPotential(FILE_PREFIX + FAST_MARCHING_PREFIX + WALL_CONFIG, EXPECTED_POTENTIAL_WITH_WALL);
+    }
+
+    private void testSweepingPotential(String filePath, double[][] expectedPotential) {
+        SimConfig config = createSimConfigFromFile(filePath);
+        Assertions.assertNotNull(config);
+
+        State state = buildState(config);
+
+        MoveStrategy sut = new FastMarchingMethodMovementStrategy(
+                new MollifierConfiguration(MollifierConfiguration.DEFAULT_RANGE, MollifierConfiguration.DEFAULT_STRENGTH),
+                DijkstraMoveStrategy.DEFAULT_RADIUS,
+                FastMarchingMethodMovementStrategy.Solver.FAST_SWEEPING
+        );
+        sut.init(state, new Random());
+        double[][] actualPotential = sut.calculatePotential(state);
+
+        Assertions.assertEquals(expectedPotential.length, actualPotential.length);
+        for (int row = 0; row < expectedPotential.length; row++) {
+            Assertions.assertArrayEquals(expectedPotential[row], actualPotential[row], SWEEPING_TOLERANCE);
+        }
     }
 
     @Override
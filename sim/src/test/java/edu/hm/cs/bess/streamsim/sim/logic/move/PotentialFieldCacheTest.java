@@ -0,0 +1,159 @@
+package edu.hm.cs.bess.streamsim.sim.logic.move;
+
+import edu.hm.cs.bess.streamsim.sim.model.misc.Location;
+import edu.hm.cs.bess.streamsim.sim.model.object.lightbarrier.LightBarrier;
+import edu.hm.cs.bess.streamsim.sim.model.object.obstacle.Obstacle;
+import edu.hm.cs.bess.streamsim.sim.model.object.person.Person;
+import edu.hm.cs.bess.streamsim.sim.model.state.State;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Benjamin Eder
+ */
+public class PotentialFieldCacheTest {
+
+    /**
+     * Bytes of a potential of a 10 x 10 world.
+     */
+    private static final long POTENTIAL_SIZE = 10 * 10 * Double.BYTES;
+
+    /**
+     * Bytes of the layout of a 10 x 10 world.
+     */
+    private static final long LAYOUT_SIZE = 2 * 10 * 10;
+
+    @Test
+    public void sharesPotentialsOfEqualLayoutsTest() {
+        PotentialFieldCache cache = new PotentialFieldCache(PotentialFieldCache.DEFAULT_MEMORY_BUDGET);
+        AtomicInteger calculations = new AtomicInteger();
+
+        double[][] first = cache.get("strategy", PotentialFieldCache.Layout.of(new State(10, 10)), 5, () -> calculate(calculations));
+        double[][] second = cache.get("strategy", PotentialFieldCache.Layout.of(new State(10, 10)), 5, () -> calculate(calculations));
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals(1, calculations.get());
+        Assertions.assertEquals(POTENTIAL_SIZE + LAYOUT_SIZE, cache.getUsedMemory());
+
+        // Other strategy, target or layout
+        cache.get("other strategy", PotentialFieldCache.Layout.of(new State(10, 10)), 5, () -> calculate(calculations));
+        cache.get("strategy", PotentialFieldCache.Layout.of(new State(10, 10)), 6, () -> calculate(calculations));
+        State state = new State(10, 10);
+        state.setCellOccupant(new Obstacle(new Location(3, 3)), new Location(3, 3));
+        cache.get("strategy", PotentialFieldCache.Layout.of(state), 5, () -> calculate(calculations));
+        Assertions.assertEquals(4, calculations.get());
+        Assertions.assertEquals(4, cache.size());
+        Assertions.assertEquals(4 * POTENTIAL_SIZE + 2 * LAYOUT_SIZE, cache.getUsedMemory()); // Equal layouts are counted once
+
+        cache.clear();
+        Assertions.assertEquals(0, cache.size());
+        Assertions.assertEquals(0, cache.getUsedMemory());
+    }
+
+    @Test
+    public void layoutIgnoresPeopleTest() {
+        Location barrierLocation = new Location(1, 1);
+
+        State state = new State(10, 10);
+        state.setCellOccupant(new LightBarrier(barrierLocation), barrierLocation);
+        PotentialFieldCache.Layout layout = PotentialFieldCache.Layout.of(state);
+
+        Person person = new Person(new Location(0, 0), new Location(9, 9), new Location(5, 5), 1.0, 0.0, 0);
+        state.setCellOccupant(person, person.getLocation());
+        Assertions.assertEquals(layout, PotentialFieldCache.Layout.of(state));
+
+        state.moveOccupant(person.getLocation(), barrierLocation);
+        Assertions.assertEquals(layout, PotentialFieldCache.Layout.of(state));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedTest() {
+        PotentialFieldCache cache = new PotentialFieldCache(2 * POTENTIAL_SIZE + LAYOUT_SIZE);
+        PotentialFieldCache.Layout layout = PotentialFieldCache.Layout.of(new State(10, 10));
+        AtomicInteger calculations = new AtomicInteger();
+
+        cache.get("strategy", layout, 0, () -> calculate(calculations));
+        cache.get("strategy", layout, 1, () -> calculate(calculations));
+        cache.get("strategy", layout, 0, () -> calculate(calculations)); // Target 1 is now least recently used
+        cache.get("strategy", layout, 2, () -> calculate(calculations));
+        Assertions.assertEquals(3, calculations.get());
+        Assertions.assertEquals(2 * POTENTIAL_SIZE + LAYOUT_SIZE, cache.getUsedMemory());
+
+        cache.get("strategy", layout, 0, () -> calculate(calculations));
+        Assertions.assertEquals(3, calculations.get());
+        cache.get("strategy", layout, 1, () -> calculate(calculations));
+        Assertions.assertEquals(4, calculations.get());
+
+        cache.setMemoryBudget(0);
+        Assertions.assertEquals(0, cache.size());
+        Assertions.assertEquals(0, cache.getUsedMemory());
+
+        cache.get("strategy", layout, 1, () -> calculate(calculations));
+        Assertions.assertEquals(5, calculations.get());
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void calculatesOnceWhenRequestedConcurrentlyTest() throws Exception {
+        PotentialFieldCache cache = new PotentialFieldCache(PotentialFieldCache.DEFAULT_MEMORY_BUDGET);
+        PotentialFieldCache.Layout layout = PotentialFieldCache.Layout.of(new State(10, 10));
+        AtomicInteger calculations = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<double[][]> first = executor.submit(() -> cache.get("strategy", layout, 0, () -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return calculate(calculations);
+            }));
+            started.await();
+
+            Future<double[][]> second = executor.submit(() -> cache.get("strategy", layout, 0, () -> calculate(calculations)));
+            release.countDown();
+
+            Assertions.assertSame(first.get(10, TimeUnit.SECONDS), second.get(10, TimeUnit.SECONDS));
+            Assertions.assertEquals(1, calculations.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void failedCalculationIsNotCachedTest() {
+        PotentialFieldCache cache = new PotentialFieldCache(PotentialFieldCache.DEFAULT_MEMORY_BUDGET);
+        PotentialFieldCache.Layout layout = PotentialFieldCache.Layout.of(new State(10, 10));
+
+        Assertions.assertThrows(IllegalStateException.class, () -> cache.get("strategy", layout, 0, () -> {
+            throw new IllegalStateException("Failed");
+        }));
+        Assertions.assertEquals(0, cache.size());
+
+        AtomicInteger calculations = new AtomicInteger();
+        cache.get("strategy", layout, 0, () -> calculate(calculations));
+        Assertions.assertEquals(1, calculations.get());
+    }
+
+    /**
+     * Calculate a potential of a 10 x 10 world and count the calculation.
+     *
+     * @param calculations counter of calculations
+     * @return potential
+     */
+    private static double[][] calculate(AtomicInteger calculations) {
+        calculations.incrementAndGet();
+        return new double[10][10];
+    }
+
+}
@@ -0,0 +1,113 @@
+package edu.hm.cs.bess.streamsim.sim.logic.move;
+
+import edu.hm.cs.bess.streamsim.sim.model.misc.Location;
+import edu.hm.cs.bess.streamsim.sim.model.object.obstacle.Obstacle;
+import edu.hm.cs.bess.streamsim.sim.model.state.State;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * @author Benjamin Eder
+ */
+public class PotentialFieldStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void saveAndLoadTest() throws IOException {
+        PotentialFieldStore store = new PotentialFieldStore(directory);
+        PotentialFieldCache.Layout layout = PotentialFieldCache.Layout.of(createState());
+
+        double[][] potential = {
+                {0.0, 1.0, Double.MAX_VALUE},
+                {Math.sqrt(2), Double.POSITIVE_INFINITY, 2.0}
+        };
+        Assertions.assertNull(store.load("strategy", layout, 0));
+
+        store.save("strategy", layout, 0, potential);
+
+        Assertions.assertArrayEquals(potential, store.load("strategy", layout, 0));
+        Assertions.assertNull(store.load("other strategy", layout, 0));
+        Assertions.assertNull(store.load("strategy", layout, 1));
+        Assertions.assertNull(store.load("strategy", PotentialFieldCache.Layout.of(new State(2, 3)), 0));
+    }
+
+    @Test
+    public void saveReplacesLoadedFileTest() throws IOException {
+        PotentialFieldStore store = new PotentialFieldStore(directory);
+        PotentialFieldCache.Layout layout = PotentialFieldCache.Layout.of(createState());
+
+        store.save("strategy", layout, 0, new double[2][3]);
+        Assertions.assertNotNull(store.load("strategy", layout, 0));
+
+        double[][] potential = {{1.0, 2.0, 3.0}, {4.0, 5.0, 6.0}};
+        store.save("strategy", layout, 0, potential);
+
+        Assertions.assertArrayEquals(potential, store.load("strategy", layout, 0));
+        Assertions.assertEquals(1, Files.list(directory).count()); // No temporary files left behind
+    }
+
+    @Test
+    public void ignoresCorruptedFilesTest() throws IOException {
+        PotentialFieldStore store = new PotentialFieldStore(directory);
+        PotentialFieldCache.Layout layout = PotentialFieldCache.Layout.of(createState());
+
+        store.save("strategy", layout, 0, new double[2][3]);
+        List<Path> files = Files.list(directory).collect(Collectors.toList());
+        Assertions.assertEquals(1, files.size());
+
+        byte[] content = Files.readAllBytes(files.get(0));
+        Files.write(files.get(0), Arrays.copyOf(content, content.length - 1));
+        Assertions.assertNull(store.load("strategy", layout, 0));
+
+        content[0] ^= 1;
+        Files.write(files.get(0), content);
+        Assertions.assertNull(store.load("strategy", layout, 0));
+    }
+
+    @Test
+    public void cacheLoadsFromStoreTest() throws IOException {
+        PotentialFieldStore store = new PotentialFieldStore(directory);
+        AtomicInteger calculations = new AtomicInteger();
+
+        PotentialFieldCache first = new PotentialFieldCache(PotentialFieldCache.DEFAULT_MEMORY_BUDGET);
+        first.setStore(store);
+        double[][] calculated = first.get("strategy", PotentialFieldCache.Layout.of(createState()), 4, () -> {
+            calculations.incrementAndGet();
+            return new double[][]{{1.0, 2.0, 3.0}, {4.0, 5.0, 6.0}};
+        });
+
+        // Another process with the same layout
+        PotentialFieldCache second = new PotentialFieldCache(PotentialFieldCache.DEFAULT_MEMORY_BUDGET);
+        second.setStore(store);
+        double[][] loaded = second.get("strategy", PotentialFieldCache.Layout.of(createState()), 4, () -> {
+            calculations.incrementAndGet();
+            return new double[2][3];
+        });
+
+        Assertions.assertEquals(1, calculations.get());
+        Assertions.assertArrayEquals(calculated, loaded);
+    }
+
+    /**
+     * Create a 2 x 3 state with an obstacle.
+     *
+     * @return state
+     */
+    private static State createState() {
+        State state = new State(2, 3);
+        state.setCellOccupant(new Obstacle(new Location(1, 1)), new Location(1, 1));
+        return state;
+    }
+
+}
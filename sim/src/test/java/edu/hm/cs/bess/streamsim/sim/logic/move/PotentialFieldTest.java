@@ -0,0 +1,153 @@
+package edu.hm.cs.bess.streamsim.sim.logic.move;
+
+import edu.hm.cs.bess.streamsim.sim.config.MollifierConfiguration;
+import edu.hm.cs.bess.streamsim.sim.config.TargetConfiguration;
+import edu.hm.cs.bess.streamsim.sim.logic.consume.RemoveConsumeStrategy;
+import edu.hm.cs.bess.streamsim.sim.model.misc.Location;
+import edu.hm.cs.bess.streamsim.sim.model.object.SimObjectType;
+import edu.hm.cs.bess.streamsim.sim.model.object.obstacle.Obstacle;
+import edu.hm.cs.bess.streamsim.sim.model.object.person.Person;
+import edu.hm.cs.bess.streamsim.sim.model.object.target.Target;
+import edu.hm.cs.bess.streamsim.sim.model.state.State;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author Benjamin Eder
+ */
+public class PotentialFieldTest {
+
+    @Test
+    public void storagesKeepValuesWithinToleranceTest() {
+        State state = createState();
+        double[][] matrix = new FastMarchingMethodMovementStrategy(mollifierConfiguration(), 0)
+                .calculateBasePotential(state, new Location(0, 0));
+        matrix[39][39] = Double.POSITIVE_INFINITY; // Unreachable cell
+
+        PotentialField exact = PotentialField.Storage.DOUBLE.of(matrix);
+        Assertions.assertSame(matrix, exact.toMatrix());
+        Assertions.assertEquals(0.0, exact.getTolerance());
+
+        for (PotentialField.Storage storage : new PotentialField.Storage[]{PotentialField.Storage.FLOAT, PotentialField.Storage.QUANTIZED}) {
+            PotentialField field = storage.of(matrix);
+            Assertions.assertTrue(field.getTolerance() > 0.0 && field.getTolerance() < 1e-3);
+
+            for (int row = 0; row < matrix.length; row++) {
+                for (int column = 0; column < matrix[row].length; column++) {
+                    double value = matrix[row][column];
+                    if (value == Double.MAX_VALUE || Double.isInfinite(value)) {
+                        Assertions.assertEquals(value, field.get(row, column));
+                    } else {
+                        Assertions.assertEquals(value, field.get(row, column), field.getTolerance());
+                    }
+                    Assertions.assertEquals(field.get(row, column), field.get(row * matrix[row].length + column));
+                }
+            }
+        }
+
+        Assertions.assertEquals(exact.getMemorySize() / 2, PotentialField.Storage.FLOAT.of(matrix).getMemorySize());
+        Assertions.assertEquals(exact.getMemorySize() / 4, PotentialField.Storage.QUANTIZED.of(matrix).getMemorySize());
+    }
+
+    @Test
+    public void decisionsEquivalentWithinToleranceTest() {
+        State state = createState();
+        Location target = new Location(0, 0);
+
+        Random placementRng = new Random(0);
+        List<Person> people = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Location location = new Location(placementRng.nextInt(40), placementRng.nextInt(40));
+            if (state.isCellFree(location)) {
+                Person person = new Person(location, target, location, 1.0, 0.0, 0);
+                state.setCellOccupant(person, location);
+                people.add(person);
+            }
+        }
+
+        DefaultMovementStrategy exactStrategy = new FastMarchingMethodMovementStrategy(mollifierConfiguration(), 0);
+        exactStrategy.setPotentialFieldCache(new PotentialFieldCache(0));
+        exactStrategy.init(state, new Random(0));
+        double[][] exact = exactStrategy.calculatePotential(state);
+
+        for (PotentialField.Storage storage : new PotentialField.Storage[]{PotentialField.Storage.FLOAT, PotentialField.Storage.QUANTIZED}) {
+            DefaultMovementStrategy strategy = new FastMarchingMethodMovementStrategy(mollifierConfiguration(), 0);
+            strategy.setPotentialFieldCache(new PotentialFieldCache(0));
+            strategy.setPotentialStorage(storage);
+            strategy.init(state, new Random(0));
+            double tolerance = storage.of(exact).getTolerance();
+
+            for (Person person : people) {
+                double bestDescent = -Double.MAX_VALUE;
+                for (int i = 0; i < DefaultMovementStrategy.NEIGHBOUR_ROW_OFFSETS.length; i++) {
+                    Location neighbour = neighbourOf(person, i);
+                    if (isEnterable(state, neighbour)) {
+                        bestDescent = Math.max(bestDescent, descent(exact, person, neighbour));
+                    }
+                }
+
+                List<Location> decisions = strategy.chooseNextLocations(person, state, new Random(0));
+                if (decisions.isEmpty()) {
+                    // Rejected a (seemingly) bad decision
+                    Assertions.assertTrue(bestDescent < 2 * tolerance);
+                }
+                for (Location decision : decisions) {
+                    // Only moves being the best within the tolerance
+                    Assertions.assertTrue(descent(exact, person, decision) >= bestDescent - 2 * tolerance);
+                }
+            }
+        }
+    }
+
+    /**
+     * Create a state with a target in the top left corner and some walls.
+     *
+     * @return state
+     */
+    private static State createState() {
+        State state = new State(40, 40);
+        for (int i = 5; i < 35; i++) {
+            state.setCellOccupant(new Obstacle(new Location(i, 20)), new Location(i, 20));
+            state.setCellOccupant(new Obstacle(new Location(25, i)), new Location(25, i));
+        }
+
+        Location target = new Location(0, 0);
+        state.setCellOccupant(new Target(target, new TargetConfiguration(new RemoveConsumeStrategy())), target);
+
+        return state;
+    }
+
+    private static MollifierConfiguration mollifierConfiguration() {
+        return new MollifierConfiguration(MollifierConfiguration.DEFAULT_RANGE, MollifierConfiguration.DEFAULT_STRENGTH);
+    }
+
+    private static Location neighbourOf(Person person, int i) {
+        return new Location(
+                person.getLocation().getRow() + DefaultMovementStrategy.NEIGHBOUR_ROW_OFFSETS[i],
+                person.getLocation().getColumn() + DefaultMovementStrategy.NEIGHBOUR_COLUMN_OFFSETS[i]
+        );
+    }
+
+    private static boolean isEnterable(State state, Location location) {
+        if (location.getRow() < 0 || location.getRow() >= state.getRows() || location.getColumn() < 0 || location.getColumn() >= state.getColumns()) {
+            return false;
+        }
+
+        return state.canBeOccupied(location) || state.isOfType(state.indexOf(location), SimObjectType.TARGET);
+    }
+
+    private static double descent(double[][] potential, Person person, Location to) {
+        Location from = person.getLocation();
+        double descent = potential[from.getRow()][from.getColumn()] - potential[to.getRow()][to.getColumn()];
+        if (from.getRow() != to.getRow() && from.getColumn() != to.getColumn()) {
+            descent /= 1.0 + person.getDiagonalStepRatio();
+        }
+
+        return descent;
+    }
+
+}
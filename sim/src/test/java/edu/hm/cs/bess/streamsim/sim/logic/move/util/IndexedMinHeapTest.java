@@ -0,0 +1,63 @@
+package edu.hm.cs.bess.streamsim.sim.logic.move.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+/**
+ * @author Benjamin Eder
+ */
+public class IndexedMinHeapTest {
+
+    @Test
+    public void pollsInKeyOrderTest() {
+        Random rng = new Random(0);
+        double[] keys = new double[1000];
+
+        IndexedMinHeap heap = new IndexedMinHeap(keys.length);
+        for (int item = 0; item < keys.length; item++) {
+            keys[item] = rng.nextInt(100);
+            heap.insertOrUpdate(item, keys[item]);
+        }
+        Assertions.assertEquals(keys.length, heap.size());
+
+        int previous = -1;
+        while (!heap.isEmpty()) {
+            double key = heap.peekKey();
+            int item = heap.poll();
+
+            Assertions.assertEquals(keys[item], key);
+            Assertions.assertFalse(heap.contains(item));
+            if (previous != -1) {
+                Assertions.assertTrue(keys[previous] < key || (keys[previous] == key && previous < item));
+            }
+            previous = item;
+        }
+    }
+
+    @Test
+    public void updateKeyTest() {
+        IndexedMinHeap heap = new IndexedMinHeap(4);
+        heap.insertOrUpdate(0, 5.0);
+        heap.insertOrUpdate(1, 3.0);
+        heap.insertOrUpdate(2, 4.0);
+
+        heap.insertOrUpdate(0, 1.0);
+        Assertions.assertEquals(3, heap.size());
+        Assertions.assertEquals(0, heap.peek());
+        Assertions.assertEquals(1.0, heap.keyOf(0));
+
+        heap.insertOrUpdate(0, 6.0);
+        Assertions.assertEquals(1, heap.poll());
+        Assertions.assertEquals(2, heap.poll());
+        Assertions.assertEquals(0, heap.poll());
+        Assertions.assertTrue(heap.isEmpty());
+
+        heap.insertOrUpdate(3, 2.0);
+        heap.clear();
+        Assertions.assertTrue(heap.isEmpty());
+        Assertions.assertFalse(heap.contains(3));
+    }
+
+}
@@ -0,0 +1,35 @@
+package edu.hm.cs.bess.streamsim.sim.logic.move.util;
+
+import edu.hm.cs.bess.streamsim.sim.config.MollifierConfiguration;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Benjamin Eder
+ */
+public class MollifierKernelTest {
+
+    @Test
+    public void kernelValuesTest() {
+        MollifierKernel kernel = MollifierKernel.of(new MollifierConfiguration(2, 1.5));
+
+        Assertions.assertEquals(2, kernel.getRange());
+        Assertions.assertEquals(-1.5 * Math.exp(-1), kernel.valueAt(0, 0));
+        Assertions.assertEquals(-1.5 * Math.exp(1 / (Math.pow(Math.hypot(1, 1) / 2, 2) - 1)), kernel.valueAt(-1, 1));
+        Assertions.assertEquals(0.0, kernel.valueAt(0, 2));
+        Assertions.assertEquals(0.0, kernel.valueAt(3, 0));
+    }
+
+    @Test
+    public void kernelsAreSharedTest() {
+        Assertions.assertSame(
+                MollifierKernel.of(new MollifierConfiguration(2, 1.5)),
+                MollifierKernel.of(new MollifierConfiguration(2, 1.5))
+        );
+        Assertions.assertNotSame(
+                MollifierKernel.of(new MollifierConfiguration(2, 1.5)),
+                MollifierKernel.of(new MollifierConfiguration(3, 1.5))
+        );
+    }
+
+}
@@ -0,0 +1,126 @@
+package edu.hm.cs.bess.streamsim.sim.logic.move.util.fmm;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @author Benjamin Eder
+ */
+public class FastMarchingMethodTest {
+
+    @Test
+    public void freeAreaTest() {
+        int size = 50;
+        FastMarchingMethod fmm = new FastMarchingMethod(size, size, (index) -> FastMarchingMethod.UNKNOWN, (index) -> 1.0);
+        fmm.calculate(0);
+
+        double[][] result = fmm.getResult();
+        for (int i = 0; i < size; i++) {
+            // Straight along the borders the arrival time is the distance
+            Assertions.assertEquals(i, result[0][i]);
+            Assertions.assertEquals(i, result[i][0]);
+
+            for (int j = 0; j < size; j++) {
+                Assertions.assertEquals(result[i][j], result[j][i]);
+                Assertions.assertTrue(result[i][j] >= Math.hypot(i, j) - 1e-9);
+                if (j > 0) {
+                    // Arrival times grow with the distance from the start
+                    Assertions.assertTrue(result[i][j] > result[i][j - 1]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void enclosedCellStaysUnknownTest() {
+        // Cell 12 (center of a 5 x 5 area) is blocked in all four directions
+        FastMarchingMethod fmm = new FastMarchingMethod(
+                5,
+                5,
+                (index) -> index == 7 || index == 11 || index == 13 || index == 17 ? Double.MAX_VALUE : FastMarchingMethod.UNKNOWN,
+                (index) -> 1.0
+        );
+        fmm.calculate(0);
+
+        double[] values = fmm.getValues();
+        Assertions.assertEquals(FastMarchingMethod.UNKNOWN, values[12]);
+        Assertions.assertEquals(Double.MAX_VALUE, values[7]);
+        Assertions.assertEquals(4.0, values[4]);
+    }
+
+    @Test
+    public void sweepingMatchesMarchingTest() {
+        // Large enough for the anti-diagonals to be split into several tasks
+        int rows = 1100;
+        int columns = 1050;
+
+        Random rng = new Random(0);
+        boolean[] obstacles = new boolean[rows * columns];
+        for (int i = 0; i < obstacles.length / 100; i++) {
+            obstacles[rng.nextInt(obstacles.length)] = true;
+        }
+        int start = 400 * columns + 700;
+        obstacles[start] = false;
+
+        FastMarchingMethod fmm = new FastMarchingMethod(rows, columns, (index) -> obstacles[index] ? Double.MAX_VALUE : FastMarchingMethod.UNKNOWN, (index) -> 1.0);
+        fmm.calculate(start);
+
+        ForkJoinPool sequentialPool = new ForkJoinPool(1);
+        ForkJoinPool parallelPool = new ForkJoinPool(4);
+        try {
+            FastSweepingMethod sequential = new FastSweepingMethod(rows, columns, (index) -> obstacles[index] ? Double.MAX_VALUE : FastMarchingMethod.UNKNOWN, (index) -> 1.0, sequentialPool);
+            sequential.calculate(start);
+            FastSweepingMethod parallel = new FastSweepingMethod(rows, columns, (index) -> obstacles[index] ? Double.MAX_VALUE : FastMarchingMethod.UNKNOWN, (index) -> 1.0, parallelPool);
+            parallel.calculate(start);
+
+            Assertions.assertArrayEquals(sequential.getValues(), parallel.getValues());
+            Assertions.assertArrayEquals(fmm.getValues(), parallel.getValues(), 1e-8);
+        } finally {
+            sequentialPool.shutdown();
+            parallelPool.shutdown();
+        }
+    }
+
+    @Test
+    public void updateMatchesCalculationTest() {
+        int rows = 120;
+        int columns = 100;
+        int start = 60 * columns + 50;
+
+        Random rng = new Random(0);
+        boolean[] obstacles = new boolean[rows * columns];
+        for (int i = 0; i < obstacles.length / 10; i++) {
+            obstacles[rng.nextInt(obstacles.length)] = true;
+        }
+        obstacles[start] = false;
+
+        FastMarchingMethod fmm = new FastMarchingMethod(rows, columns, (index) -> obstacles[index] ? Double.MAX_VALUE : FastMarchingMethod.UNKNOWN, (index) -> 1.0);
+        fmm.calculate(start);
+        double[] values = fmm.getValues();
+
+        for (int change = 0; change < 50; change++) {
+            // Place (or remove) a wall
+            boolean obstacle = change % 3 != 0;
+            int row = rng.nextInt(rows - 20);
+            int column = rng.nextInt(columns);
+            int[] changedCells = new int[20];
+            for (int i = 0; i < changedCells.length; i++) {
+                changedCells[i] = (row + i) * columns + column;
+                obstacles[changedCells[i]] = obstacle && changedCells[i] != start;
+            }
+
+            FastMarchingMethod updated = new FastMarchingMethod(rows, columns, (index) -> obstacles[index] ? Double.MAX_VALUE : FastMarchingMethod.UNKNOWN, (index) -> 1.0);
+            updated.update(values, new int[]{start}, changedCells);
+            values = updated.getValues();
+
+            FastMarchingMethod calculated = new FastMarchingMethod(rows, columns, (index) -> obstacles[index] ? Double.MAX_VALUE : FastMarchingMethod.UNKNOWN, (index) -> 1.0);
+            calculated.calculate(start);
+
+            Assertions.assertArrayEquals(calculated.getValues(), values, 1e-6);
+        }
+    }
+
+}
@@ -0,0 +1,251 @@
+package edu.hm.cs.bess.streamsim.sim.model.state;
+
+import edu.hm.cs.bess.streamsim.sim.model.misc.Location;
+import edu.hm.cs.bess.streamsim.sim.model.object.SimObjectType;
+import edu.hm.cs.bess.streamsim.sim.model.object.lightbarrier.LightBarrier;
+import edu.hm.cs.bess.streamsim.sim.model.object.obstacle.Obstacle;
+import edu.hm.cs.bess.streamsim.sim.model.object.person.Person;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author Benjamin Eder
+ */
+public class StateTest {
+
+    @Test
+    public void primitiveLayersTest() {
+        State state = new State(3, 3);
+
+        Location barrierLocation = new Location(1, 1);
+        state.setCellOccupant(new Obstacle(new Location(0, 0)), new Location(0, 0));
+        state.setCellOccupant(new LightBarrier(barrierLocation), barrierLocation);
+
+        Person person = createPerson(new Location(2, 2));
+        state.setCellOccupant(person, person.getLocation());
+
+        int barrier = state.indexOf(barrierLocation);
+        Assertions.assertFalse(state.canBeOccupied(state.indexOf(new Location(0, 0))));
+        Assertions.assertTrue(state.canBeOccupied(barrier));
+        Assertions.assertEquals(SimObjectType.LIGHT_BARRIER.getID(), state.typeAt(barrier));
+
+        Assertions.assertTrue(state.moveOccupant(person.getLocation(), barrierLocation));
+        Assertions.assertFalse(state.canBeOccupied(barrier));
+        Assertions.assertEquals(SimObjectType.PERSON.getID(), state.typeAt(barrier));
+        Assertions.assertEquals(SimObjectType.LIGHT_BARRIER.getID(), state.walkableTypeAt(barrier));
+        Assertions.assertEquals(person.getId(), state.occupantIdAt(barrier));
+        Assertions.assertEquals(State.EMPTY, state.typeAt(state.indexOf(new Location(2, 2))));
+    }
+
+    @Test
+    public void objectTypeIndexTest() {
+        State state = new State(3, 3);
+
+        Location barrierLocation = new Location(1, 1);
+        state.setCellOccupant(new LightBarrier(barrierLocation), barrierLocation);
+
+        Person a = createPerson(new Location(0, 0));
+        Person b = createPerson(new Location(0, 1));
+        state.setCellOccupant(a, a.getLocation());
+        state.setCellOccupant(b, b.getLocation());
+        state.moveOccupant(a.getLocation(), barrierLocation);
+        state.removeOccupant(b.getLocation());
+
+        List<Integer> cells = new ArrayList<>();
+        state.forEachCellOfType(SimObjectType.PERSON, cells::add);
+
+        Assertions.assertEquals(List.of(state.indexOf(barrierLocation)), cells);
+        Assertions.assertEquals(1, state.getObjectTypeCount(SimObjectType.LIGHT_BARRIER));
+        Assertions.assertEquals(a, state.getObjectsForType(SimObjectType.PERSON).iterator().next());
+    }
+
+    @Test
+    public void snapshotRestoreTest() {
+        State state = new State(3, 3);
+
+        Person person = createPerson(new Location(0, 0));
+        state.setCellOccupant(person, person.getLocation());
+
+        StateSnapshot snapshot = state.snapshot();
+
+        state.moveOccupant(new Location(0, 0), new Location(0, 1));
+        state.moveOccupant(new Location(0, 1), new Location(1, 1));
+        state.setCellOccupant(createPerson(new Location(2, 2)), new Location(2, 2));
+        Assertions.assertEquals(4, snapshot.getChangedCellCount());
+
+        state.restore(snapshot);
+
+        Assertions.assertEquals(0, snapshot.getChangedCellCount());
+        Assertions.assertEquals(1, state.getObjectTypeCount(SimObjectType.PERSON));
+        Assertions.assertEquals(new Location(0, 0), person.getLocation());
+        Assertions.assertSame(person, state.getCellOccupant(new Location(0, 0)).orElseThrow());
+        Assertions.assertTrue(state.isCellFree(new Location(1, 1)));
+        Assertions.assertTrue(state.isCellFree(new Location(2, 2)));
+    }
+
+    @Test
+    public void cloneIsIndependentTest() throws CloneNotSupportedException {
+        State state = new State(3, 3);
+
+        Person person = createPerson(new Location(0, 0));
+        state.setCellOccupant(person, person.getLocation());
+
+        State copy = (State) state.clone();
+        copy.moveOccupant(new Location(0, 0), new Location(1, 1));
+
+        Assertions.assertSame(person, state.getCellOccupant(new Location(0, 0)).orElseThrow());
+        Assertions.assertEquals(new Location(0, 0), person.getLocation());
+        Assertions.assertTrue(copy.isCellFree(new Location(0, 0)));
+    }
+
+    @Test
+    public void changeBufferCoalescesChangesTest() {
+        State state = new State(3, 3);
+
+        Person person = createPerson(new Location(0, 0));
+        state.setCellOccupant(person, person.getLocation());
+
+        StateChangeBuffer buffer = state.createChangeBuffer();
+        state.moveOccupant(new Location(0, 0), new Location(0, 1));
+        state.moveOccupant(new Location(0, 1), new Location(0, 0));
+        state.moveOccupant(new Location(0, 0), new Location(0, 1));
+
+        List<Integer> changed = new ArrayList<>();
+        Assertions.assertEquals(2, buffer.drainChanges(changed::add));
+        Assertions.assertEquals(List.of(0, 1), changed);
+        Assertions.assertFalse(buffer.hasChanges());
+
+        state.removeChangeBuffer(buffer);
+        state.moveOccupant(new Location(0, 1), new Location(0, 2));
+        Assertions.assertFalse(buffer.hasChanges());
+    }
+
+    @Test
+    public void spatialQueriesTest() {
+        State state = new State(20, 150);
+
+        Random rng = new Random(42);
+        for (int i = 0; i < 600; i++) {
+            Location location = new Location(rng.nextInt(state.getRows()), rng.nextInt(state.getColumns()));
+            if (state.isCellFree(location)) {
+                state.setCellOccupant(createPerson(location), location);
+            }
+        }
+
+        Location center = new Location(10, 64);
+        int centerIndex = state.indexOf(center);
+        for (int radius = 1; radius <= 12; radius++) {
+            List<Integer> expected = new ArrayList<>();
+            for (int index = 0; index < state.getRows() * state.getColumns(); index++) {
+                Location location = state.locationOf(index);
+                double distance = Math.hypot(location.getRow() - center.getRow(), location.getColumn() - center.getColumn());
+
+                if (index != centerIndex && state.isOfType(index, SimObjectType.PERSON) && distance <= radius) {
+                    expected.add(index);
+                }
+            }
+
+            List<Integer> actual = new ArrayList<>();
+            state.forEachPersonWithin(centerIndex, radius, actual::add);
+            Assertions.assertEquals(expected, actual);
+        }
+
+        int expectedCount = 0;
+        for (int row = 3; row <= 12; row++) {
+            for (int column = 50; column <= 140; column++) {
+                if (state.isOfType(state.indexOf(new Location(row, column)), SimObjectType.PERSON)) {
+                    expectedCount++;
+                }
+            }
+        }
+        Assertions.assertEquals(expectedCount, state.countPeopleInRect(3, 50, 12, 140));
+        Assertions.assertEquals(state.getObjectTypeCount(SimObjectType.PERSON), state.countPeopleInRect(-5, -5, 100, 500));
+
+        int[] nearest = new int[5];
+        Assertions.assertEquals(5, state.findNearestPeople(centerIndex, 5, nearest));
+
+        List<Integer> people = new ArrayList<>();
+        state.forEachCellOfType(SimObjectType.PERSON, index -> {
+            if (index != centerIndex) {
+                people.add(index);
+            }
+        });
+        people.sort(Comparator.<Integer>comparingInt(index -> squaredDistance(state.locationOf(index), center))
+                .thenComparingInt(index -> index));
+        for (int i = 0; i < nearest.length; i++) {
+            Assertions.assertEquals(people.get(i), nearest[i]);
+        }
+    }
+
+    @Test
+    public void spatialIndexFollowsChangesTest() {
+        State state = new State(3, 3);
+
+        Person person = createPerson(new Location(0, 0));
+        state.setCellOccupant(person, person.getLocation());
+        StateSnapshot snapshot = state.snapshot();
+
+        state.moveOccupant(new Location(0, 0), new Location(2, 2));
+        Assertions.assertEquals(0, state.countPeopleInRect(0, 0, 1, 1));
+        Assertions.assertEquals(1, state.countPeopleInRect(2, 2, 2, 2));
+
+        state.restore(snapshot);
+        List<Integer> found = new ArrayList<>();
+        state.forEachPersonWithin(state.indexOf(new Location(1, 1)), 2, found::add);
+        Assertions.assertEquals(List.of(0), found);
+
+        int[] nearest = new int[2];
+        Assertions.assertEquals(0, state.findNearestPeople(0, 2, nearest));
+    }
+
+    @Test
+    public void interactionFieldFollowsChangesTest() {
+        State state = new State(4, 4);
+        double[] kernel = {
+                0.0, 1.0, 0.0,
+                2.0, 4.0, 8.0,
+                0.0, 16.0, 0.0
+        };
+
+        Person a = createPerson(new Location(0, 0));
+        state.setCellOccupant(a, a.getLocation());
+
+        InteractionField field = state.getInteractionField(1, kernel);
+        Assertions.assertSame(field, state.getInteractionField(1, kernel.clone()));
+        Assertions.assertEquals(4.0, field.valueAt(state.indexOf(new Location(0, 0))));
+        Assertions.assertEquals(8.0, field.valueAt(state.indexOf(new Location(0, 1))));
+        Assertions.assertEquals(0.0, field.valueExcluding(state.indexOf(new Location(0, 1)), 0, -1));
+
+        StateSnapshot snapshot = state.snapshot();
+        Person b = createPerson(new Location(1, 2));
+        state.setCellOccupant(b, b.getLocation());
+        state.moveOccupant(a.getLocation(), new Location(1, 1));
+
+        // (1, 1) holds a and is left of b, (0, 1) is above a
+        Assertions.assertEquals(4.0 + 2.0, field.valueAt(state.indexOf(new Location(1, 1))));
+        Assertions.assertEquals(1.0, field.valueAt(state.indexOf(new Location(0, 1))));
+        Assertions.assertEquals(0.0, field.valueAt(state.indexOf(new Location(0, 0))));
+
+        state.restore(snapshot);
+        Assertions.assertEquals(4.0, field.valueAt(state.indexOf(new Location(0, 0))));
+        Assertions.assertEquals(0.0, field.valueAt(state.indexOf(new Location(1, 1))));
+        Assertions.assertEquals(0.0, field.valueAt(state.indexOf(new Location(1, 2))));
+    }
+
+    private int squaredDistance(Location a, Location b) {
+        int rowDiff = a.getRow() - b.getRow();
+        int columnDiff = a.getColumn() - b.getColumn();
+
+        return rowDiff * rowDiff + columnDiff * columnDiff;
+    }
+
+    private Person createPerson(Location location) {
+        return new Person(location, new Location(2, 0), location, 1.0, 0.0, 1);
+    }
+
+}
@@ -0,0 +1,126 @@
+package edu.hm.cs.bess.streamsim.sim.scheduler;
+
+import edu.hm.cs.bess.streamsim.sim.AbstractSimulationTest;
+import edu.hm.cs.bess.streamsim.sim.StreamSimulator;
+import edu.hm.cs.bess.streamsim.sim.scheduler.exception.EventExecutionException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Scenario shared by the tests of the parallel schedulers:
+ * A parallel scheduler must process events in order and the simulation result must neither depend on
+ * the partitioning of the grid nor on the parallelism of the pool.
+ *
+ * @author Benjamin Eder
+ */
+public abstract class AbstractParallelSchedulerTest extends AbstractSimulationTest {
+
+    protected static final String CONFIG_FILE_NAME = "TwoDoorsTestConfig.json";
+
+    /**
+     * Create the scheduler under test.
+     *
+     * @param partitions of the grid (ignored by schedulers not partitioning the grid)
+     * @param pool       to evaluate events in
+     * @return scheduler
+     */
+    protected abstract Scheduler createScheduler(int partitions, ForkJoinPool pool);
+
+    /**
+     * Create the scheduler whose simulation result the scheduler under test must reproduce.
+     *
+     * @param pool to evaluate events in
+     * @return reference scheduler
+     */
+    protected Scheduler createReferenceScheduler(ForkJoinPool pool) {
+        return createScheduler(1, pool);
+    }
+
+    @Test
+    public void testEventsAreProcessedInOrder() throws EventExecutionException {
+        Scheduler scheduler = createScheduler(4, ForkJoinPool.commonPool());
+
+        List<Double> times = new ArrayList<>();
+        scheduler.scheduleIn(() -> times.add(scheduler.currentTime()), 3.0);
+        scheduler.scheduleIn(() -> times.add(scheduler.currentTime()), 1.0);
+        scheduler.scheduleIn(() -> times.add(scheduler.currentTime()), 1.0);
+        scheduler.scheduleIn(() -> times.add(scheduler.currentTime()), 2.0);
+
+        while (scheduler.processNext()) {
+            // Process all events
+        }
+
+        Assertions.assertEquals(List.of(1.0, 1.0, 2.0, 3.0), times);
+    }
+
+    @Test
+    public void testSimulationRunsToEnd() throws EventExecutionException {
+        StreamSimulator simulator = createSimulator(CONFIG_FILE_NAME, createScheduler(4, ForkJoinPool.commonPool()));
+
+        Assertions.assertEquals(StreamSimulator.StopReason.END, simulator.runUntil(Double.POSITIVE_INFINITY));
+        Assertions.assertEquals(0, simulator.getPeopleCount());
+    }
+
+    @Test
+    public void testSimulationIsIndependentOfPartitioningAndParallelism() throws EventExecutionException {
+        ForkJoinPool sequentialPool = new ForkJoinPool(1);
+        ForkJoinPool parallelPool = new ForkJoinPool(4);
+        try {
+            List<Integer> referenceLocations = getPeopleLocationsAt(createReferenceScheduler(sequentialPool), 40);
+
+            for (int partitions : new int[]{1, 2, 3, 8}) {
+                Assertions.assertEquals(referenceLocations, getPeopleLocationsAt(createScheduler(partitions, parallelPool), 40));
+            }
+
+            StreamSimulator reference = createSimulator(CONFIG_FILE_NAME, createReferenceScheduler(sequentialPool));
+            reference.runUntil(Double.POSITIVE_INFINITY);
+            StreamSimulator simulator = createSimulator(CONFIG_FILE_NAME, createScheduler(5, parallelPool));
+            simulator.runUntil(Double.POSITIVE_INFINITY);
+
+            Assertions.assertEquals(reference.getScheduler().currentTime(), simulator.getScheduler().currentTime());
+        } finally {
+            sequentialPool.shutdown();
+            parallelPool.shutdown();
+        }
+    }
+
+    /**
+     * Get the people locations of the shared scenario at the passed time.
+     * Schedulers may stop at different times, thus the locations are captured by a handler
+     * that is processed after all events before the passed time.
+     *
+     * @param scheduler to simulate with
+     * @param time      to capture the locations at
+     * @return cell indices of the people
+     * @throws EventExecutionException in case an event could not be processed
+     */
+    protected List<Integer> getPeopleLocationsAt(Scheduler scheduler, double time) throws EventExecutionException {
+        return getPeopleLocationsAt(CONFIG_FILE_NAME, scheduler, time);
+    }
+
+    /**
+     * Get the people locations of the passed configuration at the passed time
+     * (see {@link #getPeopleLocationsAt(Scheduler, double)}).
+     *
+     * @param fileName  of the configuration
+     * @param scheduler to simulate with
+     * @param time      to capture the locations at
+     * @return cell indices of the people
+     * @throws EventExecutionException in case an event could not be processed
+     */
+    protected List<Integer> getPeopleLocationsAt(String fileName, Scheduler scheduler, double time) throws EventExecutionException {
+        StreamSimulator simulator = createSimulator(fileName, scheduler);
+        simulator.runUntil(0);
+
+        List<Integer> locations = new ArrayList<>();
+        scheduler.scheduleIn(() -> locations.addAll(getPeopleLocations(simulator.getCurrentState())), time - scheduler.currentTime());
+        simulator.runUntil(time);
+
+        return locations;
+    }
+
+}
@@ -0,0 +1,61 @@
+package edu.hm.cs.bess.streamsim.sim.scheduler;
+
+import edu.hm.cs.bess.streamsim.sim.scheduler.exception.EventExecutionException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Benjamin Eder
+ */
+public class CalendarQueueSchedulerTest extends SchedulerTest {
+
+    @Override
+    Scheduler createScheduler(double startTime) {
+        return new CalendarQueueScheduler(startTime);
+    }
+
+    @Test
+    public void testFifoOrderForManyCollisions() throws EventExecutionException {
+        CalendarQueueScheduler scheduler = new CalendarQueueScheduler();
+
+        AtomicInteger expectedIndex = new AtomicInteger();
+        for (int i = 0; i < 1000; i++) {
+            final int index = i;
+            scheduler.scheduleIn(() -> Assertions.assertEquals(expectedIndex.getAndIncrement(), index), 5);
+        }
+
+        while (scheduler.processNext()) {
+            // Process all events
+        }
+
+        Assertions.assertEquals(1000, expectedIndex.get());
+    }
+
+    @Test
+    public void testHoldModel() throws EventExecutionException {
+        CalendarQueueScheduler scheduler = new CalendarQueueScheduler();
+        Random rng = new Random(7);
+
+        for (int i = 0; i < 5000; i++) {
+            scheduler.scheduleIn(() -> {
+            }, rng.nextDouble() * 100);
+        }
+
+        // Every processed event schedules a new one -> the calendar needs to keep up with the moving time window
+        double lastTime = 0;
+        for (int i = 0; i < 50000; i++) {
+            Assertions.assertTrue(scheduler.processNext());
+            Assertions.assertTrue(scheduler.currentTime() >= lastTime);
+            lastTime = scheduler.currentTime();
+
+            scheduler.scheduleIn(() -> {
+            }, -Math.log(1 - rng.nextDouble()) * 100);
+        }
+
+        Assertions.assertEquals(5000, scheduler.size());
+    }
+
+}
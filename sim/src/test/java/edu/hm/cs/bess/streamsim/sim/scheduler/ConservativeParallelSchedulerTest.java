@@ -0,0 +1,15 @@
+package edu.hm.cs.bess.streamsim.sim.scheduler;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @author Benjamin Eder
+ */
+public class ConservativeParallelSchedulerTest extends AbstractParallelSchedulerTest {
+
+    @Override
+    protected Scheduler createScheduler(int partitions, ForkJoinPool pool) {
+        return new ConservativeParallelScheduler(partitions, pool);
+    }
+
+}
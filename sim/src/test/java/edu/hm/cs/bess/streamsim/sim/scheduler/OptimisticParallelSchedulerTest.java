@@ -0,0 +1,40 @@
+package edu.hm.cs.bess.streamsim.sim.scheduler;
+
+import edu.hm.cs.bess.streamsim.sim.StreamSimulator;
+import edu.hm.cs.bess.streamsim.sim.scheduler.exception.EventExecutionException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @author Benjamin Eder
+ */
+public class OptimisticParallelSchedulerTest extends AbstractParallelSchedulerTest {
+
+    @Override
+    protected Scheduler createScheduler(int partitions, ForkJoinPool pool) {
+        return new OptimisticParallelScheduler(partitions, OptimisticParallelScheduler.DEFAULT_WINDOW_FACTOR, pool);
+    }
+
+    @Override
+    protected Scheduler createReferenceScheduler(ForkJoinPool pool) {
+        return new ConservativeParallelScheduler(3, pool);
+    }
+
+    @Test
+    public void testRolledBackEventsAreCounted() throws EventExecutionException {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            StreamSimulator simulator = createSimulator(CONFIG_FILE_NAME, createScheduler(8, pool));
+            simulator.runUntil(40);
+
+            OptimisticParallelScheduler scheduler = (OptimisticParallelScheduler) simulator.getScheduler();
+            Assertions.assertTrue(scheduler.getRolledBackEventCount() > 0);
+            Assertions.assertTrue(scheduler.getGlobalVirtualTime() <= scheduler.currentTime());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,175 @@
+package edu.hm.cs.bess.streamsim.sim.scheduler;
+
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.EventKind;
+import edu.hm.cs.bess.streamsim.sim.scheduler.exception.EventExecutionException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Benjamin Eder
+ */
+public abstract class SchedulerTest {
+
+    /**
+     * Create the scheduler to test.
+     *
+     * @param startTime of the scheduler
+     * @return scheduler
+     */
+    abstract Scheduler createScheduler(double startTime);
+
+    @Test
+    public void testOverflowBehavior() throws EventExecutionException {
+        Scheduler scheduler = createScheduler(Double.MAX_VALUE - 5);
+
+        AtomicBoolean secondAlreadyExecuted = new AtomicBoolean(false);
+
+        scheduler.scheduleIn(() -> {
+            Assertions.assertFalse(secondAlreadyExecuted.get());
+        }, 3); // Should be executed first
+        scheduler.scheduleIn(() -> secondAlreadyExecuted.set(true), 10); // Should be executed second
+
+        Assertions.assertEquals(0, scheduler.currentTime());
+
+        scheduler.processNext();
+        scheduler.processNext();
+    }
+
+    @Test
+    public void testDeterministicOrderForCollisions() throws EventExecutionException {
+        Scheduler scheduler = createScheduler(0);
+
+        for (int i = 0; i < 100; i++) {
+            AtomicBoolean secondAlreadyExecuted = new AtomicBoolean(false);
+
+            scheduler.scheduleIn(() -> {
+                Assertions.assertFalse(secondAlreadyExecuted.get());
+            }, 3); // Should be executed first
+            scheduler.scheduleIn(() -> secondAlreadyExecuted.set(true), 3); // Should be executed second
+
+            scheduler.processNext();
+            scheduler.processNext();
+        }
+    }
+
+    @Test
+    public void testClear() throws EventExecutionException {
+        Scheduler scheduler = createScheduler(0);
+
+        scheduler.scheduleIn(Assertions::fail, 10);
+        scheduler.scheduleIn(Assertions::fail, 20);
+        scheduler.scheduleIn(Assertions::fail, 30);
+
+        scheduler.clear();
+
+        scheduler.processNext();
+    }
+
+    @Test
+    public void testSchedule() throws EventExecutionException {
+        Scheduler scheduler = createScheduler(0);
+
+        AtomicInteger testCounter = new AtomicInteger(3);
+
+        scheduler.scheduleIn(testCounter::decrementAndGet, 10);
+        scheduler.scheduleIn(() -> Assertions.assertEquals(testCounter.get(), 2), 20);
+        scheduler.scheduleIn(testCounter::decrementAndGet, 30);
+        scheduler.scheduleIn(() -> Assertions.assertEquals(testCounter.get(), 1), 40);
+        scheduler.scheduleIn(testCounter::decrementAndGet, 50);
+        scheduler.scheduleIn(() -> Assertions.assertEquals(testCounter.get(), 0), 60);
+
+        boolean processed = scheduler.processNext();
+        Assertions.assertEquals(scheduler.currentTime(), 10);
+        while (processed) {
+            processed = scheduler.processNext();
+        }
+    }
+
+    @Test
+    public void testScheduledTimeNeedsToBeInTheFuture() throws EventExecutionException {
+        Scheduler scheduler = createScheduler(0);
+
+        scheduler.scheduleIn(() -> {
+        }, 0);
+        scheduler.processNext();
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> scheduler.scheduleIn(Assertions::fail, -1));
+    }
+
+    @Test
+    public void testProcessesEventsInTimestampOrder() throws EventExecutionException {
+        Scheduler scheduler = createScheduler(0);
+        Random rng = new Random(42);
+
+        AtomicInteger processed = new AtomicInteger();
+        int eventCount = 10000;
+        for (int i = 0; i < eventCount; i++) {
+            double relativeTime = i % 3 == 0 ? rng.nextDouble() * 1000 : rng.nextDouble();
+            scheduler.scheduleIn(() -> {
+                Assertions.assertEquals(relativeTime, scheduler.currentTime());
+                processed.incrementAndGet();
+            }, relativeTime);
+        }
+
+        double lastTime = 0;
+        while (scheduler.processNext()) {
+            Assertions.assertTrue(scheduler.currentTime() >= lastTime);
+            lastTime = scheduler.currentTime();
+        }
+
+        Assertions.assertEquals(eventCount, processed.get());
+    }
+
+    @Test
+    public void testTypedEventsAreDispatched() throws EventExecutionException {
+        Scheduler scheduler = createScheduler(0);
+
+        List<String> dispatched = new ArrayList<>();
+        scheduler.setEventDispatcher((kind, payload) -> dispatched.add(kind + ":" + payload + "@" + scheduler.currentTime()));
+
+        scheduler.scheduleIn(EventKind.MOVE, 7, 2);
+        scheduler.scheduleIn(EventKind.SPAWN, 3, 1);
+        scheduler.scheduleIn(() -> dispatched.add("HANDLER@" + scheduler.currentTime()), 3);
+
+        while (scheduler.processNext()) {
+            // Process all events
+        }
+
+        Assertions.assertEquals(List.of("SPAWN:3@1.0", "MOVE:7@2.0", "HANDLER@3.0"), dispatched);
+    }
+
+    @Test
+    public void testTypedEventWithoutDispatcherFails() {
+        Scheduler scheduler = createScheduler(0);
+
+        scheduler.scheduleIn(EventKind.MOVE, 0, 1);
+
+        Assertions.assertThrows(EventExecutionException.class, scheduler::processNext);
+    }
+
+    @Test
+    public void testPeekNextTimestamp() throws EventExecutionException {
+        Scheduler scheduler = createScheduler(0);
+
+        Assertions.assertEquals(-1, scheduler.peekNextTimestamp(-1));
+        Assertions.assertTrue(scheduler.peekNextTimestamp().isEmpty());
+
+        scheduler.scheduleIn(() -> {
+        }, 5);
+        scheduler.scheduleIn(() -> {
+        }, 2);
+
+        Assertions.assertEquals(2, scheduler.peekNextTimestamp(-1));
+        Assertions.assertEquals(2, scheduler.peekNextTimestamp().orElseThrow());
+
+        scheduler.processNext();
+        Assertions.assertEquals(5, scheduler.peekNextTimestamp(-1));
+    }
+
+}
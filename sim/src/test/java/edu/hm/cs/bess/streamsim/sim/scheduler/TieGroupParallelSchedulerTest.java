@@ -0,0 +1,99 @@
+package edu.hm.cs.bess.streamsim.sim.scheduler;
+
+import edu.hm.cs.bess.streamsim.sim.StreamSimulator;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.EventDispatcher;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.EventKind;
+import edu.hm.cs.bess.streamsim.sim.scheduler.exception.EventExecutionException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @author Benjamin Eder
+ */
+public class TieGroupParallelSchedulerTest extends AbstractParallelSchedulerTest {
+
+    /**
+     * Configuration without simultaneous moves as the sources spawn at different rates
+     * and every person has its own (normally distributed) speed.
+     */
+    private static final String TIE_FREE_CONFIG_FILE_NAME = "TwoDoorsNormSpeedTestConfig.json";
+
+    @Override
+    protected Scheduler createScheduler(int partitions, ForkJoinPool pool) {
+        return new TieGroupParallelScheduler(pool);
+    }
+
+    @Test
+    public void testReevaluationsAreIndependentOfParallelism() throws EventExecutionException {
+        ForkJoinPool sequentialPool = new ForkJoinPool(1);
+        ForkJoinPool parallelPool = new ForkJoinPool(4);
+        try {
+            StreamSimulator reference = createSimulator(CONFIG_FILE_NAME, createScheduler(1, sequentialPool));
+            reference.runUntil(40);
+
+            StreamSimulator simulator = createSimulator(CONFIG_FILE_NAME, createScheduler(1, parallelPool));
+            simulator.runUntil(40);
+
+            Assertions.assertEquals(getPeopleLocations(reference.getCurrentState()), getPeopleLocations(simulator.getCurrentState()));
+            Assertions.assertEquals(
+                    ((TieGroupParallelScheduler) reference.getScheduler()).getReevaluationCount(),
+                    ((TieGroupParallelScheduler) simulator.getScheduler()).getReevaluationCount()
+            );
+        } finally {
+            sequentialPool.shutdown();
+            parallelPool.shutdown();
+        }
+    }
+
+    @Test
+    public void testSimulationEqualsEventDrivenSimulationWithoutTies() throws EventExecutionException {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Assertions.assertEquals(
+                    getPeopleLocationsAt(TIE_FREE_CONFIG_FILE_NAME, new EventDrivenScheduler(), 40),
+                    getPeopleLocationsAt(TIE_FREE_CONFIG_FILE_NAME, createScheduler(1, pool), 40)
+            );
+
+            MoveTimestampRecordingScheduler reference = new MoveTimestampRecordingScheduler();
+            createSimulator(TIE_FREE_CONFIG_FILE_NAME, reference).runUntil(Double.POSITIVE_INFINITY);
+            StreamSimulator simulator = createSimulator(TIE_FREE_CONFIG_FILE_NAME, createScheduler(1, pool));
+            simulator.runUntil(Double.POSITIVE_INFINITY);
+
+            Assertions.assertFalse(reference.hasTies(), "Workload is expected to be free of simultaneous moves");
+            Assertions.assertEquals(reference.currentTime(), simulator.getScheduler().currentTime());
+            Assertions.assertEquals(0, ((TieGroupParallelScheduler) simulator.getScheduler()).getReevaluationCount());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Event-driven scheduler recording whether multiple moves have been processed at the same timestamp.
+     */
+    private static class MoveTimestampRecordingScheduler extends EventDrivenScheduler {
+
+        final Set<Double> moveTimestamps = new HashSet<>();
+        int moveCount;
+
+        @Override
+        public void setEventDispatcher(EventDispatcher dispatcher) {
+            super.setEventDispatcher((kind, payload) -> {
+                if (kind == EventKind.MOVE) {
+                    moveTimestamps.add(currentTime());
+                    moveCount++;
+                }
+                dispatcher.dispatch(kind, payload);
+            });
+        }
+
+        boolean hasTies() {
+            return moveTimestamps.size() < moveCount;
+        }
+
+    }
+
+}
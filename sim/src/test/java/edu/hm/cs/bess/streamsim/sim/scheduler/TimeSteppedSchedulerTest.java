@@ -0,0 +1,178 @@
+package edu.hm.cs.bess.streamsim.sim.scheduler;
+
+import edu.hm.cs.bess.streamsim.sim.AbstractSimulationTest;
+import edu.hm.cs.bess.streamsim.sim.StreamSimulator;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.EventKind;
+import edu.hm.cs.bess.streamsim.sim.scheduler.event.SplittableEventDispatcher;
+import edu.hm.cs.bess.streamsim.sim.scheduler.exception.EventExecutionException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Benjamin Eder
+ */
+public class TimeSteppedSchedulerTest extends AbstractSimulationTest {
+
+    private static final String CONFIG_FILE_NAME = "TwoDoorsTestConfig.json";
+
+    @Test
+    public void testEventsOfTickAreProcessedTogether() throws EventExecutionException {
+        TimeSteppedScheduler scheduler = new TimeSteppedScheduler(1.0, ForkJoinPool.commonPool());
+
+        AtomicInteger counter = new AtomicInteger();
+        scheduler.scheduleIn(counter::incrementAndGet, 0.2);
+        scheduler.scheduleIn(counter::incrementAndGet, 0.7);
+        scheduler.scheduleIn(counter::incrementAndGet, 1.0);
+        scheduler.scheduleIn(counter::incrementAndGet, 1.5);
+
+        Assertions.assertTrue(scheduler.processNext());
+        Assertions.assertEquals(3, counter.get());
+        Assertions.assertEquals(1.0, scheduler.currentTime());
+
+        Assertions.assertTrue(scheduler.processNext());
+        Assertions.assertEquals(4, counter.get());
+        Assertions.assertEquals(2.0, scheduler.currentTime());
+
+        Assertions.assertFalse(scheduler.processNext());
+    }
+
+    @Test
+    public void testEvaluationPrecedesCommit() throws EventExecutionException {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            TimeSteppedScheduler scheduler = new TimeSteppedScheduler(1.0, pool);
+            RecordingDispatcher dispatcher = new RecordingDispatcher();
+            scheduler.setEventDispatcher(dispatcher);
+
+            for (int i = 0; i < 1000; i++) {
+                scheduler.scheduleIn(EventKind.MOVE, i, 0.5);
+            }
+            scheduler.scheduleIn(EventKind.SPAWN, -1, 0.5);
+
+            Assertions.assertTrue(scheduler.processNext());
+            Assertions.assertEquals(1000, dispatcher.evaluationsBeforeFirstCommit);
+            Assertions.assertEquals(1000, dispatcher.commits.size());
+            Assertions.assertEquals(1, dispatcher.dispatches.get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testCommitOrderIsSeeded() throws EventExecutionException {
+        List<Integer> first = commitOrder(42);
+        List<Integer> second = commitOrder(42);
+        List<Integer> other = commitOrder(43);
+
+        Assertions.assertEquals(first, second);
+        Assertions.assertNotEquals(first, other);
+    }
+
+    @Test
+    public void testCommitsMayScheduleEventsForCurrentTick() throws EventExecutionException {
+        TimeSteppedScheduler scheduler = new TimeSteppedScheduler(1.0, ForkJoinPool.commonPool());
+        RecordingDispatcher dispatcher = new RecordingDispatcher() {
+            @Override
+            public void commit(EventKind kind, int payload, int evaluation) {
+                super.commit(kind, payload, evaluation);
+                if (payload == 0) {
+                    scheduler.scheduleIn(EventKind.MOVE, 1, 0);
+                }
+            }
+        };
+        scheduler.setEventDispatcher(dispatcher);
+
+        scheduler.scheduleIn(EventKind.MOVE, 0, 0.5);
+
+        Assertions.assertTrue(scheduler.processNext());
+        Assertions.assertEquals(List.of(0, 1), dispatcher.commits);
+        Assertions.assertFalse(scheduler.processNext());
+    }
+
+    @Test
+    public void testSimulationRunsToEnd() throws EventExecutionException {
+        StreamSimulator simulator = createSimulator(ForkJoinPool.commonPool());
+
+        Assertions.assertEquals(StreamSimulator.StopReason.END, simulator.runUntil(Double.POSITIVE_INFINITY));
+        Assertions.assertEquals(0, simulator.getPeopleCount());
+    }
+
+    @Test
+    public void testSimulationIsIndependentOfParallelism() throws EventExecutionException {
+        ForkJoinPool sequentialPool = new ForkJoinPool(1);
+        ForkJoinPool parallelPool = new ForkJoinPool(4);
+        try {
+            StreamSimulator sequential = createSimulator(sequentialPool);
+            sequential.runUntil(Double.POSITIVE_INFINITY);
+
+            StreamSimulator parallel = createSimulator(parallelPool);
+            parallel.runUntil(Double.POSITIVE_INFINITY);
+
+            Assertions.assertEquals(sequential.getScheduler().currentTime(), parallel.getScheduler().currentTime());
+        } finally {
+            sequentialPool.shutdown();
+            parallelPool.shutdown();
+        }
+    }
+
+    private List<Integer> commitOrder(long seed) throws EventExecutionException {
+        TimeSteppedScheduler scheduler = new TimeSteppedScheduler(1.0, ForkJoinPool.commonPool());
+        RecordingDispatcher dispatcher = new RecordingDispatcher();
+        scheduler.setEventDispatcher(dispatcher);
+        scheduler.setSeed(seed);
+
+        for (int i = 0; i < 100; i++) {
+            scheduler.scheduleIn(EventKind.MOVE, i, 0.5);
+        }
+        scheduler.processNext();
+
+        return dispatcher.commits;
+    }
+
+    private StreamSimulator createSimulator(ForkJoinPool pool) {
+        return createSimulator(CONFIG_FILE_NAME, new TimeSteppedScheduler(0.1, pool));
+    }
+
+    /**
+     * Dispatcher recording the calls it receives.
+     */
+    private static class RecordingDispatcher implements SplittableEventDispatcher {
+
+        final AtomicInteger evaluations = new AtomicInteger();
+        final AtomicInteger dispatches = new AtomicInteger();
+        final List<Integer> commits = new ArrayList<>();
+        int evaluationsBeforeFirstCommit = -1;
+
+        @Override
+        public void dispatch(EventKind kind, int payload) {
+            dispatches.incrementAndGet();
+        }
+
+        @Override
+        public boolean isSplittable(EventKind kind) {
+            return kind == EventKind.MOVE;
+        }
+
+        @Override
+        public int evaluate(EventKind kind, int payload, double timestamp) {
+            evaluations.incrementAndGet();
+            return payload;
+        }
+
+        @Override
+        public void commit(EventKind kind, int payload, int evaluation) {
+            Assertions.assertEquals(payload, evaluation);
+            if (commits.isEmpty()) {
+                evaluationsBeforeFirstCommit = evaluations.get();
+            }
+            commits.add(payload);
+        }
+
+    }
+
+}
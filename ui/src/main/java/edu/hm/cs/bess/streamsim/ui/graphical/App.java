@@ -11,6 +11,7 @@ import edu.hm.cs.bess.streamsim.sim.model.misc.Location;
 import edu.hm.cs.bess.streamsim.sim.model.object.SimObjectType;
 import edu.hm.cs.bess.streamsim.sim.model.object.source.Source;
 import edu.hm.cs.bess.streamsim.sim.model.state.State;
+import edu.hm.cs.bess.streamsim.sim.model.state.StateChangeBuffer;
 import edu.hm.cs.bess.streamsim.ui.graphical.dialog.create.CreateDialog;
 import edu.hm.cs.bess.streamsim.ui.graphical.stateviz.PaintDescriptor;
 import edu.hm.cs.bess.streamsim.ui.graphical.stateviz.StateVizController;
@@ -19,9 +20,9 @@ import edu.hm.cs.bess.streamsim.ui.graphical.stateviz.StateVizView;
 import edu.hm.cs.bess.streamsim.ui.graphical.timeline.TimeLineController;
 import edu.hm.cs.bess.streamsim.ui.graphical.timeline.TimeLineModel;
 import edu.hm.cs.bess.streamsim.ui.graphical.timeline.TimeLineView;
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.application.Platform;
-import javafx.beans.binding.Bindings;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleBooleanProperty;
@@ -46,6 +47,7 @@ import jfxtras.styles.jmetro.JMetro;
 import jfxtras.styles.jmetro.JMetroStyleClass;
 import jfxtras.styles.jmetro.MDL2IconFont;
 import jfxtras.styles.jmetro.Style;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.io.IOException;
@@ -53,9 +55,6 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -149,29 +148,30 @@ public class App extends Application {
     private StreamSimulator.SimulationLifeCycleEventListener simulationLifeCycleEventListener;
 
     /**
-     * Update listener of the simulation state in case it is running.
+     * Buffer collecting the changed cells of the simulation state in case it is running.
      */
-    private State.StateUpdateListener simulationStateUpdateListener;
+    private StateChangeBuffer simulationStateChangeBuffer;
 
     /**
-     * Statistics change listener.
+     * Timer applying the collected changes of the simulation state once per frame.
      */
-    private StreamSimulator.StatisticsChangeListener statisticsChangeListener;
+    private AnimationTimer simulationStateRepaintTimer;
 
     /**
-     * Currently saved simulation configuration.
+     * Whether changes of the simulation state are currently applied to the state visualization model
+     * (and must thus not be applied back to the simulation state).
      */
-    private SimConfig restoreConfiguration;
+    private boolean applyingSimulationStateChanges;
 
     /**
-     * Lock used for repainting from the simulation thread.
+     * Statistics change listener.
      */
-    private final Lock repaintLock = new ReentrantLock();
+    private StreamSimulator.StatisticsChangeListener statisticsChangeListener;
 
     /**
-     * Condition used to repaint synchronously from the simulation thread.
+     * Currently saved simulation configuration.
      */
-    private final Condition repaintNeeded = repaintLock.newCondition();
+    private SimConfig restoreConfiguration;
 
     /**
      * Output directory for the log files. Defaults to current dir.
@@ -314,12 +314,8 @@ public class App extends Application {
                 styleComboBox.getValue() == Style.LIGHT ? Color.gray(0.9) : Color.gray(0.25),
                 simulatorProperty::get
         );
-        stateVizModel.editingEnabledProperty().bind(
-                Bindings.and(
-                        timeLineModel.playingProperty().not(),
-                        Bindings.createBooleanBinding(() -> simulatorProperty.get() == null || !simulatorProperty.get().isStarted(), simulatorProperty)
-                )
-        ); // Only enable painting if not currently playing
+        stateVizModel.editingEnabledProperty().bind(timeLineModel.playingProperty().not()); // Only enable painting if not currently playing
+        stateVizModel.addCellDescriptorListener(this::applyEditToSimulation); // Paused simulations are edited in place
         stateVizModel.animationTimeProperty().bind(timeLineModel.animationTimeProperty());
         stateVizModel.cellsPerMeterProperty().addListener((observable, oldValue, newValue) -> {
             if (simulatorProperty.get() != null) {
@@ -565,41 +561,17 @@ public class App extends Application {
             return;
         }
 
-        simulationStateUpdateListener = events -> {
-            Runnable repaintFunc = () -> {
-                for (State.UpdateEvent event : events) {
-                    switch (event.getType()) {
-                        case ADDED, CHANGED -> stateVizModel.setCellDescription(new CellDescriptor(event.getNewOccupant().getType().getID(), event.getLocation(), null));
-                        case REMOVED -> stateVizModel.removeCellDescription(event.getLocation());
-                    }
-                }
-            };
-
-            if (Platform.isFxApplicationThread()) {
-                repaintFunc.run();
-            } else {
-                repaintLock.lock();
-                try {
-                    Platform.runLater(() -> {
-                        repaintFunc.run();
-
-                        repaintLock.lock();
-                        try {
-                            repaintNeeded.signal();
-                        } finally {
-                            repaintLock.unlock();
-                        }
-                    });
-
-                    repaintNeeded.await();
-                } catch (InterruptedException e) {
-                    // Will only happen when pausing.
-                } finally {
-                    repaintLock.unlock();
-                }
+        // Changes are pulled once per frame, thus the simulation never waits for the visualization
+        State state = simulator.getCurrentState();
+        StateChangeBuffer changeBuffer = state.createChangeBuffer();
+        simulationStateChangeBuffer = changeBuffer;
+        simulationStateRepaintTimer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                changeBuffer.drainChanges(index -> showSimulationStateCell(state, index));
             }
         };
-        simulator.getCurrentState().addUpdateListener(simulationStateUpdateListener);
+        simulationStateRepaintTimer.start();
 
         simulationLifeCycleEventListener = new StreamSimulator.SimulationLifeCycleEventListener() {
             @Override
@@ -644,6 +616,71 @@ public class App extends Application {
         simulator.addStatisticsChangeListener(statisticsChangeListener);
     }
 
+    /**
+     * Show the cell with the passed index of the passed simulation state in the state visualization.
+     *
+     * @param state of the simulation
+     * @param index of the cell
+     */
+    private void showSimulationStateCell(State state, int index) {
+        applyingSimulationStateChanges = true;
+        try {
+            byte typeID = state.typeAt(index);
+            if (typeID == State.EMPTY) {
+                stateVizModel.removeCellDescription(state.locationOf(index));
+            } else {
+                stateVizModel.setCellDescription(new CellDescriptor(typeID, state.locationOf(index), null));
+            }
+        } finally {
+            applyingSimulationStateChanges = false;
+        }
+    }
+
+    /**
+     * Apply a cell edited in the state visualization to the simulation state in case the simulation is paused,
+     * so that obstacles, targets and light barriers may be changed mid-run (see {@link StreamSimulator#updateLayout(int...)}).
+     * People and sources cannot be changed in a paused simulation, such edits are reverted.
+     *
+     * @param oldValue the old cell descriptor
+     * @param newValue the new cell descriptor
+     */
+    private void applyEditToSimulation(@Nullable CellDescriptor oldValue, @Nullable CellDescriptor newValue) {
+        StreamSimulator simulator = simulatorProperty.get();
+        if (applyingSimulationStateChanges || simulator == null || !simulator.isStarted() || simulator.isRunning()) {
+            return;
+        }
+
+        State state = simulator.getCurrentState();
+        Location location = newValue != null ? newValue.getLocation() : oldValue.getLocation();
+        int index = state.indexOf(location);
+
+        if (isPersonOrSource(oldValue) || isPersonOrSource(newValue)) {
+            LOGGER.log(Level.WARNING, "People and sources cannot be changed in a paused simulation, reset it instead");
+            showSimulationStateCell(state, index);
+            return;
+        }
+
+        state.removeOccupant(location);
+        if (newValue != null) {
+            state.setCellOccupant(CellDescriptor.createSimObject(newValue), location);
+        }
+
+        simulator.updateLayout(index);
+
+        displayPotentialInStateViz();
+    }
+
+    /**
+     * Check whether the passed cell descriptor describes a person or a source.
+     *
+     * @param cellDescriptor to check (or null)
+     * @return whether a person or a source
+     */
+    private static boolean isPersonOrSource(@Nullable CellDescriptor cellDescriptor) {
+        return cellDescriptor != null
+                && (cellDescriptor.getTypeID() == SimObjectType.PERSON.getID() || cellDescriptor.getTypeID() == SimObjectType.SOURCE.getID());
+    }
+
     /**
      * Detach simulator listeners.
      */
@@ -653,8 +690,12 @@ public class App extends Application {
             return;
         }
 
-        if (simulationStateUpdateListener != null) {
-            simulator.getCurrentState().removeUpdateListener(simulationStateUpdateListener);
+        if (simulationStateChangeBuffer != null) {
+            simulationStateRepaintTimer.stop();
+            simulator.getCurrentState().removeChangeBuffer(simulationStateChangeBuffer);
+
+            simulationStateRepaintTimer = null;
+            simulationStateChangeBuffer = null;
         }
 
         if (simulationLifeCycleEventListener != null) {
@@ -839,11 +839,11 @@ public class StateVizView {
                                 mollifierStrengthSpinner.setMaxWidth(Double.MAX_VALUE);
 
                                 radiusSpinner.valueProperty().addListener((observable1, oldValue1, newValue1)
-                                        -> currentMoveStrategy.set(new EuclideanMoveStrategy(new MollifierConfiguration(mollifierRangeSpinner.getValue(), mollifierStrengthSpinner.getValue()), radiusSpinner.getValue())));
+                                        -> currentMoveStrategy.set(StateVizView.withSettingsOf(oldStrategy, new EuclideanMoveStrategy(new MollifierConfiguration(mollifierRangeSpinner.getValue(), mollifierStrengthSpinner.getValue()), radiusSpinner.getValue()))));
                                 mollifierRangeSpinner.valueProperty().addListener((observable1, oldValue1, newValue1)
-                                        -> currentMoveStrategy.set(new EuclideanMoveStrategy(new MollifierConfiguration(mollifierRangeSpinner.getValue(), mollifierStrengthSpinner.getValue()), radiusSpinner.getValue())));
+                                        -> currentMoveStrategy.set(StateVizView.withSettingsOf(oldStrategy, new EuclideanMoveStrategy(new MollifierConfiguration(mollifierRangeSpinner.getValue(), mollifierStrengthSpinner.getValue()), radiusSpinner.getValue()))));
                                 mollifierStrengthSpinner.valueProperty().addListener((observable1, oldValue1, newValue1)
-                                        -> currentMoveStrategy.set(new EuclideanMoveStrategy(new MollifierConfiguration(mollifierRangeSpinner.getValue(), mollifierStrengthSpinner.getValue()), radiusSpinner.getValue())));
+                                        -> currentMoveStrategy.set(StateVizView.withSettingsOf(oldStrategy, new EuclideanMoveStrategy(new MollifierConfiguration(mollifierRangeSpinner.getValue(), mollifierStrengthSpinner.getValue()), radiusSpinner.getValue()))));
 
                                 mollifierSettingsLayout.getChildren().addAll(
                                         new Label("Respect-other-people radius:"),
@@ -876,11 +876,11 @@ public class StateVizView {
                                 mollifierStrengthSpinner.setMaxWidth(Double.MAX_VALUE);
 
                                 radiusSpinner.valueProperty().addListener((observable1, oldValue1, newValue1)
-                                        -> currentMoveStrategy.set(new DijkstraMoveStrategy(new MollifierConfiguration(mollifierRangeSpinner.getValue(), mollifierStrengthSpinner.getValue()), radiusSpinner.getValue())));
+                                        -> currentMoveStrategy.set(StateVizView.withSettingsOf(oldStrategy, new DijkstraMoveStrategy(new MollifierConfiguration(mollifierRangeSpinner.getValue(), mollifierStrengthSpinner.getValue()), radiusSpinner.getValue()))));
                                 mollifierRangeSpinner.valueProperty().addListener((observable1, oldValue1, newValue1)
-                                        -> currentMoveStrategy.set(new DijkstraMoveStrategy(new MollifierConfiguration(mollifierRangeSpinner.getValue(), mollifierStrengthSpinner.getValue()), radiusSpinner.getValue())));
+                                        -> currentMoveStrategy.set(StateVizView.withSettingsOf(oldStrategy, new DijkstraMoveStrategy(new MollifierConfiguration(mollifierRangeSpinner.getValue(), mollifierStrengthSpinner.getValue()), radiusSpinner.getValue()))));
                                 mollifierStrengthSpinner.valueProperty().addListener((observable1, oldValue1, newValue1)
-                                        -> currentMoveStrategy.set(new DijkstraMoveStrategy(new MollifierConfiguration(mollifierRangeSpinner.getValue(), mollifierStrengthSpinner.getValue()), radiusSpinner.getValue())));
+                                        -> currentMoveStrategy.set(StateVizView.withSettingsOf(oldStrategy, new DijkstraMoveStrategy(new MollifierConfiguration(mollifierRangeSpinner.getValue(), mollifierStrengthSpinner.getValue()), radiusSpinner.getValue()))));
 
                                 mollifierSettingsLayout.getChildren().addAll(
                                         new Label("Respect-other-people radius:"),
@@ -913,11 +913,11 @@ public class StateVizView {
                                 mollifierStrengthSpinner.setMaxWidth(Double.MAX_VALUE);
 
                                 radiusSpinner.valueProperty().addListener((observable1, oldValue1, newValue1)
-                                        -> currentMoveStrategy.set(new FastMarchingMethodMovementStrategy(new MollifierConfiguration(mollifierRangeSpinner.getValue(), mollifierStrengthSpinner.getValue()), radiusSpinner.getValue())));
+                                        -> currentMoveStrategy.set(StateVizView.withSettingsOf(oldStrategy, new FastMarchingMethodMovementStrategy(new MollifierConfiguration(mollifierRangeSpinner.getValue(), mollifierStrengthSpinner.getValue()), radiusSpinner.getValue(), oldStrategy.getSolver()))));
                                 mollifierRangeSpinner.valueProperty().addListener((observable1, oldValue1, newValue1)
-                                        -> currentMoveStrategy.set(new FastMarchingMethodMovementStrategy(new MollifierConfiguration(mollifierRangeSpinner.getValue(), mollifierStrengthSpinner.getValue()), radiusSpinner.getValue())));
+                                        -> currentMoveStrategy.set(StateVizView.withSettingsOf(oldStrategy, new FastMarchingMethodMovementStrategy(new MollifierConfiguration(mollifierRangeSpinner.getValue(), mollifierStrengthSpinner.getValue()), radiusSpinner.getValue(), oldStrategy.getSolver()))));
                                 mollifierStrengthSpinner.valueProperty().addListener((observable1, oldValue1, newValue1)
-                                        -> currentMoveStrategy.set(new FastMarchingMethodMovementStrategy(new MollifierConfiguration(mollifierRangeSpinner.getValue(), mollifierStrengthSpinner.getValue()), radiusSpinner.getValue())));
+                                        -> currentMoveStrategy.set(StateVizView.withSettingsOf(oldStrategy, new FastMarchingMethodMovementStrategy(new MollifierConfiguration(mollifierRangeSpinner.getValue(), mollifierStrengthSpinner.getValue()), radiusSpinner.getValue(), oldStrategy.getSolver()))));
 
                                 mollifierSettingsLayout.getChildren().addAll(
                                         new Label("Respect-other-people radius:"),
@@ -1409,6 +1409,21 @@ public class StateVizView {
         return new TextFormatter<>(new IntegerStringConverter(), defaultValue, filter);
     }
 
+    /**
+     * Carry over the settings of the passed old move strategy that are not editable in the source dialog.
+     *
+     * @param oldStrategy to take the settings from
+     * @param newStrategy to apply the settings to
+     * @param <T>         type of the move strategy
+     * @return the new strategy
+     */
+    private static <T extends DefaultMovementStrategy> T withSettingsOf(DefaultMovementStrategy oldStrategy, T newStrategy) {
+        newStrategy.setMergeAdjacentTargets(oldStrategy.isMergeAdjacentTargets());
+        newStrategy.setPotentialStorage(oldStrategy.getPotentialStorage());
+
+        return newStrategy;
+    }
+
     /**
      * Custom list cell to display paint descriptors.
      */